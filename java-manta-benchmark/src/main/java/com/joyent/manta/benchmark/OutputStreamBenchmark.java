@@ -0,0 +1,157 @@
+package com.joyent.manta.benchmark;
+
+import com.joyent.manta.client.MantaClient;
+import com.joyent.manta.client.MantaObjectOutputStream;
+import com.joyent.manta.client.MantaObjectResponse;
+import com.joyent.manta.config.ChainedConfigContext;
+import com.joyent.manta.config.ConfigContext;
+import com.joyent.manta.config.DefaultsConfigContext;
+import com.joyent.manta.config.SystemSettingsConfigContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark that samples the latency of uploading small objects with
+ * {@link MantaClient#putAsOutputStream(String)} and compares it to uploading
+ * the same data with {@link MantaClient#put(String, byte[])}. The difference
+ * between the percentiles of the two is the latency added by opening and
+ * closing a {@link MantaObjectOutputStream}. The Manta account is configured
+ * with the same system properties and environment variables as the client.
+ *
+ * <p>Run it from the assembled jar with:
+ * <code>java -cp java-manta-benchmark-*-jar-with-dependencies.jar
+ * com.joyent.manta.benchmark.OutputStreamBenchmark</code></p>
+ *
+ * @since 2.7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = OutputStreamBenchmark.ITERATIONS, time = 1)
+@Measurement(iterations = OutputStreamBenchmark.ITERATIONS, time = 1)
+@Fork(1)
+public class OutputStreamBenchmark {
+    /**
+     * Number of warmup and measurement iterations.
+     */
+    static final int ITERATIONS = 5;
+
+    /**
+     * Size in bytes of the uploaded objects: 0 bytes to 64 KiB.
+     */
+    @Param({"0", "1024", "65536"})
+    private int size;
+
+    /**
+     * Manta client used to upload the objects.
+     */
+    private MantaClient client;
+
+    /**
+     * Directory that the objects are uploaded to.
+     */
+    private String testDirectory;
+
+    /**
+     * Data of the uploaded objects.
+     */
+    private byte[] data;
+
+    /**
+     * Creates the client and a directory for the uploaded objects.
+     *
+     * @throws IOException thrown when the directory can't be created
+     */
+    @Setup
+    public void setup() throws IOException {
+        final ConfigContext config = new ChainedConfigContext(
+                new DefaultsConfigContext(),
+                new SystemSettingsConfigContext()
+        );
+
+        this.client = new MantaClient(config);
+        this.testDirectory = String.format("%s/stor/benchmark-%s",
+                config.getMantaHomeDirectory(), UUID.randomUUID());
+        this.data = new byte[size];
+        new Random(size).nextBytes(data);
+
+        client.putDirectory(testDirectory);
+    }
+
+    /**
+     * Removes the uploaded objects and closes the client.
+     *
+     * @throws IOException thrown when the directory can't be removed
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try {
+            client.deleteRecursive(testDirectory);
+        } finally {
+            client.closeQuietly();
+        }
+    }
+
+    /**
+     * Uploads an object through an output stream.
+     *
+     * @return response of the upload
+     * @throws IOException thrown when the object can't be uploaded
+     */
+    @Benchmark
+    public MantaObjectResponse outputStream() throws IOException {
+        final MantaObjectOutputStream out = client.putAsOutputStream(testDirectory + "/stream");
+
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+
+        return out.getObjectResponse();
+    }
+
+    /**
+     * Uploads an object from a byte array.
+     *
+     * @return response of the upload
+     * @throws IOException thrown when the object can't be uploaded
+     */
+    @Benchmark
+    public MantaObjectResponse byteArray() throws IOException {
+        return client.put(testDirectory + "/array", data);
+    }
+
+    /**
+     * Entrance to the benchmark.
+     *
+     * @param argv command line arguments (unused)
+     * @throws RunnerException thrown when the benchmark fails
+     */
+    public static void main(final String[] argv) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(OutputStreamBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
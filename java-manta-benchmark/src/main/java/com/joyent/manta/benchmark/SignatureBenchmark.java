@@ -0,0 +1,136 @@
+package com.joyent.manta.benchmark;
+
+import com.joyent.manta.client.MantaSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark that compares the number of HTTP signatures per second that
+ * can be generated with each supported key type using the same signer that
+ * {@link com.joyent.manta.client.MantaClient} uses for requests.
+ *
+ * <p>Run it from the assembled jar with:
+ * <code>java -cp java-manta-benchmark-*-jar-with-dependencies.jar
+ * com.joyent.manta.benchmark.SignatureBenchmark</code></p>
+ *
+ * @since 2.7.2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = SignatureBenchmark.ITERATIONS, time = 1)
+@Measurement(iterations = SignatureBenchmark.ITERATIONS, time = 1)
+@Fork(1)
+public class SignatureBenchmark {
+    /**
+     * Number of warmup and measurement iterations.
+     */
+    static final int ITERATIONS = 5;
+
+    /**
+     * Date header value that is signed.
+     */
+    private static final String DATE = "Fri, 11 Nov 2016 00:00:00 GMT";
+
+    /**
+     * Key type and size to sign with.
+     */
+    @Param({"rsa-2048", "rsa-4096", "ecdsa-256", "ecdsa-384", "ecdsa-521"})
+    private String keyType;
+
+    /**
+     * When true, native code is used to sign with RSA keys.
+     */
+    @Param({"false", "true"})
+    private boolean nativeSignatures;
+
+    /**
+     * Key pair to sign with.
+     */
+    private KeyPair keyPair;
+
+    /**
+     * Signer used by the Manta client. Benchmark state is per thread, so the
+     * signer is never shared between threads.
+     */
+    private MantaSigner signer;
+
+    /**
+     * Generates the key pair and signer for the benchmark.
+     *
+     * @throws Exception thrown when the key pair can't be generated
+     */
+    @Setup
+    public void setup() throws Exception {
+        this.keyPair = generateKeyPair(keyType);
+        this.signer = new MantaSigner(nativeSignatures);
+    }
+
+    /**
+     * Generates an authorization header signature.
+     *
+     * @return authorization header
+     */
+    @Benchmark
+    public String sign() {
+        return signer.createAuthorizationHeader("user", "00:00", keyPair, DATE);
+    }
+
+    /**
+     * Generates a key pair from a key type description.
+     *
+     * @param type algorithm and size separated by a dash
+     * @return new key pair
+     * @throws Exception thrown when the key pair can't be generated
+     */
+    private static KeyPair generateKeyPair(final String type) throws Exception {
+        final String[] parts = type.split("-");
+        final int size = Integer.parseInt(parts[1]);
+
+        switch (parts[0]) {
+            case "rsa":
+                final KeyPairGenerator rsa = KeyPairGenerator.getInstance("RSA");
+                rsa.initialize(size);
+                return rsa.generateKeyPair();
+            case "ecdsa":
+                final KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+                ec.initialize(new ECGenParameterSpec(String.format("secp%dr1", size)));
+                return ec.generateKeyPair();
+            default:
+                throw new NoSuchAlgorithmException(type);
+        }
+    }
+
+    /**
+     * Entrance to the benchmark.
+     *
+     * @param argv command line arguments (unused)
+     * @throws RunnerException thrown when the benchmark fails
+     */
+    public static void main(final String[] argv) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(SignatureBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
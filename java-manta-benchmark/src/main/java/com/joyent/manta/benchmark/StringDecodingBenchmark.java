@@ -0,0 +1,124 @@
+package com.joyent.manta.benchmark;
+
+import com.joyent.manta.client.MantaUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark that compares reading an object's data into a
+ * {@link String} with the {@link java.util.Scanner} based
+ * {@link MantaUtils#inputStreamToString(java.io.InputStream, String)} against
+ * decoding the Content-Length sized array directly, as done by
+ * {@link com.joyent.manta.client.MantaClient#getAsString(String)}.
+ * The data is read from memory so that only the decoding is measured.
+ *
+ * <p>Run it from the assembled jar with:
+ * <code>java -cp java-manta-benchmark-*-jar-with-dependencies.jar
+ * com.joyent.manta.benchmark.StringDecodingBenchmark</code></p>
+ *
+ * @since 2.7.2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = StringDecodingBenchmark.ITERATIONS, time = 1)
+@Measurement(iterations = StringDecodingBenchmark.ITERATIONS, time = 1)
+@Fork(1)
+public class StringDecodingBenchmark {
+    /**
+     * Number of warmup and measurement iterations.
+     */
+    static final int ITERATIONS = 5;
+
+    /**
+     * Characters that the benchmark data is made of.
+     */
+    private static final String ALPHABET =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 \n\u00e9\u2603";
+
+    /**
+     * Size in bytes of the object data being decoded: 1 KiB to 64 MiB.
+     */
+    @Param({"1024", "65536", "1048576", "16777216", "67108864"})
+    private int size;
+
+    /**
+     * UTF-8 encoded object data.
+     */
+    private byte[] data;
+
+    /**
+     * Generates random UTF-8 text of roughly the benchmarked size.
+     */
+    @Setup
+    public void setup() {
+        final Random random = new Random(size);
+        final StringBuilder builder = new StringBuilder(size);
+
+        while (builder.length() < size) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+
+        this.data = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the data using a {@link java.util.Scanner}.
+     *
+     * @return decoded data
+     * @throws IOException thrown when the data can't be read
+     */
+    @Benchmark
+    public String scanner() throws IOException {
+        return MantaUtils.inputStreamToString(new ByteArrayInputStream(data),
+                StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Decodes the data by reading it into an array of the exact size and
+     * decoding the array directly.
+     *
+     * @return decoded data
+     * @throws IOException thrown when the data can't be read
+     */
+    @Benchmark
+    public String preallocated() throws IOException {
+        final byte[] bytes = MantaUtils.inputStreamToBytes(new ByteArrayInputStream(data),
+                (long)data.length);
+        return MantaUtils.decode(ByteBuffer.wrap(bytes), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Entrance to the benchmark.
+     *
+     * @param argv command line arguments (unused)
+     * @throws RunnerException thrown when the benchmark fails
+     */
+    public static void main(final String[] argv) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(StringDecodingBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
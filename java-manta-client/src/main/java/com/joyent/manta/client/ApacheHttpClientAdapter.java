@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+
+/**
+ * {@link CloseableHttpClient} implementation that wraps a client built with
+ * {@link org.apache.http.impl.client.HttpClientBuilder} so that it can be
+ * passed to the Google HTTP Client's
+ * {@link com.google.api.client.http.apache.ApacheHttpTransport}. The transport
+ * writes to the client-level parameters when it is constructed, which the
+ * builder created clients don't support. Those parameters are kept here and
+ * ignored - all client configuration is done through the builder and request
+ * level parameters are still honored by the wrapped client.
+ *
+ * @since 2.7.2
+ */
+@SuppressWarnings("deprecation")
+class ApacheHttpClientAdapter extends CloseableHttpClient {
+    /**
+     * Client that requests are delegated to.
+     */
+    private final CloseableHttpClient wrapped;
+
+    /**
+     * Placeholder client parameters that are written to by the Google HTTP Client.
+     */
+    private final org.apache.http.params.HttpParams params =
+            new org.apache.http.params.BasicHttpParams();
+
+    /**
+     * Creates a new instance that delegates to the passed client.
+     *
+     * @param wrapped client to delegate requests to
+     */
+    ApacheHttpClientAdapter(final CloseableHttpClient wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute(final HttpHost target,
+                                              final HttpRequest request,
+                                              final HttpContext context)
+            throws IOException, ClientProtocolException {
+        return wrapped.execute(target, request, context);
+    }
+
+    @Override
+    public org.apache.http.params.HttpParams getParams() {
+        return params;
+    }
+
+    @Override
+    public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+        return wrapped.getConnectionManager();
+    }
+
+    @Override
+    public void close() throws IOException {
+        wrapped.close();
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * {@link InputStream} implementation that reads the remaining bytes of a
+ * {@link ByteBuffer} without copying them to an intermediate array. The
+ * position of the buffer is advanced as data is read, so callers should pass
+ * a duplicate of buffers that are shared.
+ *
+ * @since 2.7.2
+ */
+class ByteBufferInputStream extends InputStream {
+    /**
+     * Mask used to convert a byte to an unsigned int.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Buffer that data is read from.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Position of the buffer when {@link #mark(int)} was called.
+     */
+    private int mark;
+
+    /**
+     * Creates a new stream that reads the remaining bytes of a buffer.
+     *
+     * @param buffer buffer to read from
+     */
+    ByteBufferInputStream(final ByteBuffer buffer) {
+        this.buffer = Objects.requireNonNull(buffer, "Buffer must be present");
+        this.mark = buffer.position();
+    }
+
+    @Override
+    public int read() {
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+
+        return buffer.get() & BYTE_MASK;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+        Objects.requireNonNull(b, "Byte array must be present");
+
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+
+        final int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) {
+        if (n <= 0) {
+            return 0;
+        }
+
+        final int count = (int)Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + count);
+
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+        mark = buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        buffer.position(mark);
+    }
+}
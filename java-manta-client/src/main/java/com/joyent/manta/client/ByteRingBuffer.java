@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded circular buffer of bytes that passes data from a writing thread to
+ * a reading thread. Writers block only when the buffer is full and readers
+ * block only when it is empty, so that a producer of data and the thread
+ * sending it over the network can run at the same time.
+ *
+ * <p>The buffer can be allocated outside of the Java heap. Closing the buffer
+ * marks the end of the data, and failing it wakes up and fails any blocked
+ * writers, so that a producer doesn't wait forever on a failed upload.</p>
+ *
+ * @since 2.7.2
+ */
+class ByteRingBuffer {
+    /**
+     * View of the buffer used to write data.
+     */
+    private final ByteBuffer writeView;
+
+    /**
+     * View of the buffer used to read data.
+     */
+    private final ByteBuffer readView;
+
+    /**
+     * Size of the buffer in bytes.
+     */
+    private final int capacity;
+
+    /**
+     * Lock guarding the state of the buffer.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Condition signalled when data has been read from the buffer.
+     */
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Condition signalled when data has been written to the buffer or it was closed.
+     */
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * Index of the next byte to read.
+     */
+    private int head;
+
+    /**
+     * Number of bytes in the buffer.
+     */
+    private int count;
+
+    /**
+     * Flag indicating that no more data will be written.
+     */
+    private boolean closed;
+
+    /**
+     * Cause of the failure of the reader or null if it hasn't failed.
+     */
+    private Throwable failure;
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param capacity size of the buffer in bytes
+     * @param direct when true the buffer is allocated outside of the Java heap
+     */
+    ByteRingBuffer(final int capacity, final boolean direct) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+
+        final ByteBuffer buffer;
+
+        if (direct) {
+            buffer = ByteBuffer.allocateDirect(capacity);
+        } else {
+            buffer = ByteBuffer.allocate(capacity);
+        }
+
+        this.capacity = capacity;
+        this.writeView = buffer.duplicate();
+        this.readView = buffer.duplicate();
+    }
+
+    /**
+     * Writes bytes to the buffer, blocking while the buffer is full.
+     *
+     * @param b data to write
+     * @param off offset of the first byte to write
+     * @param len number of bytes to write
+     * @throws IOException thrown when the buffer is closed, the reader failed
+     *                     or the writer was interrupted
+     */
+    void write(final byte[] b, final int off, final int len) throws IOException {
+        int written = 0;
+
+        lock.lock();
+
+        try {
+            while (written < len) {
+                while (count == capacity && failure == null && !closed) {
+                    notFull.await();
+                }
+
+                checkWritable();
+
+                final int tail = (head + count) % capacity;
+                final int chunk = Math.min(len - written, Math.min(capacity - count, capacity - tail));
+
+                writeView.position(tail);
+                writeView.put(b, off + written, chunk);
+
+                count += chunk;
+                written += chunk;
+                notEmpty.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for space in the upload buffer");
+            exception.bytesTransferred = written;
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads bytes from the buffer, blocking while the buffer is empty.
+     *
+     * @param b array to read data into
+     * @param off offset in the array to read data into
+     * @param len maximum number of bytes to read
+     * @return number of bytes read or -1 when the buffer is closed and empty
+     *         or has failed
+     * @throws InterruptedIOException thrown when the reader was interrupted
+     */
+    int read(final byte[] b, final int off, final int len) throws InterruptedIOException {
+        lock.lock();
+
+        try {
+            while (count == 0 && !closed && failure == null) {
+                notEmpty.await();
+            }
+
+            if (count == 0 || failure != null) {
+                return -1;
+            }
+
+            final int chunk = Math.min(len, Math.min(count, capacity - head));
+
+            readView.position(head);
+            readView.get(b, off, chunk);
+
+            head = (head + chunk) % capacity;
+            count -= chunk;
+            notFull.signalAll();
+
+            return chunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for data in the upload buffer");
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until all of the data in the buffer has been read.
+     *
+     * @throws IOException thrown when the reader failed or the writer was interrupted
+     */
+    void awaitDrained() throws IOException {
+        lock.lock();
+
+        try {
+            while (count > 0 && failure == null) {
+                notFull.await();
+            }
+
+            if (failure != null) {
+                throw new IOException("Upload failed before buffered data was sent", failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for the upload buffer to drain");
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the end of the data. Data already in the buffer can still be read.
+     */
+    void close() {
+        lock.lock();
+
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fails the buffer so that blocked and future writers throw an exception.
+     *
+     * @param cause reason the reader stopped reading
+     */
+    void fail(final Throwable cause) {
+        lock.lock();
+
+        try {
+            if (failure == null) {
+                failure = cause;
+            }
+
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of bytes written to the buffer that haven't been read
+     */
+    int size() {
+        lock.lock();
+
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return size of the buffer in bytes
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Throws an exception when data can no longer be written. Must be called
+     * while holding the lock.
+     *
+     * @throws IOException thrown when the buffer is closed or the reader failed
+     */
+    private void checkWritable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Upload failed before buffered data was sent", failure);
+        }
+
+        if (closed) {
+            throw new IOException("Upload buffer is closed");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link HttpRequestExecutor} that keeps a running count of
+ * how many requests were sent over a newly opened connection versus how many
+ * were sent over a connection that was reused from the connection pool. This
+ * allows for verifying that connections are being properly returned to the
+ * pool rather than being discarded after each request. The counts are
+ * exposed through {@link MantaConnectionCounts}.
+ *
+ * @since 2.7.2
+ */
+class ConnectionCountingRequestExecutor extends HttpRequestExecutor {
+    /**
+     * Number of requests sent on a connection that was opened for the request.
+     */
+    private final AtomicLong newConnections = new AtomicLong(0L);
+
+    /**
+     * Number of requests sent on a connection that had already served requests.
+     */
+    private final AtomicLong reusedConnections = new AtomicLong(0L);
+
+    /**
+     * Creates a new instance with the default wait for continue value.
+     */
+    ConnectionCountingRequestExecutor() {
+    }
+
+    @Override
+    protected HttpResponse doSendRequest(final HttpRequest request,
+                                         final HttpClientConnection conn,
+                                         final HttpContext context)
+            throws IOException, HttpException {
+        final HttpConnectionMetrics metrics = conn.getMetrics();
+
+        if (metrics != null) {
+            if (metrics.getRequestCount() == 0L) {
+                newConnections.incrementAndGet();
+            } else {
+                reusedConnections.incrementAndGet();
+            }
+        }
+
+        return super.doSendRequest(request, conn, context);
+    }
+
+    /**
+     * @return number of requests that were sent over a newly opened connection
+     */
+    long getNewConnectionCount() {
+        return newConnections.get();
+    }
+
+    /**
+     * @return number of requests that were sent over a pooled connection
+     */
+    long getReusedConnectionCount() {
+        return reusedConnections.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionCountingRequestExecutor{"
+                + "newConnections=" + newConnections.get()
+                + ", reusedConnections=" + reusedConnections.get()
+                + '}';
+    }
+}
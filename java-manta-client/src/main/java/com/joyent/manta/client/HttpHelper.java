@@ -47,6 +47,15 @@ public class HttpHelper {
      */
     private final HttpRequestFactory httpRequestFactory;
 
+    /**
+     * Cache of object metadata that is invalidated by PUT requests or null if disabled.
+     */
+    private final MantaMetadataCache metadataCache;
+
+    /**
+     * Cache of object data that is invalidated by PUT requests or null if disabled.
+     */
+    private final MantaBodyCache bodyCache;
 
     /**
      * Creates a new instance of the helper class.
@@ -56,8 +65,27 @@ public class HttpHelper {
      */
     public HttpHelper(final String url,
                       final HttpRequestFactory httpRequestFactory) {
+        this(url, httpRequestFactory, null, null);
+    }
+
+
+    /**
+     * Creates a new instance of the helper class that invalidates cached
+     * metadata and data of the objects that it writes.
+     *
+     * @param url base Manta URL
+     * @param httpRequestFactory request creation class
+     * @param metadataCache cache of object metadata or null if disabled
+     * @param bodyCache cache of object data or null if disabled
+     */
+    public HttpHelper(final String url,
+                      final HttpRequestFactory httpRequestFactory,
+                      final MantaMetadataCache metadataCache,
+                      final MantaBodyCache bodyCache) {
         this.url = url;
         this.httpRequestFactory = httpRequestFactory;
+        this.metadataCache = metadataCache;
+        this.bodyCache = bodyCache;
     }
 
 
@@ -86,13 +114,7 @@ public class HttpHelper {
         } catch (IOException | UncheckedIOException e) {
             throw buildException(e, request, response);
         } finally {
-            if (response != null) {
-                try {
-                    response.disconnect();
-                } catch (IOException e) {
-                    LOG.warn("Problem disconnecting response resource", e);
-                }
-            }
+            releaseResponse(response);
         }
     }
 
@@ -261,7 +283,28 @@ public class HttpHelper {
                                           final MantaMetadata metadata)
             throws IOException {
         final GenericUrl genericUrl = new GenericUrl(this.url + formatPath(path));
-        return httpPut(genericUrl, headers, content, metadata);
+
+        try {
+            return httpPut(genericUrl, headers, content, metadata);
+        } finally {
+            invalidateCaches(path);
+        }
+    }
+
+
+    /**
+     * Removes the cached metadata and data of an object that has been written to.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     */
+    protected void invalidateCaches(final String path) {
+        if (metadataCache != null) {
+            metadataCache.invalidate(path);
+        }
+
+        if (bodyCache != null) {
+            bodyCache.invalidate(path);
+        }
     }
 
 
@@ -318,13 +361,7 @@ public class HttpHelper {
         } catch (IOException | UncheckedIOException e) {
             throw buildException(e, request, response);
         } finally {
-            if (response != null) {
-                try {
-                    response.disconnect();
-                } catch (IOException e) {
-                    LOG.warn("Problem disconnecting response resource", e);
-                }
-            }
+            releaseResponse(response);
         }
     }
 
@@ -379,13 +416,7 @@ public class HttpHelper {
         } catch (IOException | UncheckedIOException e) {
             throw buildException(e, request, response);
         } finally {
-            if (response != null) {
-                try {
-                    response.disconnect();
-                } catch (IOException e) {
-                    LOG.warn("Problem disconnecting response resource", e);
-                }
-            }
+            releaseResponse(response);
         }
     }
 
@@ -419,12 +450,33 @@ public class HttpHelper {
         } catch (IOException | UncheckedIOException e) {
             throw buildException(e, request, response);
         } finally {
-            if (response != null) {
-                try {
-                    response.disconnect();
-                } catch (IOException e) {
-                    LOG.warn("Problem disconnecting response resource", e);
-                }
+            releaseResponse(response);
+        }
+    }
+
+    /**
+     * Releases a response whose body is no longer needed. Rather than aborting
+     * the request, which throws away the underlying connection, we consume
+     * whatever is left of the body so that the connection is returned to the
+     * connection pool and can be reused by the next request. If that fails,
+     * we fall back to disconnecting.
+     *
+     * @param response response to release or null
+     */
+    protected void releaseResponse(final HttpResponse response) {
+        if (response == null) {
+            return;
+        }
+
+        try {
+            response.ignore();
+        } catch (IOException e) {
+            LOG.debug("Unable to release response resource, disconnecting", e);
+
+            try {
+                response.disconnect();
+            } catch (IOException de) {
+                LOG.warn("Problem disconnecting response resource", de);
             }
         }
     }
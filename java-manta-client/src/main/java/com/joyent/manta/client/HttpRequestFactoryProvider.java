@@ -3,7 +3,6 @@
  */
 package com.joyent.manta.client;
 
-import com.google.api.client.http.HttpExecuteInterceptor;
 import com.google.api.client.http.HttpIOExceptionHandler;
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpRequestInitializer;
@@ -20,13 +19,27 @@ import com.joyent.manta.config.ConfigContext;
 import com.joyent.manta.config.DefaultsConfigContext;
 import com.joyent.manta.config.MapConfigContext;
 import org.apache.http.client.HttpClient;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
 import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.pool.PoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.ProxySelector;
+import java.util.concurrent.TimeUnit;
 
 import static com.joyent.manta.config.MapConfigContext.MANTA_NO_NATIVE_SIGS_KEY;
 
@@ -44,52 +57,63 @@ public class HttpRequestFactoryProvider implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(HttpRequestFactoryProvider.class);
 
     /**
-     * The size of the internal socket buffer used to buffer data
-     * while receiving / transmitting HTTP messages.
+     * The JSON factory instance used by the http library for handling JSON.
      */
-    private static final int SOCKET_BUFFER_SIZE = 8192;
+    private static final JsonFactory JSON_FACTORY = new JacksonFactory();
 
     /**
-     * Default port to connect to for HTTP connections outbound.
+     * Google HTTP Client request factory.
      */
-    private static final int HTTP_PORT = 80;
+    private final HttpRequestFactory requestFactory;
 
     /**
-     * Default port to connect to for HTTPS connections outbound.
+     * Library configuration context reference.
      */
-    private static final int HTTPS_PORT = 443;
+    private final ConfigContext config;
 
     /**
-     * The JSON factory instance used by the http library for handling JSON.
+     * Interceptor that signs requests.
      */
-    private static final JsonFactory JSON_FACTORY = new JacksonFactory();
+    private final SigningInterceptor signingInterceptor;
 
     /**
-     * Apache HTTP Client 4.1 method of configuration HTTP Clients.
+     * Request executor that counts new and reused pooled connections.
      */
-    @SuppressWarnings("deprecation")
-    private static final org.apache.http.params.HttpParams HTTP_PARAMS =
-            buildHttpParams();
+    private final ConnectionCountingRequestExecutor requestExecutor =
+            new ConnectionCountingRequestExecutor();
 
     /**
-     * Google HTTP Client request factory.
+     * Connection pool of the Apache HTTP Client or null when another
+     * transport is in use. Set once while the request factory is built.
      */
-    private final HttpRequestFactory requestFactory;
+    private PoolingHttpClientConnectionManager connectionPool;
 
     /**
-     * Library configuration context reference.
+     * Creates a new instance of class configured using the passed
+     * {@link RequestHttpSigner}.
+     *
+     * @param httpSigner HTTP Signer used to sign Google HTTP requests
+     * @param config library configuration context reference
+     * @throws IOException thrown when the instance can't be setup properly
      */
-    private final ConfigContext config;
+    public HttpRequestFactoryProvider(final RequestHttpSigner httpSigner,
+                                      final ConfigContext config)
+            throws IOException {
+        this(httpSigner, new SignerPool(config), config);
+    }
 
     /**
      * Creates a new instance of class configured using the passed
-     * {@link RequestHttpSigner}.
+     * {@link RequestHttpSigner} that signs requests with signers borrowed
+     * from the passed pool.
      *
-     * @param httpSigner HTTP Signer used to sign Google HTTP requests
+     * @param httpSigner HTTP Signer providing the key and identity used to sign requests
+     * @param signerPool pool of signers used to sign requests
      * @param config library configuration context reference
      * @throws IOException thrown when the instance can't be setup properly
      */
     public HttpRequestFactoryProvider(final RequestHttpSigner httpSigner,
+                                      final SignerPool signerPool,
                                       final ConfigContext config)
             throws IOException {
         this.config = config;
@@ -102,25 +126,75 @@ public class HttpRequestFactoryProvider implements AutoCloseable {
             System.setProperty(MapConfigContext.MANTA_NO_NATIVE_SIGS_KEY, "false");
         }
 
-        this.requestFactory = buildRequestFactory(httpSigner);
+        this.signingInterceptor = new SigningInterceptor(config, httpSigner, signerPool);
+        this.requestFactory = buildRequestFactory();
     }
 
     /**
-     * Creates the parameters used to configure the Apache HTTP Client.
+     * Creates and configures the connection manager used to pool the
+     * connections of the Apache HTTP Client.
      *
-     * @return Configuration parameters object
+     * @return a configured instance of {@link PoolingHttpClientConnectionManager}
      */
-    @SuppressWarnings("deprecation")
-    private static org.apache.http.params.HttpParams buildHttpParams() {
-        final org.apache.http.params.HttpParams params =
-                new org.apache.http.params.BasicHttpParams();
-        // Turn off stale checking. Our connections break all the time anyway,
-        // and it's not worth it to pay the penalty of checking every time.
-        org.apache.http.params.HttpConnectionParams.setStaleCheckingEnabled(params, false);
-        org.apache.http.params.HttpConnectionParams.setSocketBufferSize(params, SOCKET_BUFFER_SIZE);
-        org.apache.http.params.HttpConnectionParams.setTcpNoDelay(params, true);
-
-        return params;
+    private PoolingHttpClientConnectionManager buildConnectionManager() {
+        // See http://hc.apache.org/httpcomponents-client-ga/tutorial/html/connmgmt.html
+        final Registry<ConnectionSocketFactory> registry =
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", new MantaSSLSocketFactory(config))
+                        .build();
+
+        final DnsResolver resolver = new ShufflingDnsResolver();
+
+        final int timeToLive;
+        if (config.getConnectionTimeToLive() == null) {
+            timeToLive = DefaultsConfigContext.DEFAULT_CONNECTION_TTL;
+        } else {
+            timeToLive = config.getConnectionTimeToLive();
+        }
+
+        final PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(registry, null, null,
+                        resolver, timeToLive, TimeUnit.MILLISECONDS);
+
+        final int maxConns;
+        if (config.getMaximumConnections() == null) {
+            maxConns = DefaultsConfigContext.DEFAULT_MAX_CONNS;
+        } else {
+            maxConns = config.getMaximumConnections();
+        }
+
+        connectionManager.setMaxTotal(maxConns);
+        connectionManager.setDefaultMaxPerRoute(maxConns);
+
+        /* Rather than checking every connection for staleness, we only check
+         * connections that have been idle for a while. This avoids failed
+         * first requests after idle periods without paying the penalty of
+         * checking every time. */
+        final int validateAfterInactivity;
+        if (config.getValidateAfterInactivity() == null) {
+            validateAfterInactivity = DefaultsConfigContext.DEFAULT_VALIDATE_AFTER_INACTIVITY;
+        } else {
+            validateAfterInactivity = config.getValidateAfterInactivity();
+        }
+
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+
+        final int socketBufferSize;
+        if (config.getSocketBufferSize() == null) {
+            socketBufferSize = DefaultsConfigContext.DEFAULT_SOCKET_BUFFER_SIZE;
+        } else {
+            socketBufferSize = config.getSocketBufferSize();
+        }
+
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setBufferSize(socketBufferSize)
+                .build());
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setTcpNoDelay(true)
+                .build());
+
+        return connectionManager;
     }
 
     /**
@@ -128,58 +202,47 @@ public class HttpRequestFactoryProvider implements AutoCloseable {
      *
      * @return a configured instance of {@link HttpClient}
      */
-    @SuppressWarnings("deprecation")
     private HttpClient buildHttpClient() {
-        final org.apache.http.params.HttpParams params = HTTP_PARAMS;
-        final org.apache.http.conn.ssl.SSLSocketFactory socketFactory =
-                new MantaSSLSocketFactory(config);
-        final org.apache.http.conn.scheme.PlainSocketFactory plainSocketFactory =
-                org.apache.http.conn.scheme.PlainSocketFactory.getSocketFactory();
         final ProxySelector proxySelector = ProxySelector.getDefault();
 
-        // See http://hc.apache.org/httpcomponents-client-ga/tutorial/html/connmgmt.html
-        final org.apache.http.conn.scheme.SchemeRegistry registry =
-                new org.apache.http.conn.scheme.SchemeRegistry();
-        registry.register(new org.apache.http.conn.scheme.Scheme(
-                "http", HTTP_PORT, plainSocketFactory));
-        registry.register(new org.apache.http.conn.scheme.Scheme(
-                "https", HTTPS_PORT, socketFactory));
-
+        /* Redirects and content decompression are handled by the Google HTTP
+         * Client, so we disable them here. */
+        this.connectionPool = buildConnectionManager();
 
-        final DnsResolver resolver = new ShufflingDnsResolver();
-        final org.apache.http.impl.conn.PoolingClientConnectionManager connectionManager =
-                new org.apache.http.impl.conn.PoolingClientConnectionManager(registry, resolver);
+        final HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionPool)
+                .setRequestExecutor(requestExecutor)
+                .disableRedirectHandling()
+                .disableContentCompression()
+                .evictExpiredConnections();
 
-        final int maxConns;
-        if (config.getMaximumConnections() == null) {
-            maxConns = DefaultsConfigContext.DEFAULT_MAX_CONNS;
+        final int maxIdleTime;
+        if (config.getMaxIdleTime() == null) {
+            maxIdleTime = DefaultsConfigContext.DEFAULT_MAX_IDLE_TIME;
         } else {
-            maxConns = config.getMaximumConnections();
+            maxIdleTime = config.getMaxIdleTime();
         }
 
-        connectionManager.setMaxTotal(maxConns);
-        connectionManager.setDefaultMaxPerRoute(maxConns);
-
-        final org.apache.http.impl.client.DefaultHttpClient defaultHttpClient =
-                new org.apache.http.impl.client.DefaultHttpClient(connectionManager, params);
+        if (maxIdleTime > 0) {
+            builder.evictIdleConnections((long)maxIdleTime, TimeUnit.MILLISECONDS);
+        }
 
         if (proxySelector != null) {
-            defaultHttpClient.setRoutePlanner(
-                    new org.apache.http.impl.conn.ProxySelectorRoutePlanner(
-                            registry, proxySelector));
+            builder.setRoutePlanner(new SystemDefaultRoutePlanner(proxySelector));
         }
 
-        return defaultHttpClient;
+        final CloseableHttpClient httpClient = builder.build();
+
+        return new ApacheHttpClientAdapter(httpClient);
     }
 
     /**
      * Builds a configured instance of {@link HttpRequestFactory}.
      *
-     * @param httpSigner HTTP Signer used to sign Google HTTP requests or null to disable
      * @return configured instance of {@link HttpRequestFactory}
      * @throws IOException thrown when the instance can't be setup properly
      */
-    private HttpRequestFactory buildRequestFactory(final RequestHttpSigner httpSigner)
+    private HttpRequestFactory buildRequestFactory()
             throws IOException {
         final HttpTransport transport;
 
@@ -208,9 +271,6 @@ public class HttpRequestFactoryProvider implements AutoCloseable {
             LOG.debug("Native libgmp enabled: {}", nativeGMP);
         }
 
-        final HttpExecuteInterceptor signingInterceptor =
-                new SigningInterceptor(config, httpSigner);
-
         final HttpResponseInterceptor responseInterceptor = response -> MDC.remove("mantaRequestId");
 
         final HttpIOExceptionHandler exceptionHandler = new MantaIOExceptionHandler();
@@ -235,19 +295,38 @@ public class HttpRequestFactoryProvider implements AutoCloseable {
         return requestFactory;
     }
 
-    @SuppressWarnings("deprecation")
+    /**
+     * Snapshot of the connection pool of the Apache HTTP Client and of the
+     * requests sent over new and reused connections. The counts are zero
+     * when another transport is in use.
+     *
+     * @return current connection counts
+     */
+    public MantaConnectionCounts getConnectionCounts() {
+        if (connectionPool == null) {
+            return MantaConnectionCounts.EMPTY;
+        }
+
+        final PoolStats stats = connectionPool.getTotalStats();
+
+        return new MantaConnectionCounts(stats.getLeased(), stats.getAvailable(),
+                stats.getPending(), requestExecutor.getNewConnectionCount(),
+                requestExecutor.getReusedConnectionCount());
+    }
+
     @Override
     public void close() throws Exception {
+        signingInterceptor.close();
+
         final HttpTransport transport = requestFactory.getTransport();
 
-        if (config.getHttpTransport().equals("ApacheHttpTransport")) {
-            // We know this will cast fine because it is configured as such
-            @SuppressWarnings("unchecked")
-            ApacheHttpTransport apacheTransport = (ApacheHttpTransport)transport;
-            HttpClient httpClient = apacheTransport.getHttpClient();
+        if (transport instanceof ApacheHttpTransport) {
+            final HttpClient httpClient = ((ApacheHttpTransport)transport).getHttpClient();
 
-            if (httpClient.getConnectionManager() != null) {
-                httpClient.getConnectionManager().shutdown();
+            /* Closing the client stops the idle connection evictor and shuts
+             * down the connection manager. */
+            if (httpClient instanceof Closeable) {
+                ((Closeable)httpClient).close();
             }
         }
     }
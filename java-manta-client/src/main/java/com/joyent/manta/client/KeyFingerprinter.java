@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.exception.MantaCryptoException;
+import org.apache.commons.lang3.StringUtils;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECPoint;
+import java.util.Base64;
+
+/**
+ * Utility class for calculating the SSH fingerprints of the public key of a
+ * {@link KeyPair}. Fingerprints are calculated over the SSH wire encoding
+ * of the public key in the same way as <code>ssh-keygen -l</code>.
+ *
+ * @since 2.7.2
+ */
+public final class KeyFingerprinter {
+    /**
+     * Prefix used by SHA256 fingerprints.
+     */
+    public static final String SHA256_PREFIX = "SHA256:";
+
+    /**
+     * Prefix that may optionally be used with MD5 fingerprints.
+     */
+    public static final String MD5_PREFIX = "MD5:";
+
+    /**
+     * Byte marking an uncompressed elliptic curve point.
+     */
+    private static final byte UNCOMPRESSED_POINT = 0x04;
+
+    /**
+     * Number of bits in a byte.
+     */
+    private static final int BITS_PER_BYTE = 8;
+
+    /**
+     * Private constructor because this is a utility class.
+     */
+    private KeyFingerprinter() {
+    }
+
+    /**
+     * Calculates the MD5 fingerprint of a key pair's public key in the colon
+     * separated hex format used by Manta for key ids.
+     *
+     * @param keyPair key pair to fingerprint
+     * @return fingerprint such as <code>ab:cd:...</code>
+     */
+    public static String md5Fingerprint(final KeyPair keyPair) {
+        final String hex = Hex.toHexString(digest("MD5", keyPair));
+        final StringBuilder builder = new StringBuilder(hex.length() * 3 / 2);
+
+        for (int i = 0; i < hex.length(); i += 2) {
+            if (i > 0) {
+                builder.append(':');
+            }
+
+            builder.append(hex, i, i + 2);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Calculates the SHA256 fingerprint of a key pair's public key.
+     *
+     * @param keyPair key pair to fingerprint
+     * @return fingerprint such as <code>SHA256:...</code>
+     */
+    public static String sha256Fingerprint(final KeyPair keyPair) {
+        final byte[] digest = digest("SHA-256", keyPair);
+        return SHA256_PREFIX + Base64.getEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    /**
+     * Checks to see if the passed fingerprint in MD5 or SHA256 format
+     * belongs to the public key of the key pair.
+     *
+     * @param keyPair key pair to check
+     * @param fingerprint MD5 or SHA256 fingerprint
+     * @return true if the fingerprint matches
+     */
+    public static boolean verifyFingerprint(final KeyPair keyPair, final String fingerprint) {
+        if (StringUtils.startsWith(fingerprint, SHA256_PREFIX)) {
+            final String expected = StringUtils.stripEnd(fingerprint, "=");
+            return expected.equals(sha256Fingerprint(keyPair));
+        }
+
+        final String md5 = StringUtils.removeStart(fingerprint, MD5_PREFIX);
+        return StringUtils.equalsIgnoreCase(md5, md5Fingerprint(keyPair));
+    }
+
+    /**
+     * Converts a key fingerprint to the MD5 fingerprint that Manta identifies
+     * keys by. SHA256 fingerprints are checked against the key before they
+     * are converted.
+     *
+     * @param keyPair key pair the fingerprint belongs to
+     * @param fingerprint MD5 or SHA256 fingerprint
+     * @return MD5 fingerprint used as the key id
+     * @throws IllegalArgumentException thrown when a SHA256 fingerprint doesn't match the key
+     */
+    public static String mantaKeyId(final KeyPair keyPair, final String fingerprint) {
+        if (!StringUtils.startsWith(fingerprint, SHA256_PREFIX)) {
+            return fingerprint;
+        }
+
+        if (!verifyFingerprint(keyPair, fingerprint)) {
+            throw new IllegalArgumentException(String.format(
+                    "Manta key id [%s] doesn't match the fingerprint of the private key [%s]",
+                    fingerprint, sha256Fingerprint(keyPair)));
+        }
+
+        return md5Fingerprint(keyPair);
+    }
+
+    /**
+     * Digests the SSH wire encoding of a public key.
+     *
+     * @param algorithm message digest algorithm
+     * @param keyPair key pair containing the public key
+     * @return digest bytes
+     */
+    private static byte[] digest(final String algorithm, final KeyPair keyPair) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+            return messageDigest.digest(encode(keyPair.getPublic()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new MantaCryptoException(String.format("Digest algorithm [%s] is unavailable", algorithm), e);
+        }
+    }
+
+    /**
+     * Encodes a public key in the SSH wire format (RFC 4253 and RFC 5656).
+     *
+     * @param publicKey key to encode
+     * @return encoded key
+     */
+    static byte[] encode(final PublicKey publicKey) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (publicKey instanceof RSAPublicKey) {
+                final RSAPublicKey rsa = (RSAPublicKey)publicKey;
+                writeString(out, "ssh-rsa".getBytes(StandardCharsets.US_ASCII));
+                writeString(out, rsa.getPublicExponent().toByteArray());
+                writeString(out, rsa.getModulus().toByteArray());
+            } else if (publicKey instanceof ECPublicKey) {
+                final ECPublicKey ec = (ECPublicKey)publicKey;
+                final String curve = MantaSigner.curveName(ec.getParams());
+                writeString(out, ("ecdsa-sha2-" + curve).getBytes(StandardCharsets.US_ASCII));
+                writeString(out, curve.getBytes(StandardCharsets.US_ASCII));
+                writeString(out, encodePoint(ec));
+            } else {
+                throw new MantaCryptoException(String.format("Unsupported key algorithm: %s",
+                        publicKey.getAlgorithm()));
+            }
+        } catch (IOException e) {
+            throw new MantaCryptoException("Unable to encode public key", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes an elliptic curve public point in uncompressed form.
+     *
+     * @param key public key containing the point
+     * @return encoded point
+     */
+    private static byte[] encodePoint(final ECPublicKey key) {
+        final int fieldBytes = (key.getParams().getCurve().getField().getFieldSize()
+                + BITS_PER_BYTE - 1) / BITS_PER_BYTE;
+        final ECPoint point = key.getW();
+        final byte[] encoded = new byte[1 + fieldBytes * 2];
+        encoded[0] = UNCOMPRESSED_POINT;
+        copyUnsigned(point.getAffineX(), encoded, 1, fieldBytes);
+        copyUnsigned(point.getAffineY(), encoded, 1 + fieldBytes, fieldBytes);
+
+        return encoded;
+    }
+
+    /**
+     * Copies the unsigned big-endian bytes of an integer right aligned into
+     * the destination.
+     *
+     * @param value integer to copy
+     * @param destination array to copy into
+     * @param offset offset into the destination
+     * @param length number of bytes reserved for the value
+     */
+    private static void copyUnsigned(final BigInteger value, final byte[] destination,
+                                     final int offset, final int length) {
+        final byte[] bytes = value.toByteArray();
+        int start = 0;
+
+        // Skip the sign byte
+        while (bytes.length - start > length && bytes[start] == 0) {
+            start++;
+        }
+
+        final int count = bytes.length - start;
+        System.arraycopy(bytes, start, destination, offset + length - count, count);
+    }
+
+    /**
+     * Writes a length prefixed byte string.
+     *
+     * @param out stream to write to
+     * @param value bytes to write
+     * @throws IOException thrown when the stream can't be written to
+     */
+    private static void writeString(final DataOutputStream out, final byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+}
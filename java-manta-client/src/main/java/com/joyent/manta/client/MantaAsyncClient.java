@@ -0,0 +1,838 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponseException;
+import com.joyent.manta.config.ConfigContext;
+import com.joyent.manta.config.DefaultsConfigContext;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.joyent.manta.exception.MantaException;
+import com.joyent.manta.exception.MantaIOException;
+import com.joyent.manta.exception.MantaObjectException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import javax.net.ssl.SSLContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.ProxySelector;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.joyent.manta.client.MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE;
+import static com.joyent.manta.client.MantaUtils.formatPath;
+import static com.joyent.manta.client.MantaUtils.fromCsv;
+
+/**
+ * Manta client that performs object operations asynchronously using a
+ * non-blocking HTTP engine. Each operation returns a {@link CompletableFuture}
+ * immediately and the request is carried out by a small number of I/O
+ * dispatch threads, so that thousands of requests can be in flight without
+ * dedicating a thread to each of them.
+ *
+ * <p>Requests are signed using the same {@link HttpRequestFactoryProvider}
+ * configuration as the blocking {@link MantaClient}. Responses are buffered in
+ * memory, so this client is best suited to metadata operations and small
+ * objects. Failed requests are not retried.</p>
+ *
+ * <p>Callbacks attached to the returned futures using the non-async methods
+ * (e.g. {@link CompletableFuture#thenApply}) are run on the I/O dispatch
+ * threads and therefore should not block. Futures that fail complete with
+ * a {@link MantaIOException} (or a {@link CompletionException} wrapping one)
+ * as the cause.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaAsyncClient implements AutoCloseable {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaAsyncClient.class);
+
+    /**
+     * Maximum number of results to return for a directory listing.
+     */
+    private static final int MAX_RESULTS = 1024;
+
+    /**
+     * HTTP status codes equal to or greater than this value are errors.
+     */
+    private static final int HTTP_STATUSCODE_300 = 300;
+
+    /**
+     * Content type used when creating directories.
+     */
+    private static final String DIRECTORY_REQUEST_CONTENT_TYPE = "application/json; type=directory";
+
+    /**
+     * Blocking client that provides the signing configuration.
+     */
+    private final MantaClient client;
+
+    /**
+     * Flag indicating that the blocking client was created by this instance
+     * and should be closed with it.
+     */
+    private final boolean ownsClient;
+
+    /**
+     * The base URL of the Manta service.
+     */
+    private final String url;
+
+    /**
+     * Request factory used to build and sign requests.
+     */
+    private final HttpRequestFactory requestFactory;
+
+    /**
+     * Non-blocking HTTP client used to execute requests.
+     */
+    private final CloseableHttpAsyncClient httpClient;
+
+    /**
+     * Creates a new instance of the asynchronous Manta client.
+     *
+     * @param config The configuration context that provides all of the configuration values.
+     * @throws IOException If unable to instantiate the client.
+     */
+    public MantaAsyncClient(final ConfigContext config) throws IOException {
+        this(new MantaClient(config), true);
+    }
+
+    /**
+     * Creates a new instance of the asynchronous Manta client that shares its
+     * configuration and request signing with an existing blocking client. The
+     * blocking client is not closed when this instance is closed.
+     *
+     * @param client blocking client to share configuration with
+     * @throws IOException If unable to instantiate the client.
+     */
+    public MantaAsyncClient(final MantaClient client) throws IOException {
+        this(client, false);
+    }
+
+    /**
+     * Creates a new instance of the asynchronous Manta client.
+     *
+     * @param client blocking client to share configuration with
+     * @param ownsClient true if the blocking client should be closed with this instance
+     * @throws IOException If unable to instantiate the client.
+     */
+    private MantaAsyncClient(final MantaClient client, final boolean ownsClient)
+            throws IOException {
+        Objects.requireNonNull(client, "Manta client must be present");
+
+        this.client = client;
+        this.ownsClient = ownsClient;
+        this.url = client.getContext().getMantaURL();
+        this.requestFactory = client.getHttpRequestFactoryProvider().getRequestFactory();
+        this.httpClient = buildHttpClient(client.getContext());
+        this.httpClient.start();
+    }
+
+    /**
+     * Creates and configures a non-blocking Apache HTTP Client.
+     *
+     * @param config configuration context
+     * @return configured client that hasn't been started
+     * @throws IOException thrown when the I/O reactor can't be created
+     */
+    private static CloseableHttpAsyncClient buildHttpClient(final ConfigContext config)
+            throws IOException {
+        final int timeout;
+        if (config.getTimeout() == null) {
+            timeout = DefaultsConfigContext.DEFAULT_HTTP_TIMEOUT;
+        } else {
+            timeout = config.getTimeout();
+        }
+
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout(timeout)
+                .setSoTimeout(timeout)
+                .setTcpNoDelay(true)
+                .build();
+
+        final Registry<SchemeIOSessionStrategy> registry =
+                RegistryBuilder.<SchemeIOSessionStrategy>create()
+                        .register("http", NoopIOSessionStrategy.INSTANCE)
+                        .register("https", buildSSLStrategy(config))
+                        .build();
+
+        final int timeToLive;
+        if (config.getConnectionTimeToLive() == null) {
+            timeToLive = DefaultsConfigContext.DEFAULT_CONNECTION_TTL;
+        } else {
+            timeToLive = config.getConnectionTimeToLive();
+        }
+
+        final PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(
+                        new DefaultConnectingIOReactor(reactorConfig), null, registry,
+                        null, new ShufflingDnsResolver(), timeToLive, TimeUnit.MILLISECONDS);
+
+        final int maxConns;
+        if (config.getMaximumConnections() == null) {
+            maxConns = DefaultsConfigContext.DEFAULT_MAX_CONNS;
+        } else {
+            maxConns = config.getMaximumConnections();
+        }
+
+        connectionManager.setMaxTotal(maxConns);
+        connectionManager.setDefaultMaxPerRoute(maxConns);
+
+        final int socketBufferSize;
+        if (config.getSocketBufferSize() == null) {
+            socketBufferSize = DefaultsConfigContext.DEFAULT_SOCKET_BUFFER_SIZE;
+        } else {
+            socketBufferSize = config.getSocketBufferSize();
+        }
+
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setBufferSize(socketBufferSize)
+                .build());
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .build();
+
+        final HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig);
+
+        final ProxySelector proxySelector = ProxySelector.getDefault();
+
+        if (proxySelector != null) {
+            builder.setRoutePlanner(new SystemDefaultRoutePlanner(proxySelector));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Creates the TLS session strategy limited to the protocols and cipher
+     * suites that are both configured and supported by the JVM.
+     *
+     * @param config configuration context
+     * @return TLS session strategy
+     */
+    private static SSLIOSessionStrategy buildSSLStrategy(final ConfigContext config) {
+        final SSLContext sslContext;
+
+        try {
+            sslContext = SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new MantaException(e);
+        }
+
+        final String[] protocols = supported(config.getHttpsProtocols(),
+                sslContext.getSupportedSSLParameters().getProtocols());
+        final String[] cipherSuites = supported(config.getHttpsCipherSuites(),
+                sslContext.getSupportedSSLParameters().getCipherSuites());
+
+        return new SSLIOSessionStrategy(sslContext, protocols, cipherSuites,
+                SSLIOSessionStrategy.getDefaultHostnameVerifier());
+    }
+
+    /**
+     * Filters a comma separated list of configured values to the values
+     * that are supported.
+     *
+     * @param configured comma separated values or null
+     * @param supported values supported by the JVM
+     * @return supported configured values or null to use the JVM defaults
+     */
+    private static String[] supported(final String configured, final String[] supported) {
+        if (configured == null) {
+            return null;
+        }
+
+        final Set<String> values = new LinkedHashSet<>(fromCsv(configured));
+        values.retainAll(Arrays.asList(supported));
+
+        if (values.isEmpty()) {
+            return null;
+        }
+
+        return values.toArray(new String[values.size()]);
+    }
+
+    /**
+     * Get the metadata associated with a Manta object.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return future that completes with the {@link MantaObjectResponse}
+     */
+    public CompletableFuture<MantaObjectResponse> head(final String path) {
+        return execute("HEAD", path, "", null, null)
+                .thenApply(response -> new MantaObjectResponse(path,
+                        new MantaHttpHeaders(response.getAllHeaders())));
+    }
+
+    /**
+     * Get a Manta object's data as a byte array.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return future that completes with the object's data
+     */
+    public CompletableFuture<byte[]> getAsByteArray(final String path) {
+        return execute("GET", path, "", null, null)
+                .thenApply(response -> {
+                    final MantaHttpHeaders headers = new MantaHttpHeaders(response.getAllHeaders());
+
+                    if (new MantaObjectResponse(path, headers).isDirectory()) {
+                        final String msg = "Directories do not have data, so data streams "
+                                + "from directories are not possible.";
+                        final MantaObjectException exception = new MantaObjectException(msg);
+                        exception.setContextValue("path", path);
+
+                        throw exception;
+                    }
+
+                    return entityAsBytes(response);
+                });
+    }
+
+    /**
+     * Get a Manta object's data as a {@link String} using the JVM's default encoding.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return future that completes with the object's data
+     */
+    public CompletableFuture<String> getAsString(final String path) {
+        return getAsString(path, Charset.defaultCharset());
+    }
+
+    /**
+     * Get a Manta object's data as a {@link String} using the specified encoding.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param charset character set to decode the object's data with
+     * @return future that completes with the object's data
+     */
+    public CompletableFuture<String> getAsString(final String path, final Charset charset) {
+        return getAsByteArray(path).thenApply(bytes -> new String(bytes, charset));
+    }
+
+    /**
+     * Copies the supplied byte array to a remote Manta object at the specified path.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param bytes byte array to upload
+     * @return future that completes with the Manta response object
+     */
+    public CompletableFuture<MantaObjectResponse> put(final String path, final byte[] bytes) {
+        return put(path, bytes, null, null);
+    }
+
+    /**
+     * Copies the supplied byte array to a remote Manta object at the specified path.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param bytes byte array to upload
+     * @param headers optional HTTP headers to include when copying the object
+     * @param metadata optional user-supplied metadata for object
+     * @return future that completes with the Manta response object
+     */
+    public CompletableFuture<MantaObjectResponse> put(final String path,
+                                                      final byte[] bytes,
+                                                      final MantaHttpHeaders headers,
+                                                      final MantaMetadata metadata) {
+        Objects.requireNonNull(path, "Path must not be null");
+        Objects.requireNonNull(bytes, "Byte array must not be null");
+
+        final String contentType = MantaUtils.findOrDefaultContentType(headers, path,
+                ContentType.APPLICATION_OCTET_STREAM.toString());
+        final HttpEntity entity = new ByteArrayEntity(bytes, ContentType.parse(contentType));
+
+        return put(path, entity, headers, metadata);
+    }
+
+    /**
+     * Copies the supplied {@link String} to a remote Manta object at the
+     * specified path using UTF-8 encoding.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param string string to copy
+     * @return future that completes with the Manta response object
+     */
+    public CompletableFuture<MantaObjectResponse> put(final String path, final String string) {
+        return put(path, string, null, null);
+    }
+
+    /**
+     * Copies the supplied {@link String} to a remote Manta object at the
+     * specified path using UTF-8 encoding.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param string string to copy
+     * @param headers optional HTTP headers to include when copying the object
+     * @param metadata optional user-supplied metadata for object
+     * @return future that completes with the Manta response object
+     */
+    public CompletableFuture<MantaObjectResponse> put(final String path,
+                                                      final String string,
+                                                      final MantaHttpHeaders headers,
+                                                      final MantaMetadata metadata) {
+        Objects.requireNonNull(string, "String must not be null");
+
+        final String contentType = MantaUtils.findOrDefaultContentType(headers, path,
+                ContentType.TEXT_PLAIN.toString());
+        final ContentType type = ContentType.parse(contentType).withCharset(StandardCharsets.UTF_8);
+        final HttpEntity entity = new ByteArrayEntity(string.getBytes(StandardCharsets.UTF_8), type);
+
+        return put(path, entity, headers, metadata);
+    }
+
+    /**
+     * Executes a PUT of the supplied entity to the remote Manta object.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param entity request body
+     * @param headers optional HTTP headers to include when copying the object
+     * @param metadata optional user-supplied metadata for object
+     * @return future that completes with the Manta response object
+     */
+    private CompletableFuture<MantaObjectResponse> put(final String path,
+                                                       final HttpEntity entity,
+                                                       final MantaHttpHeaders headers,
+                                                       final MantaMetadata metadata) {
+        final MantaHttpHeaders httpHeaders;
+
+        if (headers == null) {
+            httpHeaders = new MantaHttpHeaders();
+        } else {
+            httpHeaders = new MantaHttpHeaders(headers.asGoogleClientHttpHeaders());
+        }
+
+        if (metadata != null) {
+            httpHeaders.putAll(metadata);
+        }
+
+        return execute("PUT", path, "", httpHeaders, entity)
+                .thenApply(response -> {
+                    final MantaHttpHeaders responseHeaders = new MantaHttpHeaders(response.getAllHeaders());
+                    // We add back in the metadata made in the request so that it is easily available
+                    responseHeaders.putAll(httpHeaders.metadata());
+
+                    final MantaObjectResponse obj = new MantaObjectResponse(path, responseHeaders, metadata);
+
+                    if (obj.getContentType() == null && entity.getContentType() != null) {
+                        obj.setContentType(entity.getContentType().getValue());
+                    }
+
+                    return obj;
+                })
+                .whenComplete((obj, e) -> client.invalidateCaches(path));
+    }
+
+    /**
+     * Deletes an object from Manta.
+     *
+     * @param path The fully qualified path of the Manta object.
+     * @return future that completes when the object has been deleted
+     */
+    public CompletableFuture<Void> delete(final String path) {
+        return execute("DELETE", path, "", null, null)
+                .<Void>thenApply(response -> null)
+                .whenComplete((result, e) -> client.invalidateCaches(path));
+    }
+
+    /**
+     * Creates a directory in Manta.
+     *
+     * @param path The fully qualified path of the Manta directory.
+     * @return future that completes with true when the directory was created
+     *         and false when it already existed
+     */
+    public CompletableFuture<Boolean> putDirectory(final String path) {
+        return putDirectory(path, null);
+    }
+
+    /**
+     * Creates a directory in Manta.
+     *
+     * @param path The fully qualified path of the Manta directory.
+     * @param headers Optional {@link MantaHttpHeaders}. Consult the Manta api for more header information.
+     * @return future that completes with true when the directory was created
+     *         and false when it already existed
+     */
+    public CompletableFuture<Boolean> putDirectory(final String path,
+                                                   final MantaHttpHeaders headers) {
+        Objects.requireNonNull(path, "PUT directory path must be present");
+
+        final MantaHttpHeaders httpHeaders;
+
+        if (headers == null) {
+            httpHeaders = new MantaHttpHeaders();
+        } else {
+            httpHeaders = new MantaHttpHeaders(headers.asGoogleClientHttpHeaders());
+        }
+
+        httpHeaders.setContentType(DIRECTORY_REQUEST_CONTENT_TYPE);
+
+        // When LastModified is set, the directory already exists
+        return execute("PUT", path, "", httpHeaders, null)
+                .thenApply(response -> response.getFirstHeader(HttpHeaders.LAST_MODIFIED) == null)
+                .whenComplete((created, e) -> client.invalidateCaches(path));
+    }
+
+    /**
+     * Lists the contents of a directory in Manta. All pages of the listing
+     * are requested and the future completes when the last page has been read.
+     *
+     * @param path The fully qualified path of the directory.
+     * @return future that completes with the contents of the directory
+     */
+    public CompletableFuture<List<MantaObject>> listObjects(final String path) {
+        Objects.requireNonNull(path, "Path must be present");
+
+        return listObjects(path, null, new ArrayList<>());
+    }
+
+    /**
+     * Requests a single page of a directory listing and then chains the
+     * request for the next page.
+     *
+     * @param path The fully qualified path of the directory.
+     * @param marker name of the last entry of the previous page or null for the first page
+     * @param objects accumulated entries of the listing
+     * @return future that completes with the contents of the directory
+     */
+    private CompletableFuture<List<MantaObject>> listObjects(final String path,
+                                                             final String marker,
+                                                             final List<MantaObject> objects) {
+        final String query;
+
+        try {
+            if (marker == null) {
+                query = String.format("?limit=%d", MAX_RESULTS);
+            } else {
+                query = String.format("?limit=%d&marker=%s", MAX_RESULTS,
+                        URLEncoder.encode(marker, StandardCharsets.UTF_8.name()));
+            }
+        } catch (IOException e) {
+            return failedFuture(new MantaIOException(e));
+        }
+
+        return execute("GET", path, query, null, null).thenCompose(response -> {
+            final Header contentType = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+
+            if (marker == null && (contentType == null
+                    || !contentType.getValue().contentEquals(DIRECTORY_RESPONSE_CONTENT_TYPE))) {
+                String msg = String.format("Expected directory path, but was file path: %s",
+                        path);
+                throw new MantaObjectException(msg);
+            }
+
+            final String body = new String(entityAsBytes(response), StandardCharsets.UTF_8);
+            int lines = 0;
+            String lastName = null;
+
+            try (BufferedReader reader = new BufferedReader(new StringReader(body))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+
+                    lines++;
+
+                    final Map<String, Object> item = MantaObjectParser.MAPPER.readValue(line,
+                            new TypeReference<Map<String, Object>>() { });
+                    final String name = Objects.toString(item.get("name"));
+
+                    // The first line of every page after the first is our marker
+                    if (marker != null && lines == 1 && marker.equals(name)) {
+                        continue;
+                    }
+
+                    objects.add(MantaDirectoryListingIterator.asMantaObject(path, item));
+                    lastName = name;
+                }
+            } catch (IOException e) {
+                throw new CompletionException(new MantaIOException("Unable to parse directory listing", e));
+            }
+
+            if (lines < MAX_RESULTS || lastName == null) {
+                return CompletableFuture.completedFuture(objects);
+            }
+
+            return listObjects(path, lastName, objects);
+        });
+    }
+
+    /**
+     * Signs and asynchronously executes a request against the Manta API.
+     *
+     * @param method HTTP method
+     * @param path The fully qualified path of the object
+     * @param query query string to append to the path including the leading question mark
+     * @param headers optional HTTP headers
+     * @param entity optional request body
+     * @return future that completes with the response or exceptionally if the
+     *         request failed or returned an error status code
+     */
+    private CompletableFuture<HttpResponse> execute(final String method,
+                                                    final String path,
+                                                    final String query,
+                                                    final MantaHttpHeaders headers,
+                                                    final HttpEntity entity) {
+        final HttpUriRequest request;
+
+        try {
+            final GenericUrl genericUrl = new GenericUrl(this.url + formatPath(path) + query);
+            request = buildSignedRequest(method, genericUrl, headers, entity);
+        } catch (IOException e) {
+            return failedFuture(e);
+        }
+
+        LOG.debug("{} {}", method, path);
+
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        final Future<HttpResponse> execution = httpClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                final int statusCode = response.getStatusLine().getStatusCode();
+                LOG.debug("{} {} response [{}] {} ", method, path, statusCode,
+                        response.getStatusLine().getReasonPhrase());
+
+                if (statusCode < HTTP_STATUSCODE_300) {
+                    future.complete(response);
+                } else {
+                    future.completeExceptionally(buildResponseException(request, response));
+                }
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                final String msg = "An IO problem happened when making a request.";
+                final MantaIOException exception = new MantaIOException(msg, ex);
+                annotate(exception, request);
+                future.completeExceptionally(exception);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled()) {
+                execution.cancel(true);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Builds an Apache HTTP Client request that is signed using the same
+     * interceptor as the requests made by {@link MantaClient}.
+     *
+     * @param method HTTP method
+     * @param genericUrl URL of the request
+     * @param headers optional HTTP headers
+     * @param entity optional request body
+     * @return signed request
+     * @throws IOException thrown when the request can't be signed
+     */
+    private HttpUriRequest buildSignedRequest(final String method,
+                                              final GenericUrl genericUrl,
+                                              final MantaHttpHeaders headers,
+                                              final HttpEntity entity) throws IOException {
+        final com.google.api.client.http.HttpRequest signingRequest =
+                requestFactory.buildRequest(method, genericUrl, null);
+
+        if (headers != null) {
+            signingRequest.getHeaders().fromHttpHeaders(headers.asGoogleClientHttpHeaders());
+        }
+
+        try {
+            signingRequest.getInterceptor().intercept(signingRequest);
+        } finally {
+            MDC.remove("mantaRequestId");
+        }
+
+        final RequestBuilder builder = RequestBuilder.create(method)
+                .setUri(genericUrl.toURI())
+                .setEntity(entity);
+
+        for (Header header : new MantaHttpHeaders(signingRequest.getHeaders()).asApacheHttpHeaders()) {
+            // The entity determines the length of the body
+            if (header.getName().equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                    || header.getName().equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)) {
+                continue;
+            }
+
+            builder.addHeader(header);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Builds the exception thrown when the Manta API returns an error status.
+     *
+     * @param request request that was sent
+     * @param response error response
+     * @return exception with the details of the error
+     */
+    private static MantaClientHttpResponseException buildResponseException(final HttpUriRequest request,
+                                                                           final HttpResponse response) {
+        final MantaHttpHeaders headers = new MantaHttpHeaders(response.getAllHeaders());
+        final int statusCode = response.getStatusLine().getStatusCode();
+        final String reason = response.getStatusLine().getReasonPhrase();
+
+        String content = null;
+
+        if (response.getEntity() != null) {
+            try {
+                content = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                LOG.debug("Unable to read error response body", e);
+            }
+        }
+
+        final StringBuilder message = new StringBuilder().append(statusCode);
+
+        if (reason != null) {
+            message.append(' ').append(reason);
+        }
+
+        if (content != null) {
+            message.append(System.lineSeparator()).append(content);
+        }
+
+        final HttpResponseException inner = new HttpResponseException.Builder(
+                statusCode, reason, headers.asGoogleClientHttpHeaders())
+                .setContent(content)
+                .setMessage(message.toString())
+                .build();
+
+        final MantaClientHttpResponseException exception = new MantaClientHttpResponseException(inner);
+        annotate(exception, request);
+
+        return exception;
+    }
+
+    /**
+     * Adds the details of a request to an exception.
+     *
+     * @param exception exception to annotate
+     * @param request request that failed
+     */
+    private static void annotate(final MantaIOException exception, final HttpUriRequest request) {
+        final Header requestId = request.getFirstHeader(MantaHttpHeaders.REQUEST_ID);
+
+        if (requestId != null) {
+            exception.setContextValue("requestId", requestId.getValue());
+        }
+
+        exception.setContextValue("requestMethod", request.getMethod());
+        exception.setContextValue("requestURL", request.getURI());
+        exception.setContextValue("loadBalancerAddress", MDC.get("mantaLoadBalancerAddress"));
+    }
+
+    /**
+     * Reads the entire body of a buffered response.
+     *
+     * @param response response to read
+     * @return the body or an empty array if there is no body
+     */
+    private static byte[] entityAsBytes(final HttpResponse response) {
+        if (response.getEntity() == null) {
+            return new byte[0];
+        }
+
+        try {
+            return EntityUtils.toByteArray(response.getEntity());
+        } catch (IOException e) {
+            throw new CompletionException(new MantaIOException("Unable to read response body", e));
+        }
+    }
+
+    /**
+     * Creates a future that has already completed with an exception.
+     *
+     * @param throwable exception to complete with
+     * @param <T> type of the future's value
+     * @return exceptionally completed future
+     */
+    private static <T> CompletableFuture<T> failedFuture(final Throwable throwable) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    /**
+     * @return the configuration context used by this client
+     */
+    public ConfigContext getContext() {
+        return client.getContext();
+    }
+
+    /**
+     * Closes the non-blocking HTTP client and, if it was created by this
+     * instance, the blocking client used for signing.
+     *
+     * @throws Exception thrown when there is a problem closing the clients
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            httpClient.close();
+        } finally {
+            if (ownsClient) {
+                client.close();
+            }
+        }
+    }
+}
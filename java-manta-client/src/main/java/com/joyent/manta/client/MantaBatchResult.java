@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import java.util.Objects;
+
+/**
+ * Result of fetching a single object as part of a batch started with
+ * {@link MantaClient#getAll(java.util.Collection, int, boolean)}. Each result
+ * contains either the object's data or the exception that prevented it from
+ * being fetched.
+ *
+ * @since 2.7.2
+ */
+public class MantaBatchResult {
+    /**
+     * Fully qualified path of the object.
+     */
+    private final String path;
+
+    /**
+     * Position of the path in the collection of requested paths.
+     */
+    private final int index;
+
+    /**
+     * Data of the object or null if it couldn't be fetched.
+     */
+    private final byte[] data;
+
+    /**
+     * Exception thrown when fetching the object or null if it was fetched.
+     */
+    private final Exception exception;
+
+    /**
+     * Creates a new result.
+     *
+     * @param path fully qualified path of the object
+     * @param index position of the path in the collection of requested paths
+     * @param data data of the object or null if it couldn't be fetched
+     * @param exception exception thrown when fetching the object or null if it was fetched
+     */
+    MantaBatchResult(final String path, final int index, final byte[] data,
+                     final Exception exception) {
+        this.path = Objects.requireNonNull(path, "Path must be present");
+        this.index = index;
+        this.data = data;
+        this.exception = exception;
+    }
+
+    /**
+     * @return fully qualified path of the object
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return position of the path in the collection of requested paths
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return true when the object's data was fetched
+     */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    /**
+     * @return data of the object or null if it couldn't be fetched
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @return exception thrown when fetching the object or null if it was fetched
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MantaBatchResult{");
+        sb.append("path='").append(path).append('\'');
+        sb.append(", index=").append(index);
+        sb.append(", successful=").append(isSuccessful());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,436 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of fixed-size, aligned blocks of object data
+ * that is shared by {@link MantaSeekableByteChannel} instances. Blocks are
+ * keyed by object path, etag and block index, so blocks of an object that
+ * has been overwritten are never served. The cache is bounded by the total
+ * number of bytes of the cached blocks and blocks can optionally be stored
+ * in direct buffers outside of the Java heap.
+ *
+ * <p>Concurrent requests for the same block are coalesced so that a block is
+ * only fetched once, and blocks can be prefetched on a background thread.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaBlockCache implements AutoCloseable {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaBlockCache.class);
+
+    /**
+     * Number of threads used to prefetch blocks.
+     */
+    private static final int PREFETCH_THREADS = 2;
+
+    /**
+     * Initial capacity of the map of cached blocks.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Load factor of the map of cached blocks.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Thread group for all block prefetching threads.
+     */
+    private static final ThreadGroup THREAD_GROUP = new ThreadGroup("manta-block-cache");
+
+    /**
+     * Custom thread factory that makes sensibly named daemon threads.
+     */
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final String name = String.format("prefetch-%d", count.getAndIncrement());
+            Thread thread = new Thread(THREAD_GROUP, runnable, name);
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    };
+
+    /**
+     * Maximum number of bytes of cached blocks.
+     */
+    private final long maxBytes;
+
+    /**
+     * Size in bytes of each block.
+     */
+    private final int blockSize;
+
+    /**
+     * Flag indicating that blocks are stored in direct buffers.
+     */
+    private final boolean offHeap;
+
+    /**
+     * Cached blocks in least recently used order. Guarded by itself.
+     */
+    private final LinkedHashMap<BlockKey, ByteBuffer> blocks =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /**
+     * Blocks that are currently being fetched.
+     */
+    private final ConcurrentMap<BlockKey, CompletableFuture<ByteBuffer>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executor used to prefetch blocks.
+     */
+    private final ExecutorService prefetchExecutor =
+            Executors.newFixedThreadPool(PREFETCH_THREADS, THREAD_FACTORY);
+
+    /**
+     * Number of bytes of cached blocks. Guarded by {@link #blocks}.
+     */
+    private long cachedBytes = 0L;
+
+    /**
+     * Number of block requests served from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of block requests that had to be fetched.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxBytes maximum number of bytes of cached blocks
+     * @param blockSize size in bytes of each block
+     * @param offHeap true to store blocks in direct buffers outside of the Java heap
+     */
+    public MantaBlockCache(final long maxBytes, final int blockSize, final boolean offHeap) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1 byte");
+        }
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1 byte");
+        }
+
+        this.maxBytes = maxBytes;
+        this.blockSize = blockSize;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * @return size in bytes of each block
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return number of bytes of cached blocks
+     */
+    public long getCachedBytes() {
+        synchronized (blocks) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * @return number of block requests served from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of block requests that had to be fetched
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets a block from the cache or loads it if it isn't cached. If the
+     * block is already being loaded by another thread, this waits for that
+     * load to complete rather than loading it again.
+     *
+     * @param path path of the object
+     * @param etag etag of the object
+     * @param index index of the block
+     * @param loader loads the block when it isn't cached
+     * @return read-only view of the block positioned at its start
+     * @throws IOException thrown when the block couldn't be loaded
+     */
+    ByteBuffer get(final String path, final String etag, final long index,
+                   final BlockLoader loader) throws IOException {
+        final BlockKey key = new BlockKey(path, etag, index);
+        final ByteBuffer cached = lookup(key);
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+
+        try {
+            return load(key, loader).join().asReadOnlyBuffer();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException)e.getCause()).getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Loads a block on a background thread if it isn't cached or already
+     * being loaded. Errors are ignored because the block will be loaded
+     * again when it is read.
+     *
+     * @param path path of the object
+     * @param etag etag of the object
+     * @param index index of the block
+     * @param loader loads the block
+     */
+    void prefetch(final String path, final String etag, final long index, final BlockLoader loader) {
+        final BlockKey key = new BlockKey(path, etag, index);
+
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+
+        synchronized (blocks) {
+            if (blocks.containsKey(key)) {
+                return;
+            }
+        }
+
+        try {
+            prefetchExecutor.execute(() -> load(key, loader).exceptionally(e -> {
+                LOG.debug("Unable to prefetch block {} of [{}]", index, path, e);
+                return null;
+            }));
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Prefetch executor is shut down, not prefetching [{}]", path);
+        }
+    }
+
+    /**
+     * Allocates a buffer for a block.
+     *
+     * @param size size of the buffer in bytes
+     * @return heap or direct buffer depending on the configuration
+     */
+    ByteBuffer allocate(final int size) {
+        if (offHeap) {
+            return ByteBuffer.allocateDirect(size);
+        }
+
+        return ByteBuffer.allocate(size);
+    }
+
+    /**
+     * Removes all cached blocks.
+     */
+    public void clear() {
+        synchronized (blocks) {
+            blocks.clear();
+            cachedBytes = 0L;
+        }
+    }
+
+    @Override
+    public void close() {
+        prefetchExecutor.shutdownNow();
+        clear();
+    }
+
+    /**
+     * Finds a cached block and marks it as recently used.
+     *
+     * @param key block key
+     * @return read-only view of the block or null if it isn't cached
+     */
+    private ByteBuffer lookup(final BlockKey key) {
+        synchronized (blocks) {
+            final ByteBuffer block = blocks.get(key);
+
+            if (block == null) {
+                return null;
+            }
+
+            return block.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Loads a block unless it is already being loaded, in which case the
+     * existing load is returned.
+     *
+     * @param key block key
+     * @param loader loads the block
+     * @return future that completes with the block
+     */
+    private CompletableFuture<ByteBuffer> load(final BlockKey key, final BlockLoader loader) {
+        final CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+        final CompletableFuture<ByteBuffer> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            final ByteBuffer cached = lookup(key);
+
+            if (cached != null) {
+                future.complete(cached);
+            } else {
+                final ByteBuffer block = loader.load();
+                store(key, block);
+                future.complete(block);
+            }
+        } catch (IOException e) {
+            future.completeExceptionally(new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+
+        return future;
+    }
+
+    /**
+     * Adds a block to the cache, evicting the least recently used blocks
+     * until the cache is within its size limit.
+     *
+     * @param key block key
+     * @param block block data
+     */
+    private void store(final BlockKey key, final ByteBuffer block) {
+        final int size = block.remaining();
+
+        if (size > maxBytes) {
+            return;
+        }
+
+        synchronized (blocks) {
+            final ByteBuffer previous = blocks.put(key, block);
+
+            if (previous != null) {
+                cachedBytes -= previous.remaining();
+            }
+
+            cachedBytes += size;
+
+            final Iterator<Map.Entry<BlockKey, ByteBuffer>> itr = blocks.entrySet().iterator();
+
+            while (cachedBytes > maxBytes && itr.hasNext()) {
+                final Map.Entry<BlockKey, ByteBuffer> eldest = itr.next();
+                cachedBytes -= eldest.getValue().remaining();
+                itr.remove();
+            }
+        }
+    }
+
+    /**
+     * Function that loads a block of object data.
+     */
+    @FunctionalInterface
+    interface BlockLoader {
+        /**
+         * Loads a block.
+         *
+         * @return block data positioned at its start
+         * @throws IOException thrown when the block couldn't be loaded
+         */
+        ByteBuffer load() throws IOException;
+    }
+
+    /**
+     * Key identifying a block of an object.
+     */
+    private static final class BlockKey {
+        /**
+         * Path of the object.
+         */
+        private final String path;
+
+        /**
+         * Etag of the object.
+         */
+        private final String etag;
+
+        /**
+         * Index of the block.
+         */
+        private final long index;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param path path of the object
+         * @param etag etag of the object
+         * @param index index of the block
+         */
+        private BlockKey(final String path, final String etag, final long index) {
+            this.path = Objects.requireNonNull(path, "Path must be present");
+            this.etag = Objects.requireNonNull(etag, "Etag must be present");
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof BlockKey)) {
+                return false;
+            }
+
+            final BlockKey that = (BlockKey)other;
+
+            return index == that.index
+                    && path.equals(that.path)
+                    && etag.equals(that.etag);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, etag, index);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Least recently used cache of the data of small objects that is stored in
+ * direct buffers outside of the Java heap, so that frequently read objects
+ * can be served without a network round trip and without adding to garbage
+ * collection pressure. Entries are identified by the object's path and etag
+ * and are served as read-only views of the cached buffer without copying.
+ *
+ * <p>An entry is served without contacting Manta until the revalidation
+ * interval has elapsed. After that, the entry is revalidated with an
+ * {@code If-None-Match} request and is only downloaded again when the object
+ * has changed. Entries are invalidated when the owning client writes to the
+ * object's path. The cache is bounded by the total number of bytes of the
+ * cached objects.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaBodyCache {
+    /**
+     * Initial capacity of the map of cached objects.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Load factor of the map of cached objects.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Maximum number of bytes of cached object data.
+     */
+    private final long maxBytes;
+
+    /**
+     * Maximum size in bytes of a cached object.
+     */
+    private final int maxObjectSize;
+
+    /**
+     * Number of nanoseconds that an entry is served without revalidation.
+     */
+    private final long revalidateInterval;
+
+    /**
+     * Source of the current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Cached objects by path in access order, guarded by itself.
+     */
+    private final LinkedHashMap<String, CachedBody> entries =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /**
+     * Number of bytes of cached object data, guarded by {@link #entries}.
+     */
+    private long cachedBytes;
+
+    /**
+     * Number of invalidations, used to discard objects that were downloaded
+     * while a write was in progress.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Number of reads served from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of reads that downloaded the object.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Number of hits that required a conditional request to Manta.
+     */
+    private final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * Creates a new instance of an in-memory body cache.
+     *
+     * @param maxBytes maximum number of bytes of cached object data
+     * @param maxObjectSize maximum size in bytes of a cached object
+     * @param revalidateInterval number of milliseconds that an entry is served without revalidation
+     */
+    public MantaBodyCache(final long maxBytes, final int maxObjectSize, final long revalidateInterval) {
+        this(maxBytes, maxObjectSize, revalidateInterval, System::nanoTime);
+    }
+
+    /**
+     * Creates a new instance of an in-memory body cache with the specified clock.
+     *
+     * @param maxBytes maximum number of bytes of cached object data
+     * @param maxObjectSize maximum size in bytes of a cached object
+     * @param revalidateInterval number of milliseconds that an entry is served without revalidation
+     * @param clock source of the current time in nanoseconds
+     */
+    MantaBodyCache(final long maxBytes, final int maxObjectSize, final long revalidateInterval,
+                   final LongSupplier clock) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Body cache size must be greater than 0");
+        }
+        if (maxObjectSize < 0) {
+            throw new IllegalArgumentException("Maximum cached object size must be 0 or greater");
+        }
+        if (revalidateInterval < 0) {
+            throw new IllegalArgumentException("Revalidation interval must be 0 or greater");
+        }
+
+        this.maxBytes = maxBytes;
+        this.maxObjectSize = maxObjectSize;
+        this.revalidateInterval = TimeUnit.MILLISECONDS.toNanos(revalidateInterval);
+        this.clock = Objects.requireNonNull(clock, "Clock must be present");
+    }
+
+    /**
+     * Finds the cached data of an object.
+     *
+     * @param path fully qualified path of the object
+     * @return cached object or null if the object isn't cached
+     */
+    CachedBody get(final String path) {
+        synchronized (entries) {
+            return entries.get(path);
+        }
+    }
+
+    /**
+     * @param body cached object
+     * @return true when the cached object can be served without revalidation
+     */
+    boolean isFresh(final CachedBody body) {
+        return clock.getAsLong() - body.validated < revalidateInterval;
+    }
+
+    /**
+     * Records that a cached object was served.
+     *
+     * @param body cached object that was served
+     * @param revalidated true when the server reported that the object hasn't changed
+     */
+    void recordHit(final CachedBody body, final boolean revalidated) {
+        hits.incrementAndGet();
+
+        if (revalidated) {
+            revalidations.incrementAndGet();
+            body.validated = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Records that an object was downloaded because it wasn't cached or had changed.
+     */
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * @param contentLength size of an object in bytes or null if unknown
+     * @return true when an object of the specified size can be cached
+     */
+    boolean accepts(final Long contentLength) {
+        return contentLength != null && contentLength <= maxObjectSize && contentLength <= maxBytes;
+    }
+
+    /**
+     * @return number of invalidations, to be passed to {@link #put(MantaObjectResponse, byte[], long)}
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Copies an object's data to a direct buffer and adds it to the cache,
+     * evicting the least recently used objects until the cache is within its
+     * size limit. The object isn't added if the cache was invalidated after
+     * the object was requested or if the data doesn't match its content length,
+     * in which case the returned entry wraps the data on the heap instead.
+     *
+     * @param metadata metadata of the object
+     * @param data complete data of the object
+     * @param requestGeneration value of {@link #getGeneration()} before the object was requested
+     * @return entry containing the object's data, which may not have been added to the cache
+     */
+    CachedBody put(final MantaObjectResponse metadata, final byte[] data, final long requestGeneration) {
+        final MantaObjectResponse copy = new MantaObjectResponse(metadata.getPath(),
+                new MantaHttpHeaders(metadata));
+
+        // Direct buffers are only worth allocating for data that will be cached
+        if (metadata.getEtag() == null || !Objects.equals(metadata.getContentLength(), (long)data.length)
+                || generation.get() != requestGeneration) {
+            return new CachedBody(copy, ByteBuffer.wrap(data).asReadOnlyBuffer(), clock.getAsLong());
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data);
+        buffer.flip();
+
+        final CachedBody body = new CachedBody(copy, buffer.asReadOnlyBuffer(), clock.getAsLong());
+
+        synchronized (entries) {
+            if (generation.get() != requestGeneration) {
+                return body;
+            }
+
+            final CachedBody replaced = entries.put(metadata.getPath(), body);
+
+            if (replaced != null) {
+                cachedBytes -= replaced.size();
+            }
+
+            cachedBytes += body.size();
+            final Iterator<CachedBody> itr = entries.values().iterator();
+
+            while (cachedBytes > maxBytes && itr.hasNext()) {
+                cachedBytes -= itr.next().size();
+                itr.remove();
+            }
+        }
+
+        return body;
+    }
+
+    /**
+     * Removes the cached data of an object.
+     *
+     * @param path fully qualified path of the object
+     */
+    public void invalidate(final String path) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            final CachedBody removed = entries.remove(path);
+
+            if (removed != null) {
+                cachedBytes -= removed.size();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached objects.
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+            cachedBytes = 0L;
+        }
+    }
+
+    /**
+     * @return number of reads served from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of reads that downloaded the object
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of hits that required a conditional request to Manta
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return number of bytes of cached object data
+     */
+    public long getCachedBytes() {
+        synchronized (entries) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Object data held in a direct buffer along with the object's metadata.
+     */
+    static final class CachedBody {
+        /**
+         * Metadata of the object.
+         */
+        private final MantaObjectResponse metadata;
+
+        /**
+         * Read-only buffer containing the object's data.
+         */
+        private final ByteBuffer data;
+
+        /**
+         * Time in nanoseconds when the data was last known to be current.
+         */
+        private volatile long validated;
+
+        /**
+         * Creates a new cached object.
+         *
+         * @param metadata metadata of the object
+         * @param data read-only buffer containing the object's data
+         * @param validated time in nanoseconds when the data was downloaded
+         */
+        private CachedBody(final MantaObjectResponse metadata, final ByteBuffer data,
+                           final long validated) {
+            this.metadata = metadata;
+            this.data = data;
+            this.validated = validated;
+        }
+
+        /**
+         * @return copy of the metadata of the object
+         */
+        MantaObjectResponse getMetadata() {
+            return new MantaObjectResponse(metadata.getPath(), new MantaHttpHeaders(metadata));
+        }
+
+        /**
+         * @return etag of the object
+         */
+        String getEtag() {
+            return metadata.getEtag();
+        }
+
+        /**
+         * @return read-only view of the object's data with its own position and limit
+         */
+        ByteBuffer getData() {
+            return data.duplicate();
+        }
+
+        /**
+         * @return size of the object's data in bytes
+         */
+        long size() {
+            return data.capacity();
+        }
+    }
+}
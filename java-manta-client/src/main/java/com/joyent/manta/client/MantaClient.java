@@ -16,7 +16,7 @@ import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.HttpResponseException;
 import com.google.api.client.http.InputStreamContent;
 import com.google.api.client.util.ObjectParser;
-import com.joyent.http.signature.ThreadLocalSigner;
+import com.joyent.http.signature.Signer;
 import com.joyent.http.signature.google.httpclient.RequestHttpSigner;
 import com.joyent.manta.config.ConfigContext;
 import com.joyent.manta.config.DefaultsConfigContext;
@@ -24,7 +24,7 @@ import com.joyent.manta.exception.MantaClientException;
 import com.joyent.manta.exception.MantaClientHttpResponseException;
 import com.joyent.manta.exception.MantaErrorCode;
 import com.joyent.manta.exception.OnCloseAggregateException;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.http.NoHttpResponseException;
 import org.apache.http.entity.ContentType;
 import org.apache.http.protocol.HTTP;
@@ -41,7 +41,9 @@ import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -50,6 +52,7 @@ import java.security.KeyPair;
 import java.time.Instant;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -60,6 +63,7 @@ import java.util.Spliterators;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -130,9 +134,15 @@ public class MantaClient implements AutoCloseable {
 
 
     /**
-     * The instance of the http signer used to sign the http requests.
+     * Pool of signers shared by all requests made by this client.
      */
-    private final RequestHttpSigner httpSigner;
+    private final SignerPool signerPool;
+
+
+    /**
+     * Signer used to generate pre-signed URIs.
+     */
+    private final UriSigner uriSigner;
 
 
     /**
@@ -140,6 +150,17 @@ public class MantaClient implements AutoCloseable {
      */
     private final HttpHelper httpHelper;
 
+    /**
+     * Helper that reads objects and metadata through the caches and the
+     * request coalescer.
+     */
+    private final ObjectReadHelper readHelper;
+
+    /**
+     * Executor running the uploads of output streams.
+     */
+    private final MantaUploadExecutor uploadExecutor;
+
     /**
      * The home directory of the account.
      */
@@ -194,35 +215,57 @@ public class MantaClient implements AutoCloseable {
             }
         }
 
-        if (StringUtils.startsWith(fingerprint, "SHA256:")) {
-            throw new IllegalArgumentException("We don't support SHA256 "
-                    + "fingerprints yet. Change fingerprint to MD5 format.");
-        }
-
         this.url = mantaURL;
         this.config = config;
         final KeyPair keyPair;
-        final ThreadLocalSigner signer = new ThreadLocalSigner(!config.disableNativeSignatures());
+        this.signerPool = new SignerPool(config);
+        final Signer signer = signerPool.borrow();
 
-        if (keyPath != null) {
-            keyPair = signer.get().getKeyPair(new File(keyPath).toPath());
-        } else {
-            final char[] charPassword;
-
-            if (password != null) {
-                charPassword = password.toCharArray();
+        try {
+            if (keyPath != null) {
+                keyPair = signer.getKeyPair(new File(keyPath).toPath());
             } else {
-                charPassword = null;
-            }
+                final char[] charPassword;
+
+                if (password != null) {
+                    charPassword = password.toCharArray();
+                } else {
+                    charPassword = null;
+                }
 
-            keyPair = signer.get().getKeyPair(privateKeyContent, charPassword);
+                keyPair = signer.getKeyPair(privateKeyContent, charPassword);
+            }
+        } finally {
+            signerPool.release(signer);
         }
 
-        this.httpSigner = new RequestHttpSigner(keyPair, account, fingerprint, signer);
+        final String keyId = KeyFingerprinter.mantaKeyId(keyPair, fingerprint);
+
+        /* The HTTP signer borrows from the same pool as everything else, so no
+         * signer is kept for each thread that uses the client. */
+        final RequestHttpSigner httpSigner = new RequestHttpSigner(keyPair, account, keyId,
+                new PooledThreadLocalSigner(signerPool));
+        this.uriSigner = new UriSigner(keyPair, account, keyId, signerPool,
+                ObjectUtils.firstNonNull(config.getSignedURIExpiryBucket(),
+                        DefaultsConfigContext.DEFAULT_SIGNED_URI_EXPIRY_BUCKET));
         this.httpRequestFactoryProvider = new HttpRequestFactoryProvider(httpSigner,
-                config);
+                signerPool, config);
         this.home = ConfigContext.deriveHomeDirectoryFromUser(account);
-        this.httpHelper = new HttpHelper(mantaURL, httpRequestFactoryProvider.getRequestFactory());
+
+        final MantaMetadataCache metadataCache = ObjectReadHelper.newMetadataCache(config);
+        final MantaBodyCache bodyCache = ObjectReadHelper.newBodyCache(config);
+        this.httpHelper = new HttpHelper(mantaURL, httpRequestFactoryProvider.getRequestFactory(),
+                metadataCache, bodyCache);
+        this.readHelper = new ObjectReadHelper(config, mantaURL, httpRequestFactoryProvider.getRequestFactory(),
+                httpHelper, metadataCache, bodyCache, danglingStreams);
+
+        this.uploadExecutor = new MantaUploadExecutor(
+                ObjectUtils.firstNonNull(config.getUploadThreads(),
+                        DefaultsConfigContext.DEFAULT_UPLOAD_THREADS),
+                ObjectUtils.firstNonNull(config.getUploadQueueSize(),
+                        DefaultsConfigContext.DEFAULT_UPLOAD_QUEUE_SIZE),
+                ObjectUtils.firstNonNull(config.useUploadVirtualThreads(),
+                        DefaultsConfigContext.DEFAULT_UPLOAD_VIRTUAL_THREADS));
     }
 
 
@@ -241,7 +284,11 @@ public class MantaClient implements AutoCloseable {
         final HttpRequestFactory httpRequestFactory = httpRequestFactoryProvider.getRequestFactory();
         final HttpRequest request = httpRequestFactory.buildDeleteRequest(genericUrl);
 
-        httpHelper.executeAndCloseRequest(request, "DELETE {} response [{}] {} ", path);
+        try {
+            httpHelper.executeAndCloseRequest(request, "DELETE {} response [{}] {} ", path);
+        } finally {
+            httpHelper.invalidateCaches(path);
+        }
     }
 
 
@@ -349,6 +396,11 @@ public class MantaClient implements AutoCloseable {
      * stream data from the Manta storage service in a memory efficient manner to your
      * application.
      *
+     * <p>Requests without headers are served from the local disk cache and
+     * the in-memory body cache when they are enabled and the cached version of
+     * the object is still current, and concurrent requests without headers for
+     * the same path share a single request when request coalescing is enabled.</p>
+     *
      * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
      * @param requestHeaders optional HTTP headers to include when getting an object
      * @return {@link InputStream} that extends {@link MantaObjectResponse}.
@@ -357,23 +409,7 @@ public class MantaClient implements AutoCloseable {
     public MantaObjectInputStream getAsInputStream(final String path,
                                                    final MantaHttpHeaders requestHeaders)
             throws IOException {
-        final HttpResponse response = httpHelper.httpGet(path, null, requestHeaders);
-        final MantaHttpHeaders responseHeaders = new MantaHttpHeaders(response.getHeaders());
-        final MantaObjectResponse metadata = new MantaObjectResponse(path, responseHeaders);
-
-        if (metadata.isDirectory()) {
-            final String msg = "Directories do not have data, so data streams "
-                    + "from directories are not possible.";
-            final MantaClientException exception = new MantaClientException(msg);
-            exception.setContextValue("path", path);
-
-            throw exception;
-        }
-
-        MantaObjectInputStream in = new MantaObjectInputStream(metadata, response);
-        danglingStreams.add(new WeakReference<AutoCloseable>(in));
-
-        return in;
+        return readHelper.getAsInputStream(path, requestHeaders);
     }
 
     /**
@@ -390,6 +426,37 @@ public class MantaClient implements AutoCloseable {
     }
 
 
+    /**
+     * Get a Manta object's data as a byte array. This method is not memory
+     * efficient, by loading the data into an array you are loading all of the
+     * Object's data into memory. When the size of the object is known, an array
+     * of exactly that size is allocated and filled directly from the network.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return byte array containing the entire Manta object
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    public byte[] getAsBytes(final String path) throws IOException {
+        return readHelper.getAsBytes(path);
+    }
+
+
+    /**
+     * Get a Manta object's data as a heap {@link ByteBuffer} that wraps the
+     * array returned by {@link #getAsBytes(String)} without copying it. When
+     * the object is served from the in-memory body cache or shared by a
+     * coalesced request, a read-only view of the buffer holding the data is
+     * returned instead, also without copying.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return buffer containing the entire Manta object
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    public ByteBuffer getAsByteBuffer(final String path) throws IOException {
+        return readHelper.getAsByteBuffer(path);
+    }
+
+
     /**
      * Get a Manta object's data as a {@link String} using the JVM's default encoding.
      * This method is not memory efficient, by loading the data into a String you are
@@ -400,9 +467,7 @@ public class MantaClient implements AutoCloseable {
      * @throws IOException when there is a problem getting the object over the network
      */
     public String getAsString(final String path) throws IOException {
-        try (InputStream is = getAsInputStream(path)) {
-            return MantaUtils.inputStreamToString(is);
-        }
+        return getAsString(path, Charset.defaultCharset());
     }
 
 
@@ -418,9 +483,22 @@ public class MantaClient implements AutoCloseable {
      * @throws IOException when there is a problem getting the object over the network
      */
     public String getAsString(final String path, final String charsetName) throws IOException {
-        try (InputStream is = getAsInputStream(path)) {
-            return MantaUtils.inputStreamToString(is, charsetName);
-        }
+        return getAsString(path, Charset.forName(charsetName));
+    }
+
+
+    /**
+     * Get a Manta object's data as a {@link String} using the specified character set.
+     * This method is not memory efficient, by loading the data into a String you are
+     * loading all of the Object's data into memory.
+     *
+     * @param path    The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param charset The character set used to decode the object's bytes
+     * @return String containing the entire Manta object
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    public String getAsString(final String path, final Charset charset) throws IOException {
+        return MantaUtils.decode(getAsByteBuffer(path), charset);
     }
 
 
@@ -444,6 +522,30 @@ public class MantaClient implements AutoCloseable {
     }
 
 
+    /**
+     * Copies Manta object's data to a file on the file system by fetching byte
+     * ranges of the object concurrently. Each range is fetched conditionally on
+     * the object's etag, so the download fails if the object is modified while
+     * it is being downloaded. The MD5 checksum of the downloaded data is verified
+     * against the checksum stored in Manta. The data is written to a temporary
+     * file that replaces the target only after the download succeeds, so an
+     * existing file is left untouched when the download fails.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param target file to write the object's data to
+     * @param parallelism maximum number of ranges to fetch concurrently
+     * @param chunkSize size in bytes of each range
+     * @return metadata of the downloaded object
+     * @throws IOException when there is a problem getting the object over the network
+     *                     or writing it to the file system
+     */
+    public MantaObjectResponse getToPath(final String path, final Path target,
+                                         final int parallelism, final long chunkSize)
+            throws IOException {
+        return new ParallelRangeDownloader(httpHelper).download(path, target, parallelism, chunkSize);
+    }
+
+
     /**
      * Copies Manta object's data to a temporary file on the file system and return
      * a reference to the file using a {@link File}. This method is memory
@@ -471,13 +573,7 @@ public class MantaClient implements AutoCloseable {
      */
     public MantaSeekableByteChannel getSeekableByteChannel(final String path,
                                                       final long position) throws IOException {
-        Objects.requireNonNull(path, "Path must not be null");
-
-        final GenericUrl genericUrl = new GenericUrl(this.url + formatPath(path));
-
-        final HttpRequestFactory httpRequestFactory = httpRequestFactoryProvider.getRequestFactory();
-        return new MantaSeekableByteChannel(genericUrl, position,
-                httpRequestFactory);
+        return readHelper.getSeekableByteChannel(path, position);
     }
 
 
@@ -492,15 +588,78 @@ public class MantaClient implements AutoCloseable {
      * @throws IOException when there is a problem getting the object over the network
      */
     public MantaSeekableByteChannel getSeekableByteChannel(final String path) throws IOException {
-        Objects.requireNonNull(path, "Path must not be null");
+        return getSeekableByteChannel(path, 0L);
+    }
 
-        final GenericUrl genericUrl = new GenericUrl(this.url + formatPath(path));
 
-        return new MantaSeekableByteChannel(genericUrl,
-                httpRequestFactoryProvider.getRequestFactory());
+    /**
+     * Get a Manta object's data as a {@link MantaRandomAccessObject} that
+     * supports positional reads from many threads at once. This allows
+     * parallel readers to read different regions of one large object
+     * concurrently, with each read served by a ranged request.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return object that supports concurrent positional reads
+     * @throws IOException when the path can't be encoded
+     */
+    public MantaRandomAccessObject getRandomAccessObject(final String path) throws IOException {
+        return readHelper.getRandomAccessObject(path);
     }
 
 
+    /**
+     * Fetches the data of many objects with a bounded number of concurrent
+     * requests and returns the results in the order that they complete.
+     *
+     * @param paths fully qualified paths of the objects to fetch
+     * @param concurrency maximum number of objects to fetch concurrently
+     * @return stream of results that must be closed to stop any outstanding requests
+     * @see #getAll(Collection, int, boolean)
+     */
+    public Stream<MantaBatchResult> getAll(final Collection<String> paths, final int concurrency) {
+        return getAll(paths, concurrency, false);
+    }
+
+
+    /**
+     * <p>Fetches the data of many objects with a bounded number of concurrent
+     * requests and returns a stream with a result for each path. A result
+     * contains either the object's data or the exception that was thrown when
+     * fetching it, so a single failure doesn't end the stream. Requests are
+     * made using the client's pooled connections.</p>
+     *
+     * <p>Results are returned as they complete unless input order is requested,
+     * in which case results that complete early are held until the results of
+     * the preceding paths are available. The number of fetched results that
+     * haven't been consumed is bounded, so the stream should be consumed
+     * promptly. Closing the stream cancels any requests that haven't
+     * started.</p>
+     *
+     * @param paths fully qualified paths of the objects to fetch
+     * @param concurrency maximum number of objects to fetch concurrently
+     * @param preserveOrder when true results are returned in the order of the paths
+     * @return stream of results that must be closed to stop any outstanding requests
+     */
+    public Stream<MantaBatchResult> getAll(final Collection<String> paths, final int concurrency,
+                                           final boolean preserveOrder) {
+        Objects.requireNonNull(paths, "Paths must be present");
+
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+
+        if (paths.isEmpty()) {
+            return Stream.empty();
+        }
+
+        final Stream<MantaBatchResult> stream = new ParallelBatchDownloader(this, paths,
+                concurrency, preserveOrder).stream();
+
+        danglingStreams.add(new WeakReference<AutoCloseable>(stream));
+
+        return stream;
+    }
+
 
     /**
      * <p>Generates a URL that allows for the download of the resource specified
@@ -573,12 +732,90 @@ public class MantaClient implements AutoCloseable {
         final String fullPath = String.format("%s%s", this.url, formatPath(path));
         final URI request = URI.create(fullPath);
 
-        return httpSigner.signURI(request, method, expiresEpochSeconds);
+        return uriSigner.signURI(request, method, expiresEpochSeconds);
+    }
+
+
+    /**
+     * <p>Generates URLs that allow for the download of each of the resources
+     * specified without any additional authentication. URLs are signed in
+     * parallel across the available processor cores.</p>
+     *
+     * @param paths The fully qualified paths of the objects. i.e. /user/stor/foo/bar/baz
+     * @param method the String GET or the string HEAD. This is the HTTP verb
+     *               that will be used when requesting the resources
+     * @param expiresIn time from now on when the resources expire
+     * @return signed URLs in the same order as the paths
+     * @throws IOException thrown if there is a problem generating the URLs
+     */
+    public List<URI> getAsSignedURIs(final Stream<String> paths, final String method,
+                                     final TemporalAmount expiresIn)
+            throws IOException {
+        Objects.requireNonNull(expiresIn, "Duration must be present");
+        final Instant expires = Instant.now().plus(expiresIn);
+        return getAsSignedURIs(paths, method, expires);
+    }
+
+
+    /**
+     * <p>Generates URLs that allow for the download of each of the resources
+     * specified without any additional authentication. URLs are signed in
+     * parallel across the available processor cores.</p>
+     *
+     * @param paths The fully qualified paths of the objects. i.e. /user/stor/foo/bar/baz
+     * @param method the String GET or the string HEAD. This is the HTTP verb
+     *               that will be used when requesting the resources
+     * @param expires time when the resources expire and become unavailable
+     * @return signed URLs in the same order as the paths
+     * @throws IOException thrown if there is a problem generating the URLs
+     */
+    public List<URI> getAsSignedURIs(final Stream<String> paths, final String method,
+                                     final Instant expires)
+            throws IOException {
+        Objects.requireNonNull(expires, "Expires must be present");
+
+        return getAsSignedURIs(paths, method, expires.getEpochSecond());
+    }
+
+
+    /**
+     * <p>Generates URLs that allow for the download of each of the resources
+     * specified without any additional authentication. URLs are signed in
+     * parallel across the available processor cores.</p>
+     *
+     * <p>When <code>manta.signed_uri_expiry_bucket</code> is set, the expiry
+     * time is rounded up to a multiple of the bucket and previously signed
+     * URLs for the same path and method are reused.</p>
+     *
+     * @param paths The fully qualified paths of the objects. i.e. /user/stor/foo/bar/baz
+     * @param method the String GET or the string HEAD. This is the HTTP verb
+     *               that will be used when requesting the resources
+     * @param expiresEpochSeconds time when the resources expire and become unavailable in epoch seconds
+     * @return signed URLs in the same order as the paths
+     * @throws IOException thrown if there is a problem generating the URLs
+     */
+    public List<URI> getAsSignedURIs(final Stream<String> paths, final String method,
+                                     final long expiresEpochSeconds)
+            throws IOException {
+        Objects.requireNonNull(paths, "Paths must be present");
+
+        try {
+            return paths.parallel().map(path -> {
+                try {
+                    return getAsSignedURI(path, method, expiresEpochSeconds);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
 
     /**
-     * Get the metadata associated with a Manta object.
+     * Get the metadata associated with a Manta object. When the metadata
+     * cache is enabled, the metadata may be served from the cache.
      *
      * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
      * @return The {@link MantaObjectResponse}.
@@ -587,9 +824,7 @@ public class MantaClient implements AutoCloseable {
      * @throws MantaClientHttpResponseException                If a http status code {@literal > 300} is returned.
      */
     public MantaObjectResponse head(final String path) throws IOException {
-        final HttpResponse response = httpHelper.httpHead(path);
-        final MantaHttpHeaders headers = new MantaHttpHeaders(response.getHeaders());
-        return new MantaObjectResponse(path, headers);
+        return readHelper.head(path);
     }
 
 
@@ -644,43 +879,8 @@ public class MantaClient implements AutoCloseable {
                 StreamSupport.stream(Spliterators.spliteratorUnknownSize(
                         itr, Spliterator.ORDERED | Spliterator.NONNULL), false);
 
-        Stream<MantaObject> stream = backingStream.map(item -> {
-            String name = Objects.toString(item.get("name"));
-            String mtime = Objects.toString(item.get("mtime"));
-            String type = Objects.toString(item.get("type"));
-            Objects.requireNonNull(name, "File name must be present");
-            String objPath = String.format("%s%s%s",
-                    StringUtils.removeEnd(path, SEPARATOR),
-                    SEPARATOR,
-                    StringUtils.removeStart(name, SEPARATOR));
-            MantaHttpHeaders headers = new MantaHttpHeaders();
-            headers.setLastModified(mtime);
-
-            if (type.equals("directory")) {
-                headers.setContentType(MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE);
-            } else {
-                headers.setContentType(ContentType.APPLICATION_OCTET_STREAM.toString());
-            }
-
-            if (item.containsKey("etag")) {
-                headers.setETag(Objects.toString(item.get("etag")));
-            }
-
-            if (item.containsKey("size")) {
-                long size = Long.parseLong(Objects.toString(item.get("size")));
-                headers.setContentLength(size);
-            }
-
-            if (item.containsKey("durability")) {
-                String durabilityString = Objects.toString(item.get("durability"));
-                if (durabilityString != null) {
-                    int durability = Integer.parseInt(durabilityString);
-                    headers.setDurabilityLevel(durability);
-                }
-            }
-
-            return new MantaObjectResponse(objPath, headers);
-        });
+        Stream<MantaObject> stream = backingStream.map(item ->
+                MantaDirectoryListingIterator.asMantaObject(path, item));
 
         danglingStreams.add(new WeakReference<AutoCloseable>(stream));
 
@@ -723,7 +923,7 @@ public class MantaClient implements AutoCloseable {
      */
     public boolean existsAndIsAccessible(final String path) {
         try {
-            httpHelper.httpHead(path);
+            head(path);
         } catch (IOException e) {
             return false;
         }
@@ -808,6 +1008,27 @@ public class MantaClient implements AutoCloseable {
                                    final InputStream source,
                                    final MantaHttpHeaders headers,
                                    final MantaMetadata metadata) throws IOException {
+        return put(path, source, -1L, headers, metadata);
+    }
+
+
+    /**
+     * Puts an object into Manta, sending the length of the stream as the
+     * Content-Length of the request instead of chunking the stream.
+     *
+     * @param path          The path to the Manta object.
+     * @param source        {@link InputStream} to copy object data from
+     * @param contentLength number of bytes in the stream or -1 if unknown
+     * @param headers       optional HTTP headers to include when copying the object
+     * @param metadata      optional user-supplied metadata for object
+     * @return Manta response object
+     * @throws IOException when there is a problem sending the object over the network
+     */
+    public MantaObjectResponse put(final String path,
+                                   final InputStream source,
+                                   final long contentLength,
+                                   final MantaHttpHeaders headers,
+                                   final MantaMetadata metadata) throws IOException {
         Objects.requireNonNull(path, "Path must not be null");
 
         final String contentType = MantaUtils.findOrDefaultContentType(headers,
@@ -821,6 +1042,7 @@ public class MantaClient implements AutoCloseable {
             final InputStreamContent inputStreamContent =
                     new InputStreamContent(contentType, source);
             inputStreamContent.setRetrySupported(source.markSupported());
+            inputStreamContent.setLength(contentLength);
             content = inputStreamContent;
         }
 
@@ -922,12 +1144,17 @@ public class MantaClient implements AutoCloseable {
      * Creates an OutputStream that wraps a PUT request to Manta. Try to avoid using this
      * to add data to Manta because it requires an additional thread to be started in order
      * to upload using an {@link java.io.OutputStream}. Additionally, if you do not close()
-     * the stream, the data will not be uploaded.
+     * the stream, the data will not be uploaded. When an upload buffer size is
+     * configured, writes are copied to a buffer of that size and only block
+     * when the buffer is full while another thread sends the data to Manta.
+     * The upload runs on the executor returned by {@link #getUploadExecutor()}.
      *
      * @param path     The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
      * @param metadata optional user-supplied metadata for object
      * @param headers  optional HTTP headers to include when copying the object
      * @return A OutputStream that allows for directly uploading to Manta
+     * @throws java.util.concurrent.RejectedExecutionException thrown when all
+     *         upload threads are busy and the upload queue is full
      */
     public MantaObjectOutputStream putAsOutputStream(final String path,
                                                      final MantaHttpHeaders headers,
@@ -938,8 +1165,18 @@ public class MantaClient implements AutoCloseable {
                 path,
                 ContentType.APPLICATION_OCTET_STREAM.toString());
 
+        final int bufferSize = ObjectUtils.firstNonNull(config.getUploadBufferSize(),
+                DefaultsConfigContext.DEFAULT_UPLOAD_BUFFER_SIZE);
+        ByteRingBuffer buffer = null;
+
+        if (bufferSize > 0) {
+            final boolean direct = ObjectUtils.firstNonNull(config.isUploadBufferDirect(),
+                    DefaultsConfigContext.DEFAULT_UPLOAD_BUFFER_DIRECT);
+            buffer = new ByteRingBuffer(bufferSize, direct);
+        }
+
         MantaObjectOutputStream stream = new MantaObjectOutputStream(path,
-                this.httpHelper, headers, metadata, contentType);
+                this.httpHelper, headers, metadata, contentType, buffer, uploadExecutor);
 
         danglingStreams.add(new WeakReference<AutoCloseable>(stream));
 
@@ -1227,7 +1464,12 @@ public class MantaClient implements AutoCloseable {
         headers.setContentEncoding("chunked");
         HttpContent content = new EmptyContent();
         final GenericUrl genericUrl = new GenericUrl(this.url + formatPath(path));
-        return httpHelper.httpPut(genericUrl, headers, content, metadata);
+
+        try {
+            return httpHelper.httpPut(genericUrl, headers, content, metadata);
+        } finally {
+            httpHelper.invalidateCaches(path);
+        }
     }
 
     /**
@@ -1268,8 +1510,13 @@ public class MantaClient implements AutoCloseable {
         request.getHeaders().setContentType(DIRECTORY_REQUEST_CONTENT_TYPE);
         request.setContent(new EmptyContent());
 
-        HttpResponse res = httpHelper.executeAndCloseRequest(request,
-                "PUT    {} response [{}] {} ", path);
+        final HttpResponse res;
+
+        try {
+            res = httpHelper.executeAndCloseRequest(request, "PUT    {} response [{}] {} ", path);
+        } finally {
+            httpHelper.invalidateCaches(path);
+        }
 
         // When LastModified is set, the directory already exists
         return res.getHeaders().getLastModified() == null;
@@ -1354,8 +1601,12 @@ public class MantaClient implements AutoCloseable {
 
         request.getHeaders().setContentType(LINK_CONTENT_TYPE);
         request.getHeaders().setLocation(formatPath(objectPath));
-        httpHelper.executeAndCloseRequest(request, "PUT    {} -> {} response [{}] {} ",
-                objectPath, linkPath);
+        try {
+            httpHelper.executeAndCloseRequest(request, "PUT    {} -> {} response [{}] {} ",
+                    objectPath, linkPath);
+        } finally {
+            httpHelper.invalidateCaches(linkPath);
+        }
     }
 
     /**
@@ -1428,6 +1679,97 @@ public class MantaClient implements AutoCloseable {
     }
 
 
+    /**
+     * Method that returns a snapshot of the connection pool along with the
+     * number of requests sent over newly opened connections versus
+     * connections reused from the pool.
+     *
+     * @return connection counts for the underlying HTTP client
+     */
+    public MantaConnectionCounts getConnectionCounts() {
+        return this.httpRequestFactoryProvider.getConnectionCounts();
+    }
+
+
+    /**
+     * Method that returns the executor running the uploads of output
+     * streams, so that its active and queued upload counts can be inspected.
+     *
+     * @return upload executor of this client
+     */
+    public MantaUploadExecutor getUploadExecutor() {
+        return this.uploadExecutor;
+    }
+
+
+    /**
+     * Method that returns the cache of object data blocks used by seekable
+     * byte channels, so that its hit and miss counts can be inspected.
+     *
+     * @return block cache or null if the block cache is disabled
+     */
+    public MantaBlockCache getBlockCache() {
+        return readHelper.getBlockCache();
+    }
+
+
+    /**
+     * Method that returns the local disk cache of object data, so that its
+     * hit, miss and bytes saved counts can be inspected.
+     *
+     * @return disk cache or null if the disk cache is disabled
+     */
+    public MantaDiskCache getDiskCache() {
+        return readHelper.getDiskCache();
+    }
+
+
+    /**
+     * Method that returns the cache of object metadata used by {@link #head(String)},
+     * so that its hit rate can be inspected or so that it can be cleared
+     * after other clients have modified objects.
+     *
+     * @return metadata cache or null if the metadata cache is disabled
+     */
+    public MantaMetadataCache getMetadataCache() {
+        return readHelper.getMetadataCache();
+    }
+
+
+    /**
+     * Method that returns the in-memory cache of small object data, so that
+     * its hit, miss and revalidation counts can be inspected.
+     *
+     * @return body cache or null if the body cache is disabled
+     */
+    public MantaBodyCache getBodyCache() {
+        return readHelper.getBodyCache();
+    }
+
+
+    /**
+     * Method that returns the coalescer of concurrent identical requests, so
+     * that the number of requests saved can be inspected.
+     *
+     * @return request coalescer or null if request coalescing is disabled
+     */
+    public MantaRequestCoalescer getRequestCoalescer() {
+        return readHelper.getRequestCoalescer();
+    }
+
+
+    /**
+     * Removes the cached metadata and data of an object that was written to
+     * without going through this client's blocking methods, such as by the
+     * asynchronous client or a multipart upload.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     */
+    public void invalidateCaches(final String path) {
+        httpHelper.invalidateCaches(path);
+    }
+
+
     /*************************************************************************
      * Job Methods
      *************************************************************************/
@@ -2103,6 +2445,10 @@ public class MantaClient implements AutoCloseable {
             }
         }
 
+        this.readHelper.close();
+
+        this.uploadExecutor.close();
+
         try {
             this.httpRequestFactoryProvider.close();
         } catch (InterruptedException ie) {
@@ -2113,12 +2459,6 @@ public class MantaClient implements AutoCloseable {
             exceptions.add(e);
         }
 
-        try {
-            this.httpSigner.getSignerThreadLocal().clearAll();
-        } catch (Exception e) {
-            exceptions.add(e);
-        }
-
         if (!exceptions.isEmpty()) {
             String msg = "At least one exception was thrown when performing close()";
             OnCloseAggregateException exception = new OnCloseAggregateException(msg);
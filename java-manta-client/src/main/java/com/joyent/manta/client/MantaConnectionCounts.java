@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+/**
+ * Immutable snapshot of the state of the HTTP connection pool of a
+ * {@link MantaClient} and of how many requests were sent over newly opened
+ * versus reused connections. A request count that grows while the reuse
+ * count doesn't means that connections aren't being returned to the pool.
+ * All counts are zero when the client doesn't use the Apache HTTP Client.
+ *
+ * @since 2.7.2
+ */
+public final class MantaConnectionCounts {
+    /**
+     * Snapshot with all counts at zero.
+     */
+    static final MantaConnectionCounts EMPTY = new MantaConnectionCounts(0, 0, 0, 0L, 0L);
+
+    /**
+     * Number of connections in use by requests.
+     */
+    private final int leased;
+
+    /**
+     * Number of idle connections kept in the pool.
+     */
+    private final int available;
+
+    /**
+     * Number of requests waiting for a connection.
+     */
+    private final int pending;
+
+    /**
+     * Number of requests sent over a newly opened connection.
+     */
+    private final long opened;
+
+    /**
+     * Number of requests sent over a connection reused from the pool.
+     */
+    private final long reused;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param leased number of connections in use by requests
+     * @param available number of idle connections kept in the pool
+     * @param pending number of requests waiting for a connection
+     * @param opened number of requests sent over a newly opened connection
+     * @param reused number of requests sent over a connection reused from the pool
+     */
+    MantaConnectionCounts(final int leased, final int available, final int pending,
+                          final long opened, final long reused) {
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.opened = opened;
+        this.reused = reused;
+    }
+
+    /**
+     * @return number of connections in use by requests
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return number of idle connections kept in the pool
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * @return number of requests waiting for a connection
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return number of requests sent over a newly opened connection
+     */
+    public long getOpened() {
+        return opened;
+    }
+
+    /**
+     * @return number of requests sent over a connection reused from the pool
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MantaConnectionCounts{");
+        sb.append("leased=").append(leased);
+        sb.append(", available=").append(available);
+        sb.append(", pending=").append(pending);
+        sb.append(", opened=").append(opened);
+        sb.append(", reused=").append(reused);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -9,6 +9,8 @@ import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpResponse;
 import com.joyent.manta.exception.MantaObjectException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.ContentType;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -24,6 +26,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.joyent.manta.client.MantaClient.SEPARATOR;
 import static com.joyent.manta.client.MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE;
 import static com.joyent.manta.client.MantaUtils.formatPath;
 
@@ -243,6 +246,52 @@ public class MantaDirectoryListingIterator implements Iterator<Map<String, Objec
         }
     }
 
+    /**
+     * Converts a single parsed line of a directory listing into a
+     * {@link MantaObject} instance.
+     *
+     * @param path path of the directory that was listed
+     * @param item parsed JSON line of the directory listing
+     * @return object representing the directory entry
+     */
+    static MantaObject asMantaObject(final String path, final Map<String, Object> item) {
+        String name = Objects.toString(item.get("name"));
+        String mtime = Objects.toString(item.get("mtime"));
+        String type = Objects.toString(item.get("type"));
+        Objects.requireNonNull(name, "File name must be present");
+        String objPath = String.format("%s%s%s",
+                StringUtils.removeEnd(path, SEPARATOR),
+                SEPARATOR,
+                StringUtils.removeStart(name, SEPARATOR));
+        MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setLastModified(mtime);
+
+        if (type.equals("directory")) {
+            headers.setContentType(DIRECTORY_RESPONSE_CONTENT_TYPE);
+        } else {
+            headers.setContentType(ContentType.APPLICATION_OCTET_STREAM.toString());
+        }
+
+        if (item.containsKey("etag")) {
+            headers.setETag(Objects.toString(item.get("etag")));
+        }
+
+        if (item.containsKey("size")) {
+            long size = Long.parseLong(Objects.toString(item.get("size")));
+            headers.setContentLength(size);
+        }
+
+        if (item.containsKey("durability")) {
+            String durabilityString = Objects.toString(item.get("durability"));
+            if (durabilityString != null) {
+                int durability = Integer.parseInt(durabilityString);
+                headers.setDurabilityLevel(durability);
+            }
+        }
+
+        return new MantaObjectResponse(objPath, headers);
+    }
+
     /**
      * @return total lines processed
      */
@@ -0,0 +1,643 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of object data on the local file system, used by
+ * {@link MantaClient#getAsInputStream(String)} when a disk cache directory is
+ * configured. Each object path maps to at most one cached file together with
+ * the etag and metadata of the version of the object that it contains. The
+ * cache is bounded by the total number of bytes of the cached files.
+ *
+ * <p>When an object is cached, it is requested with an {@code If-None-Match}
+ * header containing the cached etag and the cached file is served when the
+ * server responds with 304 (Not Modified). Otherwise, the data is written to
+ * a temporary file as it is read and the file is added to the cache once the
+ * entire object has been read.</p>
+ *
+ * <p>The cache is safe to use from many threads in one JVM. Cached files are
+ * opened before they can be evicted, so readers continue to read evicted
+ * files until they close them. The index of cached files is kept in memory,
+ * so each cache stores its files in its own subdirectory of the configured
+ * directory and holds an exclusive lock on a file in it while it is open.
+ * This lets several clients and processes share one cache directory. When a
+ * cache is created, it deletes the subdirectories whose lock isn't held,
+ * which were left behind by processes that exited without closing their
+ * client.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaDiskCache implements Closeable {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaDiskCache.class);
+
+    /**
+     * Suffix of cached object files.
+     */
+    private static final String CACHE_FILE_SUFFIX = ".manta-cache";
+
+    /**
+     * Suffix of files that are being written.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".manta-cache-tmp";
+
+    /**
+     * Prefix of the subdirectory that holds the files of a cache instance.
+     */
+    private static final String INSTANCE_DIRECTORY_PREFIX = "instance-";
+
+    /**
+     * Name of the file that is locked while a cache instance is open.
+     */
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * Initial capacity of the map of cached files.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Load factor of the map of cached files.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Subdirectory of this instance in which cached files are stored.
+     */
+    private final Path directory;
+
+    /**
+     * Lock held on the lock file of this instance while it is open.
+     */
+    private final FileLock lock;
+
+    /**
+     * Maximum number of bytes of cached files.
+     */
+    private final long maxBytes;
+
+    /**
+     * Cached files by object path in least recently used order. Guarded by itself.
+     */
+    private final LinkedHashMap<String, Entry> entries =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /**
+     * Number of bytes of cached files. Guarded by {@link #entries}.
+     */
+    private long cachedBytes = 0L;
+
+    /**
+     * Number of requests served from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of requests that had to download the object.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Number of bytes served from the cache rather than downloaded.
+     */
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * Creates a new instance in its own subdirectory of the specified
+     * directory, deleting the subdirectories of caches that weren't closed.
+     *
+     * @param directory directory in which cached files are stored
+     * @param maxBytes maximum number of bytes of cached files
+     * @throws IOException thrown when the directory can't be created
+     */
+    public MantaDiskCache(final Path directory, final long maxBytes) throws IOException {
+        Objects.requireNonNull(directory, "Cache directory must be present");
+
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1 byte");
+        }
+
+        final Path root = Files.createDirectories(directory);
+        deleteStaleInstances(root);
+
+        this.directory = Files.createTempDirectory(root, INSTANCE_DIRECTORY_PREFIX);
+        this.lock = FileChannel.open(this.directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).lock();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return number of requests served from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of requests that had to download the object
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of bytes served from the cache rather than downloaded
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    /**
+     * @return number of bytes of cached files
+     */
+    public long getCachedBytes() {
+        synchronized (entries) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Removes an object from the cache.
+     *
+     * @param path path of the object
+     */
+    public void invalidate(final String path) {
+        final Entry removed;
+
+        synchronized (entries) {
+            removed = entries.remove(path);
+
+            if (removed != null) {
+                cachedBytes -= removed.size;
+            }
+        }
+
+        if (removed != null) {
+            delete(removed.file);
+        }
+    }
+
+    /**
+     * Removes all objects from the cache.
+     */
+    public void clear() {
+        final Entry[] removed;
+
+        synchronized (entries) {
+            removed = entries.values().toArray(new Entry[0]);
+            entries.clear();
+            cachedBytes = 0L;
+        }
+
+        for (Entry entry : removed) {
+            delete(entry.file);
+        }
+    }
+
+    /**
+     * Removes all objects from the cache and deletes its subdirectory.
+     */
+    @Override
+    public void close() {
+        clear();
+
+        try {
+            lock.channel().close();
+        } catch (IOException e) {
+            LOG.debug("Unable to release cache lock [{}]", directory, e);
+        }
+
+        deleteInstance(directory);
+    }
+
+    /**
+     * @return subdirectory of this instance in which cached files are stored
+     */
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Opens the cached file of an object so that it can be served if the
+     * object hasn't been modified.
+     *
+     * @param path path of the object
+     * @return cached object or null if the object isn't cached
+     */
+    CachedObject open(final String path) {
+        synchronized (entries) {
+            final Entry entry = entries.get(path);
+
+            if (entry == null) {
+                return null;
+            }
+
+            try {
+                return new CachedObject(entry, Files.newInputStream(entry.file));
+            } catch (NoSuchFileException e) {
+                LOG.debug("Cached file for [{}] is missing", path);
+            } catch (IOException e) {
+                LOG.warn("Unable to open cached file for [{}]", path, e);
+            }
+
+            entries.remove(path);
+            cachedBytes -= entry.size;
+
+            return null;
+        }
+    }
+
+    /**
+     * Records that a request was served from a cached file.
+     *
+     * @param cached cached object that was served
+     */
+    void recordHit(final CachedObject cached) {
+        hits.incrementAndGet();
+        bytesSaved.addAndGet(cached.entry.size);
+    }
+
+    /**
+     * Records that a request had to download the object.
+     */
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Creates a writer that adds an object to the cache once all of its data
+     * has been written.
+     *
+     * @param metadata metadata of the object being downloaded
+     * @return writer or null if the object can't be cached
+     */
+    Writer writer(final MantaObjectResponse metadata) {
+        final Long size = metadata.getContentLength();
+
+        if (metadata.getEtag() == null || size == null || size > maxBytes) {
+            return null;
+        }
+
+        final Path temp = directory.resolve(UUID.randomUUID() + TEMP_FILE_SUFFIX);
+
+        try {
+            return new Writer(metadata, temp, Files.newOutputStream(temp));
+        } catch (IOException e) {
+            LOG.warn("Unable to create cache file for [{}]", metadata.getPath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Adds a fully written file to the cache, replacing any previously cached
+     * version of the object and evicting the least recently used objects
+     * until the cache is within its size limit.
+     *
+     * @param metadata metadata of the object
+     * @param temp fully written temporary file
+     * @param size size of the file in bytes
+     * @throws IOException thrown when the file can't be moved into place
+     */
+    private void commit(final MantaObjectResponse metadata, final Path temp,
+                        final long size) throws IOException {
+        final Path file = directory.resolve(UUID.randomUUID() + CACHE_FILE_SUFFIX);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+
+        final Entry entry = new Entry(metadata, file, size);
+        final Entry replaced;
+
+        synchronized (entries) {
+            replaced = entries.put(metadata.getPath(), entry);
+
+            if (replaced != null) {
+                cachedBytes -= replaced.size;
+            }
+
+            cachedBytes += size;
+
+            final Iterator<Map.Entry<String, Entry>> itr = entries.entrySet().iterator();
+
+            while (cachedBytes > maxBytes && itr.hasNext()) {
+                final Entry eldest = itr.next().getValue();
+                cachedBytes -= eldest.size;
+                itr.remove();
+                delete(eldest.file);
+            }
+        }
+
+        if (replaced != null) {
+            delete(replaced.file);
+        }
+    }
+
+    /**
+     * Deletes the subdirectories of caches whose lock isn't held by an open
+     * cache in this or another process.
+     *
+     * @param root directory in which cached files are stored
+     * @throws IOException thrown when the directory can't be listed
+     */
+    private static void deleteStaleInstances(final Path root) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root,
+                INSTANCE_DIRECTORY_PREFIX + "*")) {
+            for (Path instance : stream) {
+                if (isStale(instance)) {
+                    LOG.debug("Deleting cache [{}] left by a closed client", instance);
+                    deleteInstance(instance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the lock of a cache subdirectory can be acquired, which
+     * means that the cache that created it is no longer open.
+     *
+     * @param instance subdirectory of a cache
+     * @return true when no open cache holds the lock of the subdirectory
+     */
+    private static boolean isStale(final Path instance) {
+        final Path lockFile = instance.resolve(LOCK_FILE);
+
+        // A subdirectory without a lock file may belong to a cache being created
+        if (!Files.isRegularFile(lockFile)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            return channel.tryLock() != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        } catch (IOException e) {
+            LOG.debug("Unable to lock cache [{}]", instance, e);
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the subdirectory of a cache and the files in it.
+     *
+     * @param instance subdirectory of a cache
+     */
+    private static void deleteInstance(final Path instance) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(instance)) {
+            for (Path file : stream) {
+                delete(file);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to list cache directory [{}]", instance, e);
+        }
+
+        delete(instance);
+    }
+
+    /**
+     * Deletes a file, logging rather than throwing errors.
+     *
+     * @param file file to delete
+     */
+    private static void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Unable to delete cache file [{}]", file, e);
+        }
+    }
+
+    /**
+     * Cached file of an object.
+     */
+    private static final class Entry {
+        /**
+         * Metadata of the cached version of the object.
+         */
+        private final MantaObjectResponse metadata;
+
+        /**
+         * Cached file.
+         */
+        private final Path file;
+
+        /**
+         * Size of the file in bytes.
+         */
+        private final long size;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param metadata metadata of the cached version of the object
+         * @param file cached file
+         * @param size size of the file in bytes
+         */
+        private Entry(final MantaObjectResponse metadata, final Path file, final long size) {
+            this.metadata = metadata;
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Cached object whose file has been opened for reading.
+     */
+    static final class CachedObject implements Closeable {
+        /**
+         * Cached file of the object.
+         */
+        private final Entry entry;
+
+        /**
+         * Stream of the cached file.
+         */
+        private final InputStream stream;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param entry cached file of the object
+         * @param stream stream of the cached file
+         */
+        private CachedObject(final Entry entry, final InputStream stream) {
+            this.entry = entry;
+            this.stream = stream;
+        }
+
+        /**
+         * @return etag of the cached version of the object
+         */
+        String getEtag() {
+            return entry.metadata.getEtag();
+        }
+
+        /**
+         * @return metadata of the cached version of the object
+         */
+        MantaObjectResponse getMetadata() {
+            return entry.metadata;
+        }
+
+        /**
+         * @return stream of the cached file
+         */
+        InputStream getStream() {
+            return stream;
+        }
+
+        @Override
+        public void close() {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                LOG.debug("Unable to close cached file", e);
+            }
+        }
+    }
+
+    /**
+     * Writes the data of an object to a temporary file as it is downloaded.
+     * Write errors disable the writer rather than failing the download.
+     */
+    final class Writer {
+        /**
+         * Metadata of the object being downloaded.
+         */
+        private final MantaObjectResponse metadata;
+
+        /**
+         * Temporary file being written.
+         */
+        private final Path temp;
+
+        /**
+         * Stream of the temporary file or null once the writer is finished.
+         */
+        private OutputStream out;
+
+        /**
+         * Number of bytes written.
+         */
+        private long written = 0L;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param metadata metadata of the object being downloaded
+         * @param temp temporary file being written
+         * @param out stream of the temporary file
+         */
+        private Writer(final MantaObjectResponse metadata, final Path temp, final OutputStream out) {
+            this.metadata = metadata;
+            this.temp = temp;
+            this.out = out;
+        }
+
+        /**
+         * Writes downloaded data to the temporary file.
+         *
+         * @param b downloaded data
+         * @param off offset of the data in the array
+         * @param len number of bytes
+         */
+        void write(final byte[] b, final int off, final int len) {
+            if (out == null) {
+                return;
+            }
+
+            try {
+                out.write(b, off, len);
+                written += len;
+            } catch (IOException e) {
+                LOG.warn("Unable to write cache file for [{}]", metadata.getPath(), e);
+                abort();
+            }
+        }
+
+        /**
+         * Writes a downloaded byte to the temporary file.
+         *
+         * @param b downloaded byte
+         */
+        void write(final int b) {
+            if (out == null) {
+                return;
+            }
+
+            try {
+                out.write(b);
+                written++;
+            } catch (IOException e) {
+                LOG.warn("Unable to write cache file for [{}]", metadata.getPath(), e);
+                abort();
+            }
+        }
+
+        /**
+         * Adds the temporary file to the cache if the entire object was
+         * written, otherwise discards it.
+         */
+        void finish() {
+            if (out == null) {
+                return;
+            }
+
+            if (written != metadata.getContentLength()) {
+                LOG.debug("Read {} of {} bytes of [{}], not caching",
+                        written, metadata.getContentLength(), metadata.getPath());
+                abort();
+                return;
+            }
+
+            try {
+                out.close();
+                out = null;
+                commit(metadata, temp, written);
+            } catch (IOException e) {
+                LOG.warn("Unable to add [{}] to the cache", metadata.getPath(), e);
+                abort();
+            }
+        }
+
+        /**
+         * Discards the temporary file.
+         */
+        void abort() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    LOG.debug("Unable to close cache file for [{}]", metadata.getPath(), e);
+                }
+
+                out = null;
+            }
+
+            delete(temp);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.util.FieldInfo;
 import com.google.api.client.util.Types;
 import org.apache.http.Header;
-import org.apache.http.HeaderElement;
 import org.apache.http.message.BasicHeader;
 import org.slf4j.LoggerFactory;
 
@@ -109,6 +108,7 @@ public class MantaHttpHeaders implements Serializable {
 
             if (header.getValue() == null) {
                 wrappedHeaders.put(header.getName(), null);
+                continue;
             }
 
             switch (header.getName().toLowerCase()) {
@@ -119,10 +119,18 @@ public class MantaHttpHeaders implements Serializable {
                     wrappedHeaders.setAge(Long.parseLong(header.getValue()));
                     break;
                 default:
-                    List<String> values = new ArrayList<>();
-                    for (HeaderElement e : header.getElements()) {
-                        values.add(e.getValue());
+                    /* We use the raw value rather than the parsed header
+                     * elements because values like dates contain commas. */
+                    final List<String> values = new ArrayList<>();
+                    final Object existing = wrappedHeaders.get(header.getName());
+
+                    if (existing != null) {
+                        for (Object value : Types.iterableOf(existing)) {
+                            values.add(MantaUtils.asString(value));
+                        }
                     }
+
+                    values.add(header.getValue());
                     wrappedHeaders.set(header.getName(), values);
             }
         }
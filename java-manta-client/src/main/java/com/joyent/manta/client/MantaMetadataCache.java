@@ -0,0 +1,338 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time bounded cache of the object metadata returned by HTTP HEAD requests.
+ * Responses are cached for a fixed time to live and 404 responses can be
+ * cached for a separate (typically shorter) time to live, so that repeated
+ * existence checks don't each need a round trip to Manta. Entries for a path
+ * and its parent directory are invalidated when the owning client writes to
+ * the path. Writes made by other clients are only visible once the cached
+ * entry has expired.
+ *
+ * <p>The cache holds at most a fixed number of paths and evicts the least
+ * recently used path when it is full.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaMetadataCache {
+    /**
+     * Initial capacity of the map of cached entries.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Load factor of the map of cached entries.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Number of milliseconds that metadata is cached for.
+     */
+    private final long ttl;
+
+    /**
+     * Number of milliseconds that missing objects are cached for.
+     */
+    private final long negativeTtl;
+
+    /**
+     * Maximum number of cached paths.
+     */
+    private final int maxEntries;
+
+    /**
+     * Source of the current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Cached entries in access order, guarded by itself.
+     */
+    private final LinkedHashMap<String, CachedMetadata> entries;
+
+    /**
+     * Number of invalidations, used to discard responses that were loaded
+     * while a write was in progress.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Number of lookups served from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of lookups that required a request to Manta.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a new instance of a metadata cache.
+     *
+     * @param ttl number of milliseconds that metadata is cached for
+     * @param negativeTtl number of milliseconds that missing objects are cached for
+     * @param maxEntries maximum number of cached paths
+     */
+    public MantaMetadataCache(final long ttl, final long negativeTtl, final int maxEntries) {
+        this(ttl, negativeTtl, maxEntries, System::nanoTime);
+    }
+
+    /**
+     * Creates a new instance of a metadata cache with the specified clock.
+     *
+     * @param ttl number of milliseconds that metadata is cached for
+     * @param negativeTtl number of milliseconds that missing objects are cached for
+     * @param maxEntries maximum number of cached paths
+     * @param clock source of the current time in nanoseconds
+     */
+    MantaMetadataCache(final long ttl, final long negativeTtl, final int maxEntries,
+                       final LongSupplier clock) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Metadata cache TTL must be greater than 0");
+        }
+        if (negativeTtl < 0) {
+            throw new IllegalArgumentException("Metadata cache negative TTL must be 0 or greater");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Metadata cache must hold at least one entry");
+        }
+
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.negativeTtl = TimeUnit.MILLISECONDS.toNanos(negativeTtl);
+        this.maxEntries = maxEntries;
+        this.clock = Objects.requireNonNull(clock, "Clock must be present");
+        this.entries = new LinkedHashMap<String, CachedMetadata>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            private static final long serialVersionUID = -2867359285718372716L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedMetadata> eldest) {
+                return size() > MantaMetadataCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached metadata for a path or loads it when it isn't cached
+     * or has expired.
+     *
+     * @param path fully qualified path of the object
+     * @param loader function that issues the HEAD request for the path
+     * @return metadata of the object
+     * @throws IOException thrown when the loader fails or when the object is cached as missing
+     */
+    MantaObjectResponse get(final String path, final Loader loader) throws IOException {
+        final String key = key(path);
+        final long now = clock.getAsLong();
+        final CachedMetadata cached;
+
+        synchronized (entries) {
+            cached = entries.get(key);
+
+            if (cached != null && now - cached.expires >= 0) {
+                entries.remove(key, cached);
+            }
+        }
+
+        if (cached != null && now - cached.expires < 0) {
+            hits.incrementAndGet();
+
+            if (cached.notFound != null) {
+                final MantaClientHttpResponseException e = new MantaClientHttpResponseException(
+                        (HttpResponseException)cached.notFound.getCause());
+                e.setContextValue("metadataCacheHit", true);
+                throw e;
+            }
+
+            return copy(cached.response);
+        }
+
+        misses.incrementAndGet();
+        final long loadGeneration = generation.get();
+
+        try {
+            final MantaObjectResponse response = loader.load();
+            store(key, new CachedMetadata(copy(response), null, clock.getAsLong() + ttl), loadGeneration);
+            return response;
+        } catch (MantaClientHttpResponseException e) {
+            if (negativeTtl > 0 && e.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_FOUND
+                    && e.getCause() instanceof HttpResponseException) {
+                store(key, new CachedMetadata(null, e, clock.getAsLong() + negativeTtl), loadGeneration);
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the cached entries of a path and of its parent directory,
+     * because writing to a path changes the listing of its parent.
+     *
+     * @param path fully qualified path of the object
+     */
+    public void invalidate(final String path) {
+        final String key = key(path);
+
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(key);
+
+            final int separator = key.lastIndexOf(MantaClient.SEPARATOR);
+
+            if (separator > 0) {
+                entries.remove(key.substring(0, separator));
+            }
+        }
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of lookups served from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups that required a request to Manta
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return ratio of lookups served from the cache to all lookups or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        final long hitCount = hits.get();
+        final long total = hitCount + misses.get();
+
+        if (total == 0) {
+            return 0.0;
+        }
+
+        return (double)hitCount / total;
+    }
+
+    /**
+     * @return number of paths in the cache, including expired entries that haven't been removed
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Stores an entry unless the cache was invalidated after the entry was loaded.
+     *
+     * @param key normalized path of the object
+     * @param entry entry to cache
+     * @param loadGeneration number of invalidations before the entry was loaded
+     */
+    private void store(final String key, final CachedMetadata entry, final long loadGeneration) {
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Copies a response so that callers can't modify the cached headers.
+     *
+     * @param response response to copy
+     * @return response with a copy of the headers
+     */
+    private static MantaObjectResponse copy(final MantaObjectResponse response) {
+        return new MantaObjectResponse(response.getPath(), new MantaHttpHeaders(response));
+    }
+
+    /**
+     * Normalizes a path so that trailing separators don't create separate entries.
+     *
+     * @param path fully qualified path of the object
+     * @return path without trailing separators
+     */
+    private static String key(final String path) {
+        Objects.requireNonNull(path, "Path must not be null");
+
+        int end = path.length();
+
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+
+        return path.substring(0, end);
+    }
+
+    /**
+     * Function that loads the metadata of an object from Manta.
+     */
+    @FunctionalInterface
+    interface Loader {
+        /**
+         * @return metadata of the object
+         * @throws IOException thrown when the metadata can't be loaded
+         */
+        MantaObjectResponse load() throws IOException;
+    }
+
+    /**
+     * Cached response to a HEAD request.
+     */
+    private static final class CachedMetadata {
+        /**
+         * Metadata of the object or null if the object was missing.
+         */
+        private final MantaObjectResponse response;
+
+        /**
+         * Exception thrown when the object was missing or null if it exists.
+         */
+        private final MantaClientHttpResponseException notFound;
+
+        /**
+         * Time in nanoseconds when the entry expires.
+         */
+        private final long expires;
+
+        /**
+         * Creates a new cache entry.
+         *
+         * @param response metadata of the object or null if the object was missing
+         * @param notFound exception thrown when the object was missing
+         * @param expires time in nanoseconds when the entry expires
+         */
+        private CachedMetadata(final MantaObjectResponse response,
+                      final MantaClientHttpResponseException notFound,
+                      final long expires) {
+            this.response = response;
+            this.notFound = notFound;
+            this.expires = expires;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.joyent.manta.client;
 
 import com.google.api.client.http.HttpResponse;
+import com.joyent.manta.config.DefaultsConfigContext;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.joyent.manta.exception.MantaIOException;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Date;
 
 /**
@@ -11,11 +18,47 @@ import java.util.Date;
  * from {@link MantaClient} and implements {@link MantaObject} so that you
  * can obtain metadata information.
  *
+ * <p>When the stream is closed before all of the data has been read, the
+ * remaining bytes are drained from the connection if there are fewer of
+ * them than the configured drain threshold so that the connection can be
+ * returned to the connection pool. Otherwise, the connection is aborted
+ * because reading the rest of the object would be more expensive than
+ * opening a new connection.</p>
+ *
+ * <p>When constructed with a {@link RangeRequester} and a retry count above
+ * zero, the stream tracks its byte offset and resumes after a network failure
+ * by reissuing the request with a {@code Range} header starting at the offset
+ * and an {@code If-Match} header containing the object's etag. Each failure
+ * is retried up to the retry count - the count is reset whenever data is
+ * successfully read.</p>
+ *
+ * <p>When the object is being added to a {@link MantaDiskCache}, the data
+ * read is also written to the cache and the object is added to the cache
+ * once it has been read to the end.</p>
+ *
+ * <p>Streams of objects served from a {@link MantaBodyCache} or shared by
+ * coalesced requests read directly from the buffer holding the data.</p>
+ *
  * @author <a href="https://github.com/dekobon">Elijah Zupancic</a>
  */
 public class MantaObjectInputStream extends InputStream implements MantaObject {
     private static final long serialVersionUID = 4129729453592380566L;
 
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaObjectInputStream.class);
+
+    /**
+     * Size of the buffer used when draining unread bytes on close.
+     */
+    private static final int DRAIN_BUFFER_SIZE = 8192;
+
+    /**
+     * HTTP status code returned when a range request is honored.
+     */
+    private static final int PARTIAL_CONTENT = 206;
+
     /**
      * Response from request to the Manta API.
      */
@@ -24,12 +67,66 @@ public class MantaObjectInputStream extends InputStream implements MantaObject {
     /**
      * The backing {@link InputStream} implementation.
      */
-    private final InputStream backingStream;
+    private InputStream backingStream;
 
     /**
      * The HTTP response sent from the Manta API.
      */
-    private final transient HttpResponse httpResponse;
+    private transient HttpResponse httpResponse;
+
+    /**
+     * Maximum number of unread bytes that will be drained on close in order
+     * to reuse the connection.
+     */
+    private final int drainOnCloseThreshold;
+
+    /**
+     * Requests the remainder of the object when resuming after a failure
+     * or null if the stream can't be resumed.
+     */
+    private final transient RangeRequester rangeRequester;
+
+    /**
+     * Maximum number of consecutive times the stream is resumed after failures.
+     */
+    private final int resumeRetries;
+
+    /**
+     * Number of times the stream has been resumed since data was last read.
+     */
+    private int consecutiveFailures = 0;
+
+    /**
+     * Number of bytes read or skipped from the backing stream.
+     */
+    private long bytesRead = 0L;
+
+    /**
+     * Number of bytes read at the time that {@link #mark(int)} was called.
+     */
+    private long markedBytesRead = 0L;
+
+    /**
+     * Flag indicating that the end of the backing stream was reached.
+     */
+    private boolean eofReached = false;
+
+    /**
+     * Flag indicating that the stream has been closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * Writes the data read to the disk cache or null if the object isn't
+     * being cached.
+     */
+    private transient MantaDiskCache.Writer cacheWriter;
+
+    /**
+     * Read-only buffer of the object's data when it was served from memory
+     * or null otherwise.
+     */
+    private final transient ByteBuffer cachedBody;
 
     /**
      * Create a new instance from the results of a GET HTTP call to the
@@ -41,9 +138,105 @@ public class MantaObjectInputStream extends InputStream implements MantaObject {
      */
     MantaObjectInputStream(final MantaObjectResponse response,
                            final HttpResponse httpResponse) throws IOException {
+        this(response, httpResponse, DefaultsConfigContext.DEFAULT_DRAIN_ON_CLOSE_THRESHOLD);
+    }
+
+    /**
+     * Create a new instance from the results of a GET HTTP call to the
+     * Manta API.
+     *
+     * @param response Metadata object built from request
+     * @param httpResponse Response object created
+     * @param drainOnCloseThreshold maximum number of unread bytes to drain on close
+     * @throws IOException thrown when there is a network problem
+     */
+    MantaObjectInputStream(final MantaObjectResponse response,
+                           final HttpResponse httpResponse,
+                           final int drainOnCloseThreshold) throws IOException {
+        this(response, httpResponse, drainOnCloseThreshold, null, 0);
+    }
+
+    /**
+     * Create a new instance from the results of a GET HTTP call to the
+     * Manta API that resumes reading after network failures.
+     *
+     * @param response Metadata object built from request
+     * @param httpResponse Response object created
+     * @param drainOnCloseThreshold maximum number of unread bytes to drain on close
+     * @param rangeRequester requests the remainder of the object when resuming (null to disable)
+     * @param resumeRetries maximum number of consecutive times to resume (0 to disable)
+     * @throws IOException thrown when there is a network problem
+     */
+    MantaObjectInputStream(final MantaObjectResponse response,
+                           final HttpResponse httpResponse,
+                           final int drainOnCloseThreshold,
+                           final RangeRequester rangeRequester,
+                           final int resumeRetries) throws IOException {
         this.response = response;
         this.httpResponse = httpResponse;
         this.backingStream = httpResponse.getContent();
+        this.drainOnCloseThreshold = drainOnCloseThreshold;
+        this.rangeRequester = rangeRequester;
+        this.resumeRetries = resumeRetries;
+        this.cachedBody = null;
+    }
+
+    /**
+     * Create a new instance that reads an object's data from a local
+     * file of the disk cache rather than from an HTTP response.
+     *
+     * @param response Metadata object of the cached object
+     * @param cachedStream stream of the cached data
+     */
+    MantaObjectInputStream(final MantaObjectResponse response,
+                           final InputStream cachedStream) {
+        this.response = response;
+        this.httpResponse = null;
+        this.backingStream = cachedStream;
+        this.drainOnCloseThreshold = 0;
+        this.rangeRequester = null;
+        this.resumeRetries = 0;
+        this.cachedBody = null;
+    }
+
+    /**
+     * Create a new instance that reads an object's data from a buffer held
+     * in memory (by the body cache or a coalesced request) rather than from
+     * an HTTP response.
+     *
+     * @param response Metadata object of the cached object
+     * @param cachedBody read-only buffer of the cached data
+     */
+    MantaObjectInputStream(final MantaObjectResponse response,
+                           final ByteBuffer cachedBody) {
+        this.response = response;
+        this.httpResponse = null;
+        this.backingStream = new ByteBufferInputStream(cachedBody.duplicate());
+        this.drainOnCloseThreshold = 0;
+        this.rangeRequester = null;
+        this.resumeRetries = 0;
+        this.cachedBody = cachedBody;
+    }
+
+    /**
+     * Writes the data read from this stream to the disk cache.
+     *
+     * @param writer writer of the disk cache
+     */
+    void cacheTo(final MantaDiskCache.Writer writer) {
+        this.cacheWriter = writer;
+    }
+
+    /**
+     * @return read-only view of all of the object's data when it was served
+     *         from memory, otherwise null
+     */
+    ByteBuffer getCachedBody() {
+        if (cachedBody == null) {
+            return null;
+        }
+
+        return cachedBody.duplicate();
     }
 
     @Override
@@ -118,22 +311,79 @@ public class MantaObjectInputStream extends InputStream implements MantaObject {
 
     @Override
     public int read() throws IOException {
-        return backingStream.read();
+        while (true) {
+            final int b;
+
+            try {
+                b = backingStream.read();
+            } catch (IOException e) {
+                resume(e);
+                continue;
+            }
+
+            if (b == -1) {
+                reachedEof();
+            } else {
+                bytesRead++;
+                consecutiveFailures = 0;
+
+                if (cacheWriter != null) {
+                    cacheWriter.write(b);
+                }
+            }
+
+            return b;
+        }
     }
 
     @Override
     public int read(final byte[] b) throws IOException {
-        return backingStream.read(b);
+        return read(b, 0, b.length);
     }
 
     @Override
     public int read(final byte[] b, final int off, final int len) throws IOException {
-        return backingStream.read(b, off, len);
+        while (true) {
+            final int read;
+
+            try {
+                read = backingStream.read(b, off, len);
+            } catch (IOException e) {
+                resume(e);
+                continue;
+            }
+
+            countBytesRead(read);
+
+            if (read > 0 && cacheWriter != null) {
+                cacheWriter.write(b, off, read);
+            }
+
+            return read;
+        }
     }
 
     @Override
     public long skip(final long n) throws IOException {
-        return backingStream.skip(n);
+        while (true) {
+            final long skipped;
+
+            try {
+                skipped = backingStream.skip(n);
+            } catch (IOException e) {
+                resume(e);
+                continue;
+            }
+
+            if (skipped > 0) {
+                bytesRead += skipped;
+                consecutiveFailures = 0;
+                // Skipped bytes are never seen, so the object can't be cached
+                abortCaching();
+            }
+
+            return skipped;
+        }
     }
 
     @Override
@@ -141,24 +391,271 @@ public class MantaObjectInputStream extends InputStream implements MantaObject {
         return backingStream.available();
     }
 
+    /**
+     * Updates the count of bytes read with the return value of a bulk read.
+     *
+     * @param read number of bytes read or -1 if the end of the stream was reached
+     */
+    private void countBytesRead(final int read) {
+        if (read == -1) {
+            reachedEof();
+        } else {
+            bytesRead += read;
+
+            if (read > 0) {
+                consecutiveFailures = 0;
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the backing stream as reached and adds the object
+     * to the disk cache if it is being cached.
+     */
+    private void reachedEof() {
+        eofReached = true;
+
+        if (cacheWriter != null) {
+            cacheWriter.finish();
+            cacheWriter = null;
+        }
+    }
+
+    /**
+     * Stops writing the data read to the disk cache.
+     */
+    private void abortCaching() {
+        if (cacheWriter != null) {
+            cacheWriter.abort();
+            cacheWriter = null;
+        }
+    }
+
+    /**
+     * Determines if the stream can be resumed from its current offset.
+     * Streams of content that was encoded in transit (e.g. gzip) can't be
+     * resumed because the offset doesn't correspond to the stored object,
+     * and objects without an etag can't be resumed because we couldn't
+     * guarantee that the remaining bytes come from the same object.
+     *
+     * @return true if a failed read can be resumed
+     */
+    boolean isResumable() {
+        return rangeRequester != null
+                && resumeRetries > 0
+                && !closed
+                && !eofReached
+                && getEtag() != null
+                && httpResponse.getContentEncoding() == null;
+    }
+
+    /**
+     * Reopens the stream at the current offset after a failed read. The
+     * original exception is rethrown if the stream can't be resumed or if
+     * the retries have been exhausted.
+     *
+     * @param cause exception thrown by the failed read
+     * @throws IOException thrown when the stream couldn't be resumed
+     */
+    private void resume(final IOException cause) throws IOException {
+        if (!isResumable()) {
+            throw cause;
+        }
+
+        while (consecutiveFailures < resumeRetries) {
+            consecutiveFailures++;
+            LOG.warn("Error reading [{}] at offset {}, resuming (attempt {} of {})",
+                    getPath(), bytesRead, consecutiveFailures, resumeRetries, cause);
+
+            abortQuietly();
+
+            final HttpResponse resumed;
+
+            try {
+                resumed = rangeRequester.request(bytesRead);
+            } catch (MantaClientHttpResponseException e) {
+                // The server refused the request (e.g. the object changed), so retrying won't help
+                e.addSuppressed(cause);
+                throw e;
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+                continue;
+            }
+
+            if (resumed.getStatusCode() != PARTIAL_CONTENT) {
+                resumed.disconnect();
+
+                final MantaIOException exception = new MantaIOException(
+                        "Server didn't honor range request when resuming download", cause);
+                exception.setContextValue("path", getPath());
+                exception.setContextValue("offset", bytesRead);
+                exception.setContextValue("statusCode", resumed.getStatusCode());
+
+                throw exception;
+            }
+
+            httpResponse = resumed;
+            backingStream = resumed.getContent();
+            return;
+        }
+
+        throw cause;
+    }
+
+    /**
+     * Aborts the current connection, ignoring any errors.
+     */
+    private void abortQuietly() {
+        try {
+            abort();
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Error aborting connection [{}]", getPath(), e);
+        }
+    }
+
+    /**
+     * Calculates the number of bytes that have yet to be read from the
+     * backing stream.
+     *
+     * @return number of unread bytes or null if it can't be determined
+     */
+    Long remainingBytes() {
+        if (eofReached) {
+            return 0L;
+        }
+
+        final Long contentLength = getContentLength();
+
+        /* When the content is encoded (e.g. gzip), the bytes read don't
+         * correspond to the bytes on the wire, so we can't know how many
+         * remain. */
+        if (contentLength == null || (httpResponse != null && httpResponse.getContentEncoding() != null)) {
+            return null;
+        }
+
+        return Math.max(contentLength - bytesRead, 0L);
+    }
+
+    /**
+     * Determines if the unread bytes of the stream should be drained on
+     * close rather than aborting the connection.
+     *
+     * @return true if the remaining bytes are within the drain threshold
+     */
+    boolean shouldDrainOnClose() {
+        final Long remaining = remainingBytes();
+
+        return remaining != null && remaining <= drainOnCloseThreshold;
+    }
+
     @Override
     public void close() throws IOException {
-        backingStream.close();
-        httpResponse.disconnect();
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        abortCaching();
+
+        if (shouldDrainOnClose() && drain()) {
+            /* Closing the fully read backing stream releases the
+             * connection back to the pool. */
+            backingStream.close();
+        } else {
+            abort();
+        }
+    }
+
+    /**
+     * Reads and discards the remaining bytes of the backing stream, giving
+     * up if more bytes than the drain threshold are encountered.
+     *
+     * @return true if the end of the stream was reached
+     */
+    private boolean drain() {
+        if (eofReached) {
+            return true;
+        }
+
+        final byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        long drained = 0L;
+
+        try {
+            int read;
+
+            while ((read = backingStream.read(buffer)) != -1) {
+                drained += read;
+
+                if (drained > drainOnCloseThreshold) {
+                    LOG.debug("More bytes than expected when draining [{}], aborting",
+                            getPath());
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("Unable to drain stream [{}], aborting", getPath(), e);
+            return false;
+        }
+
+        eofReached = true;
+        return true;
+    }
+
+    /**
+     * Aborts the underlying connection so that the unread bytes are never
+     * transferred over the network.
+     *
+     * @throws IOException thrown when the connection can't be aborted
+     */
+    private void abort() throws IOException {
+        if (backingStream instanceof ConnectionReleaseTrigger) {
+            ((ConnectionReleaseTrigger)backingStream).abortConnection();
+            return;
+        }
+
+        try {
+            backingStream.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing stream before disconnecting [{}]", getPath(), e);
+        }
+
+        if (httpResponse != null) {
+            httpResponse.disconnect();
+        }
     }
 
     @Override
     public void mark(final int readlimit) {
         backingStream.mark(readlimit);
+        markedBytesRead = bytesRead;
     }
 
     @Override
     public void reset() throws IOException {
         backingStream.reset();
+        bytesRead = markedBytesRead;
+        eofReached = false;
+        // Data read again after a reset would be written to the cache twice
+        abortCaching();
     }
 
     @Override
     public boolean markSupported() {
         return backingStream.markSupported();
     }
+
+    /**
+     * Function that requests an object's data starting at an offset.
+     */
+    @FunctionalInterface
+    interface RangeRequester {
+        /**
+         * Requests an object's data from an offset to the end of the object.
+         *
+         * @param offset offset of the first byte to request
+         * @return response containing the requested data
+         * @throws IOException thrown when the request fails
+         */
+        HttpResponse request(long offset) throws IOException;
+    }
 }
@@ -9,9 +9,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -41,14 +46,14 @@ public class MantaObjectOutputStream extends OutputStream {
     private static final ThreadGroup THREAD_GROUP = new ThreadGroup("manta-outputstream");
 
     /**
-     * Number of milliseconds to wait between checks to see if the stream has been closed.
+     * Size of the array used to copy data from the upload buffer to the connection.
      */
-    private static final long CLOSED_CHECK_INTERVAL = 50L;
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
 
     /**
      * Custom thread factory that makes sensibly named daemon threads.
      */
-    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+    static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
         private final AtomicInteger count = new AtomicInteger(1);
 
         @Override
@@ -62,7 +67,8 @@ public class MantaObjectOutputStream extends OutputStream {
     };
 
     /**
-     * Global executor service used for scheduling Manta OutputStream threads.
+     * Global executor service used for scheduling Manta OutputStream threads
+     * unless a client is configured with its own upload threads.
      * You shouldn't need to call shutdown on this because all of the threads scheduled
      * are daemon threads, but it is exposed so that you can manage its lifecycle
      * if needed.
@@ -76,9 +82,16 @@ public class MantaObjectOutputStream extends OutputStream {
      */
     private class EmbeddedHttpContent implements HttpContent {
         /**
-         * The actual output stream that is used by Google HTTP Client.
+         * The actual output stream that is used by Google HTTP Client. It is
+         * completed when the upload starts writing or when the upload fails
+         * before it starts writing.
          */
-        private volatile OutputStream writer;
+        private final CompletableFuture<OutputStream> writer = new CompletableFuture<>();
+
+        /**
+         * Latch released when the parent OutputStream is closed.
+         */
+        private final CountDownLatch closed = new CountDownLatch(1);
 
         @Override
         public long getLength() throws IOException {
@@ -96,18 +109,27 @@ public class MantaObjectOutputStream extends OutputStream {
         }
 
         @Override
-        public synchronized void writeTo(final OutputStream out) throws IOException {
-            writer = out;
+        public void writeTo(final OutputStream out) throws IOException {
+            if (buffer != null) {
+                drain(out);
+                return;
+            }
 
-            /* Loop while the parent OutputStream is still open. This allows us to write
+            writer.complete(out);
+
+            /* Block until the parent OutputStream is closed. This allows us to write
              * to the stream from the parent class while keeping the stream open with
              * another thread. */
-            while (!isClosed) {
-                try {
-                    this.wait(CLOSED_CHECK_INTERVAL);
-                } catch (InterruptedException e) {
-                    return; // exit loop and assume closed if interrupted
-                }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                /* Fail the request instead of finishing it, because finishing
+                 * it would store whatever was written so far as the object. */
+                Thread.currentThread().interrupt();
+                final InterruptedIOException exception = new InterruptedIOException(
+                        "Interrupted before the output stream was closed");
+                exception.initCause(e);
+                throw exception;
             }
         }
     }
@@ -118,7 +140,26 @@ public class MantaObjectOutputStream extends OutputStream {
     private Callable<MantaObjectResponse> upload = new Callable<MantaObjectResponse>() {
         @Override
         public MantaObjectResponse call() throws Exception {
-            return httpHelper.httpPut(path, headers, httpContent, metadata);
+            try {
+                return httpHelper.httpPut(path, headers, httpContent, metadata);
+            } catch (Exception e) {
+                httpContent.writer.completeExceptionally(e);
+
+                if (buffer != null) {
+                    buffer.fail(e);
+                }
+
+                throw e;
+            } finally {
+                // Unblocks writers if the request finished without writing content
+                final IOException finished = new IOException(
+                        "Upload finished before the stream could be written to");
+                httpContent.writer.completeExceptionally(finished);
+
+                if (buffer != null) {
+                    buffer.fail(finished);
+                }
+            }
         }
     };
 
@@ -152,6 +193,17 @@ public class MantaObjectOutputStream extends OutputStream {
      */
     private final EmbeddedHttpContent httpContent;
 
+    /**
+     * Buffer between writers and the upload thread or null when data is
+     * written directly to the connection.
+     */
+    private final ByteRingBuffer buffer;
+
+    /**
+     * Array used to write single bytes to the upload buffer.
+     */
+    private final byte[] singleByte = new byte[1];
+
     /**
      * {@link Future} that represents upload thread running.
      */
@@ -186,48 +238,141 @@ public class MantaObjectOutputStream extends OutputStream {
                             final MantaHttpHeaders headers,
                             final MantaMetadata metadata,
                             final String contentType) {
+        this(path, httpHelper, headers, metadata, contentType, null, new MantaUploadExecutor());
+    }
+
+    /**
+     * Creates a new instance of an {@link OutputStream} that wraps PUT
+     * requests to Manta. When a buffer is specified, writes are copied to the
+     * buffer and only block when it is full, while the upload thread sends
+     * the buffered data to Manta.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param httpHelper reference to HTTP operations helper class
+     * @param headers optional HTTP headers to include when copying the object
+     * @param metadata optional user-supplied metadata for object
+     * @param contentType HTTP Content-Type header value
+     * @param buffer buffer between writers and the upload thread or null to
+     *               write directly to the connection
+     * @param executor executor that runs the upload
+     * @throws java.util.concurrent.RejectedExecutionException thrown when the
+     *         executor has no thread or queue space available for the upload
+     */
+    MantaObjectOutputStream(final String path, final HttpHelper httpHelper,
+                            final MantaHttpHeaders headers,
+                            final MantaMetadata metadata,
+                            final String contentType,
+                            final ByteRingBuffer buffer,
+                            final MantaUploadExecutor executor) {
+        this.buffer = buffer;
         this.path = path;
         this.httpHelper = httpHelper;
         this.headers = headers;
         this.metadata = metadata;
         this.contentType = contentType;
         this.httpContent = new EmbeddedHttpContent();
-        this.completed = EXECUTOR.submit(upload);
+        this.completed = executor.submit(upload, this::dropped);
+    }
 
-        /**
-         * We have to wait here until the upload to Manta starts and a Writer
-         * becomes available.
-         */
-        while (httpContent.writer == null) {
-            try {
-                Thread.sleep(CLOSED_CHECK_INTERVAL);
-            } catch (InterruptedException e) {
-                return;
+    /**
+     * Fails writers when the upload was cancelled before it started because
+     * its executor was closed.
+     */
+    private void dropped() {
+        final IOException exception = new IOException(
+                "Upload executor was closed before the upload started");
+        httpContent.writer.completeExceptionally(exception);
+
+        if (buffer != null) {
+            buffer.fail(exception);
+        }
+    }
+
+    /**
+     * Waits for the upload to start and returns the stream that the upload
+     * is reading from.
+     *
+     * @return output stream of the HTTP request
+     * @throws IOException thrown when the upload failed before it started writing
+     */
+    private OutputStream writer() throws IOException {
+        try {
+            return httpContent.writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for the upload to start");
+            exception.initCause(e);
+            throw exception;
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Copies data from the upload buffer to the connection until the stream
+     * is closed. The buffer is failed if the data can't be sent, so that
+     * blocked writers are released.
+     *
+     * @param out output stream of the HTTP request
+     * @throws IOException thrown when the data can't be sent
+     */
+    private void drain(final OutputStream out) throws IOException {
+        final byte[] transfer = new byte[Math.min(TRANSFER_BUFFER_SIZE, buffer.capacity())];
+
+        try {
+            int read;
+
+            while ((read = buffer.read(transfer, 0, transfer.length)) != -1) {
+                out.write(transfer, 0, read);
             }
+        } catch (IOException | RuntimeException e) {
+            buffer.fail(e);
+            throw e;
         }
     }
 
     @Override
     public void write(final int b) throws IOException {
-        httpContent.writer.write(b);
+        if (buffer != null) {
+            singleByte[0] = (byte)b;
+            buffer.write(singleByte, 0, 1);
+        } else {
+            writer().write(b);
+        }
+
         bytesWritten++;
     }
 
     @Override
     public void write(final byte[] b) throws IOException {
-        httpContent.writer.write(b);
-        bytesWritten += b.length;
+        write(b, 0, b.length);
     }
 
     @Override
     public void write(final byte[] b, final int off, final int len) throws IOException {
-        httpContent.writer.write(b, off, len);
-        bytesWritten += b.length;
+        if (buffer != null) {
+            buffer.write(b, off, len);
+        } else {
+            writer().write(b, off, len);
+        }
+
+        bytesWritten += len;
     }
 
+    /**
+     * Flushes written data to the connection. When writes are buffered, this
+     * waits until the upload thread has sent all of the buffered data.
+     *
+     * @throws IOException thrown when the data couldn't be sent
+     */
     @Override
     public void flush() throws IOException {
-        httpContent.writer.flush();
+        if (buffer != null) {
+            buffer.awaitDrained();
+        } else {
+            writer().flush();
+        }
     }
 
     /**
@@ -253,15 +398,33 @@ public class MantaObjectOutputStream extends OutputStream {
 
     @Override
     public synchronized void close() throws IOException {
-        Boolean innerIsClosed = isInnerStreamClosed(this.httpContent.writer);
-        if (innerIsClosed != null && !innerIsClosed) {
-            this.httpContent.writer.flush();
+        if (this.isClosed) {
+            return;
+        }
+
+        if (buffer != null) {
+            // Marks the end of the data once the buffered data has been sent
+            buffer.close();
         }
 
-        this.isClosed = true;
+        OutputStream writer = null;
+
+        try {
+            writer = this.httpContent.writer.getNow(null);
+        } catch (CompletionException e) {
+            // the upload failed before it started writing, which is reported below
+        }
 
-        synchronized (this.httpContent) {
-            this.httpContent.notify();
+        try {
+            if (writer != null) {
+                Boolean innerIsClosed = isInnerStreamClosed(writer);
+                if (innerIsClosed != null && !innerIsClosed) {
+                    writer.flush();
+                }
+            }
+        } finally {
+            this.isClosed = true;
+            this.httpContent.closed.countDown();
         }
 
         try {
@@ -269,7 +432,8 @@ public class MantaObjectOutputStream extends OutputStream {
             this.objectResponse.setContentLength(bytesWritten);
         } catch (InterruptedException e) {
             // continue execution if interrupted
-        } catch (ExecutionException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
             throw new IOException(e);
         }
     }
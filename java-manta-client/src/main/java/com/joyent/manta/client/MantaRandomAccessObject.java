@@ -0,0 +1,662 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.joyent.manta.exception.MantaClientException;
+import com.joyent.manta.exception.MantaIOException;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-only view of a Manta object that supports positional reads from many
+ * threads at once, analogous to {@link java.nio.channels.FileChannel#read(ByteBuffer, long)}.
+ * Unlike {@link MantaSeekableByteChannel}, there is no shared position, so
+ * different threads can read different regions of a large object in parallel.
+ *
+ * <p>Each read is served by an HTTP range request for the bytes read plus
+ * up to {@link #SKIP_THRESHOLD} bytes after them. When a read finishes, its
+ * connection is kept open and positioned after the bytes read, so that a
+ * subsequent read starting at (or a short distance after) that offset reuses
+ * it instead of opening a new connection. Because the ranges are bounded, an
+ * idle connection never holds more than that many unread bytes, and a read
+ * that runs past the end of a reused range continues with a new range
+ * request. Reads that fall entirely within a
+ * range that is already being fetched wait for that fetch rather than issuing
+ * their own request, and reads that start where an in-flight read ends wait
+ * for it so that they can continue on its connection.</p>
+ *
+ * <p>The object's size and etag are read with a HEAD request on first use and
+ * all ranges are requested conditionally on that etag, so that all data read
+ * comes from the same version of the object.</p>
+ *
+ * @since 2.7.2
+ */
+@ThreadSafe
+public class MantaRandomAccessObject implements Closeable {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaRandomAccessObject.class);
+
+    /**
+     * Constant representing the value returned when we have reached the
+     * end of a stream.
+     */
+    private static final int EOF = -1;
+
+    /**
+     * Maximum number of bytes a read will discard from an idle connection
+     * in order to reuse it rather than requesting a new range.
+     */
+    static final long SKIP_THRESHOLD = MantaSeekableByteChannel.SKIP_THRESHOLD;
+
+    /**
+     * URL of the object on the Manta API.
+     */
+    private final GenericUrl objectUri;
+
+    /**
+     * The provider for http requests setup, metadata and request initialization.
+     */
+    private final HttpRequestFactory httpRequestFactory;
+
+    /**
+     * Maximum number of idle connections kept open for reuse.
+     */
+    private final int maxIdleConnections;
+
+    /**
+     * Open connections that aren't being read from, most recently used
+     * last. Guarded by itself.
+     */
+    private final Deque<RangeCursor> idle = new ArrayDeque<>();
+
+    /**
+     * Ranges that are currently being fetched. Guarded by itself.
+     */
+    private final List<PendingRange> pending = new ArrayList<>();
+
+    /**
+     * Number of range requests made.
+     */
+    private final AtomicLong rangeRequests = new AtomicLong();
+
+    /**
+     * Number of reads served by reusing an open connection.
+     */
+    private final AtomicLong reusedConnections = new AtomicLong();
+
+    /**
+     * Number of reads served by waiting on another in-flight read.
+     */
+    private final AtomicLong coalescedReads = new AtomicLong();
+
+    /**
+     * Function called when a read starts waiting on another in-flight read.
+     */
+    private volatile Runnable coalescedListener;
+
+    /**
+     * Flag indicating if the object is open.
+     */
+    private volatile boolean open = true;
+
+    /**
+     * Size of the object in bytes or null if not yet known. Guarded by this.
+     */
+    private Long size;
+
+    /**
+     * Etag of the object. Guarded by this.
+     */
+    private String etag;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param objectUri URL of the object on the Manta API
+     * @param httpRequestFactory provider for http requests setup, metadata and request initialization
+     * @param maxIdleConnections maximum number of idle connections kept open for reuse
+     */
+    public MantaRandomAccessObject(final GenericUrl objectUri,
+                                   final HttpRequestFactory httpRequestFactory,
+                                   final int maxIdleConnections) {
+        if (maxIdleConnections < 0) {
+            throw new IllegalArgumentException("Maximum idle connections must be 0 or greater");
+        }
+
+        this.objectUri = objectUri;
+        this.httpRequestFactory = httpRequestFactory;
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    /**
+     * Reads a sequence of bytes from the object into the given buffer,
+     * starting at the given position. The buffer's position is advanced by
+     * the number of bytes read. This method can be called concurrently by
+     * multiple threads.
+     *
+     * @param dst buffer into which bytes are to be transferred
+     * @param position position in the object at which the transfer is to begin
+     * @return number of bytes read, possibly zero, or -1 if the position is
+     *         at or past the end of the object
+     * @throws IOException thrown when there are network problems or the object
+     *                     has been modified
+     */
+    public int read(final ByteBuffer dst, final long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Position must be 0 or greater");
+        }
+
+        ensureOpen();
+
+        final long objectSize = size();
+
+        if (position >= objectSize) {
+            return EOF;
+        }
+
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+
+        final int length = (int)Math.min(dst.remaining(), objectSize - position);
+        final long end = position + length;
+
+        PendingRange own = null;
+        PendingRange covering = null;
+        PendingRange preceding = null;
+
+        synchronized (pending) {
+            for (PendingRange range : pending) {
+                if (range.start <= position && range.end >= end) {
+                    covering = range;
+                    break;
+                } else if (range.end == position) {
+                    preceding = range;
+                }
+            }
+
+            if (covering == null) {
+                own = new PendingRange(position, end);
+                pending.add(own);
+            }
+        }
+
+        if (covering != null) {
+            coalesced();
+            final byte[] data = await(covering);
+            dst.put(data, (int)(position - covering.start), length);
+            return length;
+        }
+
+        try {
+            if (preceding != null) {
+                // Wait for the read ending where this one starts, so that its connection can be reused
+                preceding.future.handle((data, error) -> null).join();
+            }
+
+            final byte[] data = fetch(position, length);
+            own.future.complete(data);
+            dst.put(data);
+
+            return length;
+        } catch (IOException | RuntimeException e) {
+            own.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (pending) {
+                pending.remove(own);
+            }
+        }
+    }
+
+    /**
+     * Size of the object. The first invocation reads the object's metadata
+     * with a HEAD request.
+     *
+     * @return size of the object in bytes
+     * @throws IOException thrown when there are network problems
+     */
+    public synchronized long size() throws IOException {
+        ensureOpen();
+
+        if (size == null) {
+            loadMetadata();
+        }
+
+        return size;
+    }
+
+    /**
+     * @return number of range requests made
+     */
+    public long getRangeRequests() {
+        return rangeRequests.get();
+    }
+
+    /**
+     * @return number of reads served by reusing an open connection
+     */
+    public long getReusedConnections() {
+        return reusedConnections.get();
+    }
+
+    /**
+     * @return number of reads served by waiting on another in-flight read
+     */
+    public long getCoalescedReads() {
+        return coalescedReads.get();
+    }
+
+    /**
+     * Sets the function called each time a read starts waiting on another
+     * in-flight read, so that tests can tell when reads have joined.
+     *
+     * @param listener function to call or null
+     */
+    void setCoalescedListener(final Runnable listener) {
+        this.coalescedListener = listener;
+    }
+
+    /**
+     * @return true if the object hasn't been closed
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+
+        synchronized (idle) {
+            for (RangeCursor cursor : idle) {
+                cursor.disconnect();
+            }
+
+            idle.clear();
+        }
+    }
+
+    /**
+     * Reads the object's size and etag with a HEAD request.
+     *
+     * @throws IOException thrown when there are network problems
+     */
+    private void loadMetadata() throws IOException {
+        final HttpResponse head = httpRequestFactory.buildHeadRequest(objectUri).execute();
+
+        try {
+            final HttpHeaders headers = head.getHeaders();
+
+            if (MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE.equals(headers.getContentType())) {
+                throw new MantaClientException("Can't get MantaRandomAccessObject for directory objects");
+            }
+
+            if (headers.getContentLength() == null) {
+                throw new MantaIOException(String.format("No Content-Length for [%s]", objectUri));
+            }
+
+            etag = headers.getETag();
+            size = headers.getContentLength();
+        } finally {
+            head.ignore();
+        }
+    }
+
+    /**
+     * @return etag of the object or null if the server didn't return one
+     */
+    private synchronized String etag() {
+        return etag;
+    }
+
+    /**
+     * Reads a range of the object, reusing an idle connection when one is
+     * positioned at or shortly before the range.
+     *
+     * @param position position of the first byte to read
+     * @param length number of bytes to read
+     * @return bytes read
+     * @throws IOException thrown when there are network problems
+     */
+    private byte[] fetch(final long position, final int length) throws IOException {
+        final byte[] data = new byte[length];
+        int filled = 0;
+
+        while (filled < length) {
+            final long offset = position + filled;
+            RangeCursor cursor = checkout(offset);
+
+            if (cursor == null) {
+                cursor = openCursor(offset, length - filled);
+            } else {
+                reusedConnections.incrementAndGet();
+            }
+
+            try {
+                cursor.discard(offset - cursor.offset);
+
+                final int count = (int)Math.min(length - filled, cursor.end - cursor.offset);
+                cursor.readFully(data, filled, count);
+                filled += count;
+            } catch (IOException | RuntimeException e) {
+                cursor.disconnect();
+                throw e;
+            }
+
+            checkin(cursor);
+        }
+
+        return data;
+    }
+
+    /**
+     * Removes an idle connection positioned at or shortly before the given
+     * position from the pool.
+     *
+     * @param position position of the next byte to read
+     * @return connection or null if there is no suitable connection
+     */
+    private RangeCursor checkout(final long position) {
+        synchronized (idle) {
+            final Iterator<RangeCursor> itr = idle.descendingIterator();
+
+            while (itr.hasNext()) {
+                final RangeCursor cursor = itr.next();
+                final long distance = position - cursor.offset;
+
+                if (distance >= 0 && distance <= SKIP_THRESHOLD && position < cursor.end) {
+                    itr.remove();
+                    return cursor;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns a connection to the pool of idle connections, closing the least
+     * recently used connection if the pool is full.
+     *
+     * @param cursor connection to return
+     */
+    private void checkin(final RangeCursor cursor) {
+        if (cursor.offset >= cursor.end) {
+            // The whole response was read, so the connection can go back to the pool
+            cursor.release();
+            return;
+        }
+
+        RangeCursor evicted = null;
+
+        synchronized (idle) {
+            if (!open || maxIdleConnections == 0) {
+                evicted = cursor;
+            } else {
+                idle.addLast(cursor);
+
+                if (idle.size() > maxIdleConnections) {
+                    evicted = idle.removeFirst();
+                }
+            }
+        }
+
+        if (evicted != null) {
+            evicted.disconnect();
+        }
+    }
+
+    /**
+     * Requests the object's data from an offset up to {@link #SKIP_THRESHOLD}
+     * bytes past the end of a read, so that the connection can serve a
+     * following read without holding the rest of the object.
+     *
+     * @param offset offset of the first byte to request
+     * @param length number of bytes that will be read
+     * @return connection positioned at the offset
+     * @throws IOException thrown when there are network problems
+     */
+    private RangeCursor openCursor(final long offset, final int length) throws IOException {
+        final HttpRequest request = httpRequestFactory.buildGetRequest(objectUri);
+        final HttpHeaders headers = request.getHeaders();
+        final String objectEtag = etag();
+        final long objectSize = size();
+        final long end = Math.min(objectSize, offset + length + SKIP_THRESHOLD);
+
+        headers.setRange(String.format("bytes=%d-%d", offset, end - 1));
+
+        if (objectEtag != null) {
+            headers.setIfMatch(objectEtag);
+        }
+
+        rangeRequests.incrementAndGet();
+
+        final HttpResponse response = request.execute();
+
+        // Servers that ignore the Range header send the whole object
+        if (response.getHeaders().getContentRange() == null) {
+            LOG.debug("Range ignored by server for [{}], skipping {} bytes", objectUri, offset);
+            return new RangeCursor(response, response.getContent(), 0L, objectSize);
+        }
+
+        return new RangeCursor(response, response.getContent(), offset, end);
+    }
+
+    /**
+     * Counts a read that is served by waiting on another in-flight read.
+     */
+    private void coalesced() {
+        coalescedReads.incrementAndGet();
+        final Runnable listener = coalescedListener;
+
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Waits for another thread's read to complete.
+     *
+     * @param range range being read
+     * @return bytes read
+     * @throws IOException thrown when the read failed
+     */
+    private static byte[] await(final PendingRange range) throws IOException {
+        try {
+            return range.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+
+            throw new MantaIOException(e.getCause());
+        }
+    }
+
+    /**
+     * Throws an exception if the object has been closed.
+     *
+     * @throws ClosedChannelException thrown when the object is closed
+     */
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * Range of the object being read by a thread.
+     */
+    private static final class PendingRange {
+        /**
+         * Position of the first byte of the range.
+         */
+        private final long start;
+
+        /**
+         * Position after the last byte of the range.
+         */
+        private final long end;
+
+        /**
+         * Completes with the bytes of the range.
+         */
+        private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+        /**
+         * Creates a new instance.
+         *
+         * @param start position of the first byte of the range
+         * @param end position after the last byte of the range
+         */
+        private PendingRange(final long start, final long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Open HTTP response of a range of the object and the position of its
+     * next byte in the object.
+     */
+    private static final class RangeCursor {
+        /**
+         * HTTP response of the range.
+         */
+        private final HttpResponse response;
+
+        /**
+         * Content stream of the response.
+         */
+        private final InputStream content;
+
+        /**
+         * Position in the object of the next byte of the content stream.
+         */
+        private long offset;
+
+        /**
+         * Position in the object after the last byte of the response.
+         */
+        private final long end;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param response HTTP response of the range
+         * @param content content stream of the response
+         * @param offset position in the object of the first byte of the response
+         * @param end position in the object after the last byte of the response
+         */
+        private RangeCursor(final HttpResponse response, final InputStream content,
+                            final long offset, final long end) {
+            this.response = response;
+            this.content = content;
+            this.offset = offset;
+            this.end = end;
+        }
+
+        /**
+         * Reads and discards bytes from the content stream.
+         *
+         * @param count number of bytes to discard
+         * @throws IOException thrown when there are network problems
+         */
+        private void discard(final long count) throws IOException {
+            long remaining = count;
+
+            while (remaining > 0) {
+                final long skipped = content.skip(remaining);
+
+                if (skipped > 0) {
+                    remaining -= skipped;
+                } else if (content.read() == EOF) {
+                    throw new IOException("Object ended before the requested position");
+                } else {
+                    remaining--;
+                }
+            }
+
+            offset += count;
+        }
+
+        /**
+         * Fills part of an array from the content stream.
+         *
+         * @param data array to fill
+         * @param off offset in the array of the first byte to fill
+         * @param len number of bytes to fill
+         * @throws IOException thrown when there are network problems or the
+         *                     object ends before the bytes are filled
+         */
+        private void readFully(final byte[] data, final int off, final int len) throws IOException {
+            int filled = 0;
+
+            while (filled < len) {
+                final int read = content.read(data, off + filled, len - filled);
+
+                if (read == EOF) {
+                    throw new IOException(String.format("Object ended %d bytes before the end of the range",
+                            len - filled));
+                }
+
+                filled += read;
+            }
+
+            offset += filled;
+        }
+
+        /**
+         * Returns the fully read connection to the connection pool.
+         */
+        private void release() {
+            try {
+                response.ignore();
+            } catch (IOException e) {
+                LOG.debug("Unable to release connection", e);
+            }
+        }
+
+        /**
+         * Closes the connection without reading the rest of the response.
+         */
+        private void disconnect() {
+            try {
+                if (content instanceof ConnectionReleaseTrigger) {
+                    ((ConnectionReleaseTrigger)content).abortConnection();
+                } else {
+                    response.disconnect();
+                }
+            } catch (IOException e) {
+                LOG.debug("Unable to disconnect response", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.HttpResponseException;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.joyent.manta.exception.MantaIOException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent identical HEAD and GET requests so that only one
+ * request per path is in flight and its result is shared by every caller
+ * that asked for the same path while it was running. This prevents a burst
+ * of readers of a popular object from each issuing their own request.
+ *
+ * <p>The body of a coalesced GET request is buffered in memory when it is
+ * no larger than the configured limit and each caller receives its own
+ * stream over a read-only view of the shared buffer. When the body is larger
+ * than the limit, the caller that made the request streams it and the
+ * callers that were waiting make their own requests.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaRequestCoalescer {
+    /**
+     * Maximum size in bytes of a body that is shared by coalesced GET requests.
+     */
+    private final int maxBodySize;
+
+    /**
+     * In-flight requests by method and path.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Number of requests made to Manta.
+     */
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Number of callers that waited for another caller's request.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Called each time a caller starts waiting for another caller's request or null.
+     */
+    private volatile Runnable coalescedListener;
+
+    /**
+     * Creates a new instance of a request coalescer.
+     *
+     * @param maxBodySize maximum size in bytes of a body that is shared by coalesced GET requests
+     */
+    public MantaRequestCoalescer(final int maxBodySize) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("Maximum body size must be 0 or greater");
+        }
+
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Determines if a GET request with the specified headers can share its
+     * result with other requests for the same path.
+     *
+     * @param requestHeaders headers of the request or null
+     * @return true when the request has no custom headers
+     */
+    static boolean isCoalescable(final MantaHttpHeaders requestHeaders) {
+        return requestHeaders == null || requestHeaders.isEmpty();
+    }
+
+    /**
+     * Issues a HEAD request or waits for an identical in-flight request.
+     *
+     * @param path fully qualified path of the object
+     * @param request function that issues the HEAD request
+     * @return metadata of the object
+     * @throws IOException thrown when the request fails
+     */
+    MantaObjectResponse head(final String path, final Request<MantaObjectResponse> request)
+            throws IOException {
+        final String key = "HEAD " + path;
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            coalesced();
+            return copy((MantaObjectResponse)await(existing));
+        }
+
+        requests.incrementAndGet();
+
+        try {
+            final MantaObjectResponse response = request.execute();
+            complete(key, flight, copy(response));
+            return response;
+        } catch (IOException | RuntimeException e) {
+            fail(key, flight, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Issues a GET request or waits for an identical in-flight request.
+     *
+     * @param path fully qualified path of the object
+     * @param request function that issues the GET request
+     * @return stream of the object's data
+     * @throws IOException thrown when the request fails
+     */
+    MantaObjectInputStream get(final String path, final Request<MantaObjectInputStream> request)
+            throws IOException {
+        final String key = "GET " + path;
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            coalesced();
+            final Object result = await(existing);
+
+            if (result instanceof SharedBody) {
+                return ((SharedBody)result).newStream();
+            }
+
+            // The body was too large to share, so it is requested separately
+            requests.incrementAndGet();
+            return request.execute();
+        }
+
+        requests.incrementAndGet();
+        final MantaObjectInputStream in;
+
+        try {
+            in = request.execute();
+        } catch (IOException | RuntimeException e) {
+            fail(key, flight, e);
+            throw e;
+        }
+
+        final ByteBuffer cachedBody = in.getCachedBody();
+        final Long length = in.getContentLength();
+
+        if (cachedBody == null && (length == null || length > maxBodySize)) {
+            complete(key, flight, Boolean.FALSE);
+            return in;
+        }
+
+        final SharedBody shared;
+
+        try (MantaObjectInputStream source = in) {
+            if (cachedBody != null) {
+                shared = new SharedBody(copy(in), cachedBody);
+            } else {
+                shared = new SharedBody(copy(in),
+                        ByteBuffer.wrap(MantaUtils.inputStreamToBytes(source, length)).asReadOnlyBuffer());
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(key, flight, e);
+            throw e;
+        }
+
+        complete(key, flight, shared);
+        return shared.newStream();
+    }
+
+    /**
+     * @return number of requests made to Manta
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return number of callers that waited for another caller's request
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Sets the function called each time a caller starts waiting for another
+     * caller's request, so that tests can tell when callers have joined.
+     *
+     * @param listener function to call or null
+     */
+    void setCoalescedListener(final Runnable listener) {
+        this.coalescedListener = listener;
+    }
+
+    /**
+     * Counts a caller that waits for another caller's request.
+     */
+    private void coalesced() {
+        coalesced.incrementAndGet();
+        final Runnable listener = coalescedListener;
+
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Removes an in-flight request and passes its result to the waiting callers.
+     *
+     * @param key method and path of the request
+     * @param flight future of the in-flight request
+     * @param result result of the request
+     */
+    private void complete(final String key, final CompletableFuture<Object> flight,
+                          final Object result) {
+        inFlight.remove(key, flight);
+        flight.complete(result);
+    }
+
+    /**
+     * Removes an in-flight request and passes its failure to the waiting callers.
+     *
+     * @param key method and path of the request
+     * @param flight future of the in-flight request
+     * @param cause exception thrown by the request
+     */
+    private void fail(final String key, final CompletableFuture<Object> flight,
+                      final Exception cause) {
+        inFlight.remove(key, flight);
+        flight.completeExceptionally(cause);
+    }
+
+    /**
+     * Waits for the result of another caller's request. Failures are rethrown
+     * as new exceptions so that the stack trace includes the waiting caller.
+     *
+     * @param flight future of the in-flight request
+     * @return result of the request
+     * @throws IOException thrown when the request failed or the wait was interrupted
+     */
+    private static Object await(final CompletableFuture<Object> flight) throws IOException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for coalesced request");
+            exception.initCause(e);
+            throw exception;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof MantaClientHttpResponseException
+                    && cause.getCause() instanceof HttpResponseException) {
+                throw new MantaClientHttpResponseException((HttpResponseException)cause.getCause());
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+
+            throw new MantaIOException("Coalesced request failed", cause);
+        }
+    }
+
+    /**
+     * Copies metadata so that callers can't modify each other's headers.
+     *
+     * @param object object to copy the metadata of
+     * @return metadata with a copy of the headers
+     */
+    private static MantaObjectResponse copy(final MantaObject object) {
+        return new MantaObjectResponse(object.getPath(), new MantaHttpHeaders(object));
+    }
+
+    /**
+     * Functional interface for a request that is coalesced.
+     *
+     * @param <T> type of the request's result
+     */
+    @FunctionalInterface
+    interface Request<T> {
+        /**
+         * @return result of the request
+         * @throws IOException thrown when the request fails
+         */
+        T execute() throws IOException;
+    }
+
+    /**
+     * Buffered body and metadata of an object shared by coalesced GET requests.
+     */
+    private static final class SharedBody {
+        /**
+         * Metadata of the object.
+         */
+        private final MantaObjectResponse metadata;
+
+        /**
+         * Read-only buffer containing the object's data.
+         */
+        private final ByteBuffer data;
+
+        /**
+         * Creates a new shared body.
+         *
+         * @param metadata metadata of the object
+         * @param data read-only buffer containing the object's data
+         */
+        private SharedBody(final MantaObjectResponse metadata, final ByteBuffer data) {
+            this.metadata = metadata;
+            this.data = data;
+        }
+
+        /**
+         * @return new stream over the shared data with its own copy of the metadata
+         */
+        private MantaObjectInputStream newStream() {
+            return new MantaObjectInputStream(copy(metadata), data.duplicate());
+        }
+    }
+}
@@ -5,6 +5,7 @@ package com.joyent.manta.client;
 
 import com.joyent.manta.config.ConfigContext;
 import com.joyent.manta.exception.MantaException;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,13 +21,12 @@ import java.util.Set;
 import static com.joyent.manta.client.MantaUtils.fromCsv;
 
 /**
- * Custom {@link org.apache.http.conn.ssl.SSLSocketFactory} implementation that consumes Manta
+ * Custom {@link SSLConnectionSocketFactory} implementation that consumes Manta
  * configuration and enforces the selection of protocols and ciphers.
  *
  * @author <a href="https://github.com/dekobon">Elijah Zupancic</a>
  */
-@SuppressWarnings("deprecation")
-public class MantaSSLSocketFactory extends org.apache.http.conn.ssl.SSLSocketFactory {
+public class MantaSSLSocketFactory extends SSLConnectionSocketFactory {
     /**
      * Logger instance.
      */
@@ -47,7 +47,7 @@ public class MantaSSLSocketFactory extends org.apache.http.conn.ssl.SSLSocketFac
      * @param config configuration context containing SSL config params
      */
     public MantaSSLSocketFactory(final ConfigContext config) {
-        super(buildContext(), getSystemSocketFactory().getHostnameVerifier());
+        super(buildContext(), getDefaultHostnameVerifier());
 
         if (config.getHttpsProtocols() != null) {
             this.supportedProtocols = new LinkedHashSet<>(fromCsv(config.getHttpsProtocols()));
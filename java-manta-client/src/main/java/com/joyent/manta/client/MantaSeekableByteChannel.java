@@ -5,7 +5,11 @@ import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
 import com.joyent.manta.exception.MantaClientException;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
@@ -14,7 +18,6 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A read-only {@link SeekableByteChannel} implementation that utilizes
@@ -22,17 +25,55 @@ import java.util.concurrent.atomic.AtomicReference;
  * Manta. Connection opening to the remote server happens lazily upon the
  * first read() or size() method invoked.
  *
+ * <p>Changing the position never performs any network operations. When data
+ * is next read, small forward seeks are served by reading and discarding
+ * bytes from the open response, while backward seeks and larger forward
+ * seeks close the open response and request a new range starting at the
+ * new position. Subsequent ranges are requested conditionally on the etag
+ * of the first response, so that all data read comes from the same version
+ * of the object.</p>
+ *
+ * <p>When created with a {@link MantaBlockCache}, the object's size and etag
+ * are read with a single HEAD request and data is read in aligned blocks that
+ * are kept in the cache, so that repeated and nearby reads (e.g. the footer
+ * and index of a Parquet or ZIP file) are served from memory. The block
+ * following the current one is prefetched when blocks are read
+ * sequentially.</p>
+ *
  * @author Elijah Zupancic
  */
 @ThreadSafe
 public class MantaSeekableByteChannel extends InputStream
         implements SeekableByteChannel {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaSeekableByteChannel.class);
+
     /**
      * Constant representing the value returned when we have reached the
      * end of a stream.
      */
     private static final int EOF = -1;
 
+    /**
+     * Maximum number of bytes a forward seek will read and discard from the
+     * open response rather than requesting a new range. Below this distance
+     * reading is cheaper than opening a new connection.
+     */
+    static final long SKIP_THRESHOLD = 64 * 1024;
+
+    /**
+     * Size of the intermediate buffer used when reading into buffers that
+     * aren't backed by an array.
+     */
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+    /**
+     * HTTP status code returned when a range starts past the end of an object.
+     */
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
     /**
      * Flag indicating if the channel is open. Marked as volatile so
      * that different threads can flip its state.
@@ -47,7 +88,7 @@ public class MantaSeekableByteChannel extends InputStream
     /**
      * Current position in bytes from the start of the file.
      */
-    private volatile long position = 0L;
+    private volatile long position;
 
     /**
      * The provider for http requests setup, metadata and request initialization.
@@ -55,9 +96,45 @@ public class MantaSeekableByteChannel extends InputStream
     private final HttpRequestFactory httpRequestFactory;
 
     /**
-     * Threadsafe reference to the Manta API HTTP response object.
+     * Currently open HTTP response or null if no response is open.
+     */
+    private HttpResponse response;
+
+    /**
+     * Content stream of the currently open HTTP response.
+     */
+    private InputStream content;
+
+    /**
+     * Position in the object of the next byte of the content stream.
+     */
+    private long contentPosition;
+
+    /**
+     * Size of the object in bytes or null if not yet known.
      */
-    private final AtomicReference<HttpResponse> responseRef;
+    private Long size;
+
+    /**
+     * Etag of the object as returned by the first response.
+     */
+    private String etag;
+
+    /**
+     * Cache of object data blocks or null if blocks aren't cached.
+     */
+    private final MantaBlockCache blockCache;
+
+    /**
+     * Flag indicating that the size and etag of the object have been read
+     * for use with the block cache.
+     */
+    private boolean metadataLoaded = false;
+
+    /**
+     * Index of the block read last, used to detect sequential reads.
+     */
+    private long lastBlockIndex = Long.MIN_VALUE;
 
     /**
      * Creates a new instance of a read-only seekable byte channel.
@@ -69,64 +146,71 @@ public class MantaSeekableByteChannel extends InputStream
     public MantaSeekableByteChannel(final GenericUrl objectUri,
                                     final long position,
                                     final HttpRequestFactory httpRequestFactory) {
-        this.objectUri = objectUri;
-        this.position = position;
-        this.httpRequestFactory = httpRequestFactory;
-        this.responseRef = new AtomicReference<>();
-
+        this(objectUri, position, httpRequestFactory, null);
     }
 
 
     /**
-     * Creates a new instance of a read-only seekable byte channel.
+     * Creates a new instance of a read-only seekable byte channel that reads
+     * object data through a block cache.
      *
      * @param objectUri URL of the object on the Manta API
+     * @param position starting position in bytes from the start of the file
      * @param httpRequestFactory provider for http requests setup, metadata and request initialization
+     * @param blockCache cache of object data blocks or null to read without a cache
      */
     public MantaSeekableByteChannel(final GenericUrl objectUri,
-                                    final HttpRequestFactory httpRequestFactory) {
-        this(objectUri, 0L, httpRequestFactory);
+                                    final long position,
+                                    final HttpRequestFactory httpRequestFactory,
+                                    final MantaBlockCache blockCache) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Position must be 0 or greater");
+        }
+
+        this.objectUri = objectUri;
+        this.position = position;
+        this.httpRequestFactory = httpRequestFactory;
+        this.blockCache = blockCache;
     }
 
+
     /**
-     * Constructor used for creating a new instance of a read-only seekable byte
-     * channel from within this class. This is used when position() is called.
+     * Creates a new instance of a read-only seekable byte channel.
      *
-     * @param responseRef reference to existing HTTP response
      * @param objectUri URL of the object on the Manta API
-     * @param position starting position in bytes from the start of the file
      * @param httpRequestFactory provider for http requests setup, metadata and request initialization
      */
-    protected MantaSeekableByteChannel(final AtomicReference<HttpResponse> responseRef,
-                                       final GenericUrl objectUri,
-                                       final long position,
-                                       final HttpRequestFactory httpRequestFactory) {
-        this.responseRef = responseRef;
-        this.objectUri = objectUri;
-        this.position = position;
-        this.httpRequestFactory = httpRequestFactory;
+    public MantaSeekableByteChannel(final GenericUrl objectUri,
+                                    final HttpRequestFactory httpRequestFactory) {
+        this(objectUri, 0L, httpRequestFactory);
     }
 
     @Override
-    public int read(final ByteBuffer dst) throws IOException {
-        if (!open) {
-            throw new ClosedChannelException();
+    public synchronized int read(final ByteBuffer dst) throws IOException {
+        ensureOpen();
+
+        if (!dst.hasRemaining()) {
+            return 0;
         }
 
-        final HttpResponse response = connectOrGetResponse();
-        final long size = size();
+        if (dst.hasArray()) {
+            final int read = readBytes(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
 
-        if (position >= size) {
-            return EOF;
+            if (read > 0) {
+                dst.position(dst.position() + read);
+            }
+
+            return read;
         }
 
-        final InputStream is = response.getContent();
-        final byte[] buff = dst.array();
-        final int bytesRead = is.read(buff);
+        final byte[] buffer = new byte[Math.min(dst.remaining(), TRANSFER_BUFFER_SIZE)];
+        final int read = readBytes(buffer, 0, buffer.length);
 
-        position += bytesRead;
+        if (read > 0) {
+            dst.put(buffer, 0, read);
+        }
 
-        return bytesRead;
+        return read;
     }
 
     /**
@@ -142,82 +226,66 @@ public class MantaSeekableByteChannel extends InputStream
      * @exception  IOException  if an I/O error occurs.
      */
     @Override
-    public int read() throws IOException {
-        if (!open) {
-            throw new ClosedChannelException();
+    public synchronized int read() throws IOException {
+        ensureOpen();
+
+        final byte[] single = new byte[1];
+        final int read = readBytes(single, 0, 1);
+
+        if (read == EOF) {
+            return EOF;
         }
 
-        final HttpResponse response = connectOrGetResponse();
-        final InputStream is = response.getContent();
-        position++;
-        return is.read();
+        return Byte.toUnsignedInt(single[0]);
     }
 
     @Override
     public int read(final byte[] buffer) throws IOException {
-        if (!open) {
-            throw new ClosedChannelException();
-        }
-
-        final HttpResponse response = connectOrGetResponse();
-        final InputStream is = response.getContent();
-
-        final int totalRead = is.read(buffer);
-
-        if (totalRead > -1) {
-            position += totalRead;
-        }
-
-        return totalRead;
+        return read(buffer, 0, buffer.length);
     }
 
     @Override
-    public int read(final byte[] buffer, final int offset, final int length)
+    public synchronized int read(final byte[] buffer, final int offset, final int length)
             throws IOException {
-        if (!open) {
-            throw new ClosedChannelException();
-        }
+        ensureOpen();
 
-        final HttpResponse response = connectOrGetResponse();
-        final InputStream is = response.getContent();
-
-        final int totalRead = is.read(buffer, offset, length);
-
-        if (totalRead > -1) {
-            position += totalRead;
+        if (length == 0) {
+            return 0;
         }
 
-        return totalRead;
+        return readBytes(buffer, offset, length);
     }
 
+    /**
+     * Skips bytes by moving the position forward without reading any data.
+     * The position won't be moved past the end of the object.
+     *
+     * @param noOfBytesToSkip number of bytes to skip
+     * @return number of bytes skipped
+     * @throws IOException thrown when the size of the object can't be determined
+     */
     @Override
-    public long skip(final long noOfBytesToSkip) throws IOException {
-        if (!open) {
+    public synchronized long skip(final long noOfBytesToSkip) throws IOException {
+        if (!open || noOfBytesToSkip <= 0) {
             return 0;
         }
 
-        final HttpResponse response = connectOrGetResponse();
-        final InputStream is = response.getContent();
+        final long target = Math.min(size(), position + noOfBytesToSkip);
+        final long skipped = Math.max(0L, target - position);
+        position += skipped;
 
-        final long totalSkipped = is.skip(noOfBytesToSkip);
-
-        position += totalSkipped;
-
-        return totalSkipped;
+        return skipped;
     }
 
-
-
     @Override
-    public int available() throws IOException {
-        if (!open) {
-            throw new ClosedChannelException();
-        }
+    public synchronized int available() throws IOException {
+        ensureOpen();
 
-        final HttpResponse response = connectOrGetResponse();
-        final InputStream is = response.getContent();
+        if (content == null || contentPosition != position) {
+            return 0;
+        }
 
-        return is.available();
+        return content.available();
     }
 
     @Override
@@ -231,26 +299,43 @@ public class MantaSeekableByteChannel extends InputStream
         return position;
     }
 
+    /**
+     * Sets the position of the channel. No network operations are performed
+     * until data is next read.
+     *
+     * @param newPosition new position in bytes from the start of the object
+     * @return this channel
+     * @throws IOException thrown when the channel is closed
+     */
     @Override
-    public SeekableByteChannel position(final long newPosition) throws IOException {
-        return new MantaSeekableByteChannel(new AtomicReference<>(),
-                objectUri, newPosition, httpRequestFactory);
+    public synchronized SeekableByteChannel position(final long newPosition) throws IOException {
+        ensureOpen();
+
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must be 0 or greater");
+        }
+
+        this.position = newPosition;
+        return this;
     }
 
     @Override
-    public long size() throws IOException {
-        if (!open) {
-            throw new ClosedChannelException();
+    public synchronized long size() throws IOException {
+        ensureOpen();
+
+        if (size == null && blockCache != null) {
+            loadMetadata();
         }
 
-        final HttpResponse response = connectOrGetResponse();
-        final HttpHeaders headers = response.getHeaders();
+        if (size == null) {
+            openResponse(position);
+        }
 
-        if (headers.getContentLength() == null) {
+        if (size == null) {
             throw new MantaClientException("Can't get SeekableByteChannel for objects of unknown size");
         }
 
-        return headers.getContentLength();
+        return size;
     }
 
     @Override
@@ -283,40 +368,387 @@ public class MantaSeekableByteChannel extends InputStream
             return;
         }
 
-        if (responseRef.get() != null) {
-            responseRef.get().disconnect();
+        closeResponse();
+        open = false;
+    }
+
+    /**
+     * Returns the HTTP response positioned at the current position of the
+     * channel, opening a new one if needed.
+     *
+     * @return HTTP response object or null if the position is past the end of the object
+     * @throws IOException thrown when there are network problems connecting to the remote API
+     */
+    protected synchronized HttpResponse connectOrGetResponse() throws IOException {
+        if (seekContent()) {
+            return response;
         }
 
-        open = false;
+        return null;
     }
 
+    /**
+     * Reads bytes at the current position and advances the position.
+     *
+     * @param buffer array to read into
+     * @param offset offset in the array of the first byte to read into
+     * @param length maximum number of bytes to read
+     * @return number of bytes read or -1 if the end of the object was reached
+     * @throws IOException thrown when there are network problems
+     */
+    private int readBytes(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (blockCache != null) {
+            loadMetadata();
+
+            if (etag != null && size != null) {
+                return readCachedBytes(buffer, offset, length);
+            }
+        }
+
+        if (!seekContent()) {
+            return EOF;
+        }
+
+        final int read = content.read(buffer, offset, length);
+
+        if (read > 0) {
+            position += read;
+            contentPosition += read;
+        }
+
+        return read;
+    }
+
+    /**
+     * Reads bytes at the current position from the block cache and advances
+     * the position. The next block is prefetched when blocks are being read
+     * sequentially.
+     *
+     * @param buffer array to read into
+     * @param offset offset in the array of the first byte to read into
+     * @param length maximum number of bytes to read
+     * @return number of bytes read or -1 if the end of the object was reached
+     * @throws IOException thrown when there are network problems
+     */
+    private int readCachedBytes(final byte[] buffer, final int offset, final int length) throws IOException {
+        final long objectSize = size;
+
+        if (position >= objectSize) {
+            return EOF;
+        }
+
+        final String objectEtag = etag;
+        final String path = objectUri.build();
+        final int blockSize = blockCache.getBlockSize();
+        final long index = position / blockSize;
+        final ByteBuffer block = blockCache.get(path, objectEtag, index,
+                () -> fetchBlock(index, objectEtag, objectSize));
+        final int blockOffset = (int)(position - index * blockSize);
+
+        if (blockOffset >= block.limit()) {
+            return EOF;
+        }
+
+        block.position(blockOffset);
+        final int count = Math.min(length, block.remaining());
+        block.get(buffer, offset, count);
+        position += count;
+
+        final long nextIndex = index + 1;
+
+        if (index == lastBlockIndex + 1 && nextIndex * blockSize < objectSize) {
+            blockCache.prefetch(path, objectEtag, nextIndex,
+                    () -> fetchBlock(nextIndex, objectEtag, objectSize));
+        }
+
+        lastBlockIndex = index;
+
+        return count;
+    }
 
     /**
-     * Connects to the Manta API, updates the atomic reference and returns a
-     * response if the atomic reference hasn't been set. Otherwise, it just returns
-     * the response embedded in the atomic reference.
+     * Reads the size and etag of the object with a HEAD request, unless
+     * they have already been read.
      *
-     * @return HTTP response object
      * @throws IOException thrown when there are network problems connecting to the remote API
      */
-    protected HttpResponse connectOrGetResponse() throws IOException {
-        if (responseRef.get() != null) {
-            return responseRef.get();
+    private void loadMetadata() throws IOException {
+        if (metadataLoaded) {
+            return;
+        }
+
+        final HttpResponse head = httpRequestFactory.buildHeadRequest(objectUri).execute();
+
+        try {
+            final HttpHeaders headers = head.getHeaders();
+
+            if (MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE.equals(headers.getContentType())) {
+                throw new MantaClientException("Can't get SeekableByteChannel for directory objects");
+            }
+
+            etag = headers.getETag();
+            size = headers.getContentLength();
+            metadataLoaded = true;
+        } finally {
+            head.ignore();
+        }
+
+        if (etag == null) {
+            LOG.debug("No etag for [{}], reading without the block cache", objectUri);
+        }
+    }
+
+    /**
+     * Fetches a block of the object. This is called from prefetching threads,
+     * so it doesn't modify the state of the channel.
+     *
+     * @param index index of the block
+     * @param objectEtag etag of the object
+     * @param objectSize size of the object in bytes
+     * @return block data positioned at its start
+     * @throws IOException thrown when there are network problems
+     */
+    private ByteBuffer fetchBlock(final long index, final String objectEtag,
+                                  final long objectSize) throws IOException {
+        final long start = index * blockCache.getBlockSize();
+        final int length = (int)Math.min(blockCache.getBlockSize(), objectSize - start);
+
+        final HttpRequest request = httpRequestFactory.buildGetRequest(objectUri);
+        request.getHeaders()
+                .setRange(String.format("bytes=%d-%d", start, start + length - 1))
+                .setIfMatch(objectEtag);
+
+        final HttpResponse blockResponse = request.execute();
+        final ByteBuffer block = blockCache.allocate(length);
+        final byte[] transfer = new byte[Math.min(length, TRANSFER_BUFFER_SIZE)];
+        // Servers that ignore the Range header send the entire object
+        final boolean rangeIgnored = blockResponse.getHeaders().getContentRange() == null;
+        boolean release = false;
+
+        try {
+            final InputStream in = blockResponse.getContent();
+            long toSkip = 0L;
+
+            if (rangeIgnored) {
+                toSkip = start;
+            }
+
+            while (toSkip > 0) {
+                final long skipped = in.skip(toSkip);
+
+                if (skipped <= 0) {
+                    throw new IOException("Object ended before the requested block");
+                }
+
+                toSkip -= skipped;
+            }
+
+            while (block.hasRemaining()) {
+                final int read = in.read(transfer, 0, Math.min(transfer.length, block.remaining()));
+
+                if (read == EOF) {
+                    throw new IOException(String.format("Object ended %d bytes before the end of block %d",
+                            block.remaining(), index));
+                }
+
+                block.put(transfer, 0, read);
+            }
+
+            release = !rangeIgnored;
+        } finally {
+            if (release) {
+                // The whole range was read, so the connection can go back to the pool
+                blockResponse.ignore();
+            } else {
+                abort(blockResponse);
+            }
+        }
+
+        block.flip();
+        return block;
+    }
+
+    /**
+     * Makes sure that the content stream is positioned at the current
+     * position of the channel, either by reading and discarding bytes from
+     * the open response or by requesting a new range.
+     *
+     * @return false if the position is at or past the end of the object
+     * @throws IOException thrown when there are network problems
+     */
+    private boolean seekContent() throws IOException {
+        if (size != null && position >= size) {
+            return false;
+        }
+
+        if (content != null && contentPosition != position) {
+            final long distance = position - contentPosition;
+
+            if (distance > 0 && distance <= SKIP_THRESHOLD) {
+                discard(distance);
+            } else {
+                LOG.debug("Seeking {} bytes in [{}] requires a new range", distance, objectUri);
+                closeResponse();
+            }
+        }
+
+        if (content == null) {
+            openResponse(position);
+        }
+
+        return content != null;
+    }
+
+    /**
+     * Reads and discards bytes from the open content stream.
+     *
+     * @param count number of bytes to discard
+     * @throws IOException thrown when there are network problems
+     */
+    private void discard(final long count) throws IOException {
+        long remaining = count;
+
+        while (remaining > 0) {
+            final long skipped = content.skip(remaining);
+
+            if (skipped > 0) {
+                remaining -= skipped;
+            } else if (content.read() == EOF) {
+                break;
+            } else {
+                remaining--;
+            }
         }
 
+        contentPosition += count - remaining;
+    }
+
+    /**
+     * Requests the object's data from an offset to the end of the object.
+     *
+     * @param offset offset of the first byte to request
+     * @throws IOException thrown when there are network problems connecting to the remote API
+     */
+    private void openResponse(final long offset) throws IOException {
         final HttpRequest request = httpRequestFactory.buildGetRequest(objectUri);
         final HttpHeaders headers = request.getHeaders();
 
-        headers.setRange(String.format("bytes=%d-", position));
+        headers.setRange(String.format("bytes=%d-", offset));
+
+        if (etag != null) {
+            headers.setIfMatch(etag);
+        }
+
+        final HttpResponse newResponse;
 
-        responseRef.compareAndSet(null, request.execute());
-        final HttpResponse response = responseRef.get();
-        final String contentType = response.getHeaders().getContentType();
+        try {
+            newResponse = request.execute();
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() == RANGE_NOT_SATISFIABLE) {
+                // The offset is past the end of the object, so there is nothing to read
+                updateSize(e.getHeaders(), offset);
+                return;
+            }
 
-        if (MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE.equals(contentType)) {
+            throw e;
+        }
+
+        final HttpHeaders responseHeaders = newResponse.getHeaders();
+
+        if (MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE.equals(responseHeaders.getContentType())) {
+            abort(newResponse);
             throw new MantaClientException("Can't get SeekableByteChannel for directory objects");
         }
 
-        return response;
+        if (etag == null) {
+            etag = responseHeaders.getETag();
+        }
+
+        updateSize(responseHeaders, offset);
+
+        response = newResponse;
+        content = newResponse.getContent();
+        contentPosition = offset;
+
+        // Servers that ignore the Range header send the object from the start
+        if (responseHeaders.getContentRange() == null && offset > 0) {
+            contentPosition = 0L;
+            discard(offset);
+        }
+    }
+
+    /**
+     * Determines the size of the object from the headers of a response.
+     *
+     * @param headers response headers
+     * @param offset offset of the first byte requested
+     */
+    private void updateSize(final HttpHeaders headers, final long offset) {
+        if (size != null) {
+            return;
+        }
+
+        final String contentRange = headers.getContentRange();
+
+        // Content-Range is formatted as: bytes <start>-<end>/<size> or bytes */<size>
+        if (contentRange != null) {
+            final int slash = contentRange.lastIndexOf('/');
+
+            if (slash >= 0 && !contentRange.endsWith("*")) {
+                size = Long.parseLong(contentRange.substring(slash + 1).trim());
+                return;
+            }
+        }
+
+        if (headers.getContentLength() != null && contentRange == null) {
+            size = headers.getContentLength();
+        }
+    }
+
+    /**
+     * Closes the open response, aborting its connection so that the
+     * unread bytes are never transferred.
+     */
+    private void closeResponse() {
+        if (response == null) {
+            return;
+        }
+
+        abort(response);
+
+        response = null;
+        content = null;
+    }
+
+    /**
+     * Closes a response without reading the rest of its body, aborting its
+     * connection when the transport supports it. Disconnecting instead would
+     * drain the unread bytes of the body.
+     *
+     * @param httpResponse response to close
+     */
+    private void abort(final HttpResponse httpResponse) {
+        try {
+            final InputStream responseContent = httpResponse.getContent();
+
+            if (responseContent instanceof ConnectionReleaseTrigger) {
+                ((ConnectionReleaseTrigger)responseContent).abortConnection();
+            } else {
+                httpResponse.disconnect();
+            }
+        } catch (IOException e) {
+            LOG.debug("Error closing response for [{}]", objectUri, e);
+        }
+    }
+
+    /**
+     * Throws an exception if the channel has been closed.
+     *
+     * @throws ClosedChannelException thrown when the channel is closed
+     */
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
     }
 }
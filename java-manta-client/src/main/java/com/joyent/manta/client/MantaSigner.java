@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.http.signature.CryptoException;
+import com.joyent.http.signature.Signer;
+import com.joyent.manta.exception.MantaCryptoException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECKey;
+import java.security.spec.ECParameterSpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link Signer} implementation that adds support for signing HTTP requests
+ * with ECDSA keys on the NIST P-256, P-384 and P-521 curves. Requests signed
+ * with RSA keys are handled by the parent class, so native RSA signing
+ * continues to work as before.
+ *
+ * <p>Like its parent, instances of this class aren't thread-safe and are
+ * intended to be borrowed from a {@link SignerPool}.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaSigner extends Signer {
+    /**
+     * Format of the signed Date header.
+     */
+    private static final String SIGNING_STRING = "date: %s";
+
+    /**
+     * Format of the authorization header.
+     */
+    private static final String AUTHZ_FORMAT =
+            "Signature keyId=\"/%s/keys/%s\",algorithm=\"%s\",signature=\"%s\"";
+
+    /**
+     * Attribute of the authorization header containing the signature.
+     */
+    private static final String SIGNATURE_ATTRIBUTE = "signature=\"";
+
+    /**
+     * Field size in bits of the P-256 curve.
+     */
+    private static final int P256_BITS = 256;
+
+    /**
+     * Field size in bits of the P-384 curve.
+     */
+    private static final int P384_BITS = 384;
+
+    /**
+     * Field size in bits of the P-521 curve.
+     */
+    private static final int P521_BITS = 521;
+
+    /**
+     * Signature instances keyed by JCA algorithm name. Instances are reused
+     * because creating them is relatively expensive.
+     */
+    private final Map<String, Signature> signatures = new HashMap<>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param useNativeCodeToSign true to use native code to sign RSA requests
+     */
+    public MantaSigner(final boolean useNativeCodeToSign) {
+        super(useNativeCodeToSign);
+    }
+
+    @Override
+    public String createAuthorizationHeader(final String login, final String fingerprint,
+                                            final KeyPair keyPair, final String date) {
+        if (!isEcdsa(keyPair)) {
+            return super.createAuthorizationHeader(login, fingerprint, keyPair, date);
+        }
+
+        Objects.requireNonNull(login, "Login must be present");
+        Objects.requireNonNull(fingerprint, "Fingerprint must be present");
+
+        final EcdsaAlgorithm algorithm = EcdsaAlgorithm.of((ECKey)keyPair.getPrivate());
+        final byte[] signed = signEcdsa(keyPair,
+                String.format(SIGNING_STRING, date).getBytes(StandardCharsets.UTF_8));
+        final String encoded = Base64.getEncoder().encodeToString(signed);
+
+        return String.format(AUTHZ_FORMAT, login, fingerprint, algorithm.httpName, encoded);
+    }
+
+    @Override
+    public byte[] sign(final String login, final String fingerprint,
+                       final KeyPair keyPair, final byte[] data) {
+        if (!isEcdsa(keyPair)) {
+            return super.sign(login, fingerprint, keyPair, data);
+        }
+
+        return signEcdsa(keyPair, data);
+    }
+
+    @Override
+    public boolean verifyAuthorizationHeader(final KeyPair keyPair, final String authzHeader,
+                                             final String date) {
+        if (!isEcdsa(keyPair)) {
+            return super.verifyAuthorizationHeader(keyPair, authzHeader, date);
+        }
+
+        Objects.requireNonNull(authzHeader, "AuthzHeader must be present");
+        Objects.requireNonNull(date, "Date must be present");
+
+        final int start = authzHeader.indexOf(SIGNATURE_ATTRIBUTE);
+
+        if (start < 0) {
+            throw new CryptoException(String.format("invalid authorization header %s", authzHeader));
+        }
+
+        final String encoded = authzHeader.substring(start + SIGNATURE_ATTRIBUTE.length(),
+                authzHeader.length() - 1);
+        final EcdsaAlgorithm algorithm = EcdsaAlgorithm.of((ECKey)keyPair.getPublic());
+
+        try {
+            final Signature signature = signature(algorithm.jcaName);
+            signature.initVerify(keyPair.getPublic());
+            signature.update(String.format(SIGNING_STRING, date).getBytes(StandardCharsets.UTF_8));
+
+            return signature.verify(Base64.getDecoder().decode(encoded));
+        } catch (InvalidKeyException e) {
+            throw new CryptoException("invalid key", e);
+        } catch (SignatureException e) {
+            throw new CryptoException("invalid signature", e);
+        }
+    }
+
+    /**
+     * Signs data with an elliptic curve private key.
+     *
+     * @param keyPair elliptic curve key pair
+     * @param data data to sign
+     * @return DER encoded signature
+     */
+    private byte[] signEcdsa(final KeyPair keyPair, final byte[] data) {
+        final EcdsaAlgorithm algorithm = EcdsaAlgorithm.of((ECKey)keyPair.getPrivate());
+
+        try {
+            final Signature signature = signature(algorithm.jcaName);
+            signature.initSign(keyPair.getPrivate());
+            signature.update(data);
+
+            return signature.sign();
+        } catch (InvalidKeyException e) {
+            throw new CryptoException("invalid key", e);
+        } catch (SignatureException e) {
+            throw new CryptoException("invalid signature", e);
+        }
+    }
+
+    /**
+     * Gets the name used in the HTTP signature algorithm attribute for the
+     * passed key pair.
+     *
+     * @param keyPair key pair used to sign requests
+     * @return algorithm name such as rsa-sha256 or ecdsa-sha384
+     */
+    public static String httpSignatureAlgorithm(final KeyPair keyPair) {
+        if (isEcdsa(keyPair)) {
+            return EcdsaAlgorithm.of((ECKey)keyPair.getPrivate()).httpName;
+        }
+
+        return "rsa-sha256";
+    }
+
+    /**
+     * Gets the SSH curve name (nistp256, nistp384 or nistp521) for the
+     * passed curve parameters.
+     *
+     * @param params elliptic curve parameters
+     * @return SSH curve name
+     */
+    static String curveName(final ECParameterSpec params) {
+        return EcdsaAlgorithm.of(params).curveName;
+    }
+
+    /**
+     * Checks to see if the key pair is an elliptic curve key pair.
+     *
+     * @param keyPair key pair to check
+     * @return true if the key pair uses elliptic curve keys
+     */
+    private static boolean isEcdsa(final KeyPair keyPair) {
+        Objects.requireNonNull(keyPair, "Keypair must be present");
+        final Key key;
+
+        if (keyPair.getPrivate() != null) {
+            key = keyPair.getPrivate();
+        } else {
+            key = keyPair.getPublic();
+        }
+
+        return key instanceof ECKey;
+    }
+
+    /**
+     * Gets a cached {@link Signature} instance for the algorithm.
+     *
+     * @param jcaName JCA signature algorithm name
+     * @return signature instance
+     */
+    private Signature signature(final String jcaName) {
+        return signatures.computeIfAbsent(jcaName, name -> {
+            try {
+                return Signature.getInstance(name);
+            } catch (NoSuchAlgorithmException e) {
+                throw new MantaCryptoException(String.format("Signature algorithm [%s] is unavailable", name), e);
+            }
+        });
+    }
+
+    /**
+     * ECDSA signature algorithms supported by Manta.
+     */
+    private enum EcdsaAlgorithm {
+        /**
+         * ECDSA on P-256 with SHA-256.
+         */
+        P256("nistp256", "ecdsa-sha256", "SHA256withECDSA"),
+
+        /**
+         * ECDSA on P-384 with SHA-384.
+         */
+        P384("nistp384", "ecdsa-sha384", "SHA384withECDSA"),
+
+        /**
+         * ECDSA on P-521 with SHA-512.
+         */
+        P521("nistp521", "ecdsa-sha512", "SHA512withECDSA");
+
+        /**
+         * SSH name of the curve.
+         */
+        private final String curveName;
+
+        /**
+         * Name used in the HTTP signature algorithm attribute.
+         */
+        private final String httpName;
+
+        /**
+         * JCA signature algorithm name.
+         */
+        private final String jcaName;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param curveName SSH name of the curve
+         * @param httpName HTTP signature algorithm name
+         * @param jcaName JCA signature algorithm name
+         */
+        EcdsaAlgorithm(final String curveName, final String httpName, final String jcaName) {
+            this.curveName = curveName;
+            this.httpName = httpName;
+            this.jcaName = jcaName;
+        }
+
+        /**
+         * Finds the algorithm to use with a key.
+         *
+         * @param key elliptic curve key
+         * @return algorithm matching the curve of the key
+         */
+        static EcdsaAlgorithm of(final ECKey key) {
+            return of(key.getParams());
+        }
+
+        /**
+         * Finds the algorithm to use with a curve.
+         *
+         * @param params elliptic curve parameters
+         * @return algorithm matching the curve
+         */
+        static EcdsaAlgorithm of(final ECParameterSpec params) {
+            final int bits = params.getCurve().getField().getFieldSize();
+
+            switch (bits) {
+                case P256_BITS:
+                    return P256;
+                case P384_BITS:
+                    return P384;
+                case P521_BITS:
+                    return P521;
+                default:
+                    throw new MantaCryptoException(String.format(
+                            "Unsupported elliptic curve with a field size of %d bits", bits));
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor that runs the uploads of the {@link MantaObjectOutputStream}
+ * instances created by a {@link MantaClient}. Every stream occupies a thread
+ * for as long as it is open, so the executor can be a bounded pool that
+ * queues uploads or rejects them when all threads are busy, a virtual
+ * thread per upload on JVMs that support virtual threads, or the shared
+ * unbounded pool {@link MantaObjectOutputStream#EXECUTOR}.
+ *
+ * <p>The executor keeps a running count of the uploads that are running,
+ * waiting for a thread and that were rejected, so that the pool can be sized
+ * from real numbers.</p>
+ *
+ * <p>When the pool is bounded, a thread that writes to more streams at the
+ * same time than there are upload threads will wait forever for a queued
+ * upload to start, because the uploads in progress only finish when their
+ * streams are closed.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaUploadExecutor implements AutoCloseable {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaUploadExecutor.class);
+
+    /**
+     * Number of seconds that an idle upload thread is kept alive.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    /**
+     * Number of seconds that closing the executor waits for running uploads
+     * to finish before interrupting them.
+     */
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+
+    /**
+     * Executor running the uploads.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Flag indicating that the executor is the shared pool, which isn't shut
+     * down when this instance is closed.
+     */
+    private final boolean shared;
+
+    /**
+     * Flag indicating that each upload runs on its own virtual thread.
+     */
+    private final boolean virtualThreads;
+
+    /**
+     * Maximum number of upload threads or 0 when unbounded.
+     */
+    private final int maximumThreads;
+
+    /**
+     * Number of uploads that are running.
+     */
+    private final AtomicInteger active = new AtomicInteger(0);
+
+    /**
+     * Number of uploads waiting for a thread.
+     */
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    /**
+     * Number of uploads rejected because all threads were busy and the queue was full.
+     */
+    private final AtomicLong rejected = new AtomicLong(0L);
+
+    /**
+     * Creates a new instance that runs uploads on the shared unbounded pool.
+     */
+    MantaUploadExecutor() {
+        this(0, 0, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maximumThreads maximum number of upload threads or 0 to use the shared unbounded pool
+     * @param queueSize number of uploads that wait for a thread when all threads
+     *                  are busy or 0 to reject them
+     * @param virtualThreads true to run each upload on its own virtual thread
+     *                       when the JVM supports virtual threads
+     */
+    MantaUploadExecutor(final int maximumThreads, final int queueSize,
+                        final boolean virtualThreads) {
+        if (maximumThreads < 0) {
+            throw new IllegalArgumentException("Maximum threads must not be negative");
+        }
+
+        if (queueSize < 0) {
+            throw new IllegalArgumentException("Queue size must not be negative");
+        }
+
+        ExecutorService virtual = null;
+
+        if (virtualThreads) {
+            virtual = newVirtualThreadPerTaskExecutor();
+
+            if (virtual == null) {
+                LOG.warn("Virtual threads aren't supported by this JVM, uploading "
+                        + "output streams with platform threads");
+            }
+        }
+
+        if (virtual != null) {
+            this.executor = virtual;
+            this.shared = false;
+            this.virtualThreads = true;
+            this.maximumThreads = 0;
+        } else if (maximumThreads > 0) {
+            final BlockingQueue<Runnable> queue;
+
+            if (queueSize > 0) {
+                queue = new LinkedBlockingQueue<>(queueSize);
+            } else {
+                queue = new SynchronousQueue<>();
+            }
+
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(maximumThreads, maximumThreads,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, MantaObjectOutputStream.THREAD_FACTORY);
+            pool.allowCoreThreadTimeOut(true);
+
+            this.executor = pool;
+            this.shared = false;
+            this.virtualThreads = false;
+            this.maximumThreads = maximumThreads;
+        } else {
+            this.executor = MantaObjectOutputStream.EXECUTOR;
+            this.shared = true;
+            this.virtualThreads = false;
+            this.maximumThreads = 0;
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     * The method is looked up at runtime so that the library still runs on
+     * JVMs without virtual threads.
+     *
+     * @return new executor or null when virtual threads aren't supported
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Unable to create virtual thread executor", e);
+            return null;
+        }
+    }
+
+    /**
+     * Submits an upload for execution.
+     *
+     * @param upload upload to run
+     * @param <T> type of the result of the upload
+     * @return future completed with the result of the upload
+     * @throws RejectedExecutionException thrown when all threads are busy
+     *                                    and the queue is full
+     */
+    <T> Future<T> submit(final Callable<T> upload) {
+        return submit(upload, null);
+    }
+
+    /**
+     * Submits an upload for execution.
+     *
+     * @param upload upload to run
+     * @param dropped called when the upload is cancelled before it started,
+     *                which happens to queued uploads when the executor is
+     *                closed, or null
+     * @param <T> type of the result of the upload
+     * @return future completed with the result of the upload
+     * @throws RejectedExecutionException thrown when all threads are busy
+     *                                    and the queue is full
+     */
+    <T> Future<T> submit(final Callable<T> upload, final Runnable dropped) {
+        final UploadTask<T> task = new UploadTask<>(upload, dropped);
+        queued.incrementAndGet();
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+
+        return task;
+    }
+
+    /**
+     * @return number of uploads that are running
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * @return number of uploads waiting for a thread
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * @return number of uploads rejected because all threads were busy and the queue was full
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return maximum number of upload threads or 0 when unbounded
+     */
+    public int getMaximumThreads() {
+        return maximumThreads;
+    }
+
+    /**
+     * @return true when each upload runs on its own virtual thread
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops the upload threads of this executor once the running and queued
+     * uploads have finished. Uploads that don't finish in time are interrupted,
+     * which fails them rather than sending a truncated object, and uploads
+     * that haven't started are cancelled. The shared pool isn't shut down.
+     */
+    @Override
+    public void close() {
+        close(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the upload threads of this executor, waiting up to the specified
+     * time for the running and queued uploads to finish.
+     *
+     * @param timeout maximum time to wait for uploads to finish
+     * @param unit unit of the timeout
+     */
+    void close(final long timeout, final TimeUnit unit) {
+        if (shared) {
+            return;
+        }
+
+        executor.shutdown();
+
+        try {
+            if (executor.awaitTermination(timeout, unit)) {
+                return;
+            }
+
+            LOG.warn("Uploads didn't finish within {} {} of closing, interrupting them",
+                    timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Runnable task : executor.shutdownNow()) {
+            if (task instanceof Future) {
+                ((Future<?>)task).cancel(false);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MantaUploadExecutor{");
+        sb.append("active=").append(active.get());
+        sb.append(", queued=").append(queued.get());
+        sb.append(", rejected=").append(rejected.get());
+        sb.append(", maximumThreads=").append(maximumThreads);
+        sb.append(", virtualThreads=").append(virtualThreads);
+        sb.append(", shared=").append(shared);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Upload that keeps the active and queued counts of the executor up to
+     * date, including when it is cancelled before it started.
+     *
+     * @param <T> type of the result of the upload
+     */
+    private final class UploadTask<T> extends FutureTask<T> {
+        /**
+         * Flag indicating that the upload started or was cancelled, so that
+         * it is removed from the queued count exactly once.
+         */
+        private final AtomicBoolean dequeued;
+
+        /**
+         * Called when the upload is cancelled before it started or null.
+         */
+        private final Runnable dropped;
+
+        /**
+         * Creates a new task.
+         *
+         * @param upload upload to run
+         * @param dropped called when the upload is cancelled before it started or null
+         */
+        private UploadTask(final Callable<T> upload, final Runnable dropped) {
+            this(upload, dropped, new AtomicBoolean());
+        }
+
+        /**
+         * Creates a new task.
+         *
+         * @param upload upload to run
+         * @param dropped called when the upload is cancelled before it started or null
+         * @param dequeued flag shared by the task and its callable
+         */
+        private UploadTask(final Callable<T> upload, final Runnable dropped,
+                           final AtomicBoolean dequeued) {
+            super(() -> {
+                if (dequeued.compareAndSet(false, true)) {
+                    queued.decrementAndGet();
+                }
+
+                active.incrementAndGet();
+
+                try {
+                    return upload.call();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+
+            this.dequeued = dequeued;
+            this.dropped = dropped;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() && dequeued.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+
+                if (dropped != null) {
+                    dropped.run();
+                }
+            }
+        }
+    }
+}
@@ -15,11 +15,13 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -34,6 +36,15 @@ import static java.nio.file.Files.readAllBytes;
  * @author Yunong Xiao
  */
 public final class MantaUtils {
+    /**
+     * Maximum size of an array that can be safely allocated on most JVMs.
+     */
+    static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Initial size of the buffer used when reading a stream of unknown length.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 8192;
 
 
     /**
@@ -79,6 +90,134 @@ public final class MantaUtils {
     }
 
 
+    /**
+     * Reads all of the remaining bytes from an {@link java.io.InputStream}
+     * into a byte array. When the length of the stream is known, an array of
+     * exactly that size is allocated and filled with bulk reads, so that no
+     * intermediate buffers are copied. The stream isn't closed.
+     *
+     * @param inputStream The {@link java.io.InputStream}
+     * @param contentLength number of bytes expected in the stream or null if unknown
+     * @return The contents of the {@link java.io.InputStream}
+     * @throws IOException If an IO exception has occurred or the stream is too large for an array
+     */
+    public static byte[] inputStreamToBytes(final InputStream inputStream,
+                                            final Long contentLength) throws IOException {
+        Objects.requireNonNull(inputStream, "InputStream should be present");
+
+        if (contentLength == null || contentLength < 0 || contentLength > MAX_ARRAY_SIZE) {
+            return readRemaining(inputStream, new byte[INITIAL_BUFFER_SIZE], 0);
+        }
+
+        final byte[] bytes = new byte[contentLength.intValue()];
+        int filled = 0;
+
+        while (filled < bytes.length) {
+            final int read = inputStream.read(bytes, filled, bytes.length - filled);
+
+            if (read == -1) {
+                return Arrays.copyOf(bytes, filled);
+            }
+
+            filled += read;
+        }
+
+        final int next = inputStream.read();
+
+        if (next == -1) {
+            return bytes;
+        }
+
+        // The stream was longer than expected, so we fall back to growing the array
+        final byte[] grown = Arrays.copyOf(bytes, newBufferSize(bytes.length));
+        grown[filled] = (byte)next;
+
+        return readRemaining(inputStream, grown, filled + 1);
+    }
+
+
+    /**
+     * Reads the remaining bytes of a stream into a buffer, growing the buffer
+     * as needed.
+     *
+     * @param inputStream stream to read from
+     * @param initial buffer to read into
+     * @param initialFilled number of bytes of the buffer already filled
+     * @return array exactly the size of the data read
+     * @throws IOException If an IO exception has occurred or the stream is too large for an array
+     */
+    private static byte[] readRemaining(final InputStream inputStream, final byte[] initial,
+                                        final int initialFilled) throws IOException {
+        byte[] buffer = initial;
+        int filled = initialFilled;
+
+        while (true) {
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, newBufferSize(buffer.length));
+            }
+
+            final int read = inputStream.read(buffer, filled, buffer.length - filled);
+
+            if (read == -1) {
+                break;
+            }
+
+            filled += read;
+        }
+
+        if (filled == buffer.length) {
+            return buffer;
+        }
+
+        return Arrays.copyOf(buffer, filled);
+    }
+
+
+    /**
+     * Calculates the size of a buffer that needs to grow.
+     *
+     * @param size current size of the buffer
+     * @return new buffer size
+     * @throws IOException thrown when the buffer can't grow any larger
+     */
+    private static int newBufferSize(final int size) throws IOException {
+        if (size >= MAX_ARRAY_SIZE) {
+            throw new IOException("Stream is too large to be read into an array");
+        }
+
+        return (int)Math.min((long)Math.max(size, INITIAL_BUFFER_SIZE) * 2L, MAX_ARRAY_SIZE);
+    }
+
+
+    /**
+     * Decodes the remaining bytes of a buffer to a {@link java.lang.String},
+     * replacing malformed input and unmappable characters. Buffers backed by
+     * an array are decoded directly from the array without an intermediate
+     * {@link java.nio.CharBuffer}. The buffer's position is advanced to its limit.
+     *
+     * @param bytes bytes to decode
+     * @param charset character set of the bytes
+     * @return decoded string
+     */
+    public static String decode(final ByteBuffer bytes, final Charset charset) {
+        Objects.requireNonNull(bytes, "Bytes should be present");
+        Objects.requireNonNull(charset, "Charset should be present");
+
+        final int length = bytes.remaining();
+
+        if (bytes.hasArray()) {
+            final String decoded = new String(bytes.array(),
+                    bytes.arrayOffset() + bytes.position(), length, charset);
+            bytes.position(bytes.limit());
+            return decoded;
+        }
+
+        final byte[] array = new byte[length];
+        bytes.get(array);
+        return new String(array, charset);
+    }
+
+
     /**
      * Reads from an {@link java.io.InputStream} and writes to a {@link java.io.File}.
      * Closes the {@link java.io.InputStream} when done.
@@ -185,6 +324,40 @@ public final class MantaUtils {
         return parsed;
     }
 
+    /**
+     * Parses an arbitrary object for a long. If it can't be found, return null.
+     *
+     * @param value Object to parse for a long
+     * @return if parsing fails, return null
+     */
+    public static Long parseLongOrNull(final Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+
+        String string = toStringEmptyToNull(value);
+        if (string == null) {
+            return null;
+        }
+
+        Long parsed;
+
+        try {
+            parsed = Long.parseLong(string);
+        } catch (Exception e) {
+            Logger logger = LoggerFactory.getLogger(MantaUtils.class);
+            String msg = "Error parsing value as long. Value: %s";
+            logger.warn(String.format(msg, value), e);
+            parsed = null;
+        }
+
+        return parsed;
+    }
+
 
     /**
      * Parses an arbitrary object for a boolean. If it can't be found, return null.
@@ -0,0 +1,572 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpStatusCodes;
+import com.joyent.manta.config.ConfigContext;
+import com.joyent.manta.config.DefaultsConfigContext;
+import com.joyent.manta.exception.MantaClientException;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import org.apache.commons.lang3.ObjectUtils;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.joyent.manta.client.MantaUtils.formatPath;
+
+/**
+ * Helper class that reads objects and their metadata for {@link MantaClient}
+ * through the disk, body and metadata caches and the request coalescer,
+ * whichever of them are enabled by the configuration. It also holds the block
+ * cache shared by seekable byte channels.
+ *
+ * @since 2.7.2
+ */
+class ObjectReadHelper implements AutoCloseable {
+    /**
+     * Library configuration context reference.
+     */
+    private final ConfigContext config;
+
+    /**
+     * Base Manta URL.
+     */
+    private final String url;
+
+    /**
+     * Factory used to build the requests of seekable channels and random access objects.
+     */
+    private final HttpRequestFactory requestFactory;
+
+    /**
+     * Helper used to make the requests that aren't served from a cache.
+     */
+    private final HttpHelper httpHelper;
+
+    /**
+     * Streams that the client closes when it is closed.
+     */
+    private final Set<WeakReference<? extends AutoCloseable>> danglingStreams;
+
+    /**
+     * Cache of object data blocks shared by seekable byte channels or null if disabled.
+     */
+    private final MantaBlockCache blockCache;
+
+    /**
+     * Local disk cache of object data or null if disabled.
+     */
+    private final MantaDiskCache diskCache;
+
+    /**
+     * Cache of object metadata returned by HEAD requests or null if disabled.
+     */
+    private final MantaMetadataCache metadataCache;
+
+    /**
+     * In-memory cache of the data of small objects or null if disabled.
+     */
+    private final MantaBodyCache bodyCache;
+
+    /**
+     * Coalesces concurrent identical GET and HEAD requests or null if disabled.
+     */
+    private final MantaRequestCoalescer requestCoalescer;
+
+    /**
+     * Creates a new instance that reads through the supplied caches and
+     * the block cache, disk cache and request coalescer enabled by the
+     * configuration.
+     *
+     * @param config configuration of the client
+     * @param url base Manta URL
+     * @param requestFactory factory used to build requests
+     * @param httpHelper helper used to make requests
+     * @param metadataCache cache of object metadata or null if disabled
+     * @param bodyCache in-memory cache of small objects or null if disabled
+     * @param danglingStreams streams that the client closes when it is closed
+     * @throws IOException thrown when the disk cache directory can't be used
+     */
+    ObjectReadHelper(final ConfigContext config,
+                     final String url,
+                     final HttpRequestFactory requestFactory,
+                     final HttpHelper httpHelper,
+                     final MantaMetadataCache metadataCache,
+                     final MantaBodyCache bodyCache,
+                     final Set<WeakReference<? extends AutoCloseable>> danglingStreams) throws IOException {
+        this.config = config;
+        this.url = url;
+        this.requestFactory = requestFactory;
+        this.httpHelper = httpHelper;
+        this.metadataCache = metadataCache;
+        this.bodyCache = bodyCache;
+        this.danglingStreams = danglingStreams;
+
+        final long blockCacheSize = ObjectUtils.firstNonNull(config.getBlockCacheSize(),
+                DefaultsConfigContext.DEFAULT_BLOCK_CACHE_SIZE);
+
+        if (blockCacheSize > 0) {
+            this.blockCache = new MantaBlockCache(blockCacheSize,
+                    ObjectUtils.firstNonNull(config.getBlockCacheBlockSize(),
+                            DefaultsConfigContext.DEFAULT_BLOCK_CACHE_BLOCK_SIZE),
+                    ObjectUtils.firstNonNull(config.blockCacheOffHeap(),
+                            DefaultsConfigContext.DEFAULT_BLOCK_CACHE_OFF_HEAP));
+        } else {
+            this.blockCache = null;
+        }
+
+        if (config.getDiskCacheDirectory() != null) {
+            this.diskCache = new MantaDiskCache(Paths.get(config.getDiskCacheDirectory()),
+                    ObjectUtils.firstNonNull(config.getDiskCacheSize(),
+                            DefaultsConfigContext.DEFAULT_DISK_CACHE_SIZE));
+        } else {
+            this.diskCache = null;
+        }
+
+        if (ObjectUtils.firstNonNull(config.coalesceRequests(),
+                DefaultsConfigContext.DEFAULT_COALESCE_REQUESTS)) {
+            this.requestCoalescer = new MantaRequestCoalescer(ObjectUtils.firstNonNull(
+                    config.getCoalesceMaxBodySize(), DefaultsConfigContext.DEFAULT_COALESCE_MAX_BODY_SIZE));
+        } else {
+            this.requestCoalescer = null;
+        }
+    }
+
+    /**
+     * Creates the metadata cache enabled by the configuration.
+     *
+     * @param config configuration of the client
+     * @return new metadata cache or null if the metadata cache is disabled
+     */
+    static MantaMetadataCache newMetadataCache(final ConfigContext config) {
+        final int ttl = ObjectUtils.firstNonNull(config.getMetadataCacheTtl(),
+                DefaultsConfigContext.DEFAULT_METADATA_CACHE_TTL);
+
+        if (ttl <= 0) {
+            return null;
+        }
+
+        return new MantaMetadataCache(ttl,
+                ObjectUtils.firstNonNull(config.getMetadataCacheNegativeTtl(),
+                        DefaultsConfigContext.DEFAULT_METADATA_CACHE_NEGATIVE_TTL),
+                ObjectUtils.firstNonNull(config.getMetadataCacheMaxEntries(),
+                        DefaultsConfigContext.DEFAULT_METADATA_CACHE_MAX_ENTRIES));
+    }
+
+    /**
+     * Creates the in-memory body cache enabled by the configuration.
+     *
+     * @param config configuration of the client
+     * @return new body cache or null if the body cache is disabled
+     */
+    static MantaBodyCache newBodyCache(final ConfigContext config) {
+        final long size = ObjectUtils.firstNonNull(config.getBodyCacheSize(),
+                DefaultsConfigContext.DEFAULT_BODY_CACHE_SIZE);
+
+        if (size <= 0) {
+            return null;
+        }
+
+        return new MantaBodyCache(size,
+                ObjectUtils.firstNonNull(config.getBodyCacheMaxObjectSize(),
+                        DefaultsConfigContext.DEFAULT_BODY_CACHE_MAX_OBJECT_SIZE),
+                ObjectUtils.firstNonNull(config.getBodyCacheRevalidateInterval(),
+                        DefaultsConfigContext.DEFAULT_BODY_CACHE_REVALIDATE_INTERVAL));
+    }
+
+    /**
+     * Get a Manta object's data as an {@link java.io.InputStream}, sharing
+     * the request with concurrent callers when request coalescing is enabled.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param requestHeaders optional HTTP headers to include when getting an object
+     * @return {@link java.io.InputStream} that extends {@link MantaObjectResponse}.
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    MantaObjectInputStream getAsInputStream(final String path,
+                                            final MantaHttpHeaders requestHeaders) throws IOException {
+        if (requestCoalescer != null && MantaRequestCoalescer.isCoalescable(requestHeaders)) {
+            return requestCoalescer.get(path, () -> getAsInputStreamUncoalesced(path, requestHeaders));
+        }
+
+        return getAsInputStreamUncoalesced(path, requestHeaders);
+    }
+
+    /**
+     * Get a Manta object's data as a {@link MantaSeekableByteChannel} that
+     * reads through the block cache, if it is enabled.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param position The starting position (in number of bytes) to read from
+     * @return seekable stream of object data
+     * @throws IOException when the path can't be encoded
+     */
+    MantaSeekableByteChannel getSeekableByteChannel(final String path,
+                                                    final long position) throws IOException {
+        Objects.requireNonNull(path, "Path must not be null");
+
+        final GenericUrl genericUrl = new GenericUrl(url + formatPath(path));
+
+        return new MantaSeekableByteChannel(genericUrl, position, requestFactory, blockCache);
+    }
+
+    /**
+     * Get a Manta object's data as a {@link MantaRandomAccessObject} that is
+     * closed along with the client.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return object that supports concurrent positional reads
+     * @throws IOException when the path can't be encoded
+     */
+    MantaRandomAccessObject getRandomAccessObject(final String path) throws IOException {
+        Objects.requireNonNull(path, "Path must not be null");
+
+        final GenericUrl genericUrl = new GenericUrl(url + formatPath(path));
+        final int maxIdleConnections = ObjectUtils.firstNonNull(config.getRandomAccessIdleConnections(),
+                DefaultsConfigContext.DEFAULT_RANDOM_ACCESS_IDLE_CONNECTIONS);
+
+        final MantaRandomAccessObject object = new MantaRandomAccessObject(genericUrl,
+                requestFactory, maxIdleConnections);
+
+        danglingStreams.add(new WeakReference<AutoCloseable>(object));
+
+        return object;
+    }
+
+    /**
+     * Get a Manta object's data as a byte array, allocating an array of
+     * exactly the object's size when it is known.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return byte array containing the entire Manta object
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    byte[] getAsBytes(final String path) throws IOException {
+        try (MantaObjectInputStream is = getAsInputStream(path, null)) {
+            return readAllBytes(path, is);
+        }
+    }
+
+    /**
+     * Get a Manta object's data as a {@link ByteBuffer}, returning a
+     * read-only view of the cached or shared data without copying it when
+     * the object is served from the body cache or by a coalesced request.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return buffer containing the entire Manta object
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    ByteBuffer getAsByteBuffer(final String path) throws IOException {
+        try (MantaObjectInputStream is = getAsInputStream(path, null)) {
+            final ByteBuffer cached = is.getCachedBody();
+
+            if (cached != null) {
+                return cached;
+            }
+
+            return ByteBuffer.wrap(readAllBytes(path, is));
+        }
+    }
+
+    /**
+     * Reads the remaining data of an object's stream into a byte array.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param is stream of the object's data
+     * @return byte array containing the remaining object data
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    private static byte[] readAllBytes(final String path, final MantaObjectInputStream is)
+            throws IOException {
+        final Long remaining = is.remainingBytes();
+
+        if (remaining != null && remaining > MantaUtils.MAX_ARRAY_SIZE) {
+            final MantaClientException exception = new MantaClientException(
+                    "Object is too large to be loaded into a byte array");
+            exception.setContextValue("path", path);
+            exception.setContextValue("contentLength", remaining);
+
+            throw exception;
+        }
+
+        return MantaUtils.inputStreamToBytes(is, remaining);
+    }
+
+    /**
+     * Get a Manta object's data as an {@link java.io.InputStream} with a
+     * request of its own, consulting the disk and body caches when they are
+     * enabled.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param requestHeaders optional HTTP headers to include when getting an object
+     * @return {@link java.io.InputStream} that extends {@link MantaObjectResponse}.
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    private MantaObjectInputStream getAsInputStreamUncoalesced(final String path,
+                                                               final MantaHttpHeaders requestHeaders)
+            throws IOException {
+        /* Any caller supplied header (e.g. a range or a precondition) can
+         * change the response, so only plain requests use the caches. */
+        final boolean unconditional = MantaRequestCoalescer.isCoalescable(requestHeaders);
+        final boolean cacheable = diskCache != null && unconditional;
+        final boolean bodyCacheable = bodyCache != null && unconditional;
+        MantaBodyCache.CachedBody body = null;
+        long bodyGeneration = 0L;
+
+        if (bodyCacheable) {
+            bodyGeneration = bodyCache.getGeneration();
+            body = bodyCache.get(path);
+
+            if (body != null && bodyCache.isFresh(body)) {
+                bodyCache.recordHit(body, false);
+                return new MantaObjectInputStream(body.getMetadata(), body.getData());
+            }
+        }
+
+        MantaDiskCache.CachedObject cached = null;
+        MantaHttpHeaders getHeaders = requestHeaders;
+
+        if (body != null) {
+            getHeaders = copyOf(requestHeaders);
+            getHeaders.setIfNoneMatch(body.getEtag());
+        } else if (cacheable) {
+            cached = diskCache.open(path);
+        }
+
+        if (cached != null) {
+            getHeaders = copyOf(requestHeaders);
+            getHeaders.setIfNoneMatch(cached.getEtag());
+        }
+
+        final HttpResponse response;
+        boolean servedFromCache = false;
+
+        try {
+            response = httpHelper.httpGet(path, null, getHeaders);
+        } catch (MantaClientHttpResponseException e) {
+            if ((body == null && cached == null)
+                    || e.getStatusCode() != HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                throw e;
+            }
+
+            if (body != null) {
+                bodyCache.recordHit(body, true);
+                return new MantaObjectInputStream(body.getMetadata(), body.getData());
+            }
+
+            servedFromCache = true;
+            diskCache.recordHit(cached);
+
+            final MantaObjectInputStream in = new MantaObjectInputStream(cached.getMetadata(),
+                    cached.getStream());
+            danglingStreams.add(new WeakReference<AutoCloseable>(in));
+
+            return in;
+        } finally {
+            if (cached != null && !servedFromCache) {
+                cached.close();
+            }
+        }
+
+        final MantaHttpHeaders responseHeaders = new MantaHttpHeaders(response.getHeaders());
+        final MantaObjectResponse metadata = new MantaObjectResponse(path, responseHeaders);
+
+        if (metadata.isDirectory()) {
+            final String msg = "Directories do not have data, so data streams "
+                    + "from directories are not possible.";
+            final MantaClientException exception = new MantaClientException(msg);
+            exception.setContextValue("path", path);
+
+            throw exception;
+        }
+
+        final int drainOnCloseThreshold;
+
+        if (config.getDrainOnCloseThreshold() == null) {
+            drainOnCloseThreshold = DefaultsConfigContext.DEFAULT_DRAIN_ON_CLOSE_THRESHOLD;
+        } else {
+            drainOnCloseThreshold = config.getDrainOnCloseThreshold();
+        }
+
+        final int resumeRetries = ObjectUtils.firstNonNull(config.getDownloadResumeRetries(),
+                DefaultsConfigContext.DEFAULT_DOWNLOAD_RESUME_RETRIES);
+        MantaObjectInputStream.RangeRequester rangeRequester = null;
+
+        /* Requests that already specify a range can't be resumed, because
+         * the offset read would be relative to the start of that range. */
+        if (resumeRetries > 0 && (requestHeaders == null || requestHeaders.getRange() == null)) {
+            rangeRequester = offset -> resumeRequest(path, requestHeaders, metadata.getEtag(), offset);
+        }
+
+        MantaObjectInputStream in = new MantaObjectInputStream(metadata, response,
+                drainOnCloseThreshold, rangeRequester, resumeRetries);
+
+        if (bodyCacheable) {
+            bodyCache.recordMiss();
+
+            // Encoded content (e.g. gzip) doesn't have the stored object's length
+            if (response.getContentEncoding() == null && bodyCache.accepts(metadata.getContentLength())) {
+                final byte[] data;
+
+                try (MantaObjectInputStream source = in) {
+                    data = MantaUtils.inputStreamToBytes(source, metadata.getContentLength());
+                }
+
+                body = bodyCache.put(metadata, data, bodyGeneration);
+                return new MantaObjectInputStream(body.getMetadata(), body.getData());
+            }
+        }
+
+        danglingStreams.add(new WeakReference<AutoCloseable>(in));
+
+        if (cacheable) {
+            diskCache.recordMiss();
+
+            // Encoded content (e.g. gzip) doesn't have the stored object's length
+            if (response.getContentEncoding() == null) {
+                in.cacheTo(diskCache.writer(metadata));
+            }
+        }
+
+        return in;
+    }
+
+    /**
+     * Requests the remainder of an object from an offset, so that a failed
+     * download can be resumed. The request is conditional on the object's
+     * etag so that data from different versions of an object is never mixed.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param requestHeaders HTTP headers sent with the original request or null
+     * @param etag etag of the object being downloaded
+     * @param offset offset of the first byte to request
+     * @return response containing the remainder of the object
+     * @throws IOException when there is a problem getting the object over the network
+     */
+    private HttpResponse resumeRequest(final String path, final MantaHttpHeaders requestHeaders,
+                                       final String etag, final long offset) throws IOException {
+        final MantaHttpHeaders headers = copyOf(requestHeaders);
+        headers.setRange(String.format("bytes=%d-", offset));
+        headers.setIfMatch(etag);
+
+        return httpHelper.httpGet(path, null, headers);
+    }
+
+    /**
+     * Copies request headers so that headers can be added without modifying
+     * the caller's instance.
+     *
+     * @param requestHeaders headers to copy or null
+     * @return copy of the headers or empty headers
+     */
+    private static MantaHttpHeaders copyOf(final MantaHttpHeaders requestHeaders) {
+        if (requestHeaders == null) {
+            return new MantaHttpHeaders();
+        }
+
+        return new MantaHttpHeaders(requestHeaders.asGoogleClientHttpHeaders());
+    }
+
+    /**
+     * Get the metadata associated with a Manta object. When the metadata
+     * cache is enabled, the metadata may be served from the cache.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return The {@link MantaObjectResponse}.
+     * @throws IOException If an IO exception has occurred.
+     */
+    MantaObjectResponse head(final String path) throws IOException {
+        if (metadataCache != null) {
+            return metadataCache.get(path, () -> headCoalesced(path));
+        }
+
+        return headCoalesced(path);
+    }
+
+    /**
+     * Get the metadata associated with a Manta object, sharing the request
+     * with concurrent callers when request coalescing is enabled.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return The {@link MantaObjectResponse}.
+     * @throws IOException If an IO exception has occurred.
+     */
+    private MantaObjectResponse headCoalesced(final String path) throws IOException {
+        if (requestCoalescer != null) {
+            return requestCoalescer.head(path, () -> headUncached(path));
+        }
+
+        return headUncached(path);
+    }
+
+    /**
+     * Get the metadata associated with a Manta object with a request of its
+     * own, without consulting the metadata cache.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @return The {@link MantaObjectResponse}.
+     * @throws IOException If an IO exception has occurred.
+     */
+    MantaObjectResponse headUncached(final String path) throws IOException {
+        final HttpResponse response = httpHelper.httpHead(path);
+        final MantaHttpHeaders headers = new MantaHttpHeaders(response.getHeaders());
+        return new MantaObjectResponse(path, headers);
+    }
+
+    /**
+     * @return block cache or null if the block cache is disabled
+     */
+    MantaBlockCache getBlockCache() {
+        return blockCache;
+    }
+
+    /**
+     * @return disk cache or null if the disk cache is disabled
+     */
+    MantaDiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * @return metadata cache or null if the metadata cache is disabled
+     */
+    MantaMetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * @return body cache or null if the body cache is disabled
+     */
+    MantaBodyCache getBodyCache() {
+        return bodyCache;
+    }
+
+    /**
+     * @return request coalescer or null if request coalescing is disabled
+     */
+    MantaRequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Closes the block and disk caches, if they are enabled.
+     */
+    @Override
+    public void close() {
+        if (blockCache != null) {
+            blockCache.close();
+        }
+
+        if (diskCache != null) {
+            diskCache.close();
+        }
+    }
+}
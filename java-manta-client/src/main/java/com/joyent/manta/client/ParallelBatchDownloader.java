@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Fetches a batch of Manta objects with a bounded number of concurrent
+ * requests and makes the results available as an {@link Iterator} as they
+ * complete. Results are returned in completion order or, optionally, in the
+ * order of the requested paths.
+ *
+ * <p>The number of results that have been fetched but not yet consumed is
+ * limited, so that a slow consumer doesn't cause the whole batch to be
+ * buffered in memory. Closing the downloader stops any requests that haven't
+ * started and interrupts the worker threads.</p>
+ *
+ * @since 2.7.2
+ */
+class ParallelBatchDownloader implements Iterator<MantaBatchResult>, AutoCloseable {
+    /**
+     * Number of unconsumed results allowed per concurrent request.
+     */
+    private static final int RESULTS_PER_REQUEST = 4;
+
+    /**
+     * Thread group for all Manta batch download threads.
+     */
+    private static final ThreadGroup THREAD_GROUP = new ThreadGroup("manta-batch");
+
+    /**
+     * Custom thread factory that makes sensibly named daemon threads.
+     */
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final String name = String.format("batch-%d", count.getAndIncrement());
+            Thread thread = new Thread(THREAD_GROUP, runnable, name);
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    };
+
+    /**
+     * Client used to fetch the objects.
+     */
+    private final MantaClient client;
+
+    /**
+     * Fully qualified paths of the objects to fetch.
+     */
+    private final List<String> paths;
+
+    /**
+     * Flag indicating that results are returned in the order of the paths.
+     */
+    private final boolean preserveOrder;
+
+    /**
+     * Permits limiting the number of requested results that haven't been consumed.
+     */
+    private final Semaphore window;
+
+    /**
+     * Index of the next path to be fetched by a worker.
+     */
+    private final AtomicInteger nextPath = new AtomicInteger();
+
+    /**
+     * Results that have been fetched, in completion order.
+     */
+    private final BlockingQueue<MantaBatchResult> completed = new LinkedBlockingQueue<>();
+
+    /**
+     * Results that completed before the results preceding them, by index.
+     */
+    private final Map<Integer, MantaBatchResult> pending = new HashMap<>();
+
+    /**
+     * Thread pool running the workers.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Number of results returned by the iterator.
+     */
+    private int returned;
+
+    /**
+     * Flag indicating that the downloader has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Creates a new instance and starts fetching the objects.
+     *
+     * @param client client used to fetch the objects
+     * @param paths fully qualified paths of the objects to fetch
+     * @param concurrency maximum number of objects to fetch concurrently
+     * @param preserveOrder when true results are returned in the order of the paths
+     */
+    ParallelBatchDownloader(final MantaClient client, final Collection<String> paths,
+                            final int concurrency, final boolean preserveOrder) {
+        Objects.requireNonNull(client, "Client must be present");
+        Objects.requireNonNull(paths, "Paths must be present");
+
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+
+        this.client = client;
+        this.paths = new ArrayList<>(paths);
+        this.preserveOrder = preserveOrder;
+        this.window = new Semaphore(concurrency * RESULTS_PER_REQUEST);
+
+        final int threads = Math.max(1, Math.min(concurrency, this.paths.size()));
+        this.executor = Executors.newFixedThreadPool(threads, THREAD_FACTORY);
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::work);
+        }
+
+        // Workers exit when there are no paths left, so the threads end with them
+        executor.shutdown();
+    }
+
+    /**
+     * @return stream of the results that closes this instance when it is closed
+     */
+    Stream<MantaBatchResult> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(this, paths.size(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !closed && returned < paths.size();
+    }
+
+    @Override
+    public MantaBatchResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final MantaBatchResult result;
+
+        try {
+            if (preserveOrder) {
+                while (!pending.containsKey(returned)) {
+                    final MantaBatchResult next = completed.take();
+                    pending.put(next.getIndex(), next);
+                }
+
+                result = pending.remove(returned);
+            } else {
+                result = completed.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for batch results");
+            exception.initCause(e);
+            throw new UncheckedIOException(exception);
+        }
+
+        returned++;
+        window.release();
+
+        return result;
+    }
+
+    /**
+     * Fetches objects until there are no paths left or the downloader is closed.
+     */
+    private void work() {
+        while (!closed) {
+            try {
+                window.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            final int index = nextPath.getAndIncrement();
+
+            if (closed || index >= paths.size()) {
+                return;
+            }
+
+            final String path = paths.get(index);
+            MantaBatchResult result;
+
+            try {
+                result = new MantaBatchResult(path, index, client.getAsBytes(path), null);
+            } catch (IOException | RuntimeException e) {
+                result = new MantaBatchResult(path, index, null, e);
+            }
+
+            completed.add(result);
+        }
+    }
+
+    /**
+     * Stops fetching objects. Requests that are in progress are interrupted
+     * and any remaining paths are not requested.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        completed.clear();
+        pending.clear();
+    }
+
+    /**
+     * Waits for the worker threads to finish, which they do once there are
+     * no paths left or the downloader has been closed.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return true when the workers finished before the timeout
+     * @throws InterruptedException thrown when interrupted while waiting
+     */
+    boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,470 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.HttpResponse;
+import com.joyent.manta.exception.MantaClientException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads a Manta object to a local file by splitting it into byte ranges
+ * that are fetched concurrently. Each range is requested with an
+ * {@code If-Match} header containing the object's etag, so that a download
+ * fails rather than mixing data from different versions of an object if the
+ * object is overwritten while it is being downloaded. Ranges are written
+ * directly to their position in a preallocated temporary file next to the
+ * target and the MD5 checksum of the completed file is verified against the
+ * checksum reported by Manta before the file is moved into place, so that a
+ * failed download never leaves a partial file at the target.
+ *
+ * @since 2.7.2
+ */
+class ParallelRangeDownloader {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelRangeDownloader.class);
+
+    /**
+     * Default size of each byte range - 8 MiB.
+     */
+    static final long DEFAULT_CHUNK_SIZE = 8L * 1024L * 1024L;
+
+    /**
+     * Size of the buffer used to copy data from the network to the file.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * HTTP status code returned when a range request is honored.
+     */
+    private static final int PARTIAL_CONTENT = 206;
+
+    /**
+     * Suffix of the temporary file that an object is downloaded to.
+     */
+    private static final String TEMP_SUFFIX = ".manta-download";
+
+    /**
+     * Thread group for all Manta download threads.
+     */
+    private static final ThreadGroup THREAD_GROUP = new ThreadGroup("manta-download");
+
+    /**
+     * Custom thread factory that makes sensibly named daemon threads.
+     */
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final String name = String.format("download-%d", count.getAndIncrement());
+            Thread thread = new Thread(THREAD_GROUP, runnable, name);
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    };
+
+    /**
+     * Helper used to perform the HEAD and ranged GET requests.
+     */
+    private final HttpHelper httpHelper;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param httpHelper helper used to perform the HEAD and ranged GET requests
+     */
+    ParallelRangeDownloader(final HttpHelper httpHelper) {
+        this.httpHelper = httpHelper;
+    }
+
+    /**
+     * Downloads an object to a local file, replacing the file if it exists.
+     *
+     * @param path The fully qualified path of the object. i.e. /user/stor/foo/bar/baz
+     * @param target file to write the object's data to
+     * @param parallelism maximum number of ranges to fetch concurrently
+     * @param chunkSize size in bytes of each range
+     * @return metadata of the downloaded object
+     * @throws IOException when there is a problem getting the object over the network
+     *                     or writing it to the file system
+     */
+    MantaObjectResponse download(final String path, final Path target,
+                                 final int parallelism, final long chunkSize) throws IOException {
+        Objects.requireNonNull(path, "Path must be present");
+        Objects.requireNonNull(target, "Target must be present");
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+
+        /* The metadata cache isn't consulted, because the etag of stale
+         * metadata would fail the If-Match condition of every range. */
+        final HttpResponse head = httpHelper.httpHead(path);
+        final MantaObjectResponse metadata = new MantaObjectResponse(path,
+                new MantaHttpHeaders(head.getHeaders()));
+
+        if (metadata.isDirectory()) {
+            final String msg = "Directories do not have data, so directories "
+                    + "can't be downloaded.";
+            final MantaClientException exception = new MantaClientException(msg);
+            exception.setContextValue("path", path);
+
+            throw exception;
+        }
+
+        if (metadata.getContentLength() == null) {
+            final MantaClientException exception = new MantaClientException(
+                    "Object size is unknown, so it can't be split into ranges");
+            exception.setContextValue("path", path);
+
+            throw exception;
+        }
+
+        final long size = metadata.getContentLength();
+        final String etag = metadata.getEtag();
+        final Path absoluteTarget = target.toAbsolutePath();
+        final Path temp = createTempFile(absoluteTarget);
+        boolean moved = false;
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                if (size > 0) {
+                    // Preallocate the file so that ranges can be written in any order
+                    channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+                }
+
+                fetchRanges(path, etag, size, channel, parallelism, chunkSize);
+                channel.force(false);
+            }
+
+            verifyChecksum(path, temp, metadata);
+            moveIntoPlace(temp, absoluteTarget);
+            moved = true;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Creates the file that an object is downloaded to next to the target.
+     * Unlike {@link Files#createTempFile}, the file is created with the
+     * default permissions, or with the permissions of the target when it is
+     * replaced, because it becomes the target once the download completes.
+     *
+     * @param target file that the object is downloaded to
+     * @return empty temporary file
+     * @throws IOException when the file couldn't be created
+     */
+    private static Path createTempFile(final Path target) throws IOException {
+        final Path temp = Files.createFile(target.resolveSibling(
+                "." + target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX));
+
+        if (Files.exists(target)
+                && Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            try {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+
+        return temp;
+    }
+
+    /**
+     * Replaces the target file with a completed download, atomically when
+     * the file system supports it.
+     *
+     * @param source completed download
+     * @param target file to replace
+     * @throws IOException when the file couldn't be moved
+     */
+    private static void moveIntoPlace(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOG.debug("Atomic move not supported for {} - replacing it non-atomically", target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Fetches all of the ranges of an object concurrently.
+     *
+     * @param path path of the object
+     * @param etag etag of the object or null if unknown
+     * @param size size of the object in bytes
+     * @param channel channel of the preallocated file
+     * @param parallelism maximum number of ranges to fetch concurrently
+     * @param chunkSize size in bytes of each range
+     * @throws IOException when a range couldn't be fetched or written
+     */
+    private void fetchRanges(final String path, final String etag, final long size,
+                             final FileChannel channel, final int parallelism,
+                             final long chunkSize) throws IOException {
+        long rangeCount = size / chunkSize;
+
+        if (size % chunkSize != 0) {
+            rangeCount++;
+        }
+
+        final int threads = (int)Math.max(1L, Math.min(parallelism, rangeCount));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, THREAD_FACTORY);
+        final List<Future<Void>> futures = new ArrayList<>();
+
+        try {
+            for (long start = 0; start < size; start += chunkSize) {
+                final long rangeStart = start;
+                final long rangeEnd = start + Math.min(size - start, chunkSize) - 1;
+
+                futures.add(executor.submit(() -> {
+                    fetchRange(path, etag, rangeStart, rangeEnd, size, channel);
+                    return null;
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading object", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetches a single range of an object and writes it to its position in
+     * the file.
+     *
+     * @param path path of the object
+     * @param etag etag of the object or null if unknown
+     * @param rangeStart offset of the first byte of the range
+     * @param rangeEnd offset of the last byte of the range (inclusive)
+     * @param size size of the object in bytes
+     * @param channel channel of the preallocated file
+     * @throws IOException when the range couldn't be fetched or written
+     */
+    private void fetchRange(final String path, final String etag,
+                            final long rangeStart, final long rangeEnd,
+                            final long size, final FileChannel channel) throws IOException {
+        final MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setRange(String.format("bytes=%d-%d", rangeStart, rangeEnd));
+
+        if (etag != null) {
+            headers.setIfMatch(etag);
+        }
+
+        final HttpResponse response = httpHelper.httpGet(path, null, headers);
+        final boolean ranged = response.getStatusCode() == PARTIAL_CONTENT;
+        final InputStream in = response.getContent();
+        boolean complete = false;
+
+        try {
+            long remaining = rangeEnd - rangeStart + 1;
+
+            /* Servers may ignore the Range header and send the whole object.
+             * In that case, we skip to the start of our range. */
+            if (!ranged && rangeStart > 0) {
+                LOG.debug("Range request was ignored for {} - skipping {} bytes", path, rangeStart);
+                skipFully(in, rangeStart);
+            }
+
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long position = rangeStart;
+
+            while (remaining > 0) {
+                final int read = in.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+
+                if (read == -1) {
+                    final MantaClientException exception = new MantaClientException(
+                            "Object data ended before the end of the requested range");
+                    exception.setContextValue("path", path);
+                    exception.setContextValue("range", headers.getRange());
+                    exception.setContextValue("objectSize", size);
+                    exception.setContextValue("missingBytes", remaining);
+
+                    throw exception;
+                }
+
+                final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                long offset = position;
+
+                while (bytes.hasRemaining()) {
+                    offset += channel.write(bytes, offset);
+                }
+
+                position += read;
+                remaining -= read;
+            }
+
+            complete = true;
+        } finally {
+            /* A fully read range response is released so that its connection
+             * goes back to the pool. Failed reads and whole object responses
+             * with data left over are aborted rather than drained. */
+            if (complete && ranged) {
+                httpHelper.releaseResponse(response);
+            } else {
+                abort(response, in);
+            }
+        }
+    }
+
+    /**
+     * Closes the connection of a response without reading the rest of its
+     * body. {@link HttpResponse#disconnect()} can't be used for this, because
+     * it reads the remaining body before disconnecting.
+     *
+     * @param response response to abort
+     * @param in content stream of the response
+     */
+    private static void abort(final HttpResponse response, final InputStream in) {
+        try {
+            if (in instanceof ConnectionReleaseTrigger) {
+                ((ConnectionReleaseTrigger)in).abortConnection();
+            } else {
+                response.disconnect();
+            }
+        } catch (IOException e) {
+            LOG.debug("Unable to abort range response", e);
+        }
+    }
+
+    /**
+     * Skips an exact number of bytes of a stream.
+     *
+     * @param in stream to skip bytes from
+     * @param count number of bytes to skip
+     * @throws IOException when the stream ends before the bytes were skipped
+     */
+    private static void skipFully(final InputStream in, final long count) throws IOException {
+        long remaining = count;
+
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+
+            if (skipped > 0) {
+                remaining -= skipped;
+            } else if (in.read() == -1) {
+                throw new IOException("Stream ended while skipping to the requested range");
+            } else {
+                remaining--;
+            }
+        }
+    }
+
+    /**
+     * Verifies the MD5 checksum of a downloaded file against the checksum
+     * reported by Manta. No verification is done when Manta didn't report
+     * a checksum.
+     *
+     * @param path path of the object
+     * @param target downloaded file
+     * @param metadata metadata of the object
+     * @throws IOException when the file couldn't be read
+     */
+    private static void verifyChecksum(final String path, final Path target,
+                                       final MantaObjectResponse metadata) throws IOException {
+        final byte[] expected = metadata.getMd5Bytes();
+
+        if (expected == null || expected.length == 0) {
+            LOG.debug("No checksum available for {} - skipping verification", path);
+            return;
+        }
+
+        final byte[] actual = md5(target);
+
+        if (!Arrays.equals(expected, actual)) {
+            final MantaClientException exception = new MantaClientException(
+                    "MD5 checksum of downloaded data doesn't match the object's checksum");
+            exception.setContextValue("path", path);
+            exception.setContextValue("target", target);
+            exception.setContextValue("expectedMd5", Hex.encodeHexString(expected));
+            exception.setContextValue("actualMd5", Hex.encodeHexString(actual));
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Calculates the MD5 checksum of a file.
+     *
+     * @param file file to checksum
+     * @return MD5 digest
+     * @throws IOException when the file couldn't be read
+     */
+    private static byte[] md5(final Path file) throws IOException {
+        final MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required by the JVM specification", e);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        return digest.digest();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.http.signature.Signer;
+import com.joyent.http.signature.ThreadLocalSigner;
+
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * {@link ThreadLocalSigner} that keeps no per-thread state. Every thread is
+ * given the same {@link Signer}, which performs each operation with an
+ * instance borrowed from a {@link SignerPool}. This allows APIs that require
+ * a {@link ThreadLocalSigner}, such as
+ * {@link com.joyent.http.signature.google.httpclient.RequestHttpSigner}, to
+ * share the client's pool instead of creating a signer for every thread that
+ * uses them.
+ *
+ * @since 2.7.2
+ */
+public class PooledThreadLocalSigner extends ThreadLocalSigner {
+    /**
+     * Signer given to every thread.
+     */
+    private final Signer signer;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param signerPool pool that signing operations borrow signers from
+     */
+    public PooledThreadLocalSigner(final SignerPool signerPool) {
+        this.signer = new PooledSigner(Objects.requireNonNull(signerPool, "Signer pool must be present"));
+    }
+
+    /**
+     * @return signer shared by all threads, which borrows from the pool for each operation
+     */
+    @Override
+    public Signer get() {
+        return signer;
+    }
+
+    /**
+     * Not supported because there is no per-thread signer to replace.
+     *
+     * @param value ignored
+     */
+    @Override
+    public void set(final Signer value) {
+        throw new UnsupportedOperationException("Signers are borrowed from a pool and can't be set");
+    }
+
+    @Override
+    public void remove() {
+        // There is no per-thread signer to remove
+    }
+
+    /**
+     * {@link Signer} that performs each operation with an instance borrowed
+     * from a pool, so that it can be used by many threads at once.
+     */
+    private static final class PooledSigner extends Signer {
+        /**
+         * Pool that signing operations borrow signers from.
+         */
+        private final SignerPool signerPool;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param signerPool pool that signing operations borrow signers from
+         */
+        private PooledSigner(final SignerPool signerPool) {
+            this.signerPool = signerPool;
+        }
+
+        @Override
+        public String createAuthorizationHeader(final String login, final String fingerprint,
+                                                final KeyPair keyPair) {
+            return signerPool.withSigner(s -> s.createAuthorizationHeader(login, fingerprint, keyPair));
+        }
+
+        @Override
+        public String createAuthorizationHeader(final String login, final String fingerprint,
+                                                final KeyPair keyPair, final Date date) {
+            return signerPool.withSigner(s -> s.createAuthorizationHeader(login, fingerprint, keyPair, date));
+        }
+
+        @Override
+        public String createAuthorizationHeader(final String login, final String fingerprint,
+                                                final KeyPair keyPair, final String date) {
+            return signerPool.withSigner(s -> s.createAuthorizationHeader(login, fingerprint, keyPair, date));
+        }
+
+        @Override
+        public byte[] sign(final String login, final String fingerprint,
+                           final KeyPair keyPair, final byte[] data) {
+            return signerPool.withSigner(s -> s.sign(login, fingerprint, keyPair, data));
+        }
+
+        @Override
+        public boolean verify(final String login, final String fingerprint, final KeyPair keyPair,
+                              final byte[] data, final byte[] signedData) {
+            return signerPool.withSigner(s -> s.verify(login, fingerprint, keyPair, data, signedData));
+        }
+
+        @Override
+        public boolean verifyAuthorizationHeader(final KeyPair keyPair, final String authzHeader,
+                                                 final String date) {
+            return signerPool.withSigner(s -> s.verifyAuthorizationHeader(keyPair, authzHeader, date));
+        }
+    }
+}
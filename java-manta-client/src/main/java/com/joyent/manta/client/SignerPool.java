@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.http.signature.Signer;
+import com.joyent.manta.config.ConfigContext;
+import org.apache.commons.lang3.BooleanUtils;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, lock-free pool of {@link Signer} instances. {@link Signer} isn't
+ * thread-safe, so each signing operation borrows an instance from the pool
+ * and returns it when done. Unlike a {@link com.joyent.http.signature.ThreadLocalSigner},
+ * the number of instances kept is independent of the number of threads that
+ * use the client.
+ *
+ * <p>When every pooled instance is in use, a temporary instance is created
+ * rather than waiting for one to be returned. Instances returned to a pool
+ * that is already full are discarded.</p>
+ *
+ * @since 2.7.2
+ */
+public class SignerPool {
+    /**
+     * Default number of pooled instances - one per processor core.
+     */
+    public static final int DEFAULT_SIZE = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Slots holding idle instances. A null slot is empty.
+     */
+    private final AtomicReferenceArray<Signer> slots;
+
+    /**
+     * Creates new signer instances.
+     */
+    private final Supplier<Signer> factory;
+
+    /**
+     * Creates a new pool of {@link MantaSigner} instances configured using
+     * the passed configuration.
+     *
+     * @param config configuration context
+     */
+    public SignerPool(final ConfigContext config) {
+        this(nativeSignatureFactory(config), DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param factory supplier of new signer instances
+     * @param size maximum number of idle instances to keep
+     */
+    public SignerPool(final Supplier<Signer> factory, final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+
+        this.factory = Objects.requireNonNull(factory, "Signer factory must be present");
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Performs an operation with a signer borrowed from the pool.
+     *
+     * @param operation operation to perform with the signer
+     * @param <T> return type of the operation
+     * @return result of the operation
+     */
+    public <T> T withSigner(final Function<Signer, T> operation) {
+        final Signer signer = borrow();
+
+        try {
+            return operation.apply(signer);
+        } finally {
+            release(signer);
+        }
+    }
+
+    /**
+     * @return maximum number of idle instances kept
+     */
+    public int getSize() {
+        return slots.length();
+    }
+
+    /**
+     * Takes an idle signer from the pool or creates a new one if none are idle.
+     * The signer must be given back using {@link #release(Signer)}.
+     *
+     * @return signer that isn't used by any other thread
+     */
+    Signer borrow() {
+        final int start = startingSlot();
+        final int size = slots.length();
+
+        for (int i = 0; i < size; i++) {
+            final int index = (start + i) % size;
+            final Signer signer = slots.get(index);
+
+            if (signer != null && slots.compareAndSet(index, signer, null)) {
+                return signer;
+            }
+        }
+
+        return factory.get();
+    }
+
+    /**
+     * Returns a signer to the pool.
+     *
+     * @param signer signer previously obtained from {@link #borrow()}
+     */
+    void release(final Signer signer) {
+        final int start = startingSlot();
+        final int size = slots.length();
+
+        for (int i = 0; i < size; i++) {
+            final int index = (start + i) % size;
+
+            if (slots.get(index) == null && slots.compareAndSet(index, null, signer)) {
+                return;
+            }
+        }
+
+        // The pool is full, so we let this instance be garbage collected
+    }
+
+    /**
+     * Spreads threads across the slots so that they rarely contend on the
+     * same slot.
+     *
+     * @return slot to start searching from
+     */
+    private int startingSlot() {
+        return (int)(Thread.currentThread().getId() % slots.length());
+    }
+
+    /**
+     * Creates a supplier of {@link MantaSigner} instances that use native
+     * code unless disabled by the configuration.
+     *
+     * @param config configuration context
+     * @return signer supplier
+     */
+    private static Supplier<Signer> nativeSignatureFactory(final ConfigContext config) {
+        final boolean useNative = !BooleanUtils.isTrue(config.disableNativeSignatures());
+        return () -> new MantaSigner(useNative);
+    }
+}
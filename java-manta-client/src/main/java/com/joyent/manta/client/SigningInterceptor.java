@@ -8,41 +8,84 @@ import com.google.api.client.http.HttpRequest;
 import com.joyent.http.signature.google.httpclient.RequestHttpSigner;
 import com.joyent.manta.config.ConfigContext;
 import com.joyent.manta.config.DefaultsConfigContext;
+import org.apache.commons.lang3.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import static com.joyent.manta.client.MantaHttpHeaders.REQUEST_ID;
 
 /**
  * Implementation of {@link HttpExecuteInterceptor} that performs HTTP signatures
- * on outgoing requests to the Manta API.
+ * on outgoing requests to the Manta API. When presigning is enabled, a single
+ * background thread signs the Date header of each upcoming second ahead of time,
+ * so that requests only copy the signed headers. Instances must be closed in
+ * order to stop that thread.
  *
  * @author <a href="https://github.com/dekobon">Elijah Zupancic</a>
  */
-public class SigningInterceptor implements HttpExecuteInterceptor {
+public class SigningInterceptor implements HttpExecuteInterceptor, AutoCloseable {
     /**
      * Logger instance.
      */
     private static final Logger LOG = LoggerFactory.getLogger(SigningInterceptor.class);
 
     /**
-     * The time in which the last request was signed.
+     * Format used for the Date header of signed requests. Unlike
+     * {@link DateTimeFormatter#RFC_1123_DATE_TIME}, the day of month is
+     * always two digits as required by the HTTP date format.
      */
-    private long lastSigned = Long.MIN_VALUE;
+    static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+                    .withZone(ZoneOffset.UTC);
 
     /**
-     * The date of the HTTP header that was last signed.
+     * Number of milliseconds before the start of a second that the signature
+     * for that second is generated when presigning.
      */
-    private String lastDate;
+    private static final long PRESIGN_LEAD_MILLIS = 200L;
 
     /**
-     * The last HTTP signature value.
+     * Number of milliseconds in a second.
      */
-    private String lastSignature;
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /**
+     * The most recently generated signature. Swapped atomically so that
+     * concurrent requests never see a date paired with another date's signature.
+     */
+    private final AtomicReference<CachedSignature> lastSignature = new AtomicReference<>();
+
+    /**
+     * The signature most recently generated ahead of time by the presigning thread.
+     */
+    private final AtomicReference<CachedSignature> presignedSignature = new AtomicReference<>();
+
+    /**
+     * The presigned signature that was replaced by {@link #presignedSignature}.
+     * It stays in use until the second of the newer signature begins.
+     */
+    private final AtomicReference<CachedSignature> previousPresignedSignature = new AtomicReference<>();
+
+    /**
+     * Scheduler running the presigning thread or null when presigning is disabled.
+     */
+    private final ScheduledExecutorService presigner;
 
     /**
      * Reference to configuration object.
@@ -54,6 +97,11 @@ public class SigningInterceptor implements HttpExecuteInterceptor {
      */
     private final RequestHttpSigner httpSigner;
 
+    /**
+     * Pool of signers used to sign requests.
+     */
+    private final SignerPool signerPool;
+
     /**
      * Flag indicating that HTTP signature authentication is enabled.
      */
@@ -64,6 +112,11 @@ public class SigningInterceptor implements HttpExecuteInterceptor {
      */
     private final int cacheTTL;
 
+    /**
+     * Source of the current time in epoch milliseconds.
+     */
+    private final LongSupplier clock;
+
     /**
      * Creates a new instance of class.
      *
@@ -71,8 +124,39 @@ public class SigningInterceptor implements HttpExecuteInterceptor {
      * @param httpSigner HTTP signature generation object
      */
     public SigningInterceptor(final ConfigContext config, final RequestHttpSigner httpSigner) {
+        this(config, httpSigner, new SignerPool(config));
+    }
+
+    /**
+     * Creates a new instance of class that signs requests with signers
+     * borrowed from the passed pool.
+     *
+     * @param config configuration object
+     * @param httpSigner HTTP signer providing the key and identity used to sign requests
+     * @param signerPool pool of signers used to sign requests
+     */
+    public SigningInterceptor(final ConfigContext config, final RequestHttpSigner httpSigner,
+                              final SignerPool signerPool) {
+        this(config, httpSigner, signerPool, System::currentTimeMillis, SigningInterceptor::newPresigner);
+    }
+
+    /**
+     * Creates a new instance of class with the specified clock and presigning
+     * scheduler.
+     *
+     * @param config configuration object
+     * @param httpSigner HTTP signer providing the key and identity used to sign requests
+     * @param signerPool pool of signers used to sign requests
+     * @param clock source of the current time in epoch milliseconds
+     * @param presignerFactory creates the scheduler that presigns, only called when presigning is enabled
+     */
+    SigningInterceptor(final ConfigContext config, final RequestHttpSigner httpSigner,
+                       final SignerPool signerPool, final LongSupplier clock,
+                       final Supplier<ScheduledExecutorService> presignerFactory) {
         this.config = config;
+        this.clock = Objects.requireNonNull(clock, "Clock must be present");
         this.httpSigner = httpSigner;
+        this.signerPool = signerPool;
         this.authEnabled = config.noAuth() == null || !config.noAuth();
 
         if (config.getSignatureCacheTTL() == null) {
@@ -81,7 +165,32 @@ public class SigningInterceptor implements HttpExecuteInterceptor {
             this.cacheTTL = config.getSignatureCacheTTL();
         }
 
-        LOG.debug("Using {} to sign requests", httpSigner.getSignerThreadLocal().get().getSignature());
+        if (LOG.isDebugEnabled() && httpSigner != null) {
+            LOG.debug("Using {} to sign requests", MantaSigner.httpSignatureAlgorithm(httpSigner.getKeyPair()));
+        }
+
+        final boolean presign = ObjectUtils.firstNonNull(config.presignSignatures(),
+                DefaultsConfigContext.DEFAULT_PRESIGN_SIGNATURES);
+
+        if (presign && authEnabled && httpSigner != null) {
+            this.presigner = presignerFactory.get();
+            this.presigner.execute(this::presign);
+        } else {
+            this.presigner = null;
+        }
+    }
+
+    /**
+     * Creates the scheduler running the presigning thread.
+     *
+     * @return single threaded scheduler with a daemon thread
+     */
+    private static ScheduledExecutorService newPresigner() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "manta-presigner");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
@@ -109,14 +218,152 @@ public class SigningInterceptor implements HttpExecuteInterceptor {
         }
 
         // Sign request
-        if (cacheTTL <= 0 || lastSigned - System.currentTimeMillis() > cacheTTL) {
-            httpSigner.signRequest(request);
-            lastSigned = System.currentTimeMillis();
-            lastDate = request.getHeaders().getDate();
-            lastSignature = request.getHeaders().getAuthorization();
-        } else {
-            request.getHeaders().setAuthorization(lastSignature);
-            request.getHeaders().setDate(lastDate);
+        final long now = clock.getAsLong();
+        final CachedSignature signature = findSignature(now);
+
+        request.getHeaders().setDate(signature.date);
+        request.getHeaders().setAuthorization(signature.authorization);
+    }
+
+    /**
+     * Finds a valid signature for the current time, preferring one generated
+     * ahead of time, then a cached one and only signing on the calling thread
+     * as a last resort.
+     *
+     * @param now current time in epoch milliseconds
+     * @return signature that can be used at the current time
+     */
+    private CachedSignature findSignature(final long now) {
+        if (presigner != null) {
+            final int presignedTTL = Math.max(cacheTTL, (int)MILLIS_PER_SECOND);
+            final CachedSignature presigned = presignedSignature.get();
+
+            if (presigned != null && presigned.isValidAt(now, presignedTTL)) {
+                return presigned;
+            }
+
+            final CachedSignature previous = previousPresignedSignature.get();
+
+            if (previous != null && previous.isValidAt(now, presignedTTL)) {
+                return previous;
+            }
+        }
+
+        if (cacheTTL <= 0) {
+            return sign(TimeUnit.MILLISECONDS.toSeconds(now));
+        }
+
+        final CachedSignature cached = lastSignature.get();
+
+        if (cached != null && cached.isValidAt(now, cacheTTL)) {
+            return cached;
+        }
+
+        final CachedSignature signed = sign(TimeUnit.MILLISECONDS.toSeconds(now));
+
+        /* If another thread refreshed the cache while we were signing, its
+         * signature is just as good as ours, so we don't retry. */
+        lastSignature.compareAndSet(cached, signed);
+
+        return signed;
+    }
+
+    /**
+     * Signs the Date header value for the specified second.
+     *
+     * @param epochSecond epoch second to use as the Date header
+     * @return the signed Date header and its authorization header
+     */
+    private CachedSignature sign(final long epochSecond) {
+        final String date = DATE_FORMAT.format(Instant.ofEpochSecond(epochSecond));
+        final String authorization = signerPool.withSigner(signer ->
+                signer.createAuthorizationHeader(httpSigner.getLogin(), httpSigner.getFingerprint(),
+                        httpSigner.getKeyPair(), date));
+
+        return new CachedSignature(epochSecond, date, authorization);
+    }
+
+    /**
+     * Signs the Date header for the upcoming second on the presigning thread
+     * and schedules the next run shortly before the following second begins.
+     */
+    private void presign() {
+        final long now = clock.getAsLong();
+        final long millisLeft = MILLIS_PER_SECOND - (now % MILLIS_PER_SECOND);
+        long epochSecond = TimeUnit.MILLISECONDS.toSeconds(now);
+
+        if (millisLeft <= 2 * PRESIGN_LEAD_MILLIS) {
+            epochSecond++;
+        }
+
+        try {
+            final CachedSignature signed = sign(epochSecond);
+            previousPresignedSignature.set(presignedSignature.getAndSet(signed));
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to presign HTTP signature", e);
+        }
+
+        final long nextRun = (epochSecond + 1) * MILLIS_PER_SECOND - PRESIGN_LEAD_MILLIS;
+
+        try {
+            presigner.schedule(this::presign, Math.max(0L, nextRun - clock.getAsLong()),
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Presigning has been stopped");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (presigner != null) {
+            presigner.shutdownNow();
+        }
+    }
+
+    /**
+     * Immutable pairing of a signed Date header value and the Authorization
+     * header generated for it.
+     */
+    private static final class CachedSignature {
+        /**
+         * Epoch second of the signed Date header.
+         */
+        private final long epochSecond;
+
+        /**
+         * Value of the signed Date header.
+         */
+        private final String date;
+
+        /**
+         * Authorization header value containing the signature of {@link #date}.
+         */
+        private final String authorization;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param epochSecond epoch second of the signed Date header
+         * @param date value of the signed Date header
+         * @param authorization authorization header value
+         */
+        private CachedSignature(final long epochSecond, final String date,
+                                final String authorization) {
+            this.epochSecond = epochSecond;
+            this.date = date;
+            this.authorization = authorization;
+        }
+
+        /**
+         * Checks to see if the signature can still be used.
+         *
+         * @param now current time in epoch milliseconds
+         * @param ttl maximum age of the signed Date header in milliseconds
+         * @return true if the signature hasn't expired
+         */
+        private boolean isValidAt(final long now, final int ttl) {
+            final long age = now - TimeUnit.SECONDS.toMillis(epochSecond);
+            return age >= 0 && age < ttl;
         }
     }
 }
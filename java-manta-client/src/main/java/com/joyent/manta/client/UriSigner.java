@@ -0,0 +1,275 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.http.signature.Signer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates pre-signed URIs that allow access to Manta objects without any
+ * additional authentication. Signers are borrowed from a {@link SignerPool}
+ * so that URIs can be signed concurrently from any number of threads.
+ *
+ * <p>When an expiry bucket is configured, expiry times are rounded up to the
+ * next multiple of the bucket size and signed URIs are cached by URI, method
+ * and rounded expiry time, so that repeatedly signing the same resource
+ * doesn't perform any cryptographic operations.</p>
+ *
+ * @since 2.7.2
+ */
+class UriSigner {
+    /**
+     * Character set used to encode the URI parameters.
+     */
+    private static final String CHARSET = StandardCharsets.UTF_8.name();
+
+    /**
+     * Maximum number of signed URIs cached before expired entries are purged.
+     */
+    static final int MAX_CACHED_URIS = 65_536;
+
+    /**
+     * Key pair used to sign URIs.
+     */
+    private final KeyPair keyPair;
+
+    /**
+     * Manta account name.
+     */
+    private final String login;
+
+    /**
+     * Fingerprint of the key.
+     */
+    private final String fingerprint;
+
+    /**
+     * Pool of signers used to perform the signing.
+     */
+    private final SignerPool signerPool;
+
+    /**
+     * Algorithm parameter value of signed URIs.
+     */
+    private final String algorithm;
+
+    /**
+     * Number of seconds that expiry times are rounded up to or 0 when caching is disabled.
+     */
+    private final long expiryBucket;
+
+    /**
+     * Cache of signed URIs.
+     */
+    private final ConcurrentMap<CacheKey, URI> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance that doesn't cache signed URIs.
+     *
+     * @param keyPair key pair used to sign URIs
+     * @param login Manta account name
+     * @param fingerprint fingerprint of the key
+     * @param signerPool pool of signers used to perform the signing
+     */
+    UriSigner(final KeyPair keyPair, final String login, final String fingerprint,
+              final SignerPool signerPool) {
+        this(keyPair, login, fingerprint, signerPool, 0);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param keyPair key pair used to sign URIs
+     * @param login Manta account name
+     * @param fingerprint fingerprint of the key
+     * @param signerPool pool of signers used to perform the signing
+     * @param expiryBucket seconds that expiry times are rounded up to (0 to disable caching)
+     */
+    UriSigner(final KeyPair keyPair, final String login, final String fingerprint,
+              final SignerPool signerPool, final long expiryBucket) {
+        if (expiryBucket < 0) {
+            throw new IllegalArgumentException("Signed URI expiry bucket must be 0 or greater");
+        }
+
+        this.expiryBucket = expiryBucket;
+        this.keyPair = keyPair;
+        this.login = login;
+        this.fingerprint = fingerprint;
+        this.signerPool = signerPool;
+        this.algorithm = MantaSigner.httpSignatureAlgorithm(keyPair).toUpperCase(Locale.US);
+    }
+
+    /**
+     * Signs an arbitrary URL using the Manta-compatible HTTP signature method.
+     * When caching is enabled, the expiry time is rounded up to the expiry
+     * bucket and a previously signed URI may be returned.
+     *
+     * @param uri URI with no query pointing to a downloadable resource
+     * @param method HTTP request method to be used in the signature
+     * @param expires epoch time in seconds when the resource will no longer be available
+     * @return a signed version of the input URI
+     * @throws IOException thrown when the URI can't be encoded
+     */
+    URI signURI(final URI uri, final String method, final long expires) throws IOException {
+        Objects.requireNonNull(method, "Method must be present");
+        Objects.requireNonNull(uri, "URI must be present");
+
+        if (expiryBucket == 0) {
+            return sign(uri, method, expires);
+        }
+
+        final long rounded = roundUpToBucket(expires);
+        final CacheKey key = new CacheKey(uri, method, rounded);
+        final URI cached = cache.get(key);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final URI signed = sign(uri, method, rounded);
+
+        if (cache.size() >= MAX_CACHED_URIS) {
+            purge();
+        }
+
+        cache.putIfAbsent(key, signed);
+
+        return signed;
+    }
+
+    /**
+     * @return number of signed URIs currently cached
+     */
+    int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Rounds an expiry time up to the next multiple of the expiry bucket.
+     *
+     * @param expires epoch time in seconds
+     * @return rounded epoch time in seconds
+     */
+    long roundUpToBucket(final long expires) {
+        final long remainder = Math.floorMod(expires, expiryBucket);
+
+        if (remainder == 0) {
+            return expires;
+        }
+
+        return expires - remainder + expiryBucket;
+    }
+
+    /**
+     * Removes cached URIs that have expired. If the cache is still full
+     * afterwards it is cleared entirely.
+     */
+    private void purge() {
+        final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        cache.keySet().removeIf(key -> key.expires <= now);
+
+        if (cache.size() >= MAX_CACHED_URIS) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Signs a URI without consulting the cache.
+     *
+     * @param uri URI with no query pointing to a downloadable resource
+     * @param method HTTP request method to be used in the signature
+     * @param expires epoch time in seconds when the resource will no longer be available
+     * @return a signed version of the input URI
+     * @throws IOException thrown when the URI can't be encoded
+     */
+    private URI sign(final URI uri, final String method, final long expires) throws IOException {
+        if (uri.getQuery() != null && !uri.getQuery().isEmpty()) {
+            throw new IllegalArgumentException("Query must be empty");
+        }
+
+        final String keyId = URLEncoder.encode(String.format("/%s/keys/%s", login, fingerprint), CHARSET);
+        final String parameters = String.format("algorithm=%s&expires=%d&keyId=%s",
+                algorithm, expires, keyId);
+        final String signingString = method + "\n" + uri.getHost() + "\n" + uri.getPath() + "\n" + parameters;
+
+        final Signer signer = signerPool.borrow();
+        final byte[] signed;
+
+        try {
+            signed = signer.sign(login, fingerprint, keyPair, signingString.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            signerPool.release(signer);
+        }
+
+        final String signature = URLEncoder.encode(Base64.getEncoder().encodeToString(signed), CHARSET);
+
+        return URI.create(uri + "?" + parameters + "&signature=" + signature);
+    }
+
+    /**
+     * Key identifying a signed URI in the cache.
+     */
+    private static final class CacheKey {
+        /**
+         * URI that was signed.
+         */
+        private final URI uri;
+
+        /**
+         * HTTP method that was signed.
+         */
+        private final String method;
+
+        /**
+         * Rounded expiry time in epoch seconds.
+         */
+        private final long expires;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param uri URI that was signed
+         * @param method HTTP method that was signed
+         * @param expires rounded expiry time in epoch seconds
+         */
+        private CacheKey(final URI uri, final String method, final long expires) {
+            this.uri = uri;
+            this.method = method;
+            this.expires = expires;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+
+            final CacheKey that = (CacheKey)other;
+
+            return expires == that.expires
+                    && uri.equals(that.uri)
+                    && method.equals(that.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, method, expires);
+        }
+    }
+}
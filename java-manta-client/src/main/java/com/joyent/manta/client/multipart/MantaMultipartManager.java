@@ -405,6 +405,141 @@ public class MantaMultipartManager {
         return new MantaMultipartUploadPart(response);
     }
 
+    /**
+     * Uploads a single part of a multipart upload with a known length, so
+     * that the part is sent with a Content-Length instead of being chunked.
+     *
+     * @param upload multipart upload object
+     * @param partNumber part number to identify relative location in final file
+     * @param inputStream stream providing data for part to be uploaded
+     * @param contentLength number of bytes provided by the stream
+     * @return multipart single part object
+     * @throws IOException thrown if there is a problem connecting to Manta
+     */
+    public MantaMultipartUploadPart uploadPart(final MantaMultipartUpload upload,
+                                               final int partNumber,
+                                               final InputStream inputStream,
+                                               final long contentLength)
+            throws IOException {
+        if (upload == null) {
+            throw new IllegalArgumentException("Upload must be present");
+        }
+
+        return uploadPart(upload.getId(), partNumber, inputStream, contentLength);
+    }
+
+    /**
+     * Uploads a single part of a multipart upload with a known length, so
+     * that the part is sent with a Content-Length instead of being chunked.
+     *
+     * @param id multipart upload id
+     * @param partNumber part number to identify relative location in final file
+     * @param inputStream stream providing data for part to be uploaded
+     * @param contentLength number of bytes provided by the stream
+     * @return multipart single part object
+     * @throws IOException thrown if there is a problem connecting to Manta
+     */
+    public MantaMultipartUploadPart uploadPart(final UUID id, final int partNumber,
+                                               final InputStream inputStream,
+                                               final long contentLength)
+            throws IOException {
+        final String path = multipartPath(id, partNumber);
+        final MantaObjectResponse response = mantaClient.put(path, inputStream,
+                contentLength, null, null);
+
+        return new MantaMultipartUploadPart(response);
+    }
+
+    /**
+     * Uploads a file as a multipart upload by splitting it into parts that
+     * are uploaded concurrently and completes the upload once all parts are
+     * uploaded. The part size is increased when needed so that the file is
+     * split into no more than {@link #MAX_PARTS} parts. Failed parts are
+     * retried and the upload is aborted if a part can't be uploaded.
+     *
+     * @param path remote path of Manta object to be uploaded
+     * @param file file to upload
+     * @param partSize size in bytes of each part
+     * @param parallelism maximum number of parts to upload concurrently
+     * @return multipart upload that was completed
+     * @throws IOException thrown when the file can't be read or a part can't be uploaded
+     */
+    public MantaMultipartUpload uploadFile(final String path, final File file,
+                                           final long partSize, final int parallelism)
+            throws IOException {
+        return uploadFile(path, file, null, null, partSize, parallelism);
+    }
+
+    /**
+     * Uploads a file as a multipart upload by splitting it into parts that
+     * are uploaded concurrently and completes the upload once all parts are
+     * uploaded. The part size is increased when needed so that the file is
+     * split into no more than {@link #MAX_PARTS} parts. Failed parts are
+     * retried and the upload is aborted if a part can't be uploaded.
+     *
+     * @param path remote path of Manta object to be uploaded
+     * @param file file to upload
+     * @param mantaMetadata metadata to write to final Manta object
+     * @param httpHeaders HTTP headers to read from to write to final Manta object
+     * @param partSize size in bytes of each part
+     * @param parallelism maximum number of parts to upload concurrently
+     * @return multipart upload that was completed
+     * @throws IOException thrown when the file can't be read or a part can't be uploaded
+     */
+    public MantaMultipartUpload uploadFile(final String path, final File file,
+                                           final MantaMetadata mantaMetadata,
+                                           final MantaHttpHeaders httpHeaders,
+                                           final long partSize, final int parallelism)
+            throws IOException {
+        return new ParallelPartUploader(this).upload(path, file, mantaMetadata,
+                httpHeaders, partSize, parallelism);
+    }
+
+    /**
+     * Creates an {@link java.io.OutputStream} that uploads an object of
+     * unknown size. Objects no larger than a part are uploaded with a single
+     * PUT request when the stream is closed. Larger objects are uploaded as a
+     * multipart upload whose parts are uploaded concurrently while data is
+     * still being written, and the upload is completed when the stream is
+     * closed.
+     *
+     * @param path remote path of Manta object to be uploaded
+     * @param partSize size in bytes of each part and of the largest object
+     *                 uploaded with a single PUT request
+     * @param parallelism maximum number of parts to upload concurrently
+     * @return stream that uploads the data written to it
+     */
+    public MantaMultipartOutputStream putAsOutputStream(final String path,
+                                                        final int partSize,
+                                                        final int parallelism) {
+        return putAsOutputStream(path, null, null, partSize, parallelism);
+    }
+
+    /**
+     * Creates an {@link java.io.OutputStream} that uploads an object of
+     * unknown size. Objects no larger than a part are uploaded with a single
+     * PUT request when the stream is closed. Larger objects are uploaded as a
+     * multipart upload whose parts are uploaded concurrently while data is
+     * still being written, and the upload is completed when the stream is
+     * closed.
+     *
+     * @param path remote path of Manta object to be uploaded
+     * @param mantaMetadata metadata to write to final Manta object
+     * @param httpHeaders HTTP headers to read from to write to final Manta object
+     * @param partSize size in bytes of each part and of the largest object
+     *                 uploaded with a single PUT request
+     * @param parallelism maximum number of parts to upload concurrently
+     * @return stream that uploads the data written to it
+     */
+    public MantaMultipartOutputStream putAsOutputStream(final String path,
+                                                        final MantaMetadata mantaMetadata,
+                                                        final MantaHttpHeaders httpHeaders,
+                                                        final int partSize,
+                                                        final int parallelism) {
+        return new MantaMultipartOutputStream(this, mantaClient, path, mantaMetadata,
+                httpHeaders, partSize, parallelism);
+    }
+
     /**
      * Retrieves information about a single part of a multipart upload.
      *
@@ -825,6 +960,9 @@ public class MantaMultipartManager {
                 .addPhase(cleanupPhase)
                 .run();
 
+        // Reads of the path mustn't be served the object it replaces from a cache
+        mantaClient.invalidateCaches(path);
+
         // We write the job id to Metadata object so that we can query it easily
         writeJobIdToMetadata(id, run.getId());
 
@@ -0,0 +1,492 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client.multipart;
+
+import com.joyent.manta.client.MantaClient;
+import com.joyent.manta.client.MantaHttpHeaders;
+import com.joyent.manta.client.MantaMetadata;
+import com.joyent.manta.client.MantaObjectResponse;
+import com.joyent.manta.exception.MantaMultipartException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link OutputStream} that uploads an object of unknown size to Manta. Data
+ * is buffered in memory up to the part size and uploaded with a single PUT
+ * request if the stream is closed before more than a part has been written.
+ * Once more data is written, the stream starts a multipart upload and uploads
+ * each filled part in the background while the writer keeps writing. Closing
+ * the stream uploads the last part and completes the multipart upload.
+ *
+ * <p>No more than the specified number of parts are uploaded at the same
+ * time, and writers block when that many parts are in flight, so the memory
+ * used by the stream is bounded by the part size times the parallelism plus
+ * one. Because the number of parts is limited to
+ * {@link MantaMultipartManager#MAX_PARTS}, the part size limits the size of
+ * the object. Failed parts are retried and the multipart upload is aborted
+ * when a part can't be uploaded.</p>
+ *
+ * <p>This class isn't safe for use by multiple writers at the same time.</p>
+ *
+ * @since 2.7.2
+ */
+public class MantaMultipartOutputStream extends OutputStream {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MantaMultipartOutputStream.class);
+
+    /**
+     * Initial size of the buffer, which grows up to the part size, so that
+     * small objects don't allocate a whole part.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    /**
+     * Manager used to initiate, upload parts of, complete and abort the upload.
+     */
+    private final MantaMultipartManager manager;
+
+    /**
+     * Manta client used to upload objects smaller than a part.
+     */
+    private final MantaClient mantaClient;
+
+    /**
+     * Path to the object in Manta.
+     */
+    private final String path;
+
+    /**
+     * Metadata to write to the object or null.
+     */
+    private final MantaMetadata metadata;
+
+    /**
+     * HTTP headers to write to the object or null.
+     */
+    private final MantaHttpHeaders headers;
+
+    /**
+     * Size in bytes of each part and the threshold for starting a multipart upload.
+     */
+    private final int partSize;
+
+    /**
+     * Maximum number of parts to upload concurrently.
+     */
+    private final int parallelism;
+
+    /**
+     * Permits for the parts being uploaded, which block writers when
+     * too many parts are in flight.
+     */
+    private final Semaphore inFlight;
+
+    /**
+     * Part buffers whose upload has finished and that can be reused.
+     */
+    private final Queue<byte[]> spareBuffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Uploads of the parts submitted so far in part number order.
+     */
+    private final List<Future<MantaMultipartUploadPart>> parts = new ArrayList<>();
+
+    /**
+     * First failure of the upload or null if it hasn't failed.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Array used to write single bytes.
+     */
+    private final byte[] singleByte = new byte[1];
+
+    /**
+     * Buffer of the part being written.
+     */
+    private byte[] buffer;
+
+    /**
+     * Number of bytes in the buffer.
+     */
+    private int count;
+
+    /**
+     * A running count of the total number of bytes written.
+     */
+    private long bytesWritten;
+
+    /**
+     * Executor uploading the parts or null until the multipart upload starts.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Multipart upload or null when the object hasn't exceeded a part.
+     */
+    private MantaMultipartUpload upload;
+
+    /**
+     * Response of the single PUT request when the object fit in a part.
+     */
+    private MantaObjectResponse objectResponse;
+
+    /**
+     * Flag indicating that this stream has been closed.
+     */
+    private volatile boolean isClosed = false;
+
+    /**
+     * Creates a new stream. Use
+     * {@link MantaMultipartManager#putAsOutputStream(String, MantaMetadata, MantaHttpHeaders, int, int)}
+     * to create instances.
+     *
+     * @param manager manager used to initiate, upload parts of, complete and abort the upload
+     * @param mantaClient Manta client used to upload objects smaller than a part
+     * @param path remote path of Manta object to be uploaded
+     * @param metadata metadata to write to final Manta object or null
+     * @param headers HTTP headers to write to final Manta object or null
+     * @param partSize size in bytes of each part
+     * @param parallelism maximum number of parts to upload concurrently
+     */
+    MantaMultipartOutputStream(final MantaMultipartManager manager,
+                               final MantaClient mantaClient,
+                               final String path,
+                               final MantaMetadata metadata,
+                               final MantaHttpHeaders headers,
+                               final int partSize,
+                               final int parallelism) {
+        Objects.requireNonNull(path, "Path must be present");
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+
+        if (partSize < 1) {
+            throw new IllegalArgumentException("Part size must be at least 1");
+        }
+
+        this.manager = manager;
+        this.mantaClient = mantaClient;
+        this.path = path;
+        this.metadata = metadata;
+        this.headers = headers;
+        this.partSize = partSize;
+        this.parallelism = parallelism;
+        this.inFlight = new Semaphore(parallelism);
+        this.buffer = new byte[Math.min(partSize, INITIAL_BUFFER_SIZE)];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        singleByte[0] = (byte)b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (isClosed) {
+            throw new IOException("Stream is closed");
+        }
+
+        checkFailure();
+
+        try {
+            int written = 0;
+
+            while (written < len) {
+                if (count == buffer.length) {
+                    nextBuffer();
+                }
+
+                final int chunk = Math.min(len - written, buffer.length - count);
+                System.arraycopy(b, off + written, buffer, count, chunk);
+
+                count += chunk;
+                written += chunk;
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        }
+
+        bytesWritten += len;
+    }
+
+    /**
+     * Makes room in the buffer by growing it up to the part size or, when
+     * it holds a whole part, by uploading it and switching to an empty buffer.
+     *
+     * @throws IOException thrown when the multipart upload can't be started
+     *                     or a part failed
+     */
+    private void nextBuffer() throws IOException {
+        if (buffer.length < partSize) {
+            buffer = Arrays.copyOf(buffer, (int)Math.min(partSize, 2L * buffer.length));
+            return;
+        }
+
+        if (upload == null) {
+            upload = manager.initiateUpload(path, metadata, headers);
+            executor = Executors.newFixedThreadPool(parallelism, ParallelPartUploader.THREAD_FACTORY);
+
+            LOG.debug("Object [{}] exceeded {} bytes, started multipart upload [{}]",
+                    path, partSize, upload.getId());
+        }
+
+        submitPart(buffer);
+
+        final byte[] spare = spareBuffers.poll();
+
+        if (spare != null) {
+            buffer = spare;
+        } else {
+            buffer = new byte[partSize];
+        }
+
+        count = 0;
+    }
+
+    /**
+     * Uploads a part in the background, blocking while the maximum number
+     * of parts are being uploaded.
+     *
+     * @param part contents of the part
+     * @throws IOException thrown when there are too many parts, a part failed
+     *                     or the writer was interrupted
+     */
+    private void submitPart(final byte[] part) throws IOException {
+        final int partNumber = parts.size() + 1;
+
+        if (partNumber > MantaMultipartManager.MAX_PARTS) {
+            final MantaMultipartException exception = new MantaMultipartException(
+                    "Object exceeds the maximum number of parts");
+            exception.setContextValue("multipart_id", upload.getId());
+            exception.setContextValue("path", path);
+            exception.setContextValue("part_size", partSize);
+            exception.setContextValue("max_parts", MantaMultipartManager.MAX_PARTS);
+            throw exception;
+        }
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for a part to finish uploading");
+            exception.initCause(e);
+            throw exception;
+        }
+
+        try {
+            checkFailure();
+        } catch (IOException e) {
+            inFlight.release();
+            throw e;
+        }
+
+        final MantaMultipartUpload multipartUpload = upload;
+
+        parts.add(executor.submit(() -> {
+            try {
+                return ParallelPartUploader.uploadWithRetries(multipartUpload, partNumber, () ->
+                        manager.uploadPart(multipartUpload.getId(), partNumber, part));
+            } catch (IOException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                if (part.length == partSize) {
+                    spareBuffers.offer(part);
+                }
+
+                inFlight.release();
+            }
+        }));
+    }
+
+    /**
+     * Throws an exception when the upload has already failed, so that writers
+     * stop as soon as a part can't be uploaded.
+     *
+     * @throws IOException thrown when the upload failed
+     */
+    private void checkFailure() throws IOException {
+        final Throwable cause = failure.get();
+
+        if (cause != null) {
+            throw new IOException("Upload failed", cause);
+        }
+    }
+
+    /**
+     * Uploads the buffered data. When the object fit in a part it is uploaded
+     * with a single PUT request, otherwise the last part is uploaded and the
+     * multipart upload is completed once all of the parts have been uploaded.
+     * The multipart upload is aborted when it failed.
+     *
+     * @throws IOException thrown when the object couldn't be uploaded
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
+        try {
+            checkFailure();
+
+            if (upload == null) {
+                objectResponse = mantaClient.put(path, contents(), headers, metadata);
+                return;
+            }
+
+            if (count > 0) {
+                submitPart(contents());
+            }
+
+            manager.complete(upload, awaitParts());
+        } catch (IOException | RuntimeException e) {
+            if (upload != null) {
+                abort(e);
+            }
+
+            throw e;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+
+            buffer = null;
+            spareBuffers.clear();
+        }
+    }
+
+    /**
+     * @return the buffered data in an array of its exact size
+     */
+    private byte[] contents() {
+        if (count == buffer.length) {
+            return buffer;
+        }
+
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Waits for all of the parts to be uploaded.
+     *
+     * @return uploaded parts in part number order
+     * @throws IOException thrown when a part couldn't be uploaded
+     */
+    private List<MantaMultipartUploadTuple> awaitParts() throws IOException {
+        final List<MantaMultipartUploadTuple> tuples = new ArrayList<>(parts.size());
+
+        try {
+            for (int i = 0; i < parts.size(); i++) {
+                final MantaMultipartUploadPart part = parts.get(i).get();
+                tuples.add(new MantaMultipartUploadTuple(i + 1, part.getEtag()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException(
+                    "Interrupted while waiting for parts to finish uploading");
+            exception.initCause(e);
+            throw exception;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+
+            throw new IOException(cause);
+        }
+
+        return tuples;
+    }
+
+    /**
+     * Aborts the multipart upload after a failure.
+     *
+     * @param cause failure that the abort's own failure is added to
+     */
+    private void abort(final Exception cause) {
+        LOG.debug("Aborting multipart upload [{}] after failure", upload.getId());
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+
+        try {
+            manager.abort(upload);
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Flag indicating if the stream has been closed.
+     *
+     * @return true if closed, otherwise false
+     */
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * @return total number of bytes written to the stream
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Returns the multipart upload started when more than a part was
+     * written. The upload is complete once close() has completed and
+     * {@link MantaMultipartManager#waitForCompletion(MantaMultipartUpload, java.util.function.Function)}
+     * can be used to wait for Manta to assemble the parts.
+     *
+     * @return multipart upload or null when the object fit in a single part
+     */
+    public MantaMultipartUpload getUpload() {
+        return upload;
+    }
+
+    /**
+     * Returns the PUT response object when the object fit in a single part.
+     * This value is only available when close() has completed.
+     *
+     * @return PUT object response or null
+     */
+    public MantaObjectResponse getObjectResponse() {
+        return objectResponse;
+    }
+}
@@ -0,0 +1,491 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client.multipart;
+
+import com.joyent.manta.client.MantaHttpHeaders;
+import com.joyent.manta.client.MantaMetadata;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.joyent.manta.exception.MantaMultipartException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads a local file to Manta as a multipart upload by splitting it into
+ * regions that are uploaded as parts concurrently. Each part reads its region
+ * directly from a shared {@link FileChannel} using positional reads, so
+ * parts don't need to be buffered in memory. A failed part is retried a
+ * limited number of times with exponential backoff before the whole upload
+ * is aborted.
+ *
+ * @since 2.7.2
+ */
+class ParallelPartUploader {
+    /**
+     * Logger instance.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelPartUploader.class);
+
+    /**
+     * Number of times a part is retried after a failed upload.
+     */
+    static final int PART_RETRIES = 3;
+
+    /**
+     * Number of milliseconds waited before the first retry of a part. The
+     * wait doubles with each further retry.
+     */
+    static final long RETRY_BASE_DELAY_MILLIS = 100L;
+
+    /**
+     * Maximum number of milliseconds waited before retrying a part.
+     */
+    private static final long RETRY_MAX_DELAY_MILLIS = 5000L;
+
+    /**
+     * Lowest HTTP status code of a client error, which isn't retried.
+     */
+    private static final int CLIENT_ERROR_MIN = 400;
+
+    /**
+     * Highest HTTP status code of a client error, which isn't retried.
+     */
+    private static final int CLIENT_ERROR_MAX = 499;
+
+    /**
+     * HTTP status code of a request timeout, which is retried.
+     */
+    private static final int REQUEST_TIMEOUT = 408;
+
+    /**
+     * HTTP status code of a throttled request, which is retried.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Thread group for all Manta part upload threads.
+     */
+    private static final ThreadGroup THREAD_GROUP = new ThreadGroup("manta-upload");
+
+    /**
+     * Custom thread factory that makes sensibly named daemon threads.
+     */
+    static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final String name = String.format("upload-%d", count.getAndIncrement());
+            Thread thread = new Thread(THREAD_GROUP, runnable, name);
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    };
+
+    /**
+     * Manager used to initiate, upload parts of, complete and abort the upload.
+     */
+    private final MantaMultipartManager manager;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param manager manager used to initiate, upload parts of, complete and abort the upload
+     */
+    ParallelPartUploader(final MantaMultipartManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Calculates the size of the parts of a file so that the file is split
+     * into no more than {@link MantaMultipartManager#MAX_PARTS} parts.
+     *
+     * @param fileSize size of the file in bytes
+     * @param partSize requested size in bytes of each part
+     * @return requested part size or the smallest part size that keeps the
+     *         number of parts within the maximum
+     */
+    static long partSize(final long fileSize, final long partSize) {
+        long minimum = fileSize / MantaMultipartManager.MAX_PARTS;
+
+        if (fileSize % MantaMultipartManager.MAX_PARTS != 0) {
+            minimum++;
+        }
+
+        return Math.max(partSize, minimum);
+    }
+
+    /**
+     * Uploads a file as a multipart upload and completes the upload once all
+     * of the parts have been uploaded. The upload is aborted when a part
+     * can't be uploaded.
+     *
+     * @param path remote path of Manta object to be uploaded
+     * @param file file to upload
+     * @param metadata metadata to write to final Manta object or null
+     * @param headers HTTP headers to write to final Manta object or null
+     * @param partSize requested size in bytes of each part
+     * @param parallelism maximum number of parts to upload concurrently
+     * @return multipart upload that was completed
+     * @throws IOException thrown when the file can't be read or a part can't be uploaded
+     */
+    MantaMultipartUpload upload(final String path, final File file,
+                                final MantaMetadata metadata, final MantaHttpHeaders headers,
+                                final long partSize, final int parallelism) throws IOException {
+        Objects.requireNonNull(path, "Path must be present");
+        Objects.requireNonNull(file, "File must be present");
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+
+        if (partSize < 1) {
+            throw new IllegalArgumentException("Part size must be at least 1");
+        }
+
+        if (!file.isFile()) {
+            String msg = String.format("File doesn't exist: %s", file.getPath());
+            throw new FileNotFoundException(msg);
+        }
+
+        final MantaMultipartUpload upload = manager.initiateUpload(path, metadata, headers);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final List<MantaMultipartUploadTuple> parts = uploadParts(upload, channel, size,
+                    partSize(size, partSize), parallelism);
+
+            manager.complete(upload, parts);
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Aborting multipart upload [{}] after failure", upload.getId());
+
+            try {
+                manager.abort(upload);
+            } catch (IOException | RuntimeException abortException) {
+                e.addSuppressed(abortException);
+            }
+
+            throw e;
+        }
+
+        return upload;
+    }
+
+    /**
+     * Uploads all of the parts of a file concurrently.
+     *
+     * @param upload multipart upload the parts belong to
+     * @param channel channel of the file to upload
+     * @param size size of the file in bytes
+     * @param partSize size in bytes of each part
+     * @param parallelism maximum number of parts to upload concurrently
+     * @return uploaded parts in part number order
+     * @throws IOException thrown when a part couldn't be uploaded
+     */
+    private List<MantaMultipartUploadTuple> uploadParts(final MantaMultipartUpload upload,
+                                                        final FileChannel channel,
+                                                        final long size, final long partSize,
+                                                        final int parallelism) throws IOException {
+        long partCount = size / partSize;
+
+        if (size % partSize != 0 || size == 0) {
+            partCount++;
+        }
+
+        final int threads = (int)Math.max(1L, Math.min(parallelism, partCount));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, THREAD_FACTORY);
+        final List<Future<MantaMultipartUploadPart>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < partCount; i++) {
+                final int partNumber = i + 1;
+                final long offset = i * partSize;
+                final long length = Math.min(size - offset, partSize);
+
+                futures.add(executor.submit(() ->
+                        uploadPart(upload, partNumber, channel, offset, length)));
+            }
+
+            final MantaMultipartUploadTuple[] parts = new MantaMultipartUploadTuple[futures.size()];
+
+            for (int i = 0; i < parts.length; i++) {
+                final MantaMultipartUploadPart part = futures.get(i).get();
+                parts[i] = new MantaMultipartUploadTuple(i + 1, part.getEtag());
+            }
+
+            return Arrays.asList(parts);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while uploading parts", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Uploads a region of a file as a single part, retrying failed uploads.
+     *
+     * @param upload multipart upload the part belongs to
+     * @param partNumber part number of the region
+     * @param channel channel of the file to upload
+     * @param offset offset of the first byte of the region
+     * @param length length in bytes of the region
+     * @return uploaded part
+     * @throws IOException thrown when the part couldn't be uploaded
+     */
+    private MantaMultipartUploadPart uploadPart(final MantaMultipartUpload upload,
+                                                final int partNumber,
+                                                final FileChannel channel,
+                                                final long offset,
+                                                final long length) throws IOException {
+        return uploadWithRetries(upload, partNumber, () -> manager.uploadPart(upload.getId(),
+                partNumber, new FileRegionInputStream(channel, offset, length), length));
+    }
+
+    /**
+     * Uploads a single part, retrying failed uploads with exponential backoff.
+     * Client errors other than timeouts and throttling aren't retried because
+     * they will fail again.
+     *
+     * @param upload multipart upload the part belongs to
+     * @param partNumber part number of the part
+     * @param attempt function that makes a single attempt to upload the part
+     * @return uploaded part
+     * @throws IOException thrown when the part couldn't be uploaded
+     */
+    static MantaMultipartUploadPart uploadWithRetries(final MantaMultipartUpload upload,
+                                                      final int partNumber,
+                                                      final PartAttempt attempt) throws IOException {
+        return uploadWithRetries(upload, partNumber, attempt, RETRY_BASE_DELAY_MILLIS);
+    }
+
+    /**
+     * Uploads a single part, retrying failed uploads with exponential backoff.
+     *
+     * @param upload multipart upload the part belongs to
+     * @param partNumber part number of the part
+     * @param attempt function that makes a single attempt to upload the part
+     * @param baseDelayMillis milliseconds to wait before the first retry
+     * @return uploaded part
+     * @throws IOException thrown when the part couldn't be uploaded
+     */
+    static MantaMultipartUploadPart uploadWithRetries(final MantaMultipartUpload upload,
+                                                      final int partNumber,
+                                                      final PartAttempt attempt,
+                                                      final long baseDelayMillis) throws IOException {
+        for (int i = 0;; i++) {
+            try {
+                return attempt.upload();
+            } catch (MantaClientHttpResponseException e) {
+                final int status = e.getStatusCode();
+
+                if (i >= PART_RETRIES || !isRetryable(status)) {
+                    throw partException(upload, partNumber, e, i + 1);
+                }
+
+                LOG.warn("Retrying part {} of multipart upload [{}] after status {}",
+                        partNumber, upload.getId(), status);
+            } catch (IOException e) {
+                if (i >= PART_RETRIES) {
+                    throw partException(upload, partNumber, e, i + 1);
+                }
+
+                LOG.warn("Retrying part {} of multipart upload [{}] after error: {}",
+                        partNumber, upload.getId(), e.getMessage());
+            }
+
+            try {
+                Thread.sleep(retryDelay(baseDelayMillis, i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                final InterruptedIOException exception = new InterruptedIOException(
+                        "Interrupted while waiting to retry part");
+                exception.initCause(e);
+                throw partException(upload, partNumber, exception, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Determines if a part upload that failed with the specified HTTP status
+     * can succeed when retried.
+     *
+     * @param status HTTP status code of the failed upload
+     * @return false for client errors other than timeouts and throttling
+     */
+    static boolean isRetryable(final int status) {
+        if (status == REQUEST_TIMEOUT || status == TOO_MANY_REQUESTS) {
+            return true;
+        }
+
+        return status < CLIENT_ERROR_MIN || status > CLIENT_ERROR_MAX;
+    }
+
+    /**
+     * Calculates how long to wait before a retry. The delay doubles with each
+     * retry up to a maximum, and the wait is a random time between half of
+     * the delay and all of it, so that parts that failed together don't all
+     * retry at the same moment.
+     *
+     * @param baseDelayMillis milliseconds to wait before the first retry
+     * @param retry number of retries already made
+     * @return milliseconds to wait
+     */
+    static long retryDelay(final long baseDelayMillis, final int retry) {
+        long delay = baseDelayMillis;
+
+        for (int i = 0; i < retry && delay < RETRY_MAX_DELAY_MILLIS; i++) {
+            delay *= 2;
+        }
+
+        delay = Math.min(delay, RETRY_MAX_DELAY_MILLIS);
+
+        final long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    /**
+     * Creates an exception describing a part that couldn't be uploaded.
+     *
+     * @param upload multipart upload the part belongs to
+     * @param partNumber part number of the part
+     * @param cause exception thrown by the last attempt
+     * @param attempts number of attempts made to upload the part
+     * @return exception with the upload's context
+     */
+    private static MantaMultipartException partException(final MantaMultipartUpload upload,
+                                                         final int partNumber,
+                                                         final IOException cause,
+                                                         final int attempts) {
+        final MantaMultipartException exception = new MantaMultipartException(
+                "Unable to upload multipart part", cause);
+        exception.setContextValue("multipart_id", upload.getId());
+        exception.setContextValue("path", upload.getPath());
+        exception.setContextValue("part_number", partNumber);
+        exception.setContextValue("attempts", attempts);
+
+        return exception;
+    }
+
+    /**
+     * Function that makes a single attempt to upload a part.
+     */
+    @FunctionalInterface
+    interface PartAttempt {
+        /**
+         * @return uploaded part
+         * @throws IOException thrown when the part couldn't be uploaded
+         */
+        MantaMultipartUploadPart upload() throws IOException;
+    }
+
+    /**
+     * Stream that reads a region of a file using positional reads, so that
+     * many streams can read from the same channel concurrently.
+     */
+    static class FileRegionInputStream extends InputStream {
+        /**
+         * Channel of the file being read.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Offset of the first byte past the end of the region.
+         */
+        private final long end;
+
+        /**
+         * Offset of the next byte to read.
+         */
+        private long position;
+
+        /**
+         * Creates a new stream over a region of a file.
+         *
+         * @param channel channel of the file being read
+         * @param offset offset of the first byte of the region
+         * @param length length in bytes of the region
+         */
+        FileRegionInputStream(final FileChannel channel, final long offset, final long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+
+            if (read(single, 0, 1) == -1) {
+                return -1;
+            }
+
+            return Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (position >= end) {
+                return -1;
+            }
+
+            final int count = (int)Math.min(len, end - position);
+            final int read = channel.read(ByteBuffer.wrap(b, off, count), position);
+
+            if (read == -1) {
+                throw new EOFException("File ended before the end of the part");
+            }
+
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final long skipped = Math.max(0L, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int)Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
@@ -88,6 +88,141 @@ public abstract class BaseChainedConfigContext implements ConfigContext {
      */
     private Integer signatureCacheTTL;
 
+    /**
+     * Maximum number of unread bytes to drain from a response on close before aborting the connection.
+     */
+    private Integer drainOnCloseThreshold;
+
+    /**
+     * Time in milliseconds a pooled connection can be idle before it is validated.
+     */
+    private Integer validateAfterInactivity;
+
+    /**
+     * Time in milliseconds a pooled connection can be idle before it is evicted.
+     */
+    private Integer maxIdleTime;
+
+    /**
+     * Maximum lifetime in milliseconds of a pooled connection.
+     */
+    private Integer connectionTimeToLive;
+
+    /**
+     * Size in bytes of the buffer used when receiving and transmitting HTTP messages.
+     */
+    private Integer socketBufferSize;
+
+    /**
+     * Flag indicating that HTTP signatures are generated ahead of time on a background thread.
+     */
+    private Boolean presignSignatures;
+
+    /**
+     * Number of seconds that signed URI expiry times are rounded up to so that signed URIs can be cached.
+     */
+    private Integer signedURIExpiryBucket;
+
+    /**
+     * Number of times an object stream will reissue a ranged request after a network failure.
+     */
+    private Integer downloadResumeRetries;
+
+    /**
+     * Maximum number of bytes of object data cached in blocks for seekable byte channels.
+     */
+    private Long blockCacheSize;
+
+    /**
+     * Size in bytes of the blocks cached for seekable byte channels.
+     */
+    private Integer blockCacheBlockSize;
+
+    /**
+     * Flag indicating that cached blocks are stored outside of the Java heap.
+     */
+    private Boolean blockCacheOffHeap;
+
+    /**
+     * Local directory in which object data is cached.
+     */
+    private String diskCacheDirectory;
+
+    /**
+     * Maximum number of bytes of object data cached on local disk.
+     */
+    private Long diskCacheSize;
+
+    /**
+     * Number of milliseconds that object metadata is cached for.
+     */
+    private Integer metadataCacheTtl;
+
+    /**
+     * Number of milliseconds that missing objects are cached for.
+     */
+    private Integer metadataCacheNegativeTtl;
+
+    /**
+     * Maximum number of paths held in the metadata cache.
+     */
+    private Integer metadataCacheMaxEntries;
+
+    /**
+     * Maximum number of bytes of object data cached in memory outside of the Java heap.
+     */
+    private Long bodyCacheSize;
+
+    /**
+     * Maximum size in bytes of an object that is cached in memory.
+     */
+    private Integer bodyCacheMaxObjectSize;
+
+    /**
+     * Number of milliseconds that objects cached in memory are served without revalidation.
+     */
+    private Integer bodyCacheRevalidateInterval;
+
+    /**
+     * Flag indicating that concurrent identical GET and HEAD requests are coalesced.
+     */
+    private Boolean coalesceRequests;
+
+    /**
+     * Maximum size in bytes of an object body that is shared by coalesced GET requests.
+     */
+    private Integer coalesceMaxBodySize;
+
+    /**
+     * Size in bytes of the buffer between writers of an output stream and its upload thread.
+     */
+    private Integer uploadBufferSize;
+
+    /**
+     * Flag indicating that the output stream upload buffer is allocated outside of the Java heap.
+     */
+    private Boolean uploadBufferDirect;
+
+    /**
+     * Maximum number of threads uploading output streams of a client.
+     */
+    private Integer uploadThreads;
+
+    /**
+     * Number of output stream uploads that wait for a thread when all upload threads are busy.
+     */
+    private Integer uploadQueueSize;
+
+    /**
+     * Flag indicating that output streams are uploaded by a virtual thread per upload.
+     */
+    private Boolean uploadVirtualThreads;
+
+    /**
+     * Maximum number of idle connections kept open by each random access object.
+     */
+    private Integer randomAccessIdleConnections;
+
     /** Singleton instance of default configuration for easy reference. */
     public static final ConfigContext DEFAULT_CONFIG =
             new DefaultsConfigContext();
@@ -189,6 +324,141 @@ public abstract class BaseChainedConfigContext implements ConfigContext {
         return signatureCacheTTL;
     }
 
+    @Override
+    public Integer getDrainOnCloseThreshold() {
+        return drainOnCloseThreshold;
+    }
+
+    @Override
+    public Integer getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    @Override
+    public Integer getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    @Override
+    public Integer getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    @Override
+    public Integer getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    @Override
+    public Boolean presignSignatures() {
+        return presignSignatures;
+    }
+
+    @Override
+    public Integer getSignedURIExpiryBucket() {
+        return signedURIExpiryBucket;
+    }
+
+    @Override
+    public Integer getDownloadResumeRetries() {
+        return downloadResumeRetries;
+    }
+
+    @Override
+    public Long getBlockCacheSize() {
+        return blockCacheSize;
+    }
+
+    @Override
+    public Integer getBlockCacheBlockSize() {
+        return blockCacheBlockSize;
+    }
+
+    @Override
+    public Boolean blockCacheOffHeap() {
+        return blockCacheOffHeap;
+    }
+
+    @Override
+    public String getDiskCacheDirectory() {
+        return diskCacheDirectory;
+    }
+
+    @Override
+    public Long getDiskCacheSize() {
+        return diskCacheSize;
+    }
+
+    @Override
+    public Integer getMetadataCacheTtl() {
+        return metadataCacheTtl;
+    }
+
+    @Override
+    public Integer getMetadataCacheNegativeTtl() {
+        return metadataCacheNegativeTtl;
+    }
+
+    @Override
+    public Integer getMetadataCacheMaxEntries() {
+        return metadataCacheMaxEntries;
+    }
+
+    @Override
+    public Long getBodyCacheSize() {
+        return bodyCacheSize;
+    }
+
+    @Override
+    public Integer getBodyCacheMaxObjectSize() {
+        return bodyCacheMaxObjectSize;
+    }
+
+    @Override
+    public Integer getBodyCacheRevalidateInterval() {
+        return bodyCacheRevalidateInterval;
+    }
+
+    @Override
+    public Boolean coalesceRequests() {
+        return coalesceRequests;
+    }
+
+    @Override
+    public Integer getCoalesceMaxBodySize() {
+        return coalesceMaxBodySize;
+    }
+
+    @Override
+    public Integer getUploadBufferSize() {
+        return uploadBufferSize;
+    }
+
+    @Override
+    public Boolean isUploadBufferDirect() {
+        return uploadBufferDirect;
+    }
+
+    @Override
+    public Integer getUploadThreads() {
+        return uploadThreads;
+    }
+
+    @Override
+    public Integer getUploadQueueSize() {
+        return uploadQueueSize;
+    }
+
+    @Override
+    public Boolean useUploadVirtualThreads() {
+        return uploadVirtualThreads;
+    }
+
+    @Override
+    public Integer getRandomAccessIdleConnections() {
+        return randomAccessIdleConnections;
+    }
+
     /**
      * Overwrites the configuration values with the values of the passed context
      * if those values are not null and aren't empty.
@@ -264,6 +534,124 @@ public abstract class BaseChainedConfigContext implements ConfigContext {
         if (context.getSignatureCacheTTL() != null) {
             this.signatureCacheTTL = context.getSignatureCacheTTL();
         }
+
+        if (context.getDrainOnCloseThreshold() != null) {
+            this.drainOnCloseThreshold = context.getDrainOnCloseThreshold();
+        }
+
+        if (context.getValidateAfterInactivity() != null) {
+            this.validateAfterInactivity = context.getValidateAfterInactivity();
+        }
+
+        if (context.getMaxIdleTime() != null) {
+            this.maxIdleTime = context.getMaxIdleTime();
+        }
+
+        if (context.getConnectionTimeToLive() != null) {
+            this.connectionTimeToLive = context.getConnectionTimeToLive();
+        }
+
+        if (context.getSocketBufferSize() != null) {
+            this.socketBufferSize = context.getSocketBufferSize();
+        }
+
+        if (context.presignSignatures() != null) {
+            this.presignSignatures = context.presignSignatures();
+        }
+
+        if (context.getSignedURIExpiryBucket() != null) {
+            this.signedURIExpiryBucket = context.getSignedURIExpiryBucket();
+        }
+
+        if (context.getDownloadResumeRetries() != null) {
+            this.downloadResumeRetries = context.getDownloadResumeRetries();
+        }
+
+        overwriteCachingWithContext(context);
+    }
+
+    /**
+     * Overwrites the caching and request coalescing settings with the values
+     * of the passed context if those values are not null.
+     *
+     * @param context context to overwrite configuration with
+     */
+    private void overwriteCachingWithContext(final ConfigContext context) {
+        if (context.getBlockCacheSize() != null) {
+            this.blockCacheSize = context.getBlockCacheSize();
+        }
+
+        if (context.getBlockCacheBlockSize() != null) {
+            this.blockCacheBlockSize = context.getBlockCacheBlockSize();
+        }
+
+        if (context.blockCacheOffHeap() != null) {
+            this.blockCacheOffHeap = context.blockCacheOffHeap();
+        }
+
+        if (context.getDiskCacheDirectory() != null) {
+            this.diskCacheDirectory = context.getDiskCacheDirectory();
+        }
+
+        if (context.getDiskCacheSize() != null) {
+            this.diskCacheSize = context.getDiskCacheSize();
+        }
+
+        if (context.getMetadataCacheTtl() != null) {
+            this.metadataCacheTtl = context.getMetadataCacheTtl();
+        }
+
+        if (context.getMetadataCacheNegativeTtl() != null) {
+            this.metadataCacheNegativeTtl = context.getMetadataCacheNegativeTtl();
+        }
+
+        if (context.getMetadataCacheMaxEntries() != null) {
+            this.metadataCacheMaxEntries = context.getMetadataCacheMaxEntries();
+        }
+
+        if (context.getBodyCacheSize() != null) {
+            this.bodyCacheSize = context.getBodyCacheSize();
+        }
+
+        if (context.getBodyCacheMaxObjectSize() != null) {
+            this.bodyCacheMaxObjectSize = context.getBodyCacheMaxObjectSize();
+        }
+
+        if (context.getBodyCacheRevalidateInterval() != null) {
+            this.bodyCacheRevalidateInterval = context.getBodyCacheRevalidateInterval();
+        }
+
+        if (context.coalesceRequests() != null) {
+            this.coalesceRequests = context.coalesceRequests();
+        }
+
+        if (context.getCoalesceMaxBodySize() != null) {
+            this.coalesceMaxBodySize = context.getCoalesceMaxBodySize();
+        }
+
+        if (context.getUploadBufferSize() != null) {
+            this.uploadBufferSize = context.getUploadBufferSize();
+        }
+
+        if (context.isUploadBufferDirect() != null) {
+            this.uploadBufferDirect = context.isUploadBufferDirect();
+        }
+
+        if (context.getUploadThreads() != null) {
+            this.uploadThreads = context.getUploadThreads();
+        }
+
+        if (context.getUploadQueueSize() != null) {
+            this.uploadQueueSize = context.getUploadQueueSize();
+        }
+
+        if (context.useUploadVirtualThreads() != null) {
+            this.uploadVirtualThreads = context.useUploadVirtualThreads();
+        }
+
+        if (context.getRandomAccessIdleConnections() != null) {
+            this.randomAccessIdleConnections = context.getRandomAccessIdleConnections();
+        }
     }
 
     /**
@@ -476,6 +864,335 @@ public abstract class BaseChainedConfigContext implements ConfigContext {
         return this;
     }
 
+    /**
+     * Sets the maximum number of unread bytes that will be drained from an object stream when it is closed.
+     *
+     * @param drainOnCloseThreshold number of bytes (0 to always abort)
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setDrainOnCloseThreshold(final Integer drainOnCloseThreshold) {
+        this.drainOnCloseThreshold = drainOnCloseThreshold;
+
+        return this;
+    }
+
+    /**
+     * Sets the time in milliseconds a pooled connection can be idle before it is validated when leased.
+     *
+     * @param validateAfterInactivity idle time in milliseconds before validation
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setValidateAfterInactivity(final Integer validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+
+        return this;
+    }
+
+    /**
+     * Sets the time in milliseconds a pooled connection can be idle before it is evicted from the pool.
+     *
+     * @param maxIdleTime idle time in milliseconds before eviction (0 to disable)
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setMaxIdleTime(final Integer maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum lifetime in milliseconds of a pooled connection.
+     *
+     * @param connectionTimeToLive lifetime in milliseconds (0 for no limit)
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setConnectionTimeToLive(final Integer connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+
+        return this;
+    }
+
+    /**
+     * Sets the size in bytes of the buffer used when receiving and transmitting HTTP messages.
+     *
+     * @param socketBufferSize buffer size in bytes
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setSocketBufferSize(final Integer socketBufferSize) {
+        this.socketBufferSize = socketBufferSize;
+
+        return this;
+    }
+
+    /**
+     * Change the state of whether or not HTTP signatures are generated ahead of time
+     * on a background thread instead of on the thread making the request.
+     *
+     * @param presignSignatures true to enable background signing
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setPresignSignatures(final Boolean presignSignatures) {
+        this.presignSignatures = presignSignatures;
+
+        return this;
+    }
+
+    /**
+     * Sets the number of seconds that the expiry time of signed URIs is rounded up
+     * to so that signed URIs can be cached and reused.
+     *
+     * @param signedURIExpiryBucket expiry bucket size in seconds (0 to disable caching)
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setSignedURIExpiryBucket(final Integer signedURIExpiryBucket) {
+        this.signedURIExpiryBucket = signedURIExpiryBucket;
+
+        return this;
+    }
+
+    /**
+     * Sets the number of consecutive times an object stream will resume a
+     * download with a ranged request after a network failure.
+     *
+     * @param downloadResumeRetries number of retries (0 to disable resuming)
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setDownloadResumeRetries(final Integer downloadResumeRetries) {
+        this.downloadResumeRetries = downloadResumeRetries;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes of object data that are cached in blocks
+     * for seekable byte channels.
+     *
+     * @param blockCacheSize cache size in bytes (0 to disable the cache)
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setBlockCacheSize(final Long blockCacheSize) {
+        this.blockCacheSize = blockCacheSize;
+
+        return this;
+    }
+
+    /**
+     * Sets the size in bytes of the blocks that are requested and cached for
+     * seekable byte channels.
+     *
+     * @param blockCacheBlockSize block size in bytes
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setBlockCacheBlockSize(final Integer blockCacheBlockSize) {
+        this.blockCacheBlockSize = blockCacheBlockSize;
+
+        return this;
+    }
+
+    /**
+     * Sets whether cached blocks are stored in direct buffers outside of the Java heap.
+     *
+     * @param blockCacheOffHeap true to store cached blocks off-heap
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setBlockCacheOffHeap(final Boolean blockCacheOffHeap) {
+        this.blockCacheOffHeap = blockCacheOffHeap;
+
+        return this;
+    }
+
+    /**
+     * Sets the local directory in which object data is cached.
+     *
+     * @param diskCacheDirectory directory path or null to disable the disk cache
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setDiskCacheDirectory(final String diskCacheDirectory) {
+        this.diskCacheDirectory = diskCacheDirectory;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes of object data cached on local disk.
+     *
+     * @param diskCacheSize maximum size of the disk cache in bytes
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setDiskCacheSize(final Long diskCacheSize) {
+        this.diskCacheSize = diskCacheSize;
+
+        return this;
+    }
+
+    /**
+     * Sets the number of milliseconds that object metadata is cached for.
+     *
+     * @param metadataCacheTtl time to live of cached metadata in milliseconds or 0 to disable
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setMetadataCacheTtl(final Integer metadataCacheTtl) {
+        this.metadataCacheTtl = metadataCacheTtl;
+
+        return this;
+    }
+
+    /**
+     * Sets the number of milliseconds that missing objects are cached for.
+     *
+     * @param metadataCacheNegativeTtl time to live of cached 404 responses in milliseconds or 0 to disable
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setMetadataCacheNegativeTtl(final Integer metadataCacheNegativeTtl) {
+        this.metadataCacheNegativeTtl = metadataCacheNegativeTtl;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of paths held in the metadata cache.
+     *
+     * @param metadataCacheMaxEntries maximum number of cached metadata entries
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setMetadataCacheMaxEntries(final Integer metadataCacheMaxEntries) {
+        this.metadataCacheMaxEntries = metadataCacheMaxEntries;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes of object data cached in memory outside of the Java heap.
+     *
+     * @param bodyCacheSize maximum size of the in-memory body cache in bytes or 0 to disable
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setBodyCacheSize(final Long bodyCacheSize) {
+        this.bodyCacheSize = bodyCacheSize;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum size in bytes of an object that is cached in memory.
+     *
+     * @param bodyCacheMaxObjectSize maximum size of a cached object in bytes
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setBodyCacheMaxObjectSize(final Integer bodyCacheMaxObjectSize) {
+        this.bodyCacheMaxObjectSize = bodyCacheMaxObjectSize;
+
+        return this;
+    }
+
+    /**
+     * Sets the number of milliseconds that objects cached in memory are served without revalidation.
+     *
+     * @param bodyCacheRevalidateInterval revalidation interval in milliseconds or 0 to revalidate on every read
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setBodyCacheRevalidateInterval(final Integer bodyCacheRevalidateInterval) {
+        this.bodyCacheRevalidateInterval = bodyCacheRevalidateInterval;
+
+        return this;
+    }
+
+    /**
+     * Sets whether concurrent identical GET and HEAD requests share a single request to Manta.
+     *
+     * @param coalesceRequests true to coalesce concurrent identical requests
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setCoalesceRequests(final Boolean coalesceRequests) {
+        this.coalesceRequests = coalesceRequests;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum size in bytes of an object body that is shared by coalesced GET requests.
+     *
+     * @param coalesceMaxBodySize maximum size of a shared object body in bytes
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setCoalesceMaxBodySize(final Integer coalesceMaxBodySize) {
+        this.coalesceMaxBodySize = coalesceMaxBodySize;
+
+        return this;
+    }
+
+    /**
+     * Sets the size in bytes of the buffer between writers of an output stream and its upload thread.
+     *
+     * @param uploadBufferSize size of the upload buffer in bytes or 0 to write directly to the connection
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setUploadBufferSize(final Integer uploadBufferSize) {
+        this.uploadBufferSize = uploadBufferSize;
+
+        return this;
+    }
+
+    /**
+     * Sets whether the output stream upload buffer is allocated outside of the Java heap.
+     *
+     * @param uploadBufferDirect true to allocate the upload buffer outside of the Java heap
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setUploadBufferDirect(final Boolean uploadBufferDirect) {
+        this.uploadBufferDirect = uploadBufferDirect;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of threads uploading output streams of a client.
+     *
+     * @param uploadThreads maximum number of upload threads or 0 to use a shared unbounded pool
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setUploadThreads(final Integer uploadThreads) {
+        this.uploadThreads = uploadThreads;
+
+        return this;
+    }
+
+    /**
+     * Sets the number of output stream uploads that wait for a thread when all upload threads are busy.
+     *
+     * @param uploadQueueSize size of the upload queue or 0 to reject uploads when all threads are busy
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setUploadQueueSize(final Integer uploadQueueSize) {
+        this.uploadQueueSize = uploadQueueSize;
+
+        return this;
+    }
+
+    /**
+     * Sets whether output streams are uploaded by a virtual thread per upload where the JVM supports them.
+     *
+     * @param uploadVirtualThreads true to upload output streams with virtual threads
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setUploadVirtualThreads(final Boolean uploadVirtualThreads) {
+        this.uploadVirtualThreads = uploadVirtualThreads;
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of idle connections kept open by each random access object.
+     *
+     * @param randomAccessIdleConnections maximum number of idle connections or 0 to close connections after each read
+     * @return the current instance of {@link BaseChainedConfigContext}
+     */
+    public BaseChainedConfigContext setRandomAccessIdleConnections(final Integer randomAccessIdleConnections) {
+        this.randomAccessIdleConnections = randomAccessIdleConnections;
+
+        return this;
+    }
+
     @Override
     public boolean equals(final Object other) {
         if (this == other) {
@@ -501,7 +1218,34 @@ public abstract class BaseChainedConfigContext implements ConfigContext {
                 && Objects.equals(httpsCiphers, that.httpsCiphers)
                 && Objects.equals(noAuth, that.noAuth)
                 && Objects.equals(disableNativeSignatures, that.disableNativeSignatures)
-                && Objects.equals(signatureCacheTTL, that.signatureCacheTTL);
+                && Objects.equals(signatureCacheTTL, that.signatureCacheTTL)
+                && Objects.equals(drainOnCloseThreshold, that.drainOnCloseThreshold)
+                && Objects.equals(validateAfterInactivity, that.validateAfterInactivity)
+                && Objects.equals(maxIdleTime, that.maxIdleTime)
+                && Objects.equals(connectionTimeToLive, that.connectionTimeToLive)
+                && Objects.equals(socketBufferSize, that.socketBufferSize)
+                && Objects.equals(presignSignatures, that.presignSignatures)
+                && Objects.equals(signedURIExpiryBucket, that.signedURIExpiryBucket)
+                && Objects.equals(downloadResumeRetries, that.downloadResumeRetries)
+                && Objects.equals(blockCacheSize, that.blockCacheSize)
+                && Objects.equals(blockCacheBlockSize, that.blockCacheBlockSize)
+                && Objects.equals(blockCacheOffHeap, that.blockCacheOffHeap)
+                && Objects.equals(diskCacheDirectory, that.diskCacheDirectory)
+                && Objects.equals(diskCacheSize, that.diskCacheSize)
+                && Objects.equals(metadataCacheTtl, that.metadataCacheTtl)
+                && Objects.equals(metadataCacheNegativeTtl, that.metadataCacheNegativeTtl)
+                && Objects.equals(metadataCacheMaxEntries, that.metadataCacheMaxEntries)
+                && Objects.equals(bodyCacheSize, that.bodyCacheSize)
+                && Objects.equals(bodyCacheMaxObjectSize, that.bodyCacheMaxObjectSize)
+                && Objects.equals(bodyCacheRevalidateInterval, that.bodyCacheRevalidateInterval)
+                && Objects.equals(coalesceRequests, that.coalesceRequests)
+                && Objects.equals(coalesceMaxBodySize, that.coalesceMaxBodySize)
+                && Objects.equals(uploadBufferSize, that.uploadBufferSize)
+                && Objects.equals(uploadBufferDirect, that.uploadBufferDirect)
+                && Objects.equals(uploadThreads, that.uploadThreads)
+                && Objects.equals(uploadQueueSize, that.uploadQueueSize)
+                && Objects.equals(uploadVirtualThreads, that.uploadVirtualThreads)
+                && Objects.equals(randomAccessIdleConnections, that.randomAccessIdleConnections);
     }
 
     @Override
@@ -509,7 +1253,34 @@ public abstract class BaseChainedConfigContext implements ConfigContext {
         return Objects.hash(mantaURL, account, mantaKeyId, mantaKeyPath,
                 timeout, retries, maxConnections, privateKeyContent, password,
                 httpTransport, httpsProtocols, httpsCiphers, noAuth,
-                disableNativeSignatures, signatureCacheTTL);
+                disableNativeSignatures, signatureCacheTTL,
+                drainOnCloseThreshold,
+                validateAfterInactivity,
+                maxIdleTime,
+                connectionTimeToLive,
+                socketBufferSize,
+                presignSignatures,
+                signedURIExpiryBucket,
+                downloadResumeRetries,
+                blockCacheSize,
+                blockCacheBlockSize,
+                blockCacheOffHeap,
+                diskCacheDirectory,
+                diskCacheSize,
+                metadataCacheTtl,
+                metadataCacheNegativeTtl,
+                metadataCacheMaxEntries,
+                bodyCacheSize,
+                bodyCacheMaxObjectSize,
+                bodyCacheRevalidateInterval,
+                coalesceRequests,
+                coalesceMaxBodySize,
+                uploadBufferSize,
+                uploadBufferDirect,
+                uploadThreads,
+                uploadQueueSize,
+                uploadVirtualThreads,
+                randomAccessIdleConnections);
     }
 
     @Override
@@ -92,6 +92,146 @@ public interface ConfigContext {
      */
     Integer getSignatureCacheTTL();
 
+    /**
+     * @return maximum number of unread bytes drained from a stream on close so that its connection is reused
+     */
+    Integer getDrainOnCloseThreshold();
+
+    /**
+     * @return milliseconds a pooled connection can be idle before it is validated on lease
+     */
+    Integer getValidateAfterInactivity();
+
+    /**
+     * @return milliseconds a pooled connection can be idle before it is evicted from the pool
+     */
+    Integer getMaxIdleTime();
+
+    /**
+     * @return maximum lifetime in milliseconds of a pooled connection
+     */
+    Integer getConnectionTimeToLive();
+
+    /**
+     * @return size in bytes of the buffer used when receiving and transmitting HTTP messages
+     */
+    Integer getSocketBufferSize();
+
+    /**
+     * @return true when HTTP signatures are generated ahead of time on a background thread
+     */
+    Boolean presignSignatures();
+
+    /**
+     * @return seconds that signed URI expiry times are rounded up to so signed URIs can be cached (0 to disable)
+     */
+    Integer getSignedURIExpiryBucket();
+
+    /**
+     * @return number of times an object stream will resume a download after a network failure (0 to disable)
+     */
+    Integer getDownloadResumeRetries();
+
+    /**
+     * @return maximum number of bytes of object data cached in blocks for seekable byte channels (0 to disable)
+     */
+    Long getBlockCacheSize();
+
+    /**
+     * @return size in bytes of the blocks cached for seekable byte channels
+     */
+    Integer getBlockCacheBlockSize();
+
+    /**
+     * @return true when cached blocks are stored in direct buffers outside of the Java heap
+     */
+    Boolean blockCacheOffHeap();
+
+    /**
+     * @return local directory in which object data is cached or null to disable the disk cache
+     */
+    String getDiskCacheDirectory();
+
+    /**
+     * @return maximum number of bytes of object data cached on local disk
+     */
+    Long getDiskCacheSize();
+
+    /**
+     * @return number of milliseconds that object metadata is cached for (0 disables caching)
+     */
+    Integer getMetadataCacheTtl();
+
+    /**
+     * @return number of milliseconds that missing objects are cached for (0 disables negative caching)
+     */
+    Integer getMetadataCacheNegativeTtl();
+
+    /**
+     * @return maximum number of paths held in the metadata cache
+     */
+    Integer getMetadataCacheMaxEntries();
+
+    /**
+     * @return maximum number of bytes of object data cached in memory outside of the Java heap (0 disables caching)
+     */
+    Long getBodyCacheSize();
+
+    /**
+     * @return maximum size in bytes of an object that is cached in memory
+     */
+    Integer getBodyCacheMaxObjectSize();
+
+    /**
+     * @return number of milliseconds that objects cached in memory are served
+     *         without revalidation or 0 to revalidate them on every read
+     */
+    Integer getBodyCacheRevalidateInterval();
+
+    /**
+     * @return true when concurrent identical GET and HEAD requests share a single request to Manta
+     */
+    Boolean coalesceRequests();
+
+    /**
+     * @return maximum size in bytes of an object body that is buffered and shared by coalesced GET requests
+     */
+    Integer getCoalesceMaxBodySize();
+
+    /**
+     * @return size in bytes of the buffer between writers of an output stream and its
+     *         upload thread (0 writes directly to the connection)
+     */
+    Integer getUploadBufferSize();
+
+    /**
+     * @return true when the output stream upload buffer is allocated outside of the Java heap
+     */
+    Boolean isUploadBufferDirect();
+
+    /**
+     * @return maximum number of threads uploading output streams of a client
+     *         (0 uses a shared unbounded pool)
+     */
+    Integer getUploadThreads();
+
+    /**
+     * @return number of output stream uploads that wait for a thread when all
+     *         upload threads are busy (0 fails fast)
+     */
+    Integer getUploadQueueSize();
+
+    /**
+     * @return true when output streams are uploaded by a virtual thread per
+     *         upload where the JVM supports them
+     */
+    Boolean useUploadVirtualThreads();
+
+    /**
+     * @return maximum number of idle connections kept open by each random access object
+     */
+    Integer getRandomAccessIdleConnections();
+
     /**
      * Extracts the home directory based on the Manta account name.
      *
@@ -130,6 +270,33 @@ public interface ConfigContext {
         sb.append(", noAuth=").append(context.noAuth());
         sb.append(", disableNativeSignatures=").append(context.disableNativeSignatures());
         sb.append(", signatureCacheTTL=").append(context.getSignatureCacheTTL());
+        sb.append(", drainOnCloseThreshold=").append(context.getDrainOnCloseThreshold());
+        sb.append(", validateAfterInactivity=").append(context.getValidateAfterInactivity());
+        sb.append(", maxIdleTime=").append(context.getMaxIdleTime());
+        sb.append(", connectionTimeToLive=").append(context.getConnectionTimeToLive());
+        sb.append(", socketBufferSize=").append(context.getSocketBufferSize());
+        sb.append(", presignSignatures=").append(context.presignSignatures());
+        sb.append(", signedURIExpiryBucket=").append(context.getSignedURIExpiryBucket());
+        sb.append(", downloadResumeRetries=").append(context.getDownloadResumeRetries());
+        sb.append(", blockCacheSize=").append(context.getBlockCacheSize());
+        sb.append(", blockCacheBlockSize=").append(context.getBlockCacheBlockSize());
+        sb.append(", blockCacheOffHeap=").append(context.blockCacheOffHeap());
+        sb.append(", diskCacheDirectory=").append(context.getDiskCacheDirectory());
+        sb.append(", diskCacheSize=").append(context.getDiskCacheSize());
+        sb.append(", metadataCacheTtl=").append(context.getMetadataCacheTtl());
+        sb.append(", metadataCacheNegativeTtl=").append(context.getMetadataCacheNegativeTtl());
+        sb.append(", metadataCacheMaxEntries=").append(context.getMetadataCacheMaxEntries());
+        sb.append(", bodyCacheSize=").append(context.getBodyCacheSize());
+        sb.append(", bodyCacheMaxObjectSize=").append(context.getBodyCacheMaxObjectSize());
+        sb.append(", bodyCacheRevalidateInterval=").append(context.getBodyCacheRevalidateInterval());
+        sb.append(", coalesceRequests=").append(context.coalesceRequests());
+        sb.append(", coalesceMaxBodySize=").append(context.getCoalesceMaxBodySize());
+        sb.append(", uploadBufferSize=").append(context.getUploadBufferSize());
+        sb.append(", uploadBufferDirect=").append(context.isUploadBufferDirect());
+        sb.append(", uploadThreads=").append(context.getUploadThreads());
+        sb.append(", uploadQueueSize=").append(context.getUploadQueueSize());
+        sb.append(", uploadVirtualThreads=").append(context.useUploadVirtualThreads());
+        sb.append(", randomAccessIdleConnections=").append(context.getRandomAccessIdleConnections());
         sb.append('}');
         return sb.toString();
     }
@@ -61,6 +61,137 @@ public class DefaultsConfigContext implements ConfigContext {
      */
     public static final int DEFAULT_SIGNATURE_CACHE_TTL = 0;
 
+    /**
+     * Default number of unread bytes that will be drained from a stream on close (64 KiB).
+     */
+    public static final int DEFAULT_DRAIN_ON_CLOSE_THRESHOLD = 65536;
+
+    /**
+     * Default milliseconds a pooled connection can be idle before it is validated.
+     */
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY = 1000;
+
+    /**
+     * Default milliseconds a pooled connection can be idle before it is evicted.
+     */
+    public static final int DEFAULT_MAX_IDLE_TIME = 30000;
+
+    /**
+     * Default maximum lifetime in milliseconds of a pooled connection.
+     */
+    public static final int DEFAULT_CONNECTION_TTL = 300000;
+
+    /**
+     * Default size in bytes of the buffer used when receiving and transmitting HTTP messages.
+     */
+    public static final int DEFAULT_SOCKET_BUFFER_SIZE = 8192;
+
+    /**
+     * Default flag indicating that HTTP signatures are generated in the background.
+     */
+    public static final boolean DEFAULT_PRESIGN_SIGNATURES = false;
+
+    /**
+     * Default seconds that signed URI expiry times are rounded up to (disabled).
+     */
+    public static final int DEFAULT_SIGNED_URI_EXPIRY_BUCKET = 0;
+
+    /**
+     * Default number of times an object stream will resume a failed download (disabled).
+     */
+    public static final int DEFAULT_DOWNLOAD_RESUME_RETRIES = 0;
+
+    /**
+     * Default maximum number of bytes cached for seekable byte channels (disabled).
+     */
+    public static final long DEFAULT_BLOCK_CACHE_SIZE = 0L;
+
+    /**
+     * Default size in bytes of the blocks cached for seekable byte channels (1 MiB).
+     */
+    public static final int DEFAULT_BLOCK_CACHE_BLOCK_SIZE = 1_048_576;
+
+    /**
+     * Default setting for storing cached blocks outside of the Java heap.
+     */
+    public static final boolean DEFAULT_BLOCK_CACHE_OFF_HEAP = false;
+
+    /**
+     * Default maximum number of bytes of object data cached on local disk (1 GiB).
+     */
+    public static final long DEFAULT_DISK_CACHE_SIZE = 1_073_741_824L;
+
+    /**
+     * Default time to live of cached object metadata (disabled).
+     */
+    public static final int DEFAULT_METADATA_CACHE_TTL = 0;
+
+    /**
+     * Default time to live of cached missing objects (disabled).
+     */
+    public static final int DEFAULT_METADATA_CACHE_NEGATIVE_TTL = 0;
+
+    /**
+     * Default maximum number of paths held in the metadata cache.
+     */
+    public static final int DEFAULT_METADATA_CACHE_MAX_ENTRIES = 10_000;
+
+    /**
+     * Default maximum size of the in-memory body cache (disabled).
+     */
+    public static final long DEFAULT_BODY_CACHE_SIZE = 0L;
+
+    /**
+     * Default maximum size in bytes of an object that is cached in memory (256 KiB).
+     */
+    public static final int DEFAULT_BODY_CACHE_MAX_OBJECT_SIZE = 262_144;
+
+    /**
+     * Default number of milliseconds that objects cached in memory are served
+     * without revalidation (1 second). A value of 0 revalidates on every read.
+     */
+    public static final int DEFAULT_BODY_CACHE_REVALIDATE_INTERVAL = 1000;
+
+    /**
+     * Default setting for coalescing concurrent identical requests.
+     */
+    public static final boolean DEFAULT_COALESCE_REQUESTS = false;
+
+    /**
+     * Default maximum size in bytes of an object body shared by coalesced GET requests (1 MiB).
+     */
+    public static final int DEFAULT_COALESCE_MAX_BODY_SIZE = 1_048_576;
+
+    /**
+     * Default size of the output stream upload buffer (disabled).
+     */
+    public static final int DEFAULT_UPLOAD_BUFFER_SIZE = 0;
+
+    /**
+     * Default setting for allocating the upload buffer outside of the Java heap.
+     */
+    public static final boolean DEFAULT_UPLOAD_BUFFER_DIRECT = false;
+
+    /**
+     * Default maximum number of output stream upload threads (shared unbounded pool).
+     */
+    public static final int DEFAULT_UPLOAD_THREADS = 0;
+
+    /**
+     * Default number of output stream uploads waiting for a thread (unbounded).
+     */
+    public static final int DEFAULT_UPLOAD_QUEUE_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * Default setting for uploading output streams with virtual threads.
+     */
+    public static final boolean DEFAULT_UPLOAD_VIRTUAL_THREADS = false;
+
+    /**
+     * Default maximum number of idle connections kept open by each random access object.
+     */
+    public static final int DEFAULT_RANDOM_ACCESS_IDLE_CONNECTIONS = 2;
+
     static {
         // Don't even bother setting a default key path if it doesn't exist
         String defaultKeyPath = String.format("%s/.ssh/id_rsa",
@@ -156,6 +287,141 @@ public class DefaultsConfigContext implements ConfigContext {
         return DEFAULT_SIGNATURE_CACHE_TTL;
     }
 
+    @Override
+    public Integer getDrainOnCloseThreshold() {
+        return DEFAULT_DRAIN_ON_CLOSE_THRESHOLD;
+    }
+
+    @Override
+    public Integer getValidateAfterInactivity() {
+        return DEFAULT_VALIDATE_AFTER_INACTIVITY;
+    }
+
+    @Override
+    public Integer getMaxIdleTime() {
+        return DEFAULT_MAX_IDLE_TIME;
+    }
+
+    @Override
+    public Integer getConnectionTimeToLive() {
+        return DEFAULT_CONNECTION_TTL;
+    }
+
+    @Override
+    public Integer getSocketBufferSize() {
+        return DEFAULT_SOCKET_BUFFER_SIZE;
+    }
+
+    @Override
+    public Boolean presignSignatures() {
+        return DEFAULT_PRESIGN_SIGNATURES;
+    }
+
+    @Override
+    public Integer getSignedURIExpiryBucket() {
+        return DEFAULT_SIGNED_URI_EXPIRY_BUCKET;
+    }
+
+    @Override
+    public Integer getDownloadResumeRetries() {
+        return DEFAULT_DOWNLOAD_RESUME_RETRIES;
+    }
+
+    @Override
+    public Long getBlockCacheSize() {
+        return DEFAULT_BLOCK_CACHE_SIZE;
+    }
+
+    @Override
+    public Integer getBlockCacheBlockSize() {
+        return DEFAULT_BLOCK_CACHE_BLOCK_SIZE;
+    }
+
+    @Override
+    public Boolean blockCacheOffHeap() {
+        return DEFAULT_BLOCK_CACHE_OFF_HEAP;
+    }
+
+    @Override
+    public String getDiskCacheDirectory() {
+        return null;
+    }
+
+    @Override
+    public Long getDiskCacheSize() {
+        return DEFAULT_DISK_CACHE_SIZE;
+    }
+
+    @Override
+    public Integer getMetadataCacheTtl() {
+        return DEFAULT_METADATA_CACHE_TTL;
+    }
+
+    @Override
+    public Integer getMetadataCacheNegativeTtl() {
+        return DEFAULT_METADATA_CACHE_NEGATIVE_TTL;
+    }
+
+    @Override
+    public Integer getMetadataCacheMaxEntries() {
+        return DEFAULT_METADATA_CACHE_MAX_ENTRIES;
+    }
+
+    @Override
+    public Long getBodyCacheSize() {
+        return DEFAULT_BODY_CACHE_SIZE;
+    }
+
+    @Override
+    public Integer getBodyCacheMaxObjectSize() {
+        return DEFAULT_BODY_CACHE_MAX_OBJECT_SIZE;
+    }
+
+    @Override
+    public Integer getBodyCacheRevalidateInterval() {
+        return DEFAULT_BODY_CACHE_REVALIDATE_INTERVAL;
+    }
+
+    @Override
+    public Boolean coalesceRequests() {
+        return DEFAULT_COALESCE_REQUESTS;
+    }
+
+    @Override
+    public Integer getCoalesceMaxBodySize() {
+        return DEFAULT_COALESCE_MAX_BODY_SIZE;
+    }
+
+    @Override
+    public Integer getUploadBufferSize() {
+        return DEFAULT_UPLOAD_BUFFER_SIZE;
+    }
+
+    @Override
+    public Boolean isUploadBufferDirect() {
+        return DEFAULT_UPLOAD_BUFFER_DIRECT;
+    }
+
+    @Override
+    public Integer getUploadThreads() {
+        return DEFAULT_UPLOAD_THREADS;
+    }
+
+    @Override
+    public Integer getUploadQueueSize() {
+        return DEFAULT_UPLOAD_QUEUE_SIZE;
+    }
+
+    @Override
+    public Boolean useUploadVirtualThreads() {
+        return DEFAULT_UPLOAD_VIRTUAL_THREADS;
+    }
+
+    @Override
+    public Integer getRandomAccessIdleConnections() {
+        return DEFAULT_RANDOM_ACCESS_IDLE_CONNECTIONS;
+    }
+
     @Override
     public String getMantaHomeDirectory() {
         return ConfigContext.deriveHomeDirectoryFromUser(getMantaUser());
@@ -87,6 +87,142 @@ public class EnvVarConfigContext implements ConfigContext {
      */
     public static final String MANTA_SIGS_CACHE_TTL_ENV_KEY = "MANTA_SIGS_CACHE_TTL";
 
+    /**
+     * Environment variable for the maximum number of unread bytes drained from a stream on close.
+     */
+    public static final String MANTA_DRAIN_ON_CLOSE_THRESHOLD_ENV_KEY = "MANTA_DRAIN_ON_CLOSE_THRESHOLD";
+
+    /**
+     * Environment variable for the milliseconds a pooled connection can be idle before it is validated.
+     */
+    public static final String MANTA_VALIDATE_AFTER_INACTIVITY_ENV_KEY = "MANTA_VALIDATE_AFTER_INACTIVITY";
+
+    /**
+     * Environment variable for the milliseconds a pooled connection can be idle before it is evicted.
+     */
+    public static final String MANTA_MAX_IDLE_TIME_ENV_KEY = "MANTA_MAX_IDLE_TIME";
+
+    /**
+     * Environment variable for the maximum lifetime in milliseconds of a pooled connection.
+     */
+    public static final String MANTA_CONNECTION_TTL_ENV_KEY = "MANTA_CONNECTION_TTL";
+
+    /**
+     * Environment variable for the size in bytes of the HTTP socket buffer.
+     */
+    public static final String MANTA_SOCKET_BUFFER_SIZE_ENV_KEY = "MANTA_SOCKET_BUFFER_SIZE";
+
+    /**
+     * Environment variable for flag indicating that HTTP signatures are generated in the background.
+     */
+    public static final String MANTA_SIGS_PRESIGN_ENV_KEY = "MANTA_SIGS_PRESIGN";
+
+    /**
+     * Environment variable for the seconds that signed URI expiry times are rounded up to.
+     */
+    public static final String MANTA_SIGNED_URI_EXPIRY_BUCKET_ENV_KEY = "MANTA_SIGNED_URI_EXPIRY_BUCKET";
+
+    /**
+     * Environment variable for the number of times an object stream will resume a failed download.
+     */
+    public static final String MANTA_DOWNLOAD_RESUME_RETRIES_ENV_KEY = "MANTA_DOWNLOAD_RESUME_RETRIES";
+
+    /**
+     * Environment variable for the maximum number of bytes cached for seekable byte channels.
+     */
+    public static final String MANTA_BLOCK_CACHE_SIZE_ENV_KEY = "MANTA_BLOCK_CACHE_SIZE";
+
+    /**
+     * Environment variable for the size in bytes of the blocks cached for seekable byte channels.
+     */
+    public static final String MANTA_BLOCK_CACHE_BLOCK_SIZE_ENV_KEY = "MANTA_BLOCK_CACHE_BLOCK_SIZE";
+
+    /**
+     * Environment variable for storing cached blocks outside of the Java heap.
+     */
+    public static final String MANTA_BLOCK_CACHE_OFF_HEAP_ENV_KEY = "MANTA_BLOCK_CACHE_OFF_HEAP";
+
+    /**
+     * Environment variable for the local directory in which object data is cached.
+     */
+    public static final String MANTA_DISK_CACHE_DIRECTORY_ENV_KEY = "MANTA_DISK_CACHE_DIRECTORY";
+
+    /**
+     * Environment variable for the maximum number of bytes of object data cached on local disk.
+     */
+    public static final String MANTA_DISK_CACHE_SIZE_ENV_KEY = "MANTA_DISK_CACHE_SIZE";
+
+    /**
+     * Environment variable for the number of milliseconds that object metadata is cached for.
+     */
+    public static final String MANTA_METADATA_CACHE_TTL_ENV_KEY = "MANTA_METADATA_CACHE_TTL";
+
+    /**
+     * Environment variable for the number of milliseconds that missing objects are cached for.
+     */
+    public static final String MANTA_METADATA_CACHE_NEGATIVE_TTL_ENV_KEY = "MANTA_METADATA_CACHE_NEGATIVE_TTL";
+
+    /**
+     * Environment variable for the maximum number of paths held in the metadata cache.
+     */
+    public static final String MANTA_METADATA_CACHE_MAX_ENTRIES_ENV_KEY = "MANTA_METADATA_CACHE_MAX_ENTRIES";
+
+    /**
+     * Environment variable for the maximum number of bytes of object data cached in memory.
+     */
+    public static final String MANTA_BODY_CACHE_SIZE_ENV_KEY = "MANTA_BODY_CACHE_SIZE";
+
+    /**
+     * Environment variable for the maximum size in bytes of an object that is cached in memory.
+     */
+    public static final String MANTA_BODY_CACHE_MAX_OBJECT_SIZE_ENV_KEY = "MANTA_BODY_CACHE_MAX_OBJECT_SIZE";
+
+    /**
+     * Environment variable for the number of milliseconds that objects cached in memory
+     * are served without revalidation.
+     */
+    public static final String MANTA_BODY_CACHE_REVALIDATE_INTERVAL_ENV_KEY = "MANTA_BODY_CACHE_REVALIDATE_INTERVAL";
+
+    /**
+     * Environment variable for coalescing concurrent identical GET and HEAD requests.
+     */
+    public static final String MANTA_COALESCE_REQUESTS_ENV_KEY = "MANTA_COALESCE_REQUESTS";
+
+    /**
+     * Environment variable for the maximum size in bytes of an object body shared by coalesced requests.
+     */
+    public static final String MANTA_COALESCE_MAX_BODY_SIZE_ENV_KEY = "MANTA_COALESCE_MAX_BODY_SIZE";
+
+    /**
+     * Environment variable for the size in bytes of the buffer used by output stream uploads.
+     */
+    public static final String MANTA_UPLOAD_BUFFER_SIZE_ENV_KEY = "MANTA_UPLOAD_BUFFER_SIZE";
+
+    /**
+     * Environment variable for allocating the output stream upload buffer outside of the Java heap.
+     */
+    public static final String MANTA_UPLOAD_BUFFER_DIRECT_ENV_KEY = "MANTA_UPLOAD_BUFFER_DIRECT";
+
+    /**
+     * Environment variable for the maximum number of threads uploading output streams.
+     */
+    public static final String MANTA_UPLOAD_THREADS_ENV_KEY = "MANTA_UPLOAD_THREADS";
+
+    /**
+     * Environment variable for the number of output stream uploads waiting for a thread.
+     */
+    public static final String MANTA_UPLOAD_QUEUE_SIZE_ENV_KEY = "MANTA_UPLOAD_QUEUE_SIZE";
+
+    /**
+     * Environment variable for uploading output streams with virtual threads.
+     */
+    public static final String MANTA_UPLOAD_VIRTUAL_THREADS_ENV_KEY = "MANTA_UPLOAD_VIRTUAL_THREADS";
+
+    /**
+     * Environment variable for the maximum number of idle connections of a random access object.
+     */
+    public static final String MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS_ENV_KEY = "MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS";
+
     /**
      * Array of all environment variable names used.
      */
@@ -97,7 +233,26 @@ public class EnvVarConfigContext implements ConfigContext {
             MANTA_PASSWORD_ENV_KEY, MANTA_HTTP_TRANSPORT_ENV_KEY,
             MANTA_HTTPS_PROTOCOLS_ENV_KEY, MANTA_HTTPS_CIPHERS_ENV_KEY,
             MANTA_NO_AUTH_ENV_KEY, MANTA_NO_NATIVE_SIGS_ENV_KEY,
-            MANTA_SIGS_CACHE_TTL_ENV_KEY
+            MANTA_SIGS_CACHE_TTL_ENV_KEY, MANTA_DRAIN_ON_CLOSE_THRESHOLD_ENV_KEY,
+            MANTA_VALIDATE_AFTER_INACTIVITY_ENV_KEY, MANTA_MAX_IDLE_TIME_ENV_KEY,
+            MANTA_CONNECTION_TTL_ENV_KEY, MANTA_SOCKET_BUFFER_SIZE_ENV_KEY,
+            MANTA_SIGS_PRESIGN_ENV_KEY, MANTA_SIGNED_URI_EXPIRY_BUCKET_ENV_KEY,
+            MANTA_DOWNLOAD_RESUME_RETRIES_ENV_KEY,
+            MANTA_BLOCK_CACHE_SIZE_ENV_KEY, MANTA_BLOCK_CACHE_BLOCK_SIZE_ENV_KEY,
+            MANTA_BLOCK_CACHE_OFF_HEAP_ENV_KEY,
+            MANTA_DISK_CACHE_DIRECTORY_ENV_KEY, MANTA_DISK_CACHE_SIZE_ENV_KEY,
+            MANTA_METADATA_CACHE_TTL_ENV_KEY,
+            MANTA_METADATA_CACHE_NEGATIVE_TTL_ENV_KEY,
+            MANTA_METADATA_CACHE_MAX_ENTRIES_ENV_KEY,
+            MANTA_BODY_CACHE_SIZE_ENV_KEY,
+            MANTA_BODY_CACHE_MAX_OBJECT_SIZE_ENV_KEY,
+            MANTA_BODY_CACHE_REVALIDATE_INTERVAL_ENV_KEY,
+            MANTA_COALESCE_REQUESTS_ENV_KEY,
+            MANTA_COALESCE_MAX_BODY_SIZE_ENV_KEY,
+            MANTA_UPLOAD_BUFFER_SIZE_ENV_KEY, MANTA_UPLOAD_BUFFER_DIRECT_ENV_KEY,
+            MANTA_UPLOAD_THREADS_ENV_KEY, MANTA_UPLOAD_QUEUE_SIZE_ENV_KEY,
+            MANTA_UPLOAD_VIRTUAL_THREADS_ENV_KEY,
+            MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS_ENV_KEY
     };
 
     /**
@@ -205,6 +360,167 @@ public class EnvVarConfigContext implements ConfigContext {
         return MantaUtils.parseIntegerOrNull(ttl);
     }
 
+    @Override
+    public Integer getDrainOnCloseThreshold() {
+        String value = getEnv(MANTA_DRAIN_ON_CLOSE_THRESHOLD_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getValidateAfterInactivity() {
+        String value = getEnv(MANTA_VALIDATE_AFTER_INACTIVITY_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getMaxIdleTime() {
+        String value = getEnv(MANTA_MAX_IDLE_TIME_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getConnectionTimeToLive() {
+        String value = getEnv(MANTA_CONNECTION_TTL_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getSocketBufferSize() {
+        String value = getEnv(MANTA_SOCKET_BUFFER_SIZE_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Boolean presignSignatures() {
+        String value = getEnv(MANTA_SIGS_PRESIGN_ENV_KEY);
+        return MantaUtils.parseBooleanOrNull(value);
+    }
+
+    @Override
+    public Integer getSignedURIExpiryBucket() {
+        String value = getEnv(MANTA_SIGNED_URI_EXPIRY_BUCKET_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getDownloadResumeRetries() {
+        String value = getEnv(MANTA_DOWNLOAD_RESUME_RETRIES_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Long getBlockCacheSize() {
+        String value = getEnv(MANTA_BLOCK_CACHE_SIZE_ENV_KEY);
+        return MantaUtils.parseLongOrNull(value);
+    }
+
+    @Override
+    public Integer getBlockCacheBlockSize() {
+        String value = getEnv(MANTA_BLOCK_CACHE_BLOCK_SIZE_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Boolean blockCacheOffHeap() {
+        String value = getEnv(MANTA_BLOCK_CACHE_OFF_HEAP_ENV_KEY);
+        return MantaUtils.parseBooleanOrNull(value);
+    }
+
+    @Override
+    public String getDiskCacheDirectory() {
+        return getEnv(MANTA_DISK_CACHE_DIRECTORY_ENV_KEY);
+    }
+
+    @Override
+    public Long getDiskCacheSize() {
+        String value = getEnv(MANTA_DISK_CACHE_SIZE_ENV_KEY);
+        return MantaUtils.parseLongOrNull(value);
+    }
+
+    @Override
+    public Integer getMetadataCacheTtl() {
+        String value = getEnv(MANTA_METADATA_CACHE_TTL_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getMetadataCacheNegativeTtl() {
+        String value = getEnv(MANTA_METADATA_CACHE_NEGATIVE_TTL_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getMetadataCacheMaxEntries() {
+        String value = getEnv(MANTA_METADATA_CACHE_MAX_ENTRIES_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Long getBodyCacheSize() {
+        String value = getEnv(MANTA_BODY_CACHE_SIZE_ENV_KEY);
+        return MantaUtils.parseLongOrNull(value);
+    }
+
+    @Override
+    public Integer getBodyCacheMaxObjectSize() {
+        String value = getEnv(MANTA_BODY_CACHE_MAX_OBJECT_SIZE_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getBodyCacheRevalidateInterval() {
+        String value = getEnv(MANTA_BODY_CACHE_REVALIDATE_INTERVAL_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Boolean coalesceRequests() {
+        String value = getEnv(MANTA_COALESCE_REQUESTS_ENV_KEY);
+        return MantaUtils.parseBooleanOrNull(value);
+    }
+
+    @Override
+    public Integer getCoalesceMaxBodySize() {
+        String value = getEnv(MANTA_COALESCE_MAX_BODY_SIZE_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getUploadBufferSize() {
+        String value = getEnv(MANTA_UPLOAD_BUFFER_SIZE_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Boolean isUploadBufferDirect() {
+        String value = getEnv(MANTA_UPLOAD_BUFFER_DIRECT_ENV_KEY);
+        return MantaUtils.parseBooleanOrNull(value);
+    }
+
+    @Override
+    public Integer getUploadThreads() {
+        String value = getEnv(MANTA_UPLOAD_THREADS_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Integer getUploadQueueSize() {
+        String value = getEnv(MANTA_UPLOAD_QUEUE_SIZE_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
+    @Override
+    public Boolean useUploadVirtualThreads() {
+        String value = getEnv(MANTA_UPLOAD_VIRTUAL_THREADS_ENV_KEY);
+        return MantaUtils.parseBooleanOrNull(value);
+    }
+
+    @Override
+    public Integer getRandomAccessIdleConnections() {
+        String value = getEnv(MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS_ENV_KEY);
+        return MantaUtils.parseIntegerOrNull(value);
+    }
+
     @Override
     public String toString() {
         return ConfigContext.toString(this);
@@ -88,6 +88,141 @@ public class MapConfigContext implements ConfigContext {
      */
     public static final String MANTA_SIGS_CACHE_TTL_KEY = "http.signature.cache.ttl";
 
+    /**
+     * Property key for the maximum number of unread bytes drained from a stream on close.
+     */
+    public static final String MANTA_DRAIN_ON_CLOSE_THRESHOLD_KEY = "manta.drain_on_close_threshold";
+
+    /**
+     * Property key for the milliseconds a pooled connection can be idle before it is validated.
+     */
+    public static final String MANTA_VALIDATE_AFTER_INACTIVITY_KEY = "manta.validate_after_inactivity";
+
+    /**
+     * Property key for the milliseconds a pooled connection can be idle before it is evicted.
+     */
+    public static final String MANTA_MAX_IDLE_TIME_KEY = "manta.max_idle_time";
+
+    /**
+     * Property key for the maximum lifetime in milliseconds of a pooled connection.
+     */
+    public static final String MANTA_CONNECTION_TTL_KEY = "manta.connection_ttl";
+
+    /**
+     * Property key for the size in bytes of the HTTP socket buffer.
+     */
+    public static final String MANTA_SOCKET_BUFFER_SIZE_KEY = "manta.socket_buffer_size";
+
+    /**
+     * Property key for flag indicating that HTTP signatures are generated in the background.
+     */
+    public static final String MANTA_SIGS_PRESIGN_KEY = "http.signature.presign";
+
+    /**
+     * Property key for the seconds that signed URI expiry times are rounded up to.
+     */
+    public static final String MANTA_SIGNED_URI_EXPIRY_BUCKET_KEY = "manta.signed_uri_expiry_bucket";
+
+    /**
+     * Property key for the number of times an object stream will resume a failed download.
+     */
+    public static final String MANTA_DOWNLOAD_RESUME_RETRIES_KEY = "manta.download_resume_retries";
+
+    /**
+     * Property key for the maximum number of bytes cached for seekable byte channels.
+     */
+    public static final String MANTA_BLOCK_CACHE_SIZE_KEY = "manta.block_cache_size";
+
+    /**
+     * Property key for the size in bytes of the blocks cached for seekable byte channels.
+     */
+    public static final String MANTA_BLOCK_CACHE_BLOCK_SIZE_KEY = "manta.block_cache_block_size";
+
+    /**
+     * Property key for storing cached blocks outside of the Java heap.
+     */
+    public static final String MANTA_BLOCK_CACHE_OFF_HEAP_KEY = "manta.block_cache_off_heap";
+
+    /**
+     * Property key for the local directory in which object data is cached.
+     */
+    public static final String MANTA_DISK_CACHE_DIRECTORY_KEY = "manta.disk_cache_directory";
+
+    /**
+     * Property key for the maximum number of bytes of object data cached on local disk.
+     */
+    public static final String MANTA_DISK_CACHE_SIZE_KEY = "manta.disk_cache_size";
+
+    /**
+     * Property key for the number of milliseconds that object metadata is cached for.
+     */
+    public static final String MANTA_METADATA_CACHE_TTL_KEY = "manta.metadata_cache_ttl";
+
+    /**
+     * Property key for the number of milliseconds that missing objects are cached for.
+     */
+    public static final String MANTA_METADATA_CACHE_NEGATIVE_TTL_KEY = "manta.metadata_cache_negative_ttl";
+
+    /**
+     * Property key for the maximum number of paths held in the metadata cache.
+     */
+    public static final String MANTA_METADATA_CACHE_MAX_ENTRIES_KEY = "manta.metadata_cache_max_entries";
+
+    /**
+     * Property key for the maximum number of bytes of object data cached in memory.
+     */
+    public static final String MANTA_BODY_CACHE_SIZE_KEY = "manta.body_cache_size";
+
+    /**
+     * Property key for the maximum size in bytes of an object that is cached in memory.
+     */
+    public static final String MANTA_BODY_CACHE_MAX_OBJECT_SIZE_KEY = "manta.body_cache_max_object_size";
+
+    /**
+     * Property key for the number of milliseconds that objects cached in memory are served without revalidation.
+     */
+    public static final String MANTA_BODY_CACHE_REVALIDATE_INTERVAL_KEY = "manta.body_cache_revalidate_interval";
+
+    /**
+     * Property key for coalescing concurrent identical GET and HEAD requests.
+     */
+    public static final String MANTA_COALESCE_REQUESTS_KEY = "manta.coalesce_requests";
+
+    /**
+     * Property key for the maximum size in bytes of an object body shared by coalesced GET requests.
+     */
+    public static final String MANTA_COALESCE_MAX_BODY_SIZE_KEY = "manta.coalesce_max_body_size";
+
+    /**
+     * Property key for the size in bytes of the buffer used by output stream uploads.
+     */
+    public static final String MANTA_UPLOAD_BUFFER_SIZE_KEY = "manta.upload_buffer_size";
+
+    /**
+     * Property key for allocating the output stream upload buffer outside of the Java heap.
+     */
+    public static final String MANTA_UPLOAD_BUFFER_DIRECT_KEY = "manta.upload_buffer_direct";
+
+    /**
+     * Property key for the maximum number of threads uploading output streams.
+     */
+    public static final String MANTA_UPLOAD_THREADS_KEY = "manta.upload_threads";
+
+    /**
+     * Property key for the number of output stream uploads waiting for a thread.
+     */
+    public static final String MANTA_UPLOAD_QUEUE_SIZE_KEY = "manta.upload_queue_size";
+
+    /**
+     * Property key for uploading output streams with virtual threads.
+     */
+    public static final String MANTA_UPLOAD_VIRTUAL_THREADS_KEY = "manta.upload_virtual_threads";
+
+    /**
+     * Property key for the maximum number of idle connections of a random access object.
+     */
+    public static final String MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS_KEY = "manta.random_access_idle_connections";
+
     // I know manually adding them all sucks, but it is the simplest operation
     // for a shared library. We could do all sorts of complicated reflection
     // or annotation processing, but they are error-prone.
@@ -101,7 +236,22 @@ public class MapConfigContext implements ConfigContext {
             MANTA_PASSWORD_KEY, MANTA_HTTP_TRANSPORT_KEY,
             MANTA_HTTPS_PROTOCOLS_ENV_KEY, MANTA_HTTPS_CIPHERS_KEY,
             MANTA_NO_AUTH_KEY, MANTA_NO_NATIVE_SIGS_KEY,
-            MANTA_SIGS_CACHE_TTL_KEY
+            MANTA_SIGS_CACHE_TTL_KEY, MANTA_DRAIN_ON_CLOSE_THRESHOLD_KEY,
+            MANTA_VALIDATE_AFTER_INACTIVITY_KEY, MANTA_MAX_IDLE_TIME_KEY,
+            MANTA_CONNECTION_TTL_KEY, MANTA_SOCKET_BUFFER_SIZE_KEY,
+            MANTA_SIGS_PRESIGN_KEY, MANTA_SIGNED_URI_EXPIRY_BUCKET_KEY,
+            MANTA_DOWNLOAD_RESUME_RETRIES_KEY, MANTA_BLOCK_CACHE_SIZE_KEY,
+            MANTA_BLOCK_CACHE_BLOCK_SIZE_KEY, MANTA_BLOCK_CACHE_OFF_HEAP_KEY,
+            MANTA_DISK_CACHE_DIRECTORY_KEY, MANTA_DISK_CACHE_SIZE_KEY,
+            MANTA_METADATA_CACHE_TTL_KEY, MANTA_METADATA_CACHE_NEGATIVE_TTL_KEY,
+            MANTA_METADATA_CACHE_MAX_ENTRIES_KEY, MANTA_BODY_CACHE_SIZE_KEY,
+            MANTA_BODY_CACHE_MAX_OBJECT_SIZE_KEY,
+            MANTA_BODY_CACHE_REVALIDATE_INTERVAL_KEY,
+            MANTA_COALESCE_REQUESTS_KEY, MANTA_COALESCE_MAX_BODY_SIZE_KEY,
+            MANTA_UPLOAD_BUFFER_SIZE_KEY, MANTA_UPLOAD_BUFFER_DIRECT_KEY,
+            MANTA_UPLOAD_THREADS_KEY, MANTA_UPLOAD_QUEUE_SIZE_KEY,
+            MANTA_UPLOAD_VIRTUAL_THREADS_KEY,
+            MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS_KEY
     };
 
     /**
@@ -244,6 +394,298 @@ public class MapConfigContext implements ConfigContext {
         return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_SIGS_CACHE_TTL_ENV_KEY));
     }
 
+    @Override
+    public Integer getDrainOnCloseThreshold() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_DRAIN_ON_CLOSE_THRESHOLD_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_DRAIN_ON_CLOSE_THRESHOLD_ENV_KEY));
+    }
+
+    @Override
+    public Integer getValidateAfterInactivity() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_VALIDATE_AFTER_INACTIVITY_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_VALIDATE_AFTER_INACTIVITY_ENV_KEY));
+    }
+
+    @Override
+    public Integer getMaxIdleTime() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_MAX_IDLE_TIME_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_MAX_IDLE_TIME_ENV_KEY));
+    }
+
+    @Override
+    public Integer getConnectionTimeToLive() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_CONNECTION_TTL_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_CONNECTION_TTL_ENV_KEY));
+    }
+
+    @Override
+    public Integer getSocketBufferSize() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_SOCKET_BUFFER_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_SOCKET_BUFFER_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Boolean presignSignatures() {
+        Boolean mapValue = MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_SIGS_PRESIGN_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_SIGS_PRESIGN_ENV_KEY));
+    }
+
+    @Override
+    public Integer getSignedURIExpiryBucket() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_SIGNED_URI_EXPIRY_BUCKET_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_SIGNED_URI_EXPIRY_BUCKET_ENV_KEY));
+    }
+
+    @Override
+    public Integer getDownloadResumeRetries() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_DOWNLOAD_RESUME_RETRIES_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_DOWNLOAD_RESUME_RETRIES_ENV_KEY));
+    }
+
+    @Override
+    public Long getBlockCacheSize() {
+        Long mapValue = MantaUtils.parseLongOrNull(backingMap.get(MANTA_BLOCK_CACHE_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseLongOrNull(backingMap.get(MANTA_BLOCK_CACHE_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Integer getBlockCacheBlockSize() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_BLOCK_CACHE_BLOCK_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_BLOCK_CACHE_BLOCK_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Boolean blockCacheOffHeap() {
+        Boolean mapValue = MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_BLOCK_CACHE_OFF_HEAP_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_BLOCK_CACHE_OFF_HEAP_ENV_KEY));
+    }
+
+    @Override
+    public String getDiskCacheDirectory() {
+        return normalizeEmptyAndNullAndDefaultToStringValue(
+                MANTA_DISK_CACHE_DIRECTORY_KEY, MANTA_DISK_CACHE_DIRECTORY_ENV_KEY);
+    }
+
+    @Override
+    public Long getDiskCacheSize() {
+        Long mapValue = MantaUtils.parseLongOrNull(backingMap.get(MANTA_DISK_CACHE_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseLongOrNull(backingMap.get(MANTA_DISK_CACHE_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Integer getMetadataCacheTtl() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_METADATA_CACHE_TTL_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_METADATA_CACHE_TTL_ENV_KEY));
+    }
+
+    @Override
+    public Integer getMetadataCacheNegativeTtl() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_METADATA_CACHE_NEGATIVE_TTL_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_METADATA_CACHE_NEGATIVE_TTL_ENV_KEY));
+    }
+
+    @Override
+    public Integer getMetadataCacheMaxEntries() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_METADATA_CACHE_MAX_ENTRIES_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_METADATA_CACHE_MAX_ENTRIES_ENV_KEY));
+    }
+
+    @Override
+    public Long getBodyCacheSize() {
+        Long mapValue = MantaUtils.parseLongOrNull(backingMap.get(MANTA_BODY_CACHE_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseLongOrNull(backingMap.get(MANTA_BODY_CACHE_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Integer getBodyCacheMaxObjectSize() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_BODY_CACHE_MAX_OBJECT_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_BODY_CACHE_MAX_OBJECT_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Integer getBodyCacheRevalidateInterval() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_BODY_CACHE_REVALIDATE_INTERVAL_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_BODY_CACHE_REVALIDATE_INTERVAL_ENV_KEY));
+    }
+
+    @Override
+    public Boolean coalesceRequests() {
+        Boolean mapValue = MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_COALESCE_REQUESTS_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_COALESCE_REQUESTS_ENV_KEY));
+    }
+
+    @Override
+    public Integer getCoalesceMaxBodySize() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_COALESCE_MAX_BODY_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_COALESCE_MAX_BODY_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Integer getUploadBufferSize() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_UPLOAD_BUFFER_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_UPLOAD_BUFFER_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Boolean isUploadBufferDirect() {
+        Boolean mapValue = MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_UPLOAD_BUFFER_DIRECT_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_UPLOAD_BUFFER_DIRECT_ENV_KEY));
+    }
+
+    @Override
+    public Integer getUploadThreads() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_UPLOAD_THREADS_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_UPLOAD_THREADS_ENV_KEY));
+    }
+
+    @Override
+    public Integer getUploadQueueSize() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_UPLOAD_QUEUE_SIZE_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_UPLOAD_QUEUE_SIZE_ENV_KEY));
+    }
+
+    @Override
+    public Boolean useUploadVirtualThreads() {
+        Boolean mapValue = MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_UPLOAD_VIRTUAL_THREADS_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseBooleanOrNull(backingMap.get(MANTA_UPLOAD_VIRTUAL_THREADS_ENV_KEY));
+    }
+
+    @Override
+    public Integer getRandomAccessIdleConnections() {
+        Integer mapValue = MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS_KEY));
+
+        if (mapValue != null) {
+            return mapValue;
+        }
+
+        return MantaUtils.parseIntegerOrNull(backingMap.get(MANTA_RANDOM_ACCESS_IDLE_CONNECTIONS_ENV_KEY));
+    }
+
     /**
      * Allows the caller to perform a put operation on the backing map of the
      * context. This is typically used by other {@link ConfigContext}
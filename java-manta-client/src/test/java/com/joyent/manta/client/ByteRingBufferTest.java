@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for passing data between threads with {@link ByteRingBuffer}.
+ */
+@Test
+public class ByteRingBufferTest {
+    public void passesDataBetweenThreadsInOrder() throws Exception {
+        passesDataBetweenThreads(false);
+    }
+
+    public void passesDataBetweenThreadsWithDirectBuffer() throws Exception {
+        passesDataBetweenThreads(true);
+    }
+
+    public void writerBlocksUntilSpaceIsAvailable() throws Exception {
+        final ByteRingBuffer buffer = new ByteRingBuffer(4, false);
+        buffer.write(new byte[] {1, 2, 3}, 0, 3);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            started.countDown();
+
+            try {
+                buffer.write(new byte[] {4, 5, 6}, 0, 3);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        started.await();
+        Thread.sleep(100);
+        Assert.assertFalse(writer.isDone());
+        Assert.assertEquals(buffer.size(), 4);
+
+        final byte[] read = new byte[4];
+        Assert.assertEquals(buffer.read(read, 0, 4), 4);
+        writer.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(read, new byte[] {1, 2, 3, 4});
+        Assert.assertEquals(buffer.read(read, 0, 4), 2);
+        Assert.assertEquals(read[0], 5);
+        Assert.assertEquals(read[1], 6);
+    }
+
+    public void failureReleasesBlockedWriter() throws Exception {
+        final ByteRingBuffer buffer = new ByteRingBuffer(2, false);
+        buffer.write(new byte[2], 0, 2);
+
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try {
+                buffer.write(new byte[1], 0, 1);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Thread.sleep(50);
+        final IOException cause = new IOException("connection reset");
+        buffer.fail(cause);
+
+        try {
+            writer.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected blocked write to fail");
+        } catch (ExecutionException e) {
+            Assert.assertSame(e.getCause().getCause().getCause(), cause);
+        }
+
+        Assert.assertEquals(buffer.read(new byte[2], 0, 2), -1);
+    }
+
+    public void readReturnsEndOfDataAfterClose() throws IOException {
+        final ByteRingBuffer buffer = new ByteRingBuffer(8, false);
+        buffer.write(new byte[] {7}, 0, 1);
+        buffer.close();
+
+        final byte[] read = new byte[8];
+        Assert.assertEquals(buffer.read(read, 0, 8), 1);
+        Assert.assertEquals(read[0], 7);
+        Assert.assertEquals(buffer.read(read, 0, 8), -1);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void writeAfterCloseFails() throws IOException {
+        final ByteRingBuffer buffer = new ByteRingBuffer(8, false);
+        buffer.close();
+        buffer.write(new byte[1], 0, 1);
+    }
+
+    private static void passesDataBetweenThreads(final boolean direct) throws Exception {
+        final byte[] data = new byte[100_000];
+        new Random(7).nextBytes(data);
+        final ByteRingBuffer buffer = new ByteRingBuffer(1000, direct);
+
+        final CompletableFuture<byte[]> reader = CompletableFuture.supplyAsync(() -> {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[333];
+
+            try {
+                int read;
+
+                while ((read = buffer.read(chunk, 0, chunk.length)) != -1) {
+                    out.write(chunk, 0, read);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            return out.toByteArray();
+        });
+
+        final Random sizes = new Random(11);
+        int offset = 0;
+
+        while (offset < data.length) {
+            final int length = Math.min(data.length - offset, sizes.nextInt(2500));
+            buffer.write(data, offset, length);
+            offset += length;
+        }
+
+        buffer.close();
+
+        Assert.assertEquals(reader.get(10, TimeUnit.SECONDS), data);
+    }
+}
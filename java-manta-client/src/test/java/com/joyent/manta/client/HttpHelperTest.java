@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpResponse;
+import com.joyent.http.signature.google.httpclient.RequestHttpSigner;
+import com.joyent.manta.config.StandardConfigContext;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+
+/**
+ * Tests for releasing responses with {@link HttpHelper} against a local HTTP
+ * server, using the connection counts to check that connections go back to
+ * the pool.
+ */
+@Test
+public class HttpHelperTest {
+    private static final int OBJECT_SIZE = 100_000;
+
+    private LocalMantaServer server;
+
+    private HttpRequestFactoryProvider provider;
+
+    private HttpHelper httpHelper;
+
+    private GenericUrl url;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        server = new LocalMantaServer(exchange -> {
+            exchange.sendResponseHeaders(200, OBJECT_SIZE);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(new byte[OBJECT_SIZE]);
+            } catch (IOException e) {
+                // The client aborted the connection
+            }
+        });
+
+        url = new GenericUrl(server.getUrl() + "/user/stor/object");
+    }
+
+    @BeforeMethod
+    public void createProvider() throws Exception {
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        final RequestHttpSigner signer = new RequestHttpSigner(keyPair, "user", "00:00",
+                new PooledThreadLocalSigner(new SignerPool(() -> new MantaSigner(false), 1)));
+        final StandardConfigContext config = LocalMantaServer.config(server.getUrl());
+        config.setNoAuth(true);
+
+        provider = new HttpRequestFactoryProvider(signer, config);
+        httpHelper = new HttpHelper(server.getUrl(), provider.getRequestFactory());
+    }
+
+    @AfterMethod
+    public void closeProvider() throws Exception {
+        provider.close();
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void releasingUnreadResponseReturnsConnectionToPool() throws IOException {
+        final HttpResponse response = provider.getRequestFactory().buildGetRequest(url).execute();
+        Assert.assertEquals(provider.getConnectionCounts().getLeased(), 1);
+
+        httpHelper.releaseResponse(response);
+
+        final MantaConnectionCounts counts = provider.getConnectionCounts();
+        Assert.assertEquals(counts.getLeased(), 0);
+        Assert.assertEquals(counts.getAvailable(), 1);
+
+        httpHelper.releaseResponse(provider.getRequestFactory().buildGetRequest(url).execute());
+
+        Assert.assertEquals(provider.getConnectionCounts().getOpened(), 1L);
+        Assert.assertEquals(provider.getConnectionCounts().getReused(), 1L);
+    }
+
+    public void releasingPartiallyReadResponseReturnsConnectionToPool() throws IOException {
+        final HttpResponse response = provider.getRequestFactory().buildGetRequest(url).execute();
+
+        try (InputStream in = response.getContent()) {
+            Assert.assertEquals(in.read(new byte[100]), 100);
+            httpHelper.releaseResponse(response);
+        }
+
+        httpHelper.releaseResponse(provider.getRequestFactory().buildGetRequest(url).execute());
+
+        final MantaConnectionCounts counts = provider.getConnectionCounts();
+        Assert.assertEquals(counts.getLeased(), 0);
+        Assert.assertEquals(counts.getOpened(), 1L);
+        Assert.assertEquals(counts.getReused(), 1L);
+    }
+
+    public void releasingNullResponseDoesNothing() {
+        httpHelper.releaseResponse(null);
+
+        Assert.assertEquals(provider.getConnectionCounts().getLeased(), 0);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.apache.ApacheHttpTransport;
+import com.joyent.http.signature.ThreadLocalSigner;
+import com.joyent.http.signature.google.httpclient.RequestHttpSigner;
+import com.joyent.manta.config.StandardConfigContext;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+
+/**
+ * Tests for the Apache HTTP Client configuration of {@link HttpRequestFactoryProvider}.
+ */
+@Test
+public class HttpRequestFactoryProviderTest {
+    private static final byte[] BODY = "hello world".getBytes(StandardCharsets.UTF_8);
+
+    private LocalMantaServer server;
+
+    private GenericUrl url;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        server = new LocalMantaServer(exchange -> {
+            exchange.sendResponseHeaders(200, BODY.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        });
+
+        url = new GenericUrl(server.getUrl() + "/user/stor/object");
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void reusesPooledConnections() throws Exception {
+        try (HttpRequestFactoryProvider provider = new HttpRequestFactoryProvider(signer(), config())) {
+            final HttpRequestFactory requestFactory = provider.getRequestFactory();
+
+            Assert.assertTrue(requestFactory.getTransport() instanceof ApacheHttpTransport);
+
+            for (int i = 0; i < 3; i++) {
+                final HttpResponse response = requestFactory.buildGetRequest(url).execute();
+                Assert.assertEquals(response.parseAsString(), "hello world");
+            }
+
+            final MantaConnectionCounts counts = provider.getConnectionCounts();
+            Assert.assertEquals(counts.getOpened(), 1L);
+            Assert.assertEquals(counts.getReused(), 2L);
+            Assert.assertEquals(counts.getLeased(), 0);
+            Assert.assertEquals(counts.getAvailable(), 1);
+            Assert.assertEquals(counts.getPending(), 0);
+        }
+    }
+
+    public void countsAreSnapshots() throws Exception {
+        try (HttpRequestFactoryProvider provider = new HttpRequestFactoryProvider(signer(), config())) {
+            final MantaConnectionCounts before = provider.getConnectionCounts();
+            final HttpResponse response = provider.getRequestFactory().buildGetRequest(url).execute();
+
+            try {
+                Assert.assertEquals(provider.getConnectionCounts().getLeased(), 1);
+                Assert.assertEquals(before.getLeased(), 0);
+                Assert.assertEquals(before.getOpened(), 0L);
+            } finally {
+                response.disconnect();
+            }
+        }
+    }
+
+    public void countsAreZeroWithoutApacheTransport() throws Exception {
+        final StandardConfigContext config = config();
+        config.setHttpTransport("NetHttpTransport");
+
+        try (HttpRequestFactoryProvider provider = new HttpRequestFactoryProvider(signer(), config)) {
+            Assert.assertEquals(provider.getRequestFactory().buildGetRequest(url).execute().parseAsString(),
+                    "hello world");
+
+            final MantaConnectionCounts counts = provider.getConnectionCounts();
+            Assert.assertEquals(counts.getOpened(), 0L);
+            Assert.assertEquals(counts.getReused(), 0L);
+            Assert.assertEquals(counts.getLeased(), 0);
+        }
+    }
+
+    private static StandardConfigContext config() {
+        final StandardConfigContext config = new StandardConfigContext();
+        config.setHttpTransport("ApacheHttpTransport")
+              .setNoAuth(true)
+              .setDisableNativeSignatures(false)
+              .setRetries(0)
+              .setMaxIdleTime(1000)
+              .setConnectionTimeToLive(60000)
+              .setSocketBufferSize(1024);
+
+        return config;
+    }
+
+    private static RequestHttpSigner signer() throws Exception {
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        return new RequestHttpSigner(keyPair, "user", "00:00", new ThreadLocalSigner(false));
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.config.StandardConfigContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback HTTP server that stands in for the Manta API in unit tests, along
+ * with the client configuration used to talk to it. Requests for paths under
+ * {@code /user/stor/} are passed to the handler supplied by the test and are
+ * handled concurrently, so handlers may block to hold a request open.
+ */
+public final class LocalMantaServer implements AutoCloseable {
+    /**
+     * Fingerprint sent as the key id of the test key. The server doesn't
+     * verify signatures, so it doesn't need to match the key.
+     */
+    private static final String KEY_ID = "00:00:00:00:00:00:00:00:00:00:00:00:00:00:00:00";
+
+    /**
+     * PEM encoded RSA private key shared by all tests, generated on first use.
+     */
+    private static String privateKey;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final HttpServer server;
+
+    public LocalMantaServer(final HttpHandler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/user/", handler);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return base URL of the server, i.e. http://127.0.0.1:port
+     */
+    public String getUrl() {
+        return String.format("http://%s:%d",
+                server.getAddress().getHostString(), server.getAddress().getPort());
+    }
+
+    /**
+     * @return configuration of a client that sends signed requests to this server
+     */
+    public StandardConfigContext config() {
+        return config(getUrl());
+    }
+
+    /**
+     * Creates the configuration of a client that sends signed requests
+     * without retries over the Apache transport.
+     *
+     * @param url base URL of the Manta API
+     * @return new configuration that tests can customize further
+     */
+    public static StandardConfigContext config(final String url) {
+        final StandardConfigContext config = new StandardConfigContext();
+        config.setMantaURL(url)
+              .setMantaUser("user")
+              .setMantaKeyId(KEY_ID)
+              .setPrivateKeyContent(privateKeyContent())
+              .setTimeout(5000)
+              .setRetries(0)
+              .setHttpTransport("ApacheHttpTransport")
+              .setNoAuth(false)
+              .setDisableNativeSignatures(false);
+
+        return config;
+    }
+
+    /**
+     * @return PEM encoded RSA private key shared by all tests
+     */
+    public static synchronized String privateKeyContent() {
+        if (privateKey == null) {
+            try {
+                final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+                final StringWriter writer = new StringWriter();
+
+                try (JcaPEMWriter pemWriter = new JcaPEMWriter(writer)) {
+                    pemWriter.writeObject(keyPair.getPrivate());
+                }
+
+                privateKey = writer.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("RSA is required by the JVM specification", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return privateKey;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
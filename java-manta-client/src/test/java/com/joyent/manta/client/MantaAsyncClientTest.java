@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.config.StandardConfigContext;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import static com.joyent.manta.client.MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE;
+
+/**
+ * Tests for {@link MantaAsyncClient} against a local HTTP server.
+ */
+@Test
+public class MantaAsyncClientTest {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    private final Map<String, String> authorizations = new ConcurrentHashMap<>();
+
+    private LocalMantaServer server;
+
+    private MantaClient mantaClient;
+
+    private MantaAsyncClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+        mantaClient = new MantaClient(server.config());
+        client = new MantaAsyncClient(mantaClient);
+    }
+
+    @AfterClass
+    public void teardown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+
+        if (mantaClient != null) {
+            mantaClient.closeQuietly();
+        }
+
+        server.close();
+    }
+
+    public void canPutGetHeadAndDelete() throws Exception {
+        final String path = "/user/stor/object";
+
+        final MantaObjectResponse put = client.put(path, "hello world").get();
+        Assert.assertEquals(put.getPath(), path);
+        Assert.assertEquals(new String(objects.get(path), StandardCharsets.UTF_8), "hello world");
+        Assert.assertTrue(authorizations.get(path).startsWith("Signature keyId=\"/user/keys/"),
+                "Request wasn't signed");
+
+        Assert.assertEquals(client.getAsString(path, StandardCharsets.UTF_8).get(), "hello world");
+
+        final MantaObjectResponse head = client.head(path).get();
+        Assert.assertEquals(head.getContentLength(), Long.valueOf(11L));
+        Assert.assertEquals(head.getEtag(), "etag");
+
+        client.delete(path).get();
+        Assert.assertFalse(objects.containsKey(path));
+    }
+
+    public void canListDirectory() throws Exception {
+        final List<MantaObject> listing = client.listObjects("/user/stor/dir").get();
+
+        Assert.assertEquals(listing.size(), 2);
+        Assert.assertEquals(listing.get(0).getPath(), "/user/stor/dir/a.txt");
+        Assert.assertFalse(listing.get(0).isDirectory());
+        Assert.assertEquals(listing.get(1).getPath(), "/user/stor/dir/b");
+        Assert.assertTrue(listing.get(1).isDirectory());
+    }
+
+    public void canPutDirectory() throws Exception {
+        Assert.assertTrue(client.putDirectory("/user/stor/newdir").get());
+    }
+
+    public void writesInvalidateCaches() throws Exception {
+        final String path = "/user/stor/cached";
+        final StandardConfigContext config = server.config();
+        config.setMetadataCacheTtl(60_000)
+              .setMetadataCacheNegativeTtl(60_000)
+              .setBodyCacheSize(4096L)
+              .setBodyCacheRevalidateInterval(60_000);
+
+        try (MantaClient cachingClient = new MantaClient(config);
+             MantaAsyncClient asyncClient = new MantaAsyncClient(cachingClient)) {
+            Assert.assertFalse(cachingClient.existsAndIsAccessible(path));
+
+            asyncClient.put(path, "first").get();
+            Assert.assertEquals(cachingClient.getAsString(path, StandardCharsets.UTF_8), "first");
+            Assert.assertEquals(cachingClient.head(path).getContentLength(), Long.valueOf(5L));
+
+            asyncClient.put(path, "second").get();
+            Assert.assertEquals(cachingClient.getAsString(path, StandardCharsets.UTF_8), "second");
+            Assert.assertEquals(cachingClient.head(path).getContentLength(), Long.valueOf(6L));
+
+            asyncClient.delete(path).get();
+            Assert.assertFalse(cachingClient.existsAndIsAccessible(path));
+
+            Assert.assertFalse(cachingClient.existsAndIsAccessible("/user/stor/newdir"));
+            Assert.assertEquals(cachingClient.getMetadataCache().size(), 2);
+
+            asyncClient.putDirectory("/user/stor/newdir").get();
+            Assert.assertEquals(cachingClient.getMetadataCache().size(), 1);
+        }
+    }
+
+    public void errorStatusCompletesExceptionally() throws Exception {
+        final CompletableFuture<MantaObjectResponse> future = client.head("/user/stor/missing");
+
+        try {
+            future.get();
+            Assert.fail("Expected exception");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MantaClientHttpResponseException,
+                    "Unexpected exception: " + e.getCause());
+            final MantaClientHttpResponseException cause = (MantaClientHttpResponseException)e.getCause();
+            Assert.assertEquals(cause.getStatusCode(), 404);
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final String method = exchange.getRequestMethod();
+        authorizations.put(path, String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+
+        if (path.equals("/user/stor/dir") && method.equals("GET")) {
+            final byte[] listing = ("{\"name\":\"a.txt\",\"type\":\"object\",\"mtime\":\"2016-11-11T00:00:00.000Z\","
+                    + "\"etag\":\"e1\",\"size\":3}\n"
+                    + "{\"name\":\"b\",\"type\":\"directory\",\"mtime\":\"2016-11-11T00:00:00.000Z\"}\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", DIRECTORY_RESPONSE_CONTENT_TYPE);
+            respond(exchange, 200, listing);
+        } else if (path.equals("/user/stor/newdir") && method.equals("PUT")) {
+            respond(exchange, 204, null);
+        } else if (method.equals("PUT")) {
+            objects.put(path, readAll(exchange.getRequestBody()));
+            respond(exchange, 204, null);
+        } else if (method.equals("DELETE")) {
+            objects.remove(path);
+            respond(exchange, 204, null);
+        } else if (objects.containsKey(path)) {
+            final byte[] body = objects.get(path);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.getResponseHeaders().set("ETag", "etag");
+
+            if (method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 200, body);
+            }
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            final byte[] error = "{\"code\":\"ResourceNotFound\",\"message\":\"not found\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 404, error);
+            }
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status,
+                                final byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link MantaBlockCache}.
+ */
+@Test
+public class MantaBlockCacheTest {
+    public void servesCachedBlocks() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(1024, 100, false)) {
+            final AtomicInteger loads = new AtomicInteger();
+            final MantaBlockCache.BlockLoader loader = () -> {
+                loads.incrementAndGet();
+                return block(100, 7);
+            };
+
+            Assert.assertEquals(cache.get("/a", "e1", 0, loader).get(), 7);
+            Assert.assertEquals(cache.get("/a", "e1", 0, loader).get(), 7);
+
+            Assert.assertEquals(loads.get(), 1);
+            Assert.assertEquals(cache.getHits(), 1L);
+            Assert.assertEquals(cache.getMisses(), 1L);
+            Assert.assertEquals(cache.getCachedBytes(), 100L);
+        }
+    }
+
+    public void returnedBlocksAreIndependentViews() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(1024, 100, false)) {
+            final ByteBuffer first = cache.get("/a", "e1", 0, () -> block(100, 1));
+            first.position(50);
+
+            final ByteBuffer second = cache.get("/a", "e1", 0, () -> block(100, 2));
+            Assert.assertEquals(second.position(), 0);
+            Assert.assertEquals(second.remaining(), 100);
+            Assert.assertTrue(second.isReadOnly());
+        }
+    }
+
+    public void keysIncludeEtag() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(1024, 100, false)) {
+            Assert.assertEquals(cache.get("/a", "e1", 0, () -> block(100, 1)).get(), 1);
+            Assert.assertEquals(cache.get("/a", "e2", 0, () -> block(100, 2)).get(), 2);
+            Assert.assertEquals(cache.get("/a", "e1", 1, () -> block(100, 3)).get(), 3);
+            Assert.assertEquals(cache.getMisses(), 3L);
+        }
+    }
+
+    public void evictsLeastRecentlyUsedBlocks() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(300, 100, false)) {
+            final AtomicInteger loads = new AtomicInteger();
+            final MantaBlockCache.BlockLoader loader = () -> {
+                loads.incrementAndGet();
+                return block(100, 0);
+            };
+
+            cache.get("/a", "e", 0, loader);
+            cache.get("/a", "e", 1, loader);
+            cache.get("/a", "e", 2, loader);
+            // Touch block 0 so that block 1 is the least recently used
+            cache.get("/a", "e", 0, loader);
+            cache.get("/a", "e", 3, loader);
+
+            Assert.assertEquals(cache.getCachedBytes(), 300L);
+            Assert.assertEquals(loads.get(), 4);
+
+            cache.get("/a", "e", 0, loader);
+            Assert.assertEquals(loads.get(), 4, "Recently used block shouldn't be evicted");
+
+            cache.get("/a", "e", 1, loader);
+            Assert.assertEquals(loads.get(), 5, "Least recently used block should be evicted");
+        }
+    }
+
+    public void doesNotCacheBlocksLargerThanCache() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(50, 100, false)) {
+            cache.get("/a", "e", 0, () -> block(100, 0));
+            Assert.assertEquals(cache.getCachedBytes(), 0L);
+        }
+    }
+
+    public void allocatesDirectBuffersOffHeap() {
+        try (MantaBlockCache heap = new MantaBlockCache(1024, 100, false);
+             MantaBlockCache offHeap = new MantaBlockCache(1024, 100, true)) {
+            Assert.assertFalse(heap.allocate(10).isDirect());
+            Assert.assertTrue(offHeap.allocate(10).isDirect());
+        }
+    }
+
+    public void coalescesConcurrentLoads() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (MantaBlockCache cache = new MantaBlockCache(1024, 100, false)) {
+            final AtomicInteger loads = new AtomicInteger();
+            final CountDownLatch loading = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final MantaBlockCache.BlockLoader loader = () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return block(100, 9);
+            };
+
+            final Future<ByteBuffer> first = executor.submit(() -> cache.get("/a", "e", 0, loader));
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            final Future<ByteBuffer> second = executor.submit(() -> cache.get("/a", "e", 0, loader));
+
+            Thread.sleep(100);
+            release.countDown();
+
+            Assert.assertEquals(first.get().get(), 9);
+            Assert.assertEquals(second.get().get(), 9);
+            Assert.assertEquals(loads.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void prefetchLoadsBlockInBackground() throws Exception {
+        try (MantaBlockCache cache = new MantaBlockCache(1024, 100, false)) {
+            final CountDownLatch loaded = new CountDownLatch(1);
+
+            cache.prefetch("/a", "e", 5, () -> {
+                loaded.countDown();
+                return block(100, 5);
+            });
+
+            Assert.assertTrue(loaded.await(5, TimeUnit.SECONDS));
+
+            // The block is either cached or still in flight, in which case get waits for it
+            Assert.assertEquals(cache.get("/a", "e", 5, () -> {
+                throw new AssertionError("Prefetched block should be cached");
+            }).get(), 5);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void propagatesLoadErrors() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(1024, 100, false)) {
+            cache.get("/a", "e", 0, () -> {
+                throw new IOException("boom");
+            });
+        }
+    }
+
+    private static ByteBuffer block(final int size, final int value) {
+        final byte[] data = new byte[size];
+        Arrays.fill(data, (byte)value);
+        return ByteBuffer.wrap(data);
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.config.StandardConfigContext;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for serving small objects from a {@link MantaBodyCache} through
+ * {@link MantaClient} against a local HTTP server.
+ */
+@Test
+public class MantaBodyCacheTest {
+    private static final int LARGE_OBJECT_SIZE = 5000;
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+
+    private final List<String> conditions = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger bodies = new AtomicInteger();
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+    }
+
+    @BeforeMethod
+    public void reset() {
+        objects.clear();
+        etags.clear();
+        conditions.clear();
+        bodies.set(0);
+    }
+
+    @AfterMethod
+    public void closeClient() {
+        if (client != null) {
+            client.closeQuietly();
+            client = null;
+        }
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void servesFreshObjectsWithoutRequests() throws IOException {
+        client = createClient(60_000);
+
+        Assert.assertEquals(client.getAsString("/user/stor/a", StandardCharsets.UTF_8), "/user/stor/a:etag-0");
+        Assert.assertEquals(client.getAsString("/user/stor/a", StandardCharsets.UTF_8), "/user/stor/a:etag-0");
+        Assert.assertEquals(client.getAsBytes("/user/stor/a"), data("/user/stor/a"));
+
+        final MantaBodyCache cache = client.getBodyCache();
+        Assert.assertEquals(conditions, Arrays.asList("null"));
+        Assert.assertEquals(cache.getHits(), 2L);
+        Assert.assertEquals(cache.getMisses(), 1L);
+        Assert.assertEquals(cache.getCachedBytes(), (long)data("/user/stor/a").length);
+    }
+
+    public void revalidatesStaleObjects() throws IOException {
+        client = createClient(0);
+
+        client.getAsBytes("/user/stor/a");
+        Assert.assertEquals(client.getAsBytes("/user/stor/a"), data("/user/stor/a"));
+
+        etags.put("/user/stor/a", "etag-1");
+        Assert.assertEquals(client.getAsBytes("/user/stor/a"), data("/user/stor/a"));
+
+        final MantaBodyCache cache = client.getBodyCache();
+        Assert.assertEquals(conditions, Arrays.asList("null", "etag-0", "etag-0"));
+        Assert.assertEquals(bodies.get(), 2);
+        Assert.assertEquals(cache.getRevalidations(), 1L);
+        Assert.assertEquals(cache.getMisses(), 2L);
+    }
+
+    public void byteBuffersAreReadOnlyViewsOfCachedData() throws IOException {
+        client = createClient(60_000);
+
+        final ByteBuffer first = client.getAsByteBuffer("/user/stor/a");
+        final ByteBuffer second = client.getAsByteBuffer("/user/stor/a");
+
+        Assert.assertTrue(second.isDirect());
+        Assert.assertTrue(second.isReadOnly());
+        Assert.assertEquals(first, ByteBuffer.wrap(data("/user/stor/a")));
+        Assert.assertEquals(second, ByteBuffer.wrap(data("/user/stor/a")));
+
+        second.get();
+        Assert.assertEquals(client.getAsByteBuffer("/user/stor/a").position(), 0);
+    }
+
+    public void largeObjectsAreStreamed() throws IOException {
+        client = createClient(60_000);
+
+        try (MantaObjectInputStream in = client.getAsInputStream("/user/stor/large")) {
+            Assert.assertNull(in.getCachedBody());
+            Assert.assertEquals(MantaUtils.inputStreamToBytes(in, null), data("/user/stor/large"));
+        }
+
+        client.getAsBytes("/user/stor/large");
+
+        Assert.assertEquals(bodies.get(), 2);
+        Assert.assertEquals(client.getBodyCache().getCachedBytes(), 0L);
+    }
+
+    public void rangeRequestsBypassCache() throws IOException {
+        client = createClient(60_000);
+        client.getAsBytes("/user/stor/a");
+
+        final MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setRange("bytes=0-9");
+
+        try (MantaObjectInputStream in = client.getAsInputStream("/user/stor/a", headers)) {
+            Assert.assertEquals(MantaUtils.inputStreamToBytes(in, null), Arrays.copyOf(data("/user/stor/a"), 10));
+        }
+
+        Assert.assertEquals(conditions, Arrays.asList("null", "null"));
+    }
+
+    public void preconditionsBypassCache() throws IOException {
+        client = createClient(60_000);
+        client.getAsBytes("/user/stor/a");
+
+        final MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setIfMatch("wrong-etag");
+
+        try {
+            client.getAsInputStream("/user/stor/a", headers).close();
+            Assert.fail("Expected the precondition to fail");
+        } catch (MantaClientHttpResponseException e) {
+            Assert.assertEquals(e.getStatusCode(), 412);
+        }
+
+        Assert.assertEquals(conditions, Arrays.asList("null", "null"));
+        Assert.assertEquals(client.getBodyCache().getHits(), 0L);
+    }
+
+    public void writesInvalidateCachedObjects() throws IOException {
+        client = createClient(60_000);
+        client.getAsBytes("/user/stor/a");
+
+        client.put("/user/stor/a", "new data");
+
+        Assert.assertEquals(client.getAsString("/user/stor/a", StandardCharsets.UTF_8), "new data");
+        Assert.assertEquals(conditions, Arrays.asList("null", "null"));
+    }
+
+    public void evictsLeastRecentlyUsedObjects() {
+        final MantaBodyCache cache = new MantaBodyCache(250, 100, 60_000);
+
+        for (String path : Arrays.asList("/user/stor/a", "/user/stor/b", "/user/stor/c")) {
+            cache.put(response(path, 100), new byte[100], cache.getGeneration());
+
+            if (path.equals("/user/stor/b")) {
+                cache.get("/user/stor/a");
+            }
+        }
+
+        Assert.assertNotNull(cache.get("/user/stor/a"));
+        Assert.assertNull(cache.get("/user/stor/b"));
+        Assert.assertNotNull(cache.get("/user/stor/c"));
+        Assert.assertEquals(cache.getCachedBytes(), 200L);
+    }
+
+    public void objectsDownloadedDuringInvalidationAreNotCached() {
+        final MantaBodyCache cache = new MantaBodyCache(250, 100, 60_000);
+        final long generation = cache.getGeneration();
+
+        cache.invalidate("/user/stor/a");
+        final MantaBodyCache.CachedBody body = cache.put(response("/user/stor/a", 10), new byte[10], generation);
+
+        Assert.assertEquals(body.getData().remaining(), 10);
+        Assert.assertFalse(body.getData().isDirect());
+        Assert.assertNull(cache.get("/user/stor/a"));
+    }
+
+    public void onlyCachedObjectsAreCopiedOffHeap() {
+        final MantaBodyCache cache = new MantaBodyCache(250, 100, 60_000);
+
+        final MantaBodyCache.CachedBody truncated = cache.put(response("/user/stor/a", 20), new byte[10],
+                cache.getGeneration());
+        final MantaBodyCache.CachedBody cached = cache.put(response("/user/stor/b", 10), new byte[10],
+                cache.getGeneration());
+
+        Assert.assertFalse(truncated.getData().isDirect());
+        Assert.assertNull(cache.get("/user/stor/a"));
+        Assert.assertTrue(cached.getData().isDirect());
+        Assert.assertTrue(cached.getData().isReadOnly());
+        Assert.assertSame(cache.get("/user/stor/b"), cached);
+    }
+
+    public void defaultRevalidateIntervalServesRepeatedReadsFromCache() throws IOException {
+        client = createClient(null);
+
+        client.getAsBytes("/user/stor/a");
+        Assert.assertEquals(client.getAsBytes("/user/stor/a"), data("/user/stor/a"));
+
+        Assert.assertEquals(conditions, Arrays.asList("null"));
+        Assert.assertEquals(client.getBodyCache().getRevalidations(), 0L);
+    }
+
+    private MantaClient createClient(final Integer revalidateInterval) throws IOException {
+        final StandardConfigContext config = server.config();
+        config.setBodyCacheSize(4096L)
+              .setBodyCacheMaxObjectSize(1024)
+              .setBodyCacheRevalidateInterval(revalidateInterval);
+
+        return new MantaClient(config);
+    }
+
+    private static MantaObjectResponse response(final String path, final long length) {
+        final MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setETag("etag");
+        headers.setContentLength(length);
+        return new MantaObjectResponse(path, headers);
+    }
+
+    private byte[] data(final String path) {
+        final byte[] stored = objects.get(path);
+
+        if (stored != null) {
+            return stored;
+        }
+
+        if (path.equals("/user/stor/large")) {
+            final byte[] data = new byte[LARGE_OBJECT_SIZE];
+            Arrays.fill(data, (byte)'x');
+            return data;
+        }
+
+        return (path + ":" + etags.getOrDefault(path, "etag-0")).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+
+        if (exchange.getRequestMethod().equals("PUT")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                objects.put(path, MantaUtils.inputStreamToBytes(in, null));
+            }
+
+            etags.put(path, "etag-put");
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            return;
+        }
+
+        final String etag = etags.computeIfAbsent(path, p -> "etag-0");
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        conditions.add(String.valueOf(ifNoneMatch));
+
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("ETag", etag);
+
+        final String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+
+        if (ifMatch != null && !etag.equals(ifMatch)) {
+            exchange.sendResponseHeaders(412, -1);
+            exchange.close();
+            return;
+        }
+
+        if (etag.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] data = data(path);
+        int start = 0;
+        int length = data.length;
+        int status = 200;
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+
+        if (range != null) {
+            final String[] bounds = range.substring("bytes=".length()).split("-");
+            start = Integer.parseInt(bounds[0]);
+            length = Integer.parseInt(bounds[1]) - start + 1;
+            status = 206;
+            exchange.getResponseHeaders().set("Content-Range",
+                    String.format("bytes %d-%d/%d", start, start + length - 1, data.length));
+        } else {
+            bodies.incrementAndGet();
+        }
+
+        exchange.sendResponseHeaders(status, length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data, start, length);
+        }
+    }
+}
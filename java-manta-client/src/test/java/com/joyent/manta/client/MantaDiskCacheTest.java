@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.config.StandardConfigContext;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests for serving objects from a {@link MantaDiskCache} through
+ * {@link MantaClient#getAsInputStream(String)} against a local HTTP server.
+ */
+@Test
+public class MantaDiskCacheTest {
+    private static final int OBJECT_SIZE = 100_000;
+
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+
+    private final List<String> conditions = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger bodies = new AtomicInteger();
+
+    private LocalMantaServer server;
+
+    private Path cacheDirectory;
+
+    private MantaClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+    }
+
+    @BeforeMethod
+    public void createClient() throws IOException {
+        etags.clear();
+        conditions.clear();
+        bodies.set(0);
+        cacheDirectory = Files.createTempDirectory("manta-disk-cache");
+
+        final StandardConfigContext config = server.config();
+        config.setDiskCacheDirectory(cacheDirectory.toString())
+              .setDiskCacheSize(250_000L);
+
+        client = new MantaClient(config);
+    }
+
+    @AfterMethod
+    public void closeClient() throws IOException {
+        client.closeQuietly();
+
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void servesUnmodifiedObjectFromCache() throws IOException {
+        Assert.assertEquals(read("/user/stor/a"), data("/user/stor/a"));
+        Assert.assertEquals(read("/user/stor/a"), data("/user/stor/a"));
+
+        final MantaDiskCache cache = client.getDiskCache();
+        Assert.assertEquals(bodies.get(), 1);
+        Assert.assertEquals(conditions, Arrays.asList("null", "etag-0"));
+        Assert.assertEquals(cache.getHits(), 1L);
+        Assert.assertEquals(cache.getMisses(), 1L);
+        Assert.assertEquals(cache.getBytesSaved(), (long)OBJECT_SIZE);
+        Assert.assertEquals(cache.getCachedBytes(), (long)OBJECT_SIZE);
+    }
+
+    public void downloadsModifiedObject() throws IOException {
+        read("/user/stor/a");
+        etags.put("/user/stor/a", "etag-1");
+
+        Assert.assertEquals(read("/user/stor/a"), data("/user/stor/a"));
+        Assert.assertEquals(read("/user/stor/a"), data("/user/stor/a"));
+
+        Assert.assertEquals(bodies.get(), 2);
+        Assert.assertEquals(conditions, Arrays.asList("null", "etag-0", "etag-1"));
+        Assert.assertEquals(client.getDiskCache().getCachedBytes(), (long)OBJECT_SIZE);
+    }
+
+    public void doesNotCachePartiallyReadObjects() throws IOException {
+        try (MantaObjectInputStream in = client.getAsInputStream("/user/stor/a")) {
+            Assert.assertEquals(in.read(new byte[10]), 10);
+        }
+
+        read("/user/stor/a");
+
+        Assert.assertEquals(conditions, Arrays.asList("null", "null"));
+        Assert.assertEquals(fileCount(), 1);
+    }
+
+    public void evictsLeastRecentlyUsedObjects() throws IOException {
+        read("/user/stor/a");
+        read("/user/stor/b");
+        read("/user/stor/a");
+        read("/user/stor/c");
+
+        Assert.assertEquals(client.getDiskCache().getCachedBytes(), 2L * OBJECT_SIZE);
+        Assert.assertEquals(fileCount(), 2);
+
+        conditions.clear();
+        read("/user/stor/a");
+        read("/user/stor/b");
+
+        Assert.assertEquals(conditions, Arrays.asList("etag-0", "null"),
+                "Least recently used object should have been evicted");
+    }
+
+    public void rangeRequestsBypassCache() throws IOException {
+        read("/user/stor/a");
+
+        final MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setRange("bytes=0-9");
+
+        try (MantaObjectInputStream in = client.getAsInputStream("/user/stor/a", headers)) {
+            MantaUtils.inputStreamToBytes(in, null);
+        }
+
+        Assert.assertEquals(conditions, Arrays.asList("null", "null"));
+        Assert.assertEquals(client.getDiskCache().getMisses(), 1L);
+    }
+
+    public void concurrentReadersGetObjectData() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5; i++) {
+                        final String path = "/user/stor/" + (char)('a' + i % 3);
+                        Assert.assertEquals(read(path), data(path));
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final MantaDiskCache cache = client.getDiskCache();
+        Assert.assertEquals(cache.getHits() + cache.getMisses(), 40L);
+        Assert.assertTrue(cache.getCachedBytes() <= 250_000L);
+        Assert.assertEquals(fileCount() * (long)OBJECT_SIZE, cache.getCachedBytes(),
+                "Temporary files should be removed");
+    }
+
+    public void cachesSharingDirectoryKeepTheirFiles() throws IOException {
+        read("/user/stor/a");
+
+        final MantaDiskCache other = new MantaDiskCache(cacheDirectory, 250_000L);
+
+        try {
+            Assert.assertNotEquals(other.getDirectory(), client.getDiskCache().getDirectory());
+            Assert.assertEquals(read("/user/stor/a"), data("/user/stor/a"));
+            Assert.assertEquals(client.getDiskCache().getHits(), 1L);
+        } finally {
+            other.close();
+        }
+
+        Assert.assertFalse(Files.exists(other.getDirectory()));
+        Assert.assertEquals(fileCount(), 1);
+    }
+
+    public void deletesDirectoriesOfCachesThatWereNotClosed() throws IOException {
+        final Path stale = Files.createDirectory(cacheDirectory.resolve("instance-stale"));
+        Files.createFile(stale.resolve(".lock"));
+        Files.createFile(stale.resolve("object.manta-cache"));
+
+        new MantaDiskCache(cacheDirectory, 250_000L).close();
+
+        Assert.assertFalse(Files.exists(stale));
+        Assert.assertTrue(Files.exists(client.getDiskCache().getDirectory()));
+    }
+
+    public void closingClientDeletesItsCacheDirectory() throws IOException {
+        read("/user/stor/a");
+        final Path directory = client.getDiskCache().getDirectory();
+
+        client.closeQuietly();
+
+        Assert.assertFalse(Files.exists(directory));
+    }
+
+    private byte[] read(final String path) throws IOException {
+        try (MantaObjectInputStream in = client.getAsInputStream(path)) {
+            return MantaUtils.inputStreamToBytes(in, null);
+        }
+    }
+
+    private byte[] data(final String path) {
+        final byte[] data = new byte[OBJECT_SIZE];
+        new Random((path + etags.getOrDefault(path, "etag-0")).hashCode()).nextBytes(data);
+        return data;
+    }
+
+    private int fileCount() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            return (int)files.filter(Files::isRegularFile)
+                             .filter(f -> !f.getFileName().toString().equals(".lock"))
+                             .count();
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final String etag = etags.computeIfAbsent(path, p -> "etag-0");
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        conditions.add(String.valueOf(ifNoneMatch));
+
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("ETag", etag);
+
+        if (etag.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] data = data(path);
+        int start = 0;
+        int length = data.length;
+        int status = 200;
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+
+        if (range != null) {
+            final String[] bounds = range.substring("bytes=".length()).split("-");
+            start = Integer.parseInt(bounds[0]);
+            length = Integer.parseInt(bounds[1]) - start + 1;
+            status = 206;
+            exchange.getResponseHeaders().set("Content-Range",
+                    String.format("bytes %d-%d/%d", start, start + length - 1, data.length));
+        } else {
+            bodies.incrementAndGet();
+        }
+
+        exchange.sendResponseHeaders(status, length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data, start, length);
+        } catch (IOException e) {
+            // The client aborted the connection after reading what it needed
+        }
+    }
+}
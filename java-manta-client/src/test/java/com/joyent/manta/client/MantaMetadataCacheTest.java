@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.config.StandardConfigContext;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for caching HEAD responses with {@link MantaMetadataCache}, both
+ * directly with a fake clock and through {@link MantaClient} against a
+ * local HTTP server.
+ */
+@Test
+public class MantaMetadataCacheTest {
+    private final AtomicLong now = new AtomicLong();
+
+    private final Set<String> objects = ConcurrentHashMap.newKeySet();
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+    }
+
+    @BeforeMethod
+    public void createClient() throws IOException {
+        now.set(0L);
+        objects.clear();
+        objects.add("/user/stor/dir");
+        requests.clear();
+
+        final StandardConfigContext config = server.config();
+        config.setMetadataCacheTtl(60_000)
+              .setMetadataCacheNegativeTtl(60_000);
+
+        client = new MantaClient(config);
+    }
+
+    @AfterMethod
+    public void closeClient() {
+        client.closeQuietly();
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void cachesResponsesUntilExpired() throws IOException {
+        final MantaMetadataCache cache = new MantaMetadataCache(1000, 0, 10, now::get);
+        final AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(cache.get("/user/stor/a", () -> load("/user/stor/a", loads)).getPath(),
+                    "/user/stor/a");
+        }
+
+        Assert.assertEquals(loads.get(), 1);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        cache.get("/user/stor/a", () -> load("/user/stor/a", loads));
+
+        Assert.assertEquals(loads.get(), 2);
+        Assert.assertEquals(cache.getHits(), 2L);
+        Assert.assertEquals(cache.getMisses(), 2L);
+        Assert.assertEquals(cache.getHitRate(), 0.5);
+    }
+
+    public void cachedResponsesCantBeModifiedByCallers() throws IOException {
+        final MantaMetadataCache cache = new MantaMetadataCache(1000, 0, 10, now::get);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get("/user/stor/a", () -> load("/user/stor/a", loads)).getHttpHeaders().setETag("modified");
+
+        Assert.assertEquals(cache.get("/user/stor/a", () -> load("/user/stor/a", loads)).getEtag(), "etag");
+    }
+
+    public void evictsLeastRecentlyUsedPaths() throws IOException {
+        final MantaMetadataCache cache = new MantaMetadataCache(1000, 0, 2, now::get);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get("/user/stor/a", () -> load("/user/stor/a", loads));
+        cache.get("/user/stor/b", () -> load("/user/stor/b", loads));
+        cache.get("/user/stor/a", () -> load("/user/stor/a", loads));
+        cache.get("/user/stor/c", () -> load("/user/stor/c", loads));
+        cache.get("/user/stor/a", () -> load("/user/stor/a", loads));
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(loads.get(), 3);
+    }
+
+    public void sizeStaysAtMaxEntriesWhenOverfilled() throws IOException {
+        final MantaMetadataCache cache = new MantaMetadataCache(1000, 0, 5, now::get);
+        final AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            final String path = "/user/stor/" + i;
+            cache.get(path, () -> load(path, loads));
+
+            Assert.assertEquals(cache.size(), Math.min(i + 1, 5));
+        }
+
+        cache.get("/user/stor/0", () -> load("/user/stor/0", loads));
+        cache.get("/user/stor/99", () -> load("/user/stor/99", loads));
+
+        Assert.assertEquals(cache.size(), 5);
+        Assert.assertEquals(loads.get(), 101);
+    }
+
+    public void invalidatesPathAndParent() throws IOException {
+        final MantaMetadataCache cache = new MantaMetadataCache(1000, 0, 10, now::get);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get("/user/stor/dir/", () -> load("/user/stor/dir", loads));
+        cache.get("/user/stor/dir/a", () -> load("/user/stor/dir/a", loads));
+        cache.get("/user/stor/b", () -> load("/user/stor/b", loads));
+
+        cache.invalidate("/user/stor/dir/a");
+
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    public void discardsResponsesLoadedDuringInvalidation() throws IOException {
+        final MantaMetadataCache cache = new MantaMetadataCache(1000, 0, 10, now::get);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get("/user/stor/a", () -> {
+            cache.invalidate("/user/stor/a");
+            return load("/user/stor/a", loads);
+        });
+
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    public void headServesCachedMetadata() throws IOException {
+        Assert.assertTrue(client.existsAndIsAccessible("/user/stor/dir"));
+        Assert.assertTrue(client.head("/user/stor/dir").isDirectory());
+        Assert.assertTrue(client.isDirectoryEmpty("/user/stor/dir"));
+
+        Assert.assertEquals(requests, Arrays.asList("HEAD /user/stor/dir"));
+        Assert.assertEquals(client.getMetadataCache().getHits(), 2L);
+    }
+
+    public void missingObjectsAreCached() throws IOException {
+        Assert.assertFalse(client.existsAndIsAccessible("/user/stor/dir/missing"));
+
+        try {
+            client.head("/user/stor/dir/missing");
+            Assert.fail("Expected missing object to throw an exception");
+        } catch (MantaClientHttpResponseException e) {
+            Assert.assertEquals(e.getStatusCode(), 404);
+        }
+
+        Assert.assertEquals(requests, Arrays.asList("HEAD /user/stor/dir/missing"));
+    }
+
+    public void writesInvalidateCachedMetadata() throws IOException {
+        Assert.assertFalse(client.existsAndIsAccessible("/user/stor/dir/object"));
+        Assert.assertTrue(client.isDirectoryEmpty("/user/stor/dir"));
+
+        client.put("/user/stor/dir/object", "data");
+
+        Assert.assertTrue(client.existsAndIsAccessible("/user/stor/dir/object"));
+        Assert.assertFalse(client.isDirectoryEmpty("/user/stor/dir"));
+
+        client.delete("/user/stor/dir/object");
+
+        Assert.assertFalse(client.existsAndIsAccessible("/user/stor/dir/object"));
+        Assert.assertTrue(client.isDirectoryEmpty("/user/stor/dir"));
+
+        Assert.assertEquals(requests.stream().filter(r -> r.startsWith("HEAD")).count(), 6L);
+    }
+
+    public void cacheIsDisabledByDefault() throws IOException {
+        final MantaClient uncached = new MantaClient(server.config());
+
+        try {
+            Assert.assertNull(uncached.getMetadataCache());
+        } finally {
+            uncached.closeQuietly();
+        }
+    }
+
+    private static MantaObjectResponse load(final String path, final AtomicInteger loads) {
+        loads.incrementAndGet();
+        final MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setETag("etag");
+        return new MantaObjectResponse(path, headers);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        requests.add(exchange.getRequestMethod() + " " + path);
+
+        if (exchange.getRequestMethod().equals("PUT")) {
+            objects.add(path);
+            exchange.sendResponseHeaders(204, -1);
+        } else if (exchange.getRequestMethod().equals("DELETE")) {
+            objects.remove(path);
+            exchange.sendResponseHeaders(204, -1);
+        } else if (!objects.contains(path)) {
+            exchange.sendResponseHeaders(404, -1);
+        } else if (path.equals("/user/stor/dir")) {
+            final long children = objects.stream().filter(o -> o.startsWith(path + "/")).count();
+            exchange.getResponseHeaders().set("Content-Type", "application/x-json-stream; type=directory");
+            exchange.getResponseHeaders().set("Result-Set-Size", String.valueOf(children));
+            exchange.sendResponseHeaders(200, -1);
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, -1);
+        }
+
+        exchange.close();
+    }
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.joyent.manta.exception.MantaIOException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the drain or abort and resume behavior of {@link MantaObjectInputStream}.
+ */
+@Test
+public class MantaObjectInputStreamTest {
+    private static final String PATH = "/user/stor/object";
+
+    public void drainsRemainingBytesBelowThreshold() throws IOException {
+        final ByteArrayInputStream content = new ByteArrayInputStream(new byte[1024]);
+        final MockLowLevelHttpResponse lowLevel = lowLevelResponse(content, 1024);
+        final MantaObjectInputStream in = inputStream(lowLevel, 2048);
+
+        Assert.assertEquals(in.read(new byte[100]), 100);
+        Assert.assertEquals(in.remainingBytes(), Long.valueOf(924L));
+        Assert.assertTrue(in.shouldDrainOnClose());
+
+        in.close();
+
+        Assert.assertEquals(content.available(), 0,
+                "Remaining bytes should have been drained");
+        Assert.assertFalse(lowLevel.isDisconnected(),
+                "Connection shouldn't be aborted when draining");
+    }
+
+    public void abortsWhenRemainingBytesExceedThreshold() throws IOException {
+        final ByteArrayInputStream content = new ByteArrayInputStream(new byte[4096]);
+        final MockLowLevelHttpResponse lowLevel = lowLevelResponse(content, 4096);
+        final MantaObjectInputStream in = inputStream(lowLevel, 1024);
+
+        Assert.assertEquals(in.read(new byte[100]), 100);
+        Assert.assertFalse(in.shouldDrainOnClose());
+
+        in.close();
+
+        Assert.assertTrue(content.available() > 0,
+                "Remaining bytes shouldn't have been drained");
+        Assert.assertTrue(lowLevel.isDisconnected(),
+                "Connection should be aborted");
+    }
+
+    public void releasesFullyReadStreamWithZeroThreshold() throws IOException {
+        final ByteArrayInputStream content = new ByteArrayInputStream(new byte[16]);
+        final MockLowLevelHttpResponse lowLevel = lowLevelResponse(content, 16);
+        final MantaObjectInputStream in = inputStream(lowLevel, 0);
+
+        Assert.assertEquals(in.skip(16), 16L);
+        Assert.assertEquals(in.remainingBytes(), Long.valueOf(0L));
+
+        in.close();
+
+        Assert.assertFalse(lowLevel.isDisconnected());
+    }
+
+    public void abortsWhenContentLengthIsUnknown() throws IOException {
+        final ByteArrayInputStream content = new ByteArrayInputStream(new byte[16]);
+        final MockLowLevelHttpResponse lowLevel = new MockLowLevelHttpResponse()
+                .setContent(content);
+        final MantaObjectInputStream in = inputStream(lowLevel, 1024);
+
+        Assert.assertNull(in.remainingBytes());
+
+        in.close();
+
+        Assert.assertTrue(lowLevel.isDisconnected());
+    }
+
+    public void resumesAfterReadFailure() throws IOException {
+        final byte[] data = data(1000);
+        final MockLowLevelHttpResponse lowLevel = lowLevelResponse(
+                new FailingInputStream(data, 0, 400), 1000)
+                .addHeader("ETag", "etag");
+        final List<Long> offsets = new ArrayList<>();
+        final MantaObjectInputStream in = resumableInputStream(lowLevel, offset -> {
+            offsets.add(offset);
+            return response(new MockLowLevelHttpResponse()
+                    .setStatusCode(206)
+                    .setContent(new ByteArrayInputStream(data, (int)offset, data.length - (int)offset)));
+        }, 2);
+
+        final byte[] read = new byte[1000];
+        int total = 0;
+        int count;
+
+        while ((count = in.read(read, total, read.length - total)) > 0) {
+            total += count;
+        }
+
+        Assert.assertEquals(total, 1000);
+        Assert.assertTrue(Arrays.equals(read, data), "Resumed data differs");
+        Assert.assertEquals(offsets, Arrays.asList(400L));
+        Assert.assertTrue(lowLevel.isDisconnected(), "Failed connection should be aborted");
+    }
+
+    public void rethrowsWhenResumeRetriesAreExhausted() throws IOException {
+        final MockLowLevelHttpResponse lowLevel = lowLevelResponse(
+                new FailingInputStream(data(100), 0, 10), 100)
+                .addHeader("ETag", "etag");
+        final List<Long> offsets = new ArrayList<>();
+        final MantaObjectInputStream in = resumableInputStream(lowLevel, offset -> {
+            offsets.add(offset);
+            throw new MantaIOException("unreachable");
+        }, 3);
+
+        Assert.assertEquals(in.read(new byte[10]), 10);
+
+        try {
+            in.read(new byte[10]);
+            Assert.fail("Expected exception");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), FailingInputStream.MESSAGE);
+            Assert.assertEquals(e.getSuppressed().length, 3);
+        }
+
+        Assert.assertEquals(offsets, Arrays.asList(10L, 10L, 10L));
+    }
+
+    @Test(expectedExceptions = MantaIOException.class)
+    public void failsWhenResumedRangeIsIgnored() throws IOException {
+        final MockLowLevelHttpResponse lowLevel = lowLevelResponse(
+                new FailingInputStream(data(100), 0, 10), 100)
+                .addHeader("ETag", "etag");
+        final MantaObjectInputStream in = resumableInputStream(lowLevel,
+                offset -> response(new MockLowLevelHttpResponse()
+                        .setContent(new ByteArrayInputStream(data(100)))), 3);
+
+        in.read(new byte[100]);
+        in.read(new byte[100]);
+    }
+
+    public void doesNotResumeWithoutEtag() throws IOException {
+        final MockLowLevelHttpResponse lowLevel = lowLevelResponse(
+                new FailingInputStream(data(100), 0, 0), 100);
+        final MantaObjectInputStream in = resumableInputStream(lowLevel, offset -> {
+            throw new AssertionError("Stream without an etag shouldn't be resumed");
+        }, 3);
+
+        Assert.assertFalse(in.isResumable());
+
+        try {
+            in.read();
+            Assert.fail("Expected exception");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), FailingInputStream.MESSAGE);
+        }
+    }
+
+    private static byte[] data(final int size) {
+        final byte[] data = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte)i;
+        }
+
+        return data;
+    }
+
+    private static MockLowLevelHttpResponse lowLevelResponse(final InputStream content,
+                                                             final long contentLength) {
+        return new MockLowLevelHttpResponse()
+                .setContent(content)
+                .setContentLength(contentLength)
+                .addHeader("Content-Length", String.valueOf(contentLength));
+    }
+
+    private static MantaObjectInputStream inputStream(final MockLowLevelHttpResponse lowLevel,
+                                                      final int threshold) throws IOException {
+        final HttpResponse response = response(lowLevel);
+        final MantaHttpHeaders headers = new MantaHttpHeaders(response.getHeaders());
+        final MantaObjectResponse metadata = new MantaObjectResponse(PATH, headers);
+
+        return new MantaObjectInputStream(metadata, response, threshold);
+    }
+
+    private static MantaObjectInputStream resumableInputStream(
+            final MockLowLevelHttpResponse lowLevel,
+            final MantaObjectInputStream.RangeRequester requester,
+            final int retries) throws IOException {
+        final HttpResponse response = response(lowLevel);
+        final MantaHttpHeaders headers = new MantaHttpHeaders(response.getHeaders());
+        final MantaObjectResponse metadata = new MantaObjectResponse(PATH, headers);
+
+        return new MantaObjectInputStream(metadata, response, 0, requester, retries);
+    }
+
+    private static HttpResponse response(final MockLowLevelHttpResponse lowLevel) throws IOException {
+        final MockHttpTransport transport = new MockHttpTransport.Builder()
+                .setLowLevelHttpResponse(lowLevel)
+                .build();
+        return transport.createRequestFactory()
+                .buildGetRequest(new GenericUrl("https://localhost" + PATH))
+                .setThrowExceptionOnExecuteError(false)
+                .execute();
+    }
+
+    /**
+     * Stream that throws an exception after a number of bytes have been read,
+     * like a connection that was reset mid-transfer.
+     */
+    private static class FailingInputStream extends InputStream {
+        static final String MESSAGE = "Connection reset";
+
+        private final byte[] data;
+
+        private final int failAt;
+
+        private int pos;
+
+        FailingInputStream(final byte[] data, final int offset, final int failAt) {
+            this.data = data;
+            this.pos = offset;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos >= failAt) {
+                throw new IOException(MESSAGE);
+            }
+
+            return data[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (pos >= failAt) {
+                throw new IOException(MESSAGE);
+            }
+
+            final int count = Math.min(len, failAt - pos);
+            System.arraycopy(data, pos, b, off, count);
+            pos += count;
+
+            return count;
+        }
+    }
+}
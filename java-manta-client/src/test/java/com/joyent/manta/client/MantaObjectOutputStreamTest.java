@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.config.StandardConfigContext;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for uploading objects with {@link MantaObjectOutputStream} against a
+ * local HTTP server.
+ */
+@Test
+public class MantaObjectOutputStreamTest {
+    private static final int UPLOADS = 20;
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+        client = new MantaClient(server.config());
+    }
+
+    @BeforeMethod
+    public void reset() {
+        objects.clear();
+    }
+
+    @AfterClass
+    public void teardown() {
+        client.closeQuietly();
+        server.close();
+    }
+
+    public void uploadsWrittenData() throws IOException {
+        final byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        final MantaObjectOutputStream out = client.putAsOutputStream("/user/stor/object");
+
+        out.write(data, 2, 3);
+        out.write('a');
+        out.write(data);
+        out.close();
+
+        Assert.assertTrue(out.isClosed());
+        Assert.assertEquals(new String(objects.get("/user/stor/object"), StandardCharsets.UTF_8),
+                "234a0123456789");
+        Assert.assertEquals(out.getObjectResponse().getContentLength(), Long.valueOf(14L));
+    }
+
+    public void uploadsEmptyObjectWhenNothingIsWritten() throws IOException {
+        final MantaObjectOutputStream out = client.putAsOutputStream("/user/stor/empty");
+        out.close();
+        out.close();
+
+        Assert.assertEquals(objects.get("/user/stor/empty").length, 0);
+        Assert.assertEquals(out.getObjectResponse().getContentLength(), Long.valueOf(0L));
+    }
+
+    public void openingAndClosingDoesNotPoll() throws IOException {
+        final byte[] data = new byte[100];
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < UPLOADS; i++) {
+            try (MantaObjectOutputStream out = client.putAsOutputStream("/user/stor/small-" + i)) {
+                out.write(data);
+            }
+        }
+
+        // Polling in 50 ms steps to open and close each stream took at least a second
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue(elapsed < UPLOADS * 50, "Uploads took " + elapsed + " ms");
+        Assert.assertEquals(objects.size(), UPLOADS);
+    }
+
+    public void bufferedStreamUploadsWrittenData() throws IOException {
+        uploadsThroughBuffer(false);
+    }
+
+    public void bufferedStreamUploadsWrittenDataWithDirectBuffer() throws IOException {
+        uploadsThroughBuffer(true);
+    }
+
+    public void boundedUploadExecutorRejectsStreamsWhenBusy() throws IOException {
+        final StandardConfigContext config = server.config();
+        config.setUploadThreads(1)
+              .setUploadQueueSize(0);
+
+        final MantaClient bounded = new MantaClient(config);
+
+        try {
+            final MantaObjectOutputStream out = bounded.putAsOutputStream("/user/stor/first");
+            out.write(1);
+
+            try {
+                bounded.putAsOutputStream("/user/stor/second");
+                Assert.fail("Expected second stream to be rejected");
+            } catch (RejectedExecutionException e) {
+                Assert.assertEquals(bounded.getUploadExecutor().getRejectedCount(), 1L);
+                Assert.assertEquals(bounded.getUploadExecutor().getActiveCount(), 1);
+            }
+
+            out.close();
+
+            Assert.assertEquals(objects.get("/user/stor/first"), new byte[] {1});
+            Assert.assertEquals(bounded.getUploadExecutor().getActiveCount(), 0);
+        } finally {
+            bounded.closeQuietly();
+        }
+    }
+
+    public void closingUploadExecutorDoesNotStoreTruncatedObject() throws IOException {
+        final StandardConfigContext config = server.config();
+        config.setUploadThreads(1);
+
+        final MantaClient bounded = new MantaClient(config);
+
+        try {
+            final MantaObjectOutputStream out = bounded.putAsOutputStream("/user/stor/truncated");
+            out.write(new byte[1000]);
+            out.flush();
+
+            bounded.getUploadExecutor().close(10, TimeUnit.MILLISECONDS);
+
+            try {
+                out.close();
+                Assert.fail("Expected interrupted upload to fail");
+            } catch (IOException e) {
+                Assert.assertTrue(out.isClosed());
+            }
+
+            Assert.assertFalse(objects.containsKey("/user/stor/truncated"));
+        } finally {
+            bounded.closeQuietly();
+        }
+    }
+
+    public void writeFailsWhenUploadCantStart() throws Exception {
+        final int port;
+
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+
+        final MantaClient unreachable = new MantaClient(LocalMantaServer.config(String.format("http://%s:%d",
+                InetAddress.getLoopbackAddress().getHostAddress(), port)));
+
+        try {
+            final MantaObjectOutputStream out = unreachable.putAsOutputStream("/user/stor/object");
+
+            try {
+                out.write(1);
+                Assert.fail("Expected write to fail");
+            } catch (IOException e) {
+                Assert.assertNotNull(e.getCause());
+            }
+
+            try {
+                out.close();
+                Assert.fail("Expected close to fail");
+            } catch (IOException e) {
+                Assert.assertTrue(out.isClosed());
+            }
+        } finally {
+            unreachable.closeQuietly();
+        }
+    }
+
+    private void uploadsThroughBuffer(final boolean direct) throws IOException {
+        final StandardConfigContext config = server.config();
+        config.setUploadBufferSize(1000)
+              .setUploadBufferDirect(direct);
+
+        final MantaClient buffered = new MantaClient(config);
+        final byte[] data = new byte[50_000];
+        new Random(3).nextBytes(data);
+
+        try {
+            final MantaObjectOutputStream out = buffered.putAsOutputStream("/user/stor/buffered");
+
+            out.write(data[0]);
+            out.write(data, 1, 20_000);
+            out.flush();
+            out.write(data, 20_001, data.length - 20_001);
+            out.close();
+
+            Assert.assertEquals(objects.get("/user/stor/buffered"), data);
+            Assert.assertEquals(out.getObjectResponse().getContentLength(), Long.valueOf(data.length));
+        } finally {
+            buffered.closeQuietly();
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            objects.put(exchange.getRequestURI().getPath(), MantaUtils.inputStreamToBytes(in, null));
+        }
+
+        exchange.getResponseHeaders().set("ETag", "etag");
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for concurrent positional reads with {@link MantaRandomAccessObject}
+ * against a local HTTP server.
+ */
+@Test
+public class MantaRandomAccessObjectTest {
+    private static final int OBJECT_SIZE = 256 * 1024;
+
+    private final byte[] object = new byte[OBJECT_SIZE];
+
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    private LocalMantaServer server;
+
+    private HttpRequestFactory requestFactory;
+
+    private GenericUrl url;
+
+    private volatile String etag;
+
+    private volatile CountDownLatch received;
+
+    private volatile CountDownLatch gate;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        for (int i = 0; i < object.length; i++) {
+            object[i] = (byte)(i * 31);
+        }
+
+        server = new LocalMantaServer(this::handle);
+
+        url = new GenericUrl(server.getUrl() + "/user/stor/object");
+        requestFactory = new NetHttpTransport().createRequestFactory();
+    }
+
+    @BeforeMethod
+    public void reset() {
+        ranges.clear();
+        etag = "etag";
+        received = new CountDownLatch(1);
+        gate = new CountDownLatch(0);
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void concurrentReadsReturnObjectData() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            final List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                final Random random = new Random(t);
+
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        final int position = random.nextInt(OBJECT_SIZE);
+                        final int length = 1 + random.nextInt(8192);
+                        final ByteBuffer buffer = ByteBuffer.allocate(length);
+
+                        final int read = rao.read(buffer, position);
+                        final int expected = Math.min(length, OBJECT_SIZE - position);
+
+                        Assert.assertEquals(read, expected);
+                        Assert.assertEquals(Arrays.copyOf(buffer.array(), read),
+                                Arrays.copyOfRange(object, position, position + expected));
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void sequentialReadsReuseConnection() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            Assert.assertEquals(readBytes(rao, 0, 1000), Arrays.copyOfRange(object, 0, 1000));
+            Assert.assertEquals(readBytes(rao, 1000, 1000), Arrays.copyOfRange(object, 1000, 2000));
+            Assert.assertEquals(readBytes(rao, 2500, 500), Arrays.copyOfRange(object, 2500, 3000));
+
+            Assert.assertEquals(ranges, Arrays.asList("HEAD", "bytes=0-66535"));
+            Assert.assertEquals(rao.getRangeRequests(), 1L);
+            Assert.assertEquals(rao.getReusedConnections(), 2L);
+        }
+    }
+
+    public void readsPastReusedRangeRequestNewRange() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            Assert.assertEquals(readBytes(rao, 0, 10), Arrays.copyOfRange(object, 0, 10));
+            Assert.assertEquals(readBytes(rao, 60_000, 10_000), Arrays.copyOfRange(object, 60_000, 70_000));
+
+            Assert.assertEquals(ranges, Arrays.asList("HEAD", "bytes=0-65545", "bytes=65546-135535"));
+            Assert.assertEquals(rao.getReusedConnections(), 1L);
+        }
+    }
+
+    public void rangesAreTruncatedAtEndOfObject() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            Assert.assertEquals(readBytes(rao, OBJECT_SIZE - 100, 50),
+                    Arrays.copyOfRange(object, OBJECT_SIZE - 100, OBJECT_SIZE - 50));
+
+            Assert.assertEquals(ranges, Arrays.asList("HEAD",
+                    String.format("bytes=%d-%d", OBJECT_SIZE - 100, OBJECT_SIZE - 1)));
+        }
+    }
+
+    public void backwardReadsRequestNewRanges() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            Assert.assertEquals(readBytes(rao, 5000, 10), Arrays.copyOfRange(object, 5000, 5010));
+            Assert.assertEquals(readBytes(rao, 100, 10), Arrays.copyOfRange(object, 100, 110));
+
+            Assert.assertEquals(ranges, Arrays.asList("HEAD", "bytes=5000-70545", "bytes=100-65645"));
+        }
+    }
+
+    public void readsWithinInFlightRangeAreCoalesced() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final CountDownLatch coalesced = new CountDownLatch(1);
+        gate = new CountDownLatch(1);
+
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            rao.setCoalescedListener(coalesced::countDown);
+            rao.size();
+
+            final Future<byte[]> outer = executor.submit(() -> readBytes(rao, 0, 10_000));
+            Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+
+            final Future<byte[]> inner = executor.submit(() -> readBytes(rao, 100, 200));
+            Assert.assertTrue(coalesced.await(5, TimeUnit.SECONDS));
+
+            gate.countDown();
+
+            Assert.assertEquals(outer.get(5, TimeUnit.SECONDS), Arrays.copyOfRange(object, 0, 10_000));
+            Assert.assertEquals(inner.get(5, TimeUnit.SECONDS), Arrays.copyOfRange(object, 100, 300));
+            Assert.assertEquals(rao.getRangeRequests(), 1L);
+            Assert.assertEquals(rao.getCoalescedReads(), 1L);
+        } finally {
+            gate.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    public void canReadIntoDirectBuffer() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+            buffer.position(10);
+
+            Assert.assertEquals(rao.read(buffer, 50), 90);
+            Assert.assertEquals(buffer.position(), 100);
+
+            buffer.position(10);
+            final byte[] actual = new byte[90];
+            buffer.get(actual);
+            Assert.assertEquals(actual, Arrays.copyOfRange(object, 50, 140));
+        }
+    }
+
+    public void readsAreTruncatedAtEndOfObject() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(100);
+
+            Assert.assertEquals(rao.read(buffer, OBJECT_SIZE - 10), 10);
+            Assert.assertEquals(rao.read(buffer, OBJECT_SIZE), -1);
+            Assert.assertEquals(rao.size(), (long)OBJECT_SIZE);
+        }
+    }
+
+    public void readsWithoutIdleConnectionsRequestEachRange() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 0)) {
+            readBytes(rao, 0, 10);
+            readBytes(rao, 10, 10);
+
+            Assert.assertEquals(rao.getRangeRequests(), 2L);
+            Assert.assertEquals(rao.getReusedConnections(), 0L);
+        }
+    }
+
+    @Test(expectedExceptions = HttpResponseException.class)
+    public void readsFailWhenObjectIsModified() throws IOException {
+        try (MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4)) {
+            rao.size();
+            etag = "modified";
+            readBytes(rao, 0, 10);
+        }
+    }
+
+    @Test(expectedExceptions = ClosedChannelException.class)
+    public void cantReadClosedObject() throws IOException {
+        final MantaRandomAccessObject rao = new MantaRandomAccessObject(url, requestFactory, 4);
+        rao.close();
+        rao.read(ByteBuffer.allocate(10), 0);
+    }
+
+    public void closingClientClosesObject() throws Exception {
+        final MantaClient client = new MantaClient(server.config());
+        final MantaRandomAccessObject rao = client.getRandomAccessObject("/user/stor/object");
+
+        Assert.assertEquals(readBytes(rao, 0, 10), Arrays.copyOfRange(object, 0, 10));
+
+        client.closeWithWarning();
+
+        Assert.assertFalse(rao.isOpen());
+    }
+
+    private static byte[] readBytes(final MantaRandomAccessObject rao, final long position,
+                                    final int count) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(count);
+        final int read = rao.read(buffer, position);
+
+        return Arrays.copyOf(buffer.array(), read);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("ETag", etag);
+
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            ranges.add("HEAD");
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(String.valueOf(range));
+        received.countDown();
+
+        try {
+            gate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+
+        if (ifMatch != null && !ifMatch.equals(etag)) {
+            exchange.sendResponseHeaders(412, -1);
+            exchange.close();
+            return;
+        }
+
+        final int start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+        final int end = Integer.parseInt(range.substring(range.indexOf('-') + 1));
+
+        exchange.getResponseHeaders().set("Content-Range",
+                String.format("bytes %d-%d/%d", start, end, object.length));
+        exchange.sendResponseHeaders(206, end - start + 1);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object, start, end - start + 1);
+        } catch (IOException e) {
+            // The client aborted the connection after reading what it needed
+        }
+    }
+}
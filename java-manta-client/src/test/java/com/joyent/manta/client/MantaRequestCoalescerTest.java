@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for sharing concurrent identical requests with {@link MantaRequestCoalescer}
+ * through {@link MantaClient} against a local HTTP server.
+ */
+@Test
+public class MantaRequestCoalescerTest {
+    private static final int THREADS = 8;
+
+    private static final int SMALL_OBJECT_SIZE = 1000;
+
+    private static final int LARGE_OBJECT_SIZE = 10_000;
+
+    private final AtomicInteger gets = new AtomicInteger();
+
+    private final AtomicInteger heads = new AtomicInteger();
+
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    private volatile CountDownLatch gate;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+    }
+
+    @BeforeMethod
+    public void createClient() throws IOException {
+        gets.set(0);
+        heads.set(0);
+        gate = new CountDownLatch(1);
+        client = new MantaClient(server.config().setCoalesceRequests(true).setCoalesceMaxBodySize(5000));
+    }
+
+    @AfterMethod
+    public void closeClient() {
+        gate.countDown();
+        client.closeQuietly();
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void concurrentGetsShareOneRequest() throws Exception {
+        final List<byte[]> results = concurrently(() -> client.getAsBytes("/user/stor/small"));
+
+        for (byte[] result : results) {
+            Assert.assertEquals(result, data(SMALL_OBJECT_SIZE));
+        }
+
+        Assert.assertEquals(gets.get(), 1);
+        Assert.assertEquals(client.getRequestCoalescer().getRequests(), 1L);
+        Assert.assertEquals(client.getRequestCoalescer().getCoalesced(), (long)THREADS - 1);
+    }
+
+    public void concurrentHeadsShareOneRequest() throws Exception {
+        final List<MantaObjectResponse> results = concurrently(() -> client.head("/user/stor/small"));
+
+        for (MantaObjectResponse result : results) {
+            Assert.assertEquals(result.getEtag(), "etag");
+            Assert.assertEquals(result.getContentLength(), Long.valueOf(SMALL_OBJECT_SIZE));
+        }
+
+        Assert.assertEquals(heads.get(), 1);
+    }
+
+    public void largeObjectsAreRequestedSeparately() throws Exception {
+        final List<byte[]> results = concurrently(() -> client.getAsBytes("/user/stor/large"));
+
+        for (byte[] result : results) {
+            Assert.assertEquals(result, data(LARGE_OBJECT_SIZE));
+        }
+
+        Assert.assertEquals(gets.get(), THREADS);
+        Assert.assertEquals(client.getRequestCoalescer().getRequests(), (long)THREADS);
+    }
+
+    public void failuresAreSharedWithWaiters() throws Exception {
+        try {
+            concurrently(() -> client.getAsBytes("/user/stor/missing"));
+            Assert.fail("Expected missing object to throw an exception");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MantaClientHttpResponseException);
+            Assert.assertEquals(((MantaClientHttpResponseException)e.getCause()).getStatusCode(), 404);
+        }
+
+        Assert.assertEquals(gets.get(), 1);
+    }
+
+    public void requestsWithHeadersAreNotCoalesced() throws IOException {
+        gate.countDown();
+        final MantaHttpHeaders headers = new MantaHttpHeaders();
+        headers.setRange("bytes=0-9");
+
+        try (MantaObjectInputStream in = client.getAsInputStream("/user/stor/small", headers)) {
+            MantaUtils.inputStreamToBytes(in, null);
+        }
+
+        Assert.assertEquals(client.getRequestCoalescer().getRequests(), 0L);
+    }
+
+    public void coalescingIsDisabledByDefault() throws IOException {
+        final MantaClient uncoalesced = new MantaClient(server.config());
+
+        try {
+            Assert.assertNull(uncoalesced.getRequestCoalescer());
+        } finally {
+            uncoalesced.closeQuietly();
+        }
+    }
+
+    /**
+     * Runs a request on several threads at once and releases the server once
+     * all but one of them are waiting on the in-flight request.
+     */
+    private <T> List<T> concurrently(final Callable<T> request) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch waiting = new CountDownLatch(THREADS - 1);
+        client.getRequestCoalescer().setCoalescedListener(waiting::countDown);
+
+        try {
+            final List<Future<T>> futures = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(request));
+            }
+
+            Assert.assertTrue(waiting.await(5, TimeUnit.SECONDS));
+            gate.countDown();
+
+            final List<T> results = new ArrayList<>();
+
+            for (Future<T> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] data(final int size) {
+        final byte[] data = new byte[size];
+        Arrays.fill(data, (byte)'x');
+        return data;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final boolean head = exchange.getRequestMethod().equals("HEAD");
+
+        if (head) {
+            heads.incrementAndGet();
+        } else {
+            gets.incrementAndGet();
+        }
+
+        try {
+            gate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (path.endsWith("/missing")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] data;
+
+        if (path.endsWith("/large")) {
+            data = data(LARGE_OBJECT_SIZE);
+        } else {
+            data = data(SMALL_OBJECT_SIZE);
+        }
+
+        int start = 0;
+        int length = data.length;
+        int status = 200;
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+
+        if (range != null) {
+            final String[] bounds = range.substring("bytes=".length()).split("-");
+            start = Integer.parseInt(bounds[0]);
+            length = Integer.parseInt(bounds[1]) - start + 1;
+            status = 206;
+            exchange.getResponseHeaders().set("Content-Range",
+                    String.format("bytes %d-%d/%d", start, start + length - 1, data.length));
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("ETag", "etag");
+
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(data.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data, start, length);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests for seeking and reading with {@link MantaSeekableByteChannel} against
+ * a local HTTP server.
+ */
+@Test
+public class MantaSeekableByteChannelTest {
+    private static final int OBJECT_SIZE = 256 * 1024;
+
+    private final byte[] object = new byte[OBJECT_SIZE];
+
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    private LocalMantaServer server;
+
+    private HttpRequestFactory requestFactory;
+
+    private GenericUrl url;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        for (int i = 0; i < object.length; i++) {
+            object[i] = (byte)(i * 31);
+        }
+
+        server = new LocalMantaServer(this::handle);
+
+        url = new GenericUrl(server.getUrl() + "/user/stor/object");
+        requestFactory = new NetHttpTransport().createRequestFactory();
+    }
+
+    @BeforeMethod
+    public void reset() {
+        ranges.clear();
+    }
+
+    @AfterClass
+    public void teardown() {
+        server.close();
+    }
+
+    public void canReadIntoDirectBuffer() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, requestFactory)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+            buffer.position(10);
+
+            final int read = channel.read(buffer);
+
+            Assert.assertEquals(read, 90);
+            Assert.assertEquals(buffer.position(), 100);
+            Assert.assertEquals(channel.position(), 90L);
+
+            buffer.position(10);
+            final byte[] actual = new byte[90];
+            buffer.get(actual);
+            Assert.assertEquals(actual, Arrays.copyOfRange(object, 0, 90));
+        }
+    }
+
+    public void readsRespectHeapBufferPositionAndLimit() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, 5, requestFactory)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(20);
+            buffer.position(4).limit(12);
+
+            Assert.assertEquals(channel.read(buffer), 8);
+            Assert.assertEquals(buffer.position(), 12);
+            Assert.assertEquals(Arrays.copyOfRange(buffer.array(), 4, 12), Arrays.copyOfRange(object, 5, 13));
+            Assert.assertEquals(buffer.array()[0], 0, "Bytes before the position shouldn't be written");
+        }
+    }
+
+    public void positionSeeksInPlace() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, requestFactory)) {
+            Assert.assertSame(channel.position(1000), channel);
+            Assert.assertEquals(channel.position(), 1000L);
+            Assert.assertTrue(ranges.isEmpty(), "Seeking shouldn't perform requests");
+
+            Assert.assertEquals(readBytes(channel, 10), Arrays.copyOfRange(object, 1000, 1010));
+            Assert.assertEquals(ranges, Arrays.asList("bytes=1000-"));
+        }
+    }
+
+    public void smallForwardSeekReusesResponse() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, requestFactory)) {
+            readBytes(channel, 10);
+            channel.position(10 + 1024);
+
+            Assert.assertEquals(readBytes(channel, 10), Arrays.copyOfRange(object, 1034, 1044));
+            Assert.assertEquals(ranges.size(), 1, "Small seek shouldn't open a new range: " + ranges);
+        }
+    }
+
+    public void largeForwardAndBackwardSeeksRequestNewRanges() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, requestFactory)) {
+            readBytes(channel, 10);
+
+            final int far = (int)(10 + MantaSeekableByteChannel.SKIP_THRESHOLD + 1);
+            channel.position(far);
+            Assert.assertEquals(readBytes(channel, 10), Arrays.copyOfRange(object, far, far + 10));
+
+            channel.position(3);
+            Assert.assertEquals(readBytes(channel, 10), Arrays.copyOfRange(object, 3, 13));
+
+            Assert.assertEquals(ranges, Arrays.asList("bytes=0-", "bytes=" + far + "-", "bytes=3-"));
+        }
+    }
+
+    public void sizeIsObjectSizeWhenOpenedAtOffset() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, 1000, requestFactory)) {
+            Assert.assertEquals(channel.size(), (long)OBJECT_SIZE);
+        }
+    }
+
+    public void skipDoesNotReadData() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, requestFactory)) {
+            final long size = channel.size();
+            ranges.clear();
+
+            Assert.assertEquals(channel.skip(100_000), 100_000L);
+            Assert.assertEquals(channel.skip(size), size - 100_000L);
+            Assert.assertEquals(channel.position(), size);
+            Assert.assertTrue(ranges.isEmpty(), "Skipping shouldn't perform requests");
+            Assert.assertEquals(channel.read(), -1);
+        }
+    }
+
+    public void readPastEndReturnsEof() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, OBJECT_SIZE + 10,
+                requestFactory)) {
+            Assert.assertEquals(channel.read(ByteBuffer.allocate(10)), -1);
+            Assert.assertEquals(channel.size(), (long)OBJECT_SIZE);
+        }
+    }
+
+    public void canReadEntireObjectAsStream() throws IOException {
+        try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, requestFactory)) {
+            final byte[] actual = readBytes(channel, OBJECT_SIZE);
+
+            Assert.assertEquals(actual, object);
+            Assert.assertEquals(channel.read(), -1);
+        }
+    }
+
+    @Test(expectedExceptions = ClosedChannelException.class)
+    public void cantSeekClosedChannel() throws IOException {
+        final MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, requestFactory);
+        channel.close();
+        channel.position(10);
+    }
+
+    private static byte[] readBytes(final MantaSeekableByteChannel channel, final int count) throws IOException {
+        final byte[] bytes = new byte[count];
+        int filled = 0;
+
+        while (filled < count) {
+            final int read = channel.read(bytes, filled, count - filled);
+
+            if (read == -1) {
+                break;
+            }
+
+            filled += read;
+        }
+
+        return Arrays.copyOf(bytes, filled);
+    }
+
+    public void cachedChannelServesRepeatedReadsFromCache() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(1024 * 1024, 16 * 1024, true);
+             MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, 0, requestFactory, cache)) {
+            final int footer = OBJECT_SIZE - 100;
+            channel.position(footer);
+            Assert.assertEquals(readBytes(channel, 100), Arrays.copyOfRange(object, footer, OBJECT_SIZE));
+
+            channel.position(footer + 10);
+            Assert.assertEquals(readBytes(channel, 50), Arrays.copyOfRange(object, footer + 10, footer + 60));
+
+            Assert.assertEquals(channel.size(), (long)OBJECT_SIZE);
+            Assert.assertEquals(ranges, Arrays.asList("HEAD", "bytes=245760-262143"));
+            Assert.assertEquals(cache.getHits(), 1L);
+        }
+    }
+
+    public void cachedChannelsShareBlocks() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(1024 * 1024, 16 * 1024, false)) {
+            try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, 100, requestFactory, cache)) {
+                Assert.assertEquals(readBytes(channel, 10), Arrays.copyOfRange(object, 100, 110));
+            }
+
+            try (MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, 200, requestFactory, cache)) {
+                Assert.assertEquals(readBytes(channel, 10), Arrays.copyOfRange(object, 200, 210));
+            }
+
+            Assert.assertEquals(ranges, Arrays.asList("HEAD", "bytes=0-16383", "HEAD"));
+        }
+    }
+
+    public void cachedChannelCanReadEntireObjectWithPrefetching() throws IOException {
+        try (MantaBlockCache cache = new MantaBlockCache(1024 * 1024, 10_000, false);
+             MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, 0, requestFactory, cache)) {
+            Assert.assertEquals(readBytes(channel, OBJECT_SIZE + 10), object);
+            Assert.assertEquals(channel.read(ByteBuffer.allocate(1)), -1);
+
+            final long fetches = ranges.stream().filter(r -> r.startsWith("bytes=")).count();
+            Assert.assertEquals(fetches, (OBJECT_SIZE + 9_999) / 10_000, "Each block should be fetched once");
+        }
+    }
+
+    public void cachedChannelPrefetchesNextBlockOnSequentialReads() throws Exception {
+        try (InlinePrefetchCache cache = new InlinePrefetchCache(1024 * 1024, 10_000);
+             MantaSeekableByteChannel channel = new MantaSeekableByteChannel(url, 0, requestFactory, cache)) {
+            readBytes(channel, 20_000);
+
+            Assert.assertEquals(cache.prefetched, Arrays.asList(2L));
+            Assert.assertEquals(cache.getCachedBytes(), 30_000L);
+
+            // Reading the prefetched block prefetches the one after it
+            Assert.assertEquals(readBytes(channel, 100), Arrays.copyOfRange(object, 20_000, 20_100));
+            Assert.assertEquals(cache.getHits(), 1L);
+            Assert.assertEquals(cache.prefetched, Arrays.asList(2L, 3L));
+            Assert.assertEquals(ranges, Arrays.asList("HEAD", "bytes=0-9999", "bytes=10000-19999",
+                    "bytes=20000-29999", "bytes=30000-39999"));
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("ETag", "etag");
+
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            ranges.add("HEAD");
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(String.valueOf(range));
+
+        final String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+
+        if (ifMatch != null && !ifMatch.equals("etag")) {
+            exchange.sendResponseHeaders(412, -1);
+            exchange.close();
+            return;
+        }
+
+        if (range == null) {
+            respond(exchange, 200, 0, object.length);
+            return;
+        }
+
+        final int start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+        final String endValue = range.substring(range.indexOf('-') + 1);
+        int end = object.length - 1;
+
+        if (!endValue.isEmpty()) {
+            end = Math.min(end, Integer.parseInt(endValue));
+        }
+
+        if (start >= object.length) {
+            exchange.getResponseHeaders().set("Content-Range", "bytes */" + object.length);
+            exchange.sendResponseHeaders(416, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Range",
+                String.format("bytes %d-%d/%d", start, end, object.length));
+        respond(exchange, 206, start, end - start + 1);
+    }
+
+    private void respond(final HttpExchange exchange, final int status,
+                         final int offset, final int length) throws IOException {
+        exchange.sendResponseHeaders(status, length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object, offset, length);
+        } catch (IOException e) {
+            // The client aborted the connection after reading what it needed
+        }
+    }
+
+    /**
+     * Block cache that prefetches on the reading thread, so that tests can
+     * check which blocks were prefetched without waiting for the prefetch
+     * threads.
+     */
+    private static final class InlinePrefetchCache extends MantaBlockCache {
+        private final List<Long> prefetched = new CopyOnWriteArrayList<>();
+
+        private InlinePrefetchCache(final long maxBytes, final int blockSize) {
+            super(maxBytes, blockSize, false);
+        }
+
+        @Override
+        void prefetch(final String path, final String etag, final long index, final BlockLoader loader) {
+            prefetched.add(index);
+
+            try {
+                get(path, etag, index, loader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
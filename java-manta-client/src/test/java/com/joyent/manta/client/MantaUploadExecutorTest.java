@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for running output stream uploads with {@link MantaUploadExecutor}.
+ */
+@Test
+public class MantaUploadExecutorTest {
+    public void boundedPoolQueuesUploadsAndCountsThem() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try (MantaUploadExecutor executor = new MantaUploadExecutor(2, 10, false)) {
+            final Future<?>[] uploads = new Future<?>[5];
+
+            for (int i = 0; i < uploads.length; i++) {
+                uploads[i] = executor.submit(() -> {
+                    started.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                });
+            }
+
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(executor.getActiveCount(), 2);
+            Assert.assertEquals(executor.getQueuedCount(), 3);
+            Assert.assertEquals(executor.getMaximumThreads(), 2);
+
+            release.countDown();
+
+            for (Future<?> upload : uploads) {
+                upload.get(5, TimeUnit.SECONDS);
+            }
+
+            Assert.assertEquals(executor.getActiveCount(), 0);
+            Assert.assertEquals(executor.getQueuedCount(), 0);
+            Assert.assertEquals(executor.getRejectedCount(), 0L);
+        }
+    }
+
+    public void poolWithoutQueueRejectsUploadsWhenBusy() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try (MantaUploadExecutor executor = new MantaUploadExecutor(1, 0, false)) {
+            final Future<?> running = executor.submit(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            });
+
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            try {
+                executor.submit(() -> null);
+                Assert.fail("Expected upload to be rejected");
+            } catch (RejectedExecutionException e) {
+                Assert.assertEquals(executor.getRejectedCount(), 1L);
+                Assert.assertEquals(executor.getQueuedCount(), 0);
+            }
+
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public void closeInterruptsRunningAndCancelsQueuedUploads() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch dropped = new CountDownLatch(2);
+        final MantaUploadExecutor executor = new MantaUploadExecutor(1, 10, false);
+
+        final Future<?> running = executor.submit(() -> {
+            started.countDown();
+            return new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+        });
+        final Future<?> first = executor.submit(() -> null, dropped::countDown);
+        final Future<?> second = executor.submit(() -> null, dropped::countDown);
+
+        started.await(5, TimeUnit.SECONDS);
+        Assert.assertEquals(executor.getQueuedCount(), 2);
+
+        executor.close(10, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(dropped.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(first.isCancelled());
+        Assert.assertTrue(second.isCancelled());
+        Assert.assertEquals(executor.getQueuedCount(), 0);
+
+        try {
+            running.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected running upload to be interrupted");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof InterruptedException);
+        }
+
+        Assert.assertEquals(executor.getActiveCount(), 0);
+    }
+
+    public void closeWaitsForRunningUploads() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final MantaUploadExecutor executor = new MantaUploadExecutor(1, 1, false);
+
+        final Future<String> running = executor.submit(() -> {
+            started.countDown();
+            Thread.sleep(100);
+            return "done";
+        });
+
+        started.await(5, TimeUnit.SECONDS);
+        executor.close(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(running.get(), "done");
+    }
+
+    public void virtualThreadsFallBackToPoolWhenUnsupported() throws Exception {
+        try (MantaUploadExecutor executor = new MantaUploadExecutor(1, 1, true)) {
+            Assert.assertEquals(executor.isVirtualThreads(), virtualThreadsSupported());
+            Assert.assertEquals(executor.submit(() -> "done").get(5, TimeUnit.SECONDS), "done");
+        }
+    }
+
+    public void sharedPoolIsNotShutDownOnClose() throws Exception {
+        new MantaUploadExecutor().close();
+
+        Assert.assertFalse(MantaObjectOutputStream.EXECUTOR.isShutdown());
+    }
+
+    private static boolean virtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
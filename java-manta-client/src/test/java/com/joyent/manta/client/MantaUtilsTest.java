@@ -6,6 +6,11 @@ package com.joyent.manta.client;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
@@ -141,4 +146,89 @@ public class MantaUtilsTest {
             Assert.assertFalse(MantaUtils.parseBooleanOrNull(s), errMsg);
         }
     }
+
+    @Test
+    public void canReadStreamToBytesWithKnownLength() throws IOException {
+        final byte[] data = bytes(10_000);
+        final byte[] actual = MantaUtils.inputStreamToBytes(new ByteArrayInputStream(data), 10_000L);
+
+        Assert.assertTrue(Arrays.equals(actual, data));
+    }
+
+    @Test
+    public void canReadStreamToBytesWithUnknownLength() throws IOException {
+        final byte[] data = bytes(100_000);
+        final byte[] actual = MantaUtils.inputStreamToBytes(new ByteArrayInputStream(data), null);
+
+        Assert.assertTrue(Arrays.equals(actual, data));
+    }
+
+    @Test
+    public void canReadStreamToBytesLongerThanExpected() throws IOException {
+        final byte[] data = bytes(10_000);
+        final byte[] actual = MantaUtils.inputStreamToBytes(new ByteArrayInputStream(data), 100L);
+
+        Assert.assertTrue(Arrays.equals(actual, data));
+    }
+
+    @Test
+    public void canReadStreamToBytesShorterThanExpected() throws IOException {
+        final byte[] data = bytes(100);
+        final byte[] actual = MantaUtils.inputStreamToBytes(new ByteArrayInputStream(data), 10_000L);
+
+        Assert.assertTrue(Arrays.equals(actual, data));
+    }
+
+    @Test
+    public void canReadEmptyStreamToBytes() throws IOException {
+        Assert.assertEquals(MantaUtils.inputStreamToBytes(new ByteArrayInputStream(new byte[0]), 0L).length, 0);
+        Assert.assertEquals(MantaUtils.inputStreamToBytes(new ByteArrayInputStream(new byte[0]), null).length, 0);
+    }
+
+    @Test
+    public void canDecodeBytes() throws IOException {
+        final String expected = "Ce n'est pas une pipe \u2603";
+        final ByteBuffer bytes = ByteBuffer.wrap(expected.getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(MantaUtils.decode(bytes, StandardCharsets.UTF_8), expected);
+    }
+
+    @Test
+    public void decodingReplacesMalformedInput() throws IOException {
+        final ByteBuffer bytes = ByteBuffer.wrap(new byte[] {'a', (byte)0xff, 'b'});
+
+        Assert.assertEquals(MantaUtils.decode(bytes, StandardCharsets.UTF_8), "a\ufffdb");
+    }
+
+    @Test
+    public void decodesOnlyRemainingBytesOfSlice() {
+        final byte[] array = "xxCe n'est pas une pipe \u2603yy".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer whole = ByteBuffer.wrap(array);
+        whole.position(1).limit(array.length - 1);
+        final ByteBuffer slice = whole.slice();
+        slice.position(1).limit(slice.limit() - 1);
+
+        Assert.assertEquals(MantaUtils.decode(slice, StandardCharsets.UTF_8), "Ce n'est pas une pipe \u2603");
+        Assert.assertFalse(slice.hasRemaining());
+    }
+
+    @Test
+    public void canDecodeDirectBuffer() {
+        final byte[] array = "Ce n'est pas une pipe \u2603".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(array.length);
+        bytes.put(array).flip();
+
+        Assert.assertEquals(MantaUtils.decode(bytes, StandardCharsets.UTF_8), "Ce n'est pas une pipe \u2603");
+        Assert.assertFalse(bytes.hasRemaining());
+    }
+
+    private static byte[] bytes(final int size) {
+        final byte[] data = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte)i;
+        }
+
+        return data;
+    }
 }
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests for fetching batches of objects with {@link MantaClient#getAll(java.util.Collection, int, boolean)}
+ * against a local HTTP server.
+ */
+@Test
+public class ParallelBatchDownloaderTest {
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+
+        client = new MantaClient(server.config());
+    }
+
+    @BeforeMethod
+    public void reset() {
+        requests.set(0);
+        active.set(0);
+        maxActive.set(0);
+    }
+
+    @AfterClass
+    public void teardown() {
+        client.closeQuietly();
+        server.close();
+    }
+
+    public void fetchesAllObjectsAndReportsFailures() {
+        final List<String> paths = paths(20);
+        paths.add("/user/stor/missing");
+
+        final List<MantaBatchResult> results;
+
+        try (Stream<MantaBatchResult> stream = client.getAll(paths, 4)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        Assert.assertEquals(results.size(), paths.size());
+
+        final Set<String> fetched = new HashSet<>();
+
+        for (MantaBatchResult result : results) {
+            fetched.add(result.getPath());
+            Assert.assertEquals(result.getPath(), paths.get(result.getIndex()));
+
+            if (result.getPath().endsWith("/missing")) {
+                Assert.assertFalse(result.isSuccessful());
+                Assert.assertNull(result.getData());
+                Assert.assertTrue(result.getException() instanceof MantaClientHttpResponseException);
+                Assert.assertEquals(((MantaClientHttpResponseException)result.getException()).getStatusCode(), 404);
+            } else {
+                Assert.assertTrue(result.isSuccessful());
+                Assert.assertEquals(new String(result.getData(), StandardCharsets.UTF_8), result.getPath());
+            }
+        }
+
+        Assert.assertEquals(fetched, new HashSet<>(paths));
+    }
+
+    public void preservesInputOrder() {
+        final List<String> paths = new ArrayList<>();
+
+        // Earlier paths are slower, so they complete after later paths
+        for (int i = 0; i < 12; i++) {
+            paths.add(String.format("/user/stor/slow-%d/object-%d", (12 - i) * 5, i));
+        }
+
+        final List<String> returned;
+
+        try (Stream<MantaBatchResult> stream = client.getAll(paths, 4, true)) {
+            returned = stream.map(MantaBatchResult::getPath).collect(Collectors.toList());
+        }
+
+        Assert.assertEquals(returned, paths);
+    }
+
+    public void limitsConcurrentRequests() {
+        final List<String> paths = new ArrayList<>();
+
+        for (int i = 0; i < 24; i++) {
+            paths.add(String.format("/user/stor/slow-20/object-%d", i));
+        }
+
+        try (Stream<MantaBatchResult> stream = client.getAll(paths, 3)) {
+            Assert.assertEquals(stream.filter(MantaBatchResult::isSuccessful).count(), 24L);
+        }
+
+        Assert.assertEquals(requests.get(), 24);
+        Assert.assertTrue(maxActive.get() <= 3, "Too many concurrent requests: " + maxActive.get());
+        Assert.assertTrue(maxActive.get() > 1, "Requests were not made concurrently");
+    }
+
+    public void closingStreamCancelsRemainingRequests() throws InterruptedException {
+        final List<String> paths = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            paths.add(String.format("/user/stor/slow-10/object-%d", i));
+        }
+
+        final ParallelBatchDownloader downloader = new ParallelBatchDownloader(client, paths, 2, false);
+        Assert.assertTrue(downloader.next().isSuccessful());
+        downloader.close();
+
+        final int afterClose = requests.get();
+        Assert.assertTrue(downloader.awaitTermination(5, TimeUnit.SECONDS));
+
+        Assert.assertTrue(requests.get() <= afterClose + 2, "Requests continued after close");
+        Assert.assertTrue(requests.get() < paths.size());
+    }
+
+    public void emptyBatchReturnsEmptyStream() {
+        try (Stream<MantaBatchResult> stream = client.getAll(Collections.emptyList(), 4)) {
+            Assert.assertEquals(stream.count(), 0L);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsInvalidConcurrency() {
+        client.getAll(paths(1), 0);
+    }
+
+    private static List<String> paths(final int count) {
+        final List<String> paths = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            paths.add(String.format("/user/stor/object-%d", i));
+        }
+
+        return paths;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        requests.incrementAndGet();
+        final int current = active.incrementAndGet();
+        maxActive.accumulateAndGet(current, Math::max);
+
+        try {
+            if (path.startsWith("/user/stor/slow-")) {
+                final String delay = path.substring("/user/stor/slow-".length(), path.lastIndexOf('/'));
+                Thread.sleep(Long.parseLong(delay));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet();
+        }
+
+        if (path.endsWith("/missing")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] data = path.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, data.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.manta.config.StandardConfigContext;
+import com.joyent.manta.exception.MantaClientException;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import org.apache.commons.codec.binary.Base64;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.joyent.manta.client.MantaObjectResponse.DIRECTORY_RESPONSE_CONTENT_TYPE;
+
+/**
+ * Tests for {@link ParallelRangeDownloader} against a local HTTP server.
+ */
+@Test
+public class ParallelRangeDownloaderTest {
+    private static final int OBJECT_SIZE = 100_000;
+
+    private final byte[] object = new byte[OBJECT_SIZE];
+
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+
+    private volatile String etag;
+
+    private volatile String headEtag;
+
+    private volatile String md5;
+
+    private volatile boolean honorRanges;
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        new Random(1).nextBytes(object);
+
+        server = new LocalMantaServer(this::handle);
+        client = new MantaClient(server.config());
+    }
+
+    @BeforeMethod
+    public void reset() throws Exception {
+        rangeRequests.set(0);
+        etag = "etag";
+        headEtag = "etag";
+        md5 = Base64.encodeBase64String(MessageDigest.getInstance("MD5").digest(object));
+        honorRanges = true;
+    }
+
+    @AfterClass
+    public void teardown() {
+        if (client != null) {
+            client.closeQuietly();
+        }
+
+        server.close();
+    }
+
+    public void canDownloadInParallelRanges() throws Exception {
+        final Path target = Files.createTempFile("manta-range", "tmp");
+
+        try {
+            final MantaObjectResponse response = client.getToPath("/user/stor/object", target, 4, 16_384);
+
+            Assert.assertEquals(response.getContentLength(), Long.valueOf(OBJECT_SIZE));
+            Assert.assertTrue(Arrays.equals(Files.readAllBytes(target), object), "Downloaded data differs");
+            Assert.assertEquals(rangeRequests.get(), 7);
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    public void completedRangesReuseConnections() throws Exception {
+        final Path target = Files.createTempFile("manta-range", "tmp");
+        final long opened = client.getConnectionCounts().getOpened();
+
+        try {
+            client.getToPath("/user/stor/object", target, 1, 16_384);
+
+            final MantaConnectionCounts counts = client.getConnectionCounts();
+            Assert.assertEquals(rangeRequests.get(), 7);
+            Assert.assertTrue(counts.getOpened() - opened <= 1L,
+                    "Ranges opened new connections: " + counts);
+            Assert.assertEquals(counts.getLeased(), 0, "Connections weren't released: " + counts);
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    public void canDownloadWhenRangesAreIgnored() throws Exception {
+        honorRanges = false;
+        final Path target = Files.createTempFile("manta-range", "tmp");
+
+        try {
+            client.getToPath("/user/stor/object", target, 3, 40_000);
+            Assert.assertTrue(Arrays.equals(Files.readAllBytes(target), object), "Downloaded data differs");
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    public void canDownloadEmptyObject() throws Exception {
+        final Path target = Files.createTempFile("manta-range", "tmp");
+        Files.write(target, new byte[] {1, 2, 3});
+
+        try {
+            md5 = Base64.encodeBase64String(MessageDigest.getInstance("MD5").digest(new byte[0]));
+            client.getToPath("/user/stor/empty", target, 4, 1024);
+            Assert.assertEquals(Files.size(target), 0L);
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    public void newFilesHaveDefaultPermissions() throws Exception {
+        final Path directory = Files.createTempDirectory("manta-range");
+        final Path reference = Files.createFile(directory.resolve("reference"));
+        final Path target = directory.resolve("object");
+
+        try {
+            if (!supportsPosixPermissions(directory)) {
+                throw new SkipException("File system doesn't support POSIX permissions");
+            }
+
+            client.getToPath("/user/stor/object", target, 4, 16_384);
+
+            Assert.assertEquals(Files.getPosixFilePermissions(target), Files.getPosixFilePermissions(reference));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    public void replacedFilesKeepTheirPermissions() throws Exception {
+        final Path directory = Files.createTempDirectory("manta-range");
+        final Path target = Files.createFile(directory.resolve("object"));
+
+        try {
+            if (!supportsPosixPermissions(directory)) {
+                throw new SkipException("File system doesn't support POSIX permissions");
+            }
+
+            final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+            Files.setPosixFilePermissions(target, permissions);
+
+            client.getToPath("/user/stor/object", target, 4, 16_384);
+
+            Assert.assertTrue(Arrays.equals(Files.readAllBytes(target), object), "Downloaded data differs");
+            Assert.assertEquals(Files.getPosixFilePermissions(target), permissions);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    public void failsWhenObjectChanges() throws Exception {
+        final Path directory = Files.createTempDirectory("manta-range");
+        final Path target = directory.resolve("object");
+        Files.write(target, new byte[] {1, 2, 3});
+
+        try {
+            etag = "changed";
+            client.getToPath("/user/stor/object", target, 2, 16_384);
+            Assert.fail("Expected exception");
+        } catch (MantaClientHttpResponseException e) {
+            Assert.assertEquals(e.getStatusCode(), 412);
+            assertOnlyFileIsUnchanged(directory, target);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    public void ignoresCachedMetadata() throws Exception {
+        final StandardConfigContext config = server.config();
+        config.setMetadataCacheTtl(60_000);
+        final Path target = Files.createTempFile("manta-range", "tmp");
+
+        try (MantaClient cachingClient = new MantaClient(config)) {
+            Assert.assertEquals(cachingClient.head("/user/stor/object").getEtag(), "etag");
+
+            etag = "replaced";
+            headEtag = "replaced";
+            final MantaObjectResponse response = cachingClient.getToPath("/user/stor/object", target, 4, 16_384);
+
+            Assert.assertEquals(response.getEtag(), "replaced");
+            Assert.assertTrue(Arrays.equals(Files.readAllBytes(target), object), "Downloaded data differs");
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    public void failsWhenChecksumDiffers() throws Exception {
+        md5 = Base64.encodeBase64String(new byte[16]);
+        final Path directory = Files.createTempDirectory("manta-range");
+        final Path target = directory.resolve("object");
+        Files.write(target, new byte[] {1, 2, 3});
+
+        try {
+            client.getToPath("/user/stor/object", target, 4, 16_384);
+            Assert.fail("Expected exception");
+        } catch (MantaClientException e) {
+            assertOnlyFileIsUnchanged(directory, target);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test(expectedExceptions = MantaClientException.class)
+    public void failsForDirectories() throws Exception {
+        final Path target = Files.createTempFile("manta-range", "tmp");
+
+        try {
+            client.getToPath("/user/stor/dir", target, 4, 16_384);
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private static boolean supportsPosixPermissions(final Path directory) throws IOException {
+        return Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class);
+    }
+
+    private static void assertOnlyFileIsUnchanged(final Path directory, final Path target) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            Assert.assertEquals(files.collect(Collectors.toList()), Collections.singletonList(target));
+        }
+
+        Assert.assertEquals(Files.readAllBytes(target), new byte[] {1, 2, 3});
+    }
+
+    private static void deleteDirectory(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+
+        Files.delete(directory);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final String method = exchange.getRequestMethod();
+
+        if (path.equals("/user/stor/dir")) {
+            exchange.getResponseHeaders().set("Content-Type", DIRECTORY_RESPONSE_CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] body;
+
+        if (path.equals("/user/stor/empty")) {
+            body = new byte[0];
+        } else {
+            body = object;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("Content-MD5", md5);
+
+        if (method.equals("HEAD")) {
+            exchange.getResponseHeaders().set("ETag", headEtag);
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("ETag", etag);
+        final String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+
+        if (ifMatch != null && !ifMatch.equals(etag)) {
+            exchange.sendResponseHeaders(412, -1);
+            exchange.close();
+            return;
+        }
+
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+
+        if (range == null || !honorRanges) {
+            respond(exchange, 200, body, 0, body.length);
+            return;
+        }
+
+        rangeRequests.incrementAndGet();
+        final String[] bounds = range.substring("bytes=".length()).split("-");
+        final int start = Integer.parseInt(bounds[0]);
+        final int end = Integer.parseInt(bounds[1]);
+
+        exchange.getResponseHeaders().set("Content-Range",
+                String.format("bytes %d-%d/%d", start, end, body.length));
+        respond(exchange, 206, body, start, end - start + 1);
+    }
+
+    private static void respond(final HttpExchange exchange, final int status,
+                                final byte[] body, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body, offset, length);
+        }
+    }
+}
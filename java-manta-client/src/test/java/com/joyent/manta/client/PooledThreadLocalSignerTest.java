@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.joyent.http.signature.Signer;
+import com.joyent.http.signature.google.httpclient.RequestHttpSigner;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link PooledThreadLocalSigner}.
+ */
+@Test
+public class PooledThreadLocalSignerTest {
+    public void signsRequestsWithPooledSigners() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        final SignerPool pool = new SignerPool(() -> {
+            created.incrementAndGet();
+            return new MantaSigner(false);
+        }, 1);
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        final RequestHttpSigner httpSigner = new RequestHttpSigner(keyPair, "user", "00:00",
+                new PooledThreadLocalSigner(pool));
+
+        for (int i = 0; i < 3; i++) {
+            final HttpRequest request = new NetHttpTransport().createRequestFactory()
+                    .buildGetRequest(new GenericUrl("http://localhost/user/stor"));
+
+            CompletableFuture.runAsync(() -> httpSigner.signRequest(request)).get(5, TimeUnit.SECONDS);
+
+            Assert.assertTrue(httpSigner.verifyRequest(request));
+        }
+
+        Assert.assertEquals(created.get(), 1);
+    }
+
+    public void threadsShareOneSigner() throws Exception {
+        final PooledThreadLocalSigner threadLocal = new PooledThreadLocalSigner(
+                new SignerPool(() -> new MantaSigner(false), 1));
+
+        final Signer other = CompletableFuture.supplyAsync(threadLocal::get).get(5, TimeUnit.SECONDS);
+
+        Assert.assertSame(threadLocal.get(), other);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void signerCantBeReplaced() {
+        new PooledThreadLocalSigner(new SignerPool(() -> new MantaSigner(false), 1))
+                .set(new MantaSigner(false));
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.http.signature.Signer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link SignerPool}.
+ */
+@Test
+public class SignerPoolTest {
+    public void reusesReleasedSigners() {
+        final AtomicInteger created = new AtomicInteger();
+        final SignerPool pool = new SignerPool(() -> {
+            created.incrementAndGet();
+            return new Signer(false);
+        }, 2);
+
+        final Signer first = pool.withSigner(signer -> signer);
+        final Signer second = pool.withSigner(signer -> signer);
+
+        Assert.assertSame(second, first);
+        Assert.assertEquals(created.get(), 1);
+    }
+
+    public void discardsSignersWhenFull() {
+        final SignerPool pool = new SignerPool(() -> new Signer(false), 1);
+
+        final Signer first = pool.borrow();
+        final Signer second = pool.borrow();
+        Assert.assertNotSame(second, first);
+
+        pool.release(first);
+        pool.release(second);
+
+        Assert.assertSame(pool.borrow(), first);
+        Assert.assertNotSame(pool.borrow(), second);
+    }
+
+    public void neverSharesSignersBetweenThreads() throws Exception {
+        final int threads = 16;
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger conflicts = new AtomicInteger();
+        final Set<Signer> inUse = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final SignerPool pool = new SignerPool(() -> {
+            created.incrementAndGet();
+            return new Signer(false);
+        }, 4);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        pool.withSigner(signer -> {
+                            if (!inUse.add(signer)) {
+                                conflicts.incrementAndGet();
+                            }
+
+                            Thread.yield();
+                            inUse.remove(signer);
+                            return null;
+                        });
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(conflicts.get(), 0, "Signer was used by two threads at once");
+        Assert.assertTrue(created.get() < threads * 1000, "Signers weren't reused: " + created.get());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsEmptyPool() {
+        new SignerPool(() -> new Signer(false), 0);
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.joyent.http.signature.Signer;
+import com.joyent.http.signature.ThreadLocalSigner;
+import com.joyent.http.signature.google.httpclient.RequestHttpSigner;
+import com.joyent.manta.config.StandardConfigContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for the signature cache and presigning of {@link SigningInterceptor}.
+ */
+@Test
+public class SigningInterceptorTest {
+    private static final int THREADS = 8;
+
+    private static final int REQUESTS_PER_THREAD = 50;
+
+    private final HttpRequestFactory requestFactory = new MockHttpTransport().createRequestFactory();
+
+    public void signsEveryRequestWhenCacheIsDisabled() throws Exception {
+        final CountingSigner signer = new CountingSigner();
+        final SigningInterceptor interceptor = new SigningInterceptor(config(0), signer, signer.pool);
+
+        for (int i = 0; i < 5; i++) {
+            final HttpRequest request = request();
+            interceptor.intercept(request);
+            Assert.assertTrue(signer.verifyRequest(request));
+        }
+
+        Assert.assertEquals(signer.count.get(), 5);
+    }
+
+    public void sharesSignatureAcrossThreads() throws Exception {
+        final CountingSigner signer = new CountingSigner();
+        final SigningInterceptor interceptor = new SigningInterceptor(config(60000), signer, signer.pool);
+        final Map<String, String> signaturesByDate = new ConcurrentHashMap<>();
+        final AtomicInteger mismatches = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        final HttpRequest request = request();
+                        interceptor.intercept(request);
+
+                        final String date = request.getHeaders().getDate();
+                        final String authorization = request.getHeaders().getAuthorization();
+                        final String previous = signaturesByDate.putIfAbsent(date, authorization);
+
+                        if (previous != null && !previous.equals(authorization)) {
+                            mismatches.incrementAndGet();
+                        }
+
+                        if (!signer.verifyRequest(request)) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(mismatches.get(), 0, "Date and signature headers didn't match");
+        Assert.assertTrue(signer.count.get() < THREADS * REQUESTS_PER_THREAD,
+                "Signatures weren't shared: " + signer.count.get());
+    }
+
+    public void presignsAheadOfRequests() throws Exception {
+        final CountingSigner signer = new CountingSigner();
+        final StandardConfigContext config = config(0);
+        config.setPresignSignatures(true);
+
+        final long second = 1_478_000_000L;
+        final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toMillis(second) + 500L);
+        final ManualScheduler scheduler = new ManualScheduler();
+
+        try (SigningInterceptor interceptor = new SigningInterceptor(config, signer, signer.pool,
+                now::get, () -> scheduler)) {
+            // Signs the current second, because the next one is far enough away
+            scheduler.runNext();
+            Assert.assertEquals(scheduler.delays, Collections.singletonList(300L));
+            assertSignedFor(interceptor, signer, second);
+
+            // Shortly before the next second begins, that second is signed ahead of time
+            now.set(TimeUnit.SECONDS.toMillis(second) + 800L);
+            scheduler.runNext();
+            Assert.assertEquals(scheduler.delays, Arrays.asList(300L, 1000L));
+
+            now.set(TimeUnit.SECONDS.toMillis(second) + 900L);
+            assertSignedFor(interceptor, signer, second);
+
+            now.set(TimeUnit.SECONDS.toMillis(second + 1) + 100L);
+            assertSignedFor(interceptor, signer, second + 1);
+        }
+
+        Assert.assertEquals(signer.count.get(), 2, "Requests weren't served presigned signatures");
+        Assert.assertTrue(scheduler.isShutdown(), "Presigning wasn't stopped on close");
+    }
+
+    public void zeroPadsDayOfMonthInDateHeader() {
+        Assert.assertEquals(SigningInterceptor.DATE_FORMAT.format(Instant.parse("2016-11-05T01:02:03Z")),
+                "Sat, 05 Nov 2016 01:02:03 GMT");
+        Assert.assertEquals(SigningInterceptor.DATE_FORMAT.format(Instant.parse("2016-11-15T13:02:03Z")),
+                "Tue, 15 Nov 2016 13:02:03 GMT");
+    }
+
+    private void assertSignedFor(final SigningInterceptor interceptor, final CountingSigner signer,
+                                 final long epochSecond) throws Exception {
+        final HttpRequest request = request();
+        interceptor.intercept(request);
+
+        Assert.assertEquals(request.getHeaders().getDate(),
+                SigningInterceptor.DATE_FORMAT.format(Instant.ofEpochSecond(epochSecond)));
+        Assert.assertTrue(signer.verifyRequest(request));
+    }
+
+    private HttpRequest request() throws Exception {
+        return requestFactory.buildGetRequest(new GenericUrl("http://localhost/user/stor"));
+    }
+
+    private static StandardConfigContext config(final int cacheTTL) {
+        final StandardConfigContext config = new StandardConfigContext();
+        config.setNoAuth(false).setSignatureCacheTTL(cacheTTL);
+
+        return config;
+    }
+
+    /**
+     * Scheduler that queues tasks instead of running them, so that the test
+     * decides when each presigning run happens.
+     */
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        private final List<Long> delays = new ArrayList<>();
+
+        ManualScheduler() {
+            super(1);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+            tasks.add(command);
+            delays.add(unit.toMillis(delay));
+            return null;
+        }
+
+        void runNext() {
+            tasks.remove().run();
+        }
+    }
+
+    private static class CountingSigner extends RequestHttpSigner {
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final SignerPool pool = new SignerPool(this::newSigner, 2);
+
+        CountingSigner() throws Exception {
+            super(KeyPairGenerator.getInstance("RSA").generateKeyPair(), "user", "00:00",
+                    new ThreadLocalSigner(false));
+        }
+
+        private Signer newSigner() {
+            return new Signer(false) {
+                @Override
+                public String createAuthorizationHeader(final String login, final String fingerprint,
+                                                        final KeyPair keyPair, final String date) {
+                    count.incrementAndGet();
+                    return super.createAuthorizationHeader(login, fingerprint, keyPair, date);
+                }
+            };
+        }
+    }
+}
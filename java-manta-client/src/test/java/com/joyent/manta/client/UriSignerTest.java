@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client;
+
+import com.joyent.http.signature.ThreadLocalSigner;
+import com.joyent.http.signature.google.httpclient.RequestHttpSigner;
+import com.joyent.manta.config.StandardConfigContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for {@link UriSigner}.
+ */
+@Test
+public class UriSignerTest {
+    private static final URI URI_TO_SIGN = URI.create("https://us-east.manta.joyent.com/user/stor/object");
+
+    private static final long EXPIRES = 1478822400L;
+
+    public void rsaSignatureMatchesHttpSignatureLibrary() throws Exception {
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        final RequestHttpSigner httpSigner = new RequestHttpSigner(keyPair, "user", "00:00",
+                new ThreadLocalSigner(false));
+        final UriSigner uriSigner = new UriSigner(keyPair, "user", "00:00",
+                new SignerPool(() -> new MantaSigner(false), 1));
+
+        Assert.assertEquals(uriSigner.signURI(URI_TO_SIGN, "GET", EXPIRES),
+                httpSigner.signURI(URI_TO_SIGN, "GET", EXPIRES));
+    }
+
+    public void canSignWithEcdsaKey() throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        final KeyPair keyPair = generator.generateKeyPair();
+        final UriSigner uriSigner = new UriSigner(keyPair, "user", "00:00",
+                new SignerPool(() -> new MantaSigner(false), 1));
+
+        final URI signed = uriSigner.signURI(URI_TO_SIGN, "GET", EXPIRES);
+
+        Assert.assertTrue(signed.getQuery().startsWith("algorithm=ECDSA-SHA256&expires=1478822400&keyId="),
+                signed.toString());
+        Assert.assertTrue(signed.getQuery().contains("&signature="), signed.toString());
+    }
+
+    public void cachesSignaturesWithinExpiryBucket() throws Exception {
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        final AtomicInteger signatures = new AtomicInteger();
+        final SignerPool pool = new SignerPool(() -> new MantaSigner(false) {
+            @Override
+            public byte[] sign(final String login, final String fingerprint,
+                               final KeyPair keyPair, final byte[] data) {
+                signatures.incrementAndGet();
+                return super.sign(login, fingerprint, keyPair, data);
+            }
+        }, 1);
+        final long now = Instant.now().getEpochSecond();
+        final UriSigner uriSigner = new UriSigner(keyPair, "user", "00:00", pool, 3600L);
+
+        final URI first = uriSigner.signURI(URI_TO_SIGN, "GET", now + 3600);
+        final URI second = uriSigner.signURI(URI_TO_SIGN, "GET", now + 3601);
+        final URI head = uriSigner.signURI(URI_TO_SIGN, "HEAD", now + 3600);
+
+        final long rounded = uriSigner.roundUpToBucket(now + 3600);
+        Assert.assertEquals(rounded % 3600, 0);
+        Assert.assertTrue(first.getQuery().contains("expires=" + rounded + "&"), first.toString());
+
+        if (uriSigner.roundUpToBucket(now + 3601) == rounded) {
+            Assert.assertSame(second, first);
+            Assert.assertEquals(signatures.get(), 2);
+        }
+
+        Assert.assertNotEquals(head, first);
+        Assert.assertEquals(uriSigner.cacheSize(), signatures.get());
+    }
+
+    public void roundsExpiryUpToBucket() throws Exception {
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        final UriSigner uriSigner = new UriSigner(keyPair, "user", "00:00",
+                new SignerPool(() -> new MantaSigner(false), 1), 60L);
+
+        Assert.assertEquals(uriSigner.roundUpToBucket(120L), 120L);
+        Assert.assertEquals(uriSigner.roundUpToBucket(121L), 180L);
+        Assert.assertEquals(uriSigner.roundUpToBucket(179L), 180L);
+    }
+
+    public void batchSigningPreservesOrder() throws Exception {
+        final StandardConfigContext config = LocalMantaServer.config("https://us-east.manta.joyent.com");
+        config.setDisableNativeSignatures(true);
+
+        final MantaClient client = new MantaClient(config);
+
+        try {
+            final List<String> paths = IntStream.range(0, 200)
+                    .mapToObj(i -> "/user/stor/object-" + i)
+                    .collect(Collectors.toList());
+
+            final List<URI> signed = client.getAsSignedURIs(paths.stream(), "GET", EXPIRES);
+
+            Assert.assertEquals(signed.size(), paths.size());
+
+            for (int i = 0; i < paths.size(); i++) {
+                Assert.assertEquals(signed.get(i), client.getAsSignedURI(paths.get(i), "GET", EXPIRES));
+            }
+        } finally {
+            client.closeQuietly();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsUriWithQuery() throws Exception {
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        final UriSigner uriSigner = new UriSigner(keyPair, "user", "00:00",
+                new SignerPool(() -> new MantaSigner(false), 1));
+
+        uriSigner.signURI(URI.create(URI_TO_SIGN + "?foo=bar"), "GET", EXPIRES);
+    }
+}
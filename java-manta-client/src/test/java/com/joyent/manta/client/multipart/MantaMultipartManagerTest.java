@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client.multipart;
+
+import com.joyent.manta.client.LocalMantaServer;
+import com.joyent.manta.client.MantaClient;
+import com.joyent.manta.client.MantaUtils;
+import com.joyent.manta.config.StandardConfigContext;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the requests that {@link MantaMultipartManager} sends to a local
+ * HTTP server.
+ */
+@Test
+public class MantaMultipartManagerTest {
+    private static final String PATH = "/user/stor/object";
+
+    private static final UUID JOB_ID = new UUID(0L, 2L);
+
+    private final AtomicInteger heads = new AtomicInteger();
+
+    private final Map<String, String> partHeaders = new ConcurrentHashMap<>();
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+
+        final StandardConfigContext config = server.config();
+        config.setMetadataCacheTtl(60_000)
+              .setMetadataCacheNegativeTtl(60_000);
+        client = new MantaClient(config);
+    }
+
+    @AfterClass
+    public void teardown() {
+        client.closeQuietly();
+        server.close();
+    }
+
+    public void completeInvalidatesCachedMetadata() throws IOException {
+        final MantaMultipartManager manager = new JobOnlyManager(client);
+
+        Assert.assertFalse(client.existsAndIsAccessible(PATH));
+        Assert.assertFalse(client.existsAndIsAccessible(PATH));
+        Assert.assertEquals(heads.get(), 1);
+
+        manager.complete(new UUID(0L, 1L), Collections.<MantaMultipartUploadTuple>emptyList());
+
+        Assert.assertFalse(client.existsAndIsAccessible(PATH));
+        Assert.assertEquals(heads.get(), 2);
+    }
+
+    public void uploadsPartsWithContentLength() throws IOException {
+        final MantaMultipartManager manager = new MantaMultipartManager(client);
+        final byte[] data = new byte[1000];
+        new Random(3).nextBytes(data);
+
+        final MantaMultipartUploadPart part = manager.uploadPart(new UUID(0L, 1L), 1,
+                new ByteArrayInputStream(data), data.length);
+
+        Assert.assertEquals(part.getEtag(), "part-etag");
+        Assert.assertEquals(partHeaders.get("Content-Length"), "1000");
+        Assert.assertNull(partHeaders.get("Transfer-Encoding"));
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+
+        if (exchange.getRequestMethod().equals("PUT") && path.endsWith("/1")) {
+            for (String header : Arrays.asList("Content-Length", "Transfer-Encoding")) {
+                final String value = exchange.getRequestHeaders().getFirst(header);
+
+                if (value != null) {
+                    partHeaders.put(header, value);
+                }
+            }
+
+            try (InputStream in = exchange.getRequestBody()) {
+                MantaUtils.inputStreamToBytes(in, null);
+            }
+
+            exchange.getResponseHeaders().set("ETag", "part-etag");
+            exchange.sendResponseHeaders(204, -1);
+        } else if (exchange.getRequestMethod().equals("HEAD")) {
+            heads.incrementAndGet();
+            exchange.sendResponseHeaders(404, -1);
+        } else if (path.equals("/user/jobs")) {
+            exchange.getResponseHeaders().set("Location", "/user/jobs/" + JOB_ID);
+            exchange.sendResponseHeaders(201, -1);
+        } else if (path.endsWith("/live/in/end")) {
+            exchange.sendResponseHeaders(202, -1);
+        } else {
+            exchange.sendResponseHeaders(204, -1);
+        }
+
+        exchange.close();
+    }
+
+    /**
+     * Manager that runs the concatenation job against the local server but
+     * keeps the upload's metadata and parts in memory.
+     */
+    private static class JobOnlyManager extends MantaMultipartManager {
+        JobOnlyManager(final MantaClient mantaClient) {
+            super(mantaClient);
+        }
+
+        @Override
+        protected MultipartMetadata downloadMultipartMetadata(final UUID id) {
+            return new MultipartMetadata().setPath(PATH);
+        }
+
+        @Override
+        public Stream<MantaMultipartUploadPart> listParts(final UUID id) {
+            return Stream.empty();
+        }
+
+        @Override
+        protected void writeJobIdToMetadata(final UUID uploadId, final UUID jobId) {
+        }
+    }
+}
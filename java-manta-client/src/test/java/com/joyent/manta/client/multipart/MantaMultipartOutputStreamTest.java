@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client.multipart;
+
+import com.joyent.manta.client.LocalMantaServer;
+import com.joyent.manta.client.MantaClient;
+import com.joyent.manta.client.MantaHttpHeaders;
+import com.joyent.manta.client.MantaMetadata;
+import com.joyent.manta.client.MantaUtils;
+import com.joyent.manta.exception.MantaMultipartException;
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for uploading objects of unknown size with {@link MantaMultipartOutputStream}.
+ */
+@Test
+public class MantaMultipartOutputStreamTest {
+    private static final String PATH = "/user/stor/object";
+
+    private static final int PART_SIZE = 1024;
+
+    private static final int PARALLELISM = 3;
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    private final Map<Integer, byte[]> uploaded = new ConcurrentHashMap<>();
+
+    private final List<Iterable<? extends MantaMultipartUploadTuple>> completed = new ArrayList<>();
+
+    private final AtomicInteger initiated = new AtomicInteger();
+
+    private final AtomicInteger aborts = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    private volatile boolean failing;
+
+    private LocalMantaServer server;
+
+    private MantaClient client;
+
+    private MantaMultipartManager manager;
+
+    private MantaMultipartUpload upload;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new LocalMantaServer(this::handle);
+        client = new MantaClient(server.config());
+    }
+
+    @BeforeMethod
+    public void createManager() {
+        objects.clear();
+        uploaded.clear();
+        completed.clear();
+        initiated.set(0);
+        aborts.set(0);
+        maxActive.set(0);
+        failing = false;
+
+        upload = new MantaMultipartUpload(new UUID(0L, 2L), PATH);
+        manager = new RecordingManager(client);
+    }
+
+    @AfterClass
+    public void teardown() {
+        client.closeQuietly();
+        server.close();
+    }
+
+    public void smallObjectIsUploadedWithSinglePut() throws IOException {
+        final byte[] data = randomBytes(PART_SIZE);
+        final MantaMultipartOutputStream out = manager.putAsOutputStream(PATH, PART_SIZE, PARALLELISM);
+
+        out.write(data, 0, 100);
+        out.write(data[100]);
+        out.write(data, 101, data.length - 101);
+        out.close();
+
+        Assert.assertTrue(out.isClosed());
+        Assert.assertNull(out.getUpload());
+        Assert.assertNotNull(out.getObjectResponse());
+        Assert.assertEquals(objects.get(PATH), data);
+        Assert.assertEquals(initiated.get(), 0);
+    }
+
+    public void emptyObjectIsUploadedWithSinglePut() throws IOException {
+        final MantaMultipartOutputStream out = manager.putAsOutputStream(PATH, PART_SIZE, PARALLELISM);
+        out.close();
+        out.close();
+
+        Assert.assertEquals(objects.get(PATH).length, 0);
+        Assert.assertEquals(initiated.get(), 0);
+    }
+
+    public void largeObjectSpillsToMultipartUpload() throws IOException {
+        final byte[] data = randomBytes(10_000);
+        final Random sizes = new Random(5);
+
+        try (MantaMultipartOutputStream out = manager.putAsOutputStream(PATH, PART_SIZE, PARALLELISM)) {
+            int offset = 0;
+
+            while (offset < data.length) {
+                final int length = Math.min(data.length - offset, sizes.nextInt(3000));
+                out.write(data, offset, length);
+                offset += length;
+            }
+
+            Assert.assertSame(out.getUpload(), upload);
+            Assert.assertEquals(out.getBytesWritten(), data.length);
+        }
+
+        Assert.assertTrue(objects.isEmpty());
+        Assert.assertEquals(initiated.get(), 1);
+        Assert.assertEquals(uploaded.size(), 10);
+        Assert.assertEquals(reassemble(), data);
+        Assert.assertTrue(maxActive.get() <= PARALLELISM, "Parts in flight: " + maxActive.get());
+
+        Assert.assertEquals(completed.size(), 1);
+        int expected = 1;
+
+        for (MantaMultipartUploadTuple part : completed.get(0)) {
+            Assert.assertEquals(part.getPartNumber(), expected);
+            Assert.assertEquals(part.getEtag(), "etag-" + expected);
+            expected++;
+        }
+
+        Assert.assertEquals(expected, 11);
+    }
+
+    public void objectOfWholePartsDoesNotUploadEmptyPart() throws IOException {
+        final byte[] data = randomBytes(2 * PART_SIZE);
+
+        try (MantaMultipartOutputStream out = manager.putAsOutputStream(PATH, PART_SIZE, PARALLELISM)) {
+            out.write(data);
+        }
+
+        Assert.assertEquals(uploaded.size(), 2);
+        Assert.assertEquals(reassemble(), data);
+        Assert.assertEquals(completed.size(), 1);
+    }
+
+    public void abortsWhenPartCantBeUploaded() throws IOException {
+        failing = true;
+        final MantaMultipartOutputStream out = manager.putAsOutputStream(PATH, PART_SIZE, 1);
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                out.write(new byte[PART_SIZE]);
+            }
+
+            Assert.fail("Expected write to fail");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getCause() instanceof MantaMultipartException);
+        }
+
+        try {
+            out.close();
+            Assert.fail("Expected close to fail");
+        } catch (IOException e) {
+            Assert.assertTrue(out.isClosed());
+        }
+
+        Assert.assertEquals(aborts.get(), 1);
+        Assert.assertTrue(completed.isEmpty());
+        Assert.assertTrue(objects.isEmpty());
+    }
+
+    private byte[] reassemble() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (int i = 1; i <= uploaded.size(); i++) {
+            final byte[] part = uploaded.get(i);
+            out.write(part, 0, part.length);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(final int size) {
+        final byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            objects.put(exchange.getRequestURI().getPath(), MantaUtils.inputStreamToBytes(in, null));
+        }
+
+        exchange.getResponseHeaders().set("ETag", "etag");
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+
+
+    /**
+     * Manager that records parts and completions instead of sending them to
+     * Manta and tracks how many parts are uploaded at the same time.
+     */
+    private class RecordingManager extends MantaMultipartManager {
+        RecordingManager(final MantaClient mantaClient) {
+            super(mantaClient);
+        }
+
+        @Override
+        public MantaMultipartUpload initiateUpload(final String path, final MantaMetadata mantaMetadata,
+                                                   final MantaHttpHeaders httpHeaders) {
+            Assert.assertEquals(path, PATH);
+            initiated.incrementAndGet();
+            return upload;
+        }
+
+        @Override
+        public MantaMultipartUploadPart uploadPart(final UUID id, final int partNumber,
+                                                   final byte[] bytes) throws IOException {
+            Assert.assertEquals(id, upload.getId());
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+
+            try {
+                Thread.sleep(10);
+
+                if (failing) {
+                    throw new IOException("Simulated failure");
+                }
+
+                uploaded.put(partNumber, bytes.clone());
+                return new MantaMultipartUploadPart(partNumber, null, "etag-" + partNumber);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void complete(final MantaMultipartUpload multipartUpload,
+                             final Iterable<? extends MantaMultipartUploadTuple> parts) {
+            Assert.assertSame(multipartUpload, upload);
+            completed.add(parts);
+        }
+
+        @Override
+        public void abort(final MantaMultipartUpload multipartUpload) {
+            Assert.assertSame(multipartUpload, upload);
+            aborts.incrementAndGet();
+        }
+    }
+}
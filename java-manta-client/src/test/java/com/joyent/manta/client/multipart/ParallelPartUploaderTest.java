@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2016, Joyent, Inc. All rights reserved.
+ */
+package com.joyent.manta.client.multipart;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.joyent.manta.client.LocalMantaServer;
+import com.joyent.manta.client.MantaClient;
+import com.joyent.manta.client.MantaHttpHeaders;
+import com.joyent.manta.client.MantaMetadata;
+import com.joyent.manta.client.MantaUtils;
+import com.joyent.manta.exception.MantaClientHttpResponseException;
+import com.joyent.manta.exception.MantaMultipartException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for uploading files in concurrent parts with {@link ParallelPartUploader}.
+ */
+@Test
+public class ParallelPartUploaderTest {
+    private static final int FILE_SIZE = 10_000;
+
+    private static final String PATH = "/user/stor/object";
+
+    private final Map<Integer, byte[]> uploaded = new ConcurrentHashMap<>();
+
+    private final List<Iterable<? extends MantaMultipartUploadTuple>> completed = new ArrayList<>();
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private MantaClient client;
+
+    private final AtomicInteger aborts = new AtomicInteger();
+
+    private volatile int failures;
+
+    private MantaMultipartManager manager;
+
+    private MantaMultipartUpload upload;
+
+    private File file;
+
+    private byte[] data;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        client = new MantaClient(LocalMantaServer.config("http://localhost:1"));
+
+        data = new byte[FILE_SIZE];
+        new Random(42).nextBytes(data);
+        file = File.createTempFile("multipart", ".bin");
+        Files.write(file.toPath(), data);
+    }
+
+    @BeforeMethod
+    public void createManager() {
+        uploaded.clear();
+        completed.clear();
+        attempts.set(0);
+        aborts.set(0);
+        failures = 0;
+
+        upload = new MantaMultipartUpload(new UUID(0L, 1L), PATH);
+        manager = new RecordingManager(client);
+    }
+
+    @AfterClass
+    public void teardown() throws IOException {
+        client.closeQuietly();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    public void uploadsAllPartsAndCompletes() throws IOException {
+        Assert.assertSame(manager.uploadFile(PATH, file, 1024, 4), upload);
+
+        Assert.assertEquals(uploaded.size(), 10);
+        Assert.assertEquals(reassemble(), data);
+        Assert.assertEquals(uploaded.get(10).length, FILE_SIZE - 9 * 1024);
+
+        Assert.assertEquals(completed.size(), 1);
+        int expected = 1;
+
+        for (MantaMultipartUploadTuple part : completed.get(0)) {
+            Assert.assertEquals(part.getPartNumber(), expected);
+            Assert.assertEquals(part.getEtag(), "etag-" + expected);
+            expected++;
+        }
+
+        Assert.assertEquals(expected, 11);
+    }
+
+    public void retriesFailedParts() throws IOException {
+        failures = 2;
+
+        manager.uploadFile(PATH, file, 5000, 2);
+
+        Assert.assertEquals(reassemble(), data);
+        Assert.assertEquals(attempts.get(), 4);
+        Assert.assertEquals(completed.size(), 1);
+    }
+
+    public void abortsWhenPartCantBeUploaded() throws IOException {
+        failures = Integer.MAX_VALUE;
+
+        try {
+            manager.uploadFile(PATH, file, 5000, 2);
+            Assert.fail("Expected upload to fail");
+        } catch (MantaMultipartException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+
+        Assert.assertEquals(aborts.get(), 1);
+        Assert.assertTrue(completed.isEmpty());
+    }
+
+    public void retriesTimeoutsAndThrottling() throws IOException {
+        final AtomicInteger calls = new AtomicInteger();
+        final int[] statuses = {429, 408};
+
+        final MantaMultipartUploadPart part = ParallelPartUploader.uploadWithRetries(upload, 1, () -> {
+            final int call = calls.getAndIncrement();
+
+            if (call < statuses.length) {
+                throw httpError(statuses[call]);
+            }
+
+            return new MantaMultipartUploadPart(1, null, "etag-1");
+        }, 0L);
+
+        Assert.assertEquals(part.getEtag(), "etag-1");
+        Assert.assertEquals(calls.get(), 3);
+    }
+
+    public void doesntRetryOtherClientErrors() {
+        final AtomicInteger calls = new AtomicInteger();
+
+        try {
+            ParallelPartUploader.uploadWithRetries(upload, 1, () -> {
+                calls.incrementAndGet();
+                throw httpError(403);
+            }, 0L);
+            Assert.fail("Expected upload to fail");
+        } catch (MantaMultipartException e) {
+            Assert.assertTrue(e.getCause() instanceof MantaClientHttpResponseException);
+            Assert.assertEquals(e.getFirstContextValue("attempts"), 1);
+        } catch (IOException e) {
+            Assert.fail("Expected a MantaMultipartException", e);
+        }
+
+        Assert.assertEquals(calls.get(), 1);
+    }
+
+    public void recordsAttemptsWhenRetriesAreExhausted() {
+        try {
+            ParallelPartUploader.uploadWithRetries(upload, 1, () -> {
+                throw httpError(503);
+            }, 0L);
+            Assert.fail("Expected upload to fail");
+        } catch (MantaMultipartException e) {
+            Assert.assertEquals(e.getFirstContextValue("attempts"), ParallelPartUploader.PART_RETRIES + 1);
+        } catch (IOException e) {
+            Assert.fail("Expected a MantaMultipartException", e);
+        }
+    }
+
+    public void classifiesRetryableStatuses() {
+        Assert.assertTrue(ParallelPartUploader.isRetryable(408));
+        Assert.assertTrue(ParallelPartUploader.isRetryable(429));
+        Assert.assertTrue(ParallelPartUploader.isRetryable(500));
+        Assert.assertTrue(ParallelPartUploader.isRetryable(503));
+        Assert.assertFalse(ParallelPartUploader.isRetryable(400));
+        Assert.assertFalse(ParallelPartUploader.isRetryable(404));
+    }
+
+    public void backsOffExponentiallyWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            assertBetween(ParallelPartUploader.retryDelay(100L, 0), 50L, 100L);
+            assertBetween(ParallelPartUploader.retryDelay(100L, 2), 200L, 400L);
+            assertBetween(ParallelPartUploader.retryDelay(100L, 20), 2500L, 5000L);
+        }
+
+        Assert.assertEquals(ParallelPartUploader.retryDelay(0L, 3), 0L);
+    }
+
+    public void increasesPartSizeToStayWithinMaxParts() {
+        Assert.assertEquals(ParallelPartUploader.partSize(100, 50), 50L);
+        Assert.assertEquals(ParallelPartUploader.partSize(1001, 1), 2L);
+        Assert.assertEquals(ParallelPartUploader.partSize(10_000_000, 1), 10_000L);
+        Assert.assertEquals(ParallelPartUploader.partSize(0, 1), 1L);
+    }
+
+    public void readsOnlyTheFileRegion() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             InputStream in = new ParallelPartUploader.FileRegionInputStream(channel, 100, 50)) {
+            Assert.assertEquals(in.available(), 50);
+            Assert.assertEquals(in.read(), data[100] & 0xFF);
+            Assert.assertEquals(MantaUtils.inputStreamToBytes(in, null),
+                    Arrays.copyOfRange(data, 101, 150));
+            Assert.assertEquals(in.read(), -1);
+        }
+    }
+
+    private static void assertBetween(final long actual, final long min, final long max) {
+        Assert.assertTrue(actual >= min && actual <= max,
+                String.format("Expected %d to be between %d and %d", actual, min, max));
+    }
+
+    private static MantaClientHttpResponseException httpError(final int status) {
+        return new MantaClientHttpResponseException(
+                new HttpResponseException.Builder(status, "Simulated error", new HttpHeaders()).build());
+    }
+
+    private byte[] reassemble() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (int i = 1; i <= uploaded.size(); i++) {
+            final byte[] part = uploaded.get(i);
+            out.write(part, 0, part.length);
+        }
+
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Manager that records parts and completions instead of sending them to
+     * Manta, failing the configured number of part uploads before succeeding.
+     */
+    private class RecordingManager extends MantaMultipartManager {
+        RecordingManager(final MantaClient mantaClient) {
+            super(mantaClient);
+        }
+
+        @Override
+        public MantaMultipartUpload initiateUpload(final String path, final MantaMetadata mantaMetadata,
+                                                   final MantaHttpHeaders httpHeaders) {
+            Assert.assertEquals(path, PATH);
+            return upload;
+        }
+
+        @Override
+        public MantaMultipartUploadPart uploadPart(final UUID id, final int partNumber,
+                                                   final InputStream inputStream,
+                                                   final long contentLength) throws IOException {
+            Assert.assertEquals(id, upload.getId());
+            final byte[] bytes = MantaUtils.inputStreamToBytes(inputStream, null);
+            Assert.assertEquals(bytes.length, contentLength);
+
+            if (attempts.incrementAndGet() <= failures) {
+                throw new IOException("Simulated failure");
+            }
+
+            uploaded.put(partNumber, bytes);
+            return new MantaMultipartUploadPart(partNumber, null, "etag-" + partNumber);
+        }
+
+        @Override
+        public void complete(final MantaMultipartUpload multipartUpload,
+                             final Iterable<? extends MantaMultipartUploadTuple> parts) {
+            Assert.assertSame(multipartUpload, upload);
+            completed.add(parts);
+        }
+
+        @Override
+        public void abort(final MantaMultipartUpload multipartUpload) {
+            Assert.assertSame(multipartUpload, upload);
+            aborts.incrementAndGet();
+        }
+    }
+}